@@ -1,7 +1,7 @@
 package net.sourceforge.ondex.config;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.sourceforge.ondex.core.ONDEXGraph;
 
@@ -9,8 +9,9 @@ public class ONDEXGraphRegistry {
 
 	/**
 	 * Mapping of sid to instance of ONDEXGraph. The is the global ONDEXGraph
-	 * registry.
+	 * registry. It's thread-safe, since graphs can be created and looked up
+	 * concurrently.
 	 */
-	public static Map<Long, ONDEXGraph> graphs = new HashMap<Long, ONDEXGraph>();
+	public static Map<Long, ONDEXGraph> graphs = new ConcurrentHashMap<Long, ONDEXGraph>();
 
 }
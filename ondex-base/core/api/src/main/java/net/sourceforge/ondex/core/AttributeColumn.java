@@ -0,0 +1,47 @@
+package net.sourceforge.ondex.core;
+
+import java.util.BitSet;
+import java.util.function.DoublePredicate;
+
+/**
+ * <p>The values of a numeric attribute for all the concepts or all the relations of a graph, stored as a column of
+ * primitive values indexed by entity id, as returned by {@link ONDEXGraph#getConceptAttributeColumn(AttributeName)}
+ * and {@link ONDEXGraph#getRelationAttributeColumn(AttributeName)}.</p>
+ *
+ * <p>This allows for processing the values of an attribute without going through the entities and their
+ * {@link Attribute} objects, eg, a filter can select the entities having a value in a range with one
+ * {@link #scan(DoublePredicate) scan}.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public interface AttributeColumn
+{
+	public AttributeName getAttributeName ();
+
+	/**
+	 * {@link ONDEXConcept} or {@link ONDEXRelation}.
+	 */
+	public Class<? extends ONDEXEntity> getEntityType ();
+
+	/**
+	 * The no. of entities having a value.
+	 */
+	public int size ();
+
+	public boolean contains ( int entityId );
+
+	/**
+	 * The value for the entity, converted to double (which is exact for all the integer types but long).
+	 *
+	 * @throws IllegalArgumentException if the entity has no value.
+	 */
+	public double getDouble ( int entityId );
+
+	/**
+	 * The ids of the entities that have a value matching the predicate (the values are converted as in
+	 * {@link #getDouble(int)}).
+	 */
+	public BitSet scan ( DoublePredicate predicate );
+}
@@ -0,0 +1,35 @@
+package net.sourceforge.ondex.core;
+
+/**
+ * <p>A bulk-loading session, as returned by {@link ONDEXGraph#beginBulkLoad()}.</p>
+ *
+ * <p>While the session is open, the graph might defer the build of its secondary indexes (eg,
+ * concept class =&gt; concepts) and build them in one pass when the session is closed. Closing a session more than
+ * once has no effect.</p>
+ *
+ * <p>This is meant to be closed in a finally block (a try-with-resources block works too, but javac -Xlint warns
+ * about a resource that is never referenced):</p>
+ *
+ * <pre>
+ *   BulkLoadSession bulk = graph.beginBulkLoad ();
+ *   try {
+ *     // create lots of concepts and relations
+ *   }
+ *   finally {
+ *     bulk.close ();
+ *   }
+ * </pre>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public interface BulkLoadSession extends AutoCloseable
+{
+	/**
+	 * Ends the session, building what was deferred. Unlike {@link AutoCloseable}, this doesn't throw checked
+	 * exceptions.
+	 */
+	@Override
+	public void close ();
+}
@@ -100,7 +100,60 @@ public interface ONDEXGraph extends ONDEXAssociable {
 	{
 		return false;
 	}
-	
+
+	/**
+	 * <p>Starts a bulk-loading session, which is meant for loaders that create many entities in a row, like the OXL
+	 * parser. The graph can defer the build of its secondary indexes (eg, data source =&gt; concepts,
+	 * concept =&gt; relations) until the session is closed and then build them in one pass, which is faster than
+	 * updating them at every new entity.</p>
+	 *
+	 * <p>The graph must still be fully usable during the session (eg, if a getter like
+	 * {@link #getConceptsOfConceptClass(ConceptClass)} is called, the indexes must be brought up to date before
+	 * answering), so using this is only a matter of performance. Sessions can be nested, only the outermost one
+	 * has effect.</p>
+	 *
+	 * <p>The default returns a session that does nothing.</p>
+	 */
+	public default BulkLoadSession beginBulkLoad ()
+	{
+		return () -> {};
+	}
+
+	/**
+	 * True if a {@link #beginBulkLoad() bulk-loading session} is open. The default returns false.
+	 */
+	public default boolean isBulkLoading ()
+	{
+		return false;
+	}
+
+	/**
+	 * True if multiple threads can create and change entities in this graph at the same time. Components like
+	 * the graph cloners use this to decide if they can write in parallel. The default returns false.
+	 */
+	public default boolean isConcurrentWriteSafe ()
+	{
+		return false;
+	}
+
+	/**
+	 * The column where the graph keeps the values of a numeric attribute for all the concepts, if it stores that
+	 * attribute in columnar form. Returns null otherwise, in which case the values must be read via the concepts,
+	 * eg, via {@link #getConceptsOfAttributeName(AttributeName)}. The default returns null.
+	 */
+	public default AttributeColumn getConceptAttributeColumn ( AttributeName attributeName )
+	{
+		return null;
+	}
+
+	/**
+	 * Like {@link #getConceptAttributeColumn(AttributeName)}, for the relations.
+	 */
+	public default AttributeColumn getRelationAttributeColumn ( AttributeName attributeName )
+	{
+		return null;
+	}
+
 	
 	/**
 	 * Creates a new ONDEXRelation with the given fromConcept, toConcept, ofType
@@ -318,6 +371,23 @@ public interface ONDEXGraph extends ONDEXAssociable {
 			ONDEXConcept toConcept, RelationType ofType)
 			throws NullValueException;
 
+	/**
+	 * Like {@link #getRelation(ONDEXConcept, ONDEXConcept, RelationType)}, but takes the concept ids, which is
+	 * convenient for components that work with ids, eg, mappings checking for existing relations. The default
+	 * fetches the concepts first, implementations can do better by looking up their relation key index directly.
+	 * 
+	 * @return the relation, or null if it doesn't exist, including when the concepts don't exist.
+	 * @throws NullValueException if ofType is null.
+	 */
+	public default ONDEXRelation getRelation ( int fromId, int toId, RelationType ofType )
+		throws NullValueException
+	{
+		ONDEXConcept from = getConcept ( fromId );
+		ONDEXConcept to = getConcept ( toId );
+		if ( from == null || to == null ) return null;
+		return getRelation ( from, to, ofType );
+	}
+
 	/**
 	 * Returns all Relations contained in this graph.
 	 * 
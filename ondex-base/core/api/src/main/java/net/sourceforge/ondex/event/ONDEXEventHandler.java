@@ -1,101 +1,382 @@
 package net.sourceforge.ondex.event;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
-import javax.swing.event.EventListenerList;
+import org.apache.log4j.Logger;
 
+import net.sourceforge.ondex.event.type.CoalescedEvents;
 import net.sourceforge.ondex.event.type.EventType;
 
 /**
  * Stores the EventHandler instances for each graph, accessible through
  * the static method getEventHandlerForSID(long sid)
- * 
+ *
  * The returned instance provides methods for adding, removing and getting
  * all listeners as well as firing events to them.
- * 
- * 
+ *
+ * <p>Events are dispatched to the listeners that are {@link ONDEXListener#isListening(Class) interested} in their
+ * type. When nobody is interested, firing an event costs a map lookup, and
+ * {@link #fireEventOccurred(Class, Supplier)} can be used to avoid creating the event at all.</p>
+ *
+ * <p>By default, events are dispatched synchronously, in the thread that fires them. With
+ * {@link #setAsyncDispatch(boolean) asynchronous dispatch}, they're put in a bounded queue and delivered by a
+ * dedicated thread, in batches, so that slow listeners (eg, loggers) don't stall the code firing many events
+ * (eg, parsers). When a batch has more than {@link #getCoalesceThreshold()} events of the same type, the
+ * exceeding ones are replaced by a single {@link CoalescedEvents}. If the queue is full, the firing thread waits
+ * for free space, so no event is lost.</p>
+ *
  * @author Jochen Weile, M.Sc.
  *
  */
 public class ONDEXEventHandler {
-	
+
 	//####STATIC FIELDS####
+	/**
+	 * Set this system property to true to have {@link #setAsyncDispatch(boolean) asynchronous dispatch} in all
+	 * the new handlers.
+	 */
+	public static final String ASYNC_PROP = "ondex.events.async";
+
+	/**
+	 * The default for {@link #setCoalesceThreshold(int)}.
+	 */
+	public static final String COALESCE_THRESHOLD_PROP = "ondex.events.coalesceThreshold";
+
+	/**
+	 * The max no. of events waiting for asynchronous dispatch.
+	 */
+	public static final int QUEUE_CAPACITY = 1 << 16;
+
+	/**
+	 * The max no. of events the dispatching thread takes from the queue at once.
+	 */
+	private static final int BATCH_SIZE = 1024;
+
+	private static final ONDEXListener[] NO_LISTENERS = new ONDEXListener[0];
+
+	private static final Logger log = Logger.getLogger(ONDEXEventHandler.class);
+
 	/**
 	 * static map storing the event handler instances for all graphs.
 	 */
-	private static HashMap<Long,ONDEXEventHandler> instances = new HashMap<Long,ONDEXEventHandler>();
-	
+	private static Map<Long,ONDEXEventHandler> instances = new ConcurrentHashMap<Long,ONDEXEventHandler>();
+
 	//#####FIELDS#####
 	/**
-	 * List for EventListeners.
+	 * The current listeners, replaced at every change, so that the firing methods don't need any lock.
 	 */
-	private EventListenerList eventListenerList = new EventListenerList();
-	
+	private volatile Listeners listeners = new Listeners(NO_LISTENERS);
+
+	/**
+	 * Not null when the dispatch is asynchronous.
+	 */
+	private volatile AsyncDispatcher dispatcher = null;
+
+	private volatile int coalesceThreshold = Integer.getInteger(COALESCE_THRESHOLD_PROP, 100);
+
+	/**
+	 * An immutable listener array, plus a cache of the listeners interested in each event type.
+	 */
+	private static class Listeners {
+		final ONDEXListener[] all;
+		final Map<Class<?>, ONDEXListener[]> byType = new ConcurrentHashMap<>();
+
+		Listeners(ONDEXListener[] all) {
+			this.all = all;
+		}
+
+		ONDEXListener[] forType(Class<? extends EventType> type) {
+			if (all.length == 0) return NO_LISTENERS;
+			ONDEXListener[] result = byType.get(type);
+			if (result != null) return result;
+			result = Arrays.stream(all).filter(l -> l.isListening(type)).toArray(ONDEXListener[]::new);
+			byType.put(type, result);
+			return result;
+		}
+	}
+
 
 	//####CONSTRUCTOR####
-	
+
 	/**
 	 * private constructor. only to be called by getEventHandlerForSID()
 	 */
 	protected ONDEXEventHandler() {
-		
+		if (Boolean.getBoolean(ASYNC_PROP)) setAsyncDispatch(true);
 	}
-	
-	
+
+
 	//#####METHODS####
 	/**
 	 * Notify all listeners that have registered with this class.
-	 * 
+	 *
 	 * @param e  the EventType to fire
 	 */
 	public void fireEventOccurred(EventType e) {
-		// new ondex graph event
-		ONDEXEvent oe = new ONDEXEvent(this, e);
-		// notify all listeners
-		for (ONDEXListener l : eventListenerList.getListeners(ONDEXListener.class)) {
-			l.eventOccurred(oe);
-		}
+		ONDEXListener[] ls = listeners.forType(e.getClass());
+		if (ls.length == 0) return;
+
+		AsyncDispatcher d = dispatcher;
+		if (d != null) d.enqueue(e);
+		else deliver(ls, e);
+	}
+
+	/**
+	 * Like {@link #fireEventOccurred(EventType)}, but the event is created only if some listener is interested
+	 * in its type. Use this when building the event is expensive, eg, it has a computed message.
+	 *
+	 * @param type  the class of the event that the supplier creates
+	 * @param eventSupplier  creates the event to fire
+	 */
+	public <E extends EventType> void fireEventOccurred(Class<E> type, Supplier<? extends E> eventSupplier) {
+		if (!isListened(type)) return;
+		fireEventOccurred(eventSupplier.get());
+	}
+
+	/**
+	 * @return true if some listener is interested in events of this type.
+	 */
+	public boolean isListened(Class<? extends EventType> type) {
+		return listeners.forType(type).length > 0;
 	}
-	
+
 	/**
 	 * Adds a ONDEX graph listener to the list.
-	 * 
+	 *
 	 * @param l
 	 *            ONDEXONDEXListener to add
 	 */
-	public void addONDEXONDEXListener(ONDEXListener l) {
-		eventListenerList.add(ONDEXListener.class, l);
+	public synchronized void addONDEXONDEXListener(ONDEXListener l) {
+		if (l == null) return;
+		// The most recent first, as it used to be with EventListenerList
+		ONDEXListener[] all = listeners.all;
+		ONDEXListener[] result = new ONDEXListener[all.length + 1];
+		result[0] = l;
+		System.arraycopy(all, 0, result, 1, all.length);
+		listeners = new Listeners(result);
 	}
 
 	/**
 	 * Removes a ONDEX graph listener listener from the list.
-	 * 
+	 *
 	 * @param l
 	 *            ONDEXONDEXListener
 	 */
-	public void removeONDEXONDEXListener(ONDEXListener l) {
-		eventListenerList.remove(ONDEXListener.class, l);
+	public synchronized void removeONDEXONDEXListener(ONDEXListener l) {
+		ONDEXListener[] all = listeners.all;
+		int idx = Arrays.asList(all).indexOf(l);
+		if (idx == -1 || l == null) return;
+		ONDEXListener[] result = new ONDEXListener[all.length - 1];
+		System.arraycopy(all, 0, result, 0, idx);
+		System.arraycopy(all, idx + 1, result, idx, all.length - idx - 1);
+		listeners = new Listeners(result);
 	}
 
 	/**
 	 * Returns the list of ONDEX graph listener listeners.
-	 * 
+	 *
 	 * @return list of ONDEXONDEXListeners
 	 */
 	public ONDEXListener[] getONDEXONDEXListeners() {
-		return eventListenerList.getListeners(ONDEXListener.class);
+		return listeners.all.clone();
+	}
+
+	/**
+	 * Switches between synchronous and asynchronous dispatch, see the class comment. When switching back to
+	 * synchronous dispatch, the queued events are delivered first. This should be called while no event is
+	 * being fired.
+	 */
+	public synchronized void setAsyncDispatch(boolean isAsync) {
+		if (isAsync == (dispatcher != null)) return;
+		if (isAsync) {
+			dispatcher = new AsyncDispatcher();
+			return;
+		}
+		AsyncDispatcher d = dispatcher;
+		dispatcher = null;
+		d.stop();
+	}
+
+	public boolean isAsyncDispatch() {
+		return dispatcher != null;
+	}
+
+	/**
+	 * Delivers the pending events, stops the {@link #setAsyncDispatch(boolean) asynchronous dispatch} thread, if
+	 * any, and removes all the listeners. This should be called while no event is being fired.
+	 */
+	public synchronized void close() {
+		setAsyncDispatch(false);
+		listeners = new Listeners(NO_LISTENERS);
+	}
+
+	/**
+	 * With {@link #setAsyncDispatch(boolean) asynchronous dispatch}, waits until all the events fired so far have
+	 * been delivered. Does nothing otherwise.
+	 */
+	public void flush() {
+		AsyncDispatcher d = dispatcher;
+		if (d != null) d.flush();
+	}
+
+	/**
+	 * @see #setCoalesceThreshold(int)
+	 */
+	public int getCoalesceThreshold() {
+		return coalesceThreshold;
+	}
+
+	/**
+	 * The max no. of events of the same type that the asynchronous dispatch delivers from a single batch, the
+	 * exceeding ones are {@link CoalescedEvents coalesced}. A value &lt;= 0 disables coalescing. The default is
+	 * 100, or the value of {@link #COALESCE_THRESHOLD_PROP}.
+	 */
+	public void setCoalesceThreshold(int coalesceThreshold) {
+		this.coalesceThreshold = coalesceThreshold;
+	}
+
+	private void deliver(ONDEXListener[] ls, EventType e) {
+		ONDEXEvent oe = new ONDEXEvent(this, e);
+		for (ONDEXListener l : ls) {
+			l.eventOccurred(oe);
+		}
 	}
-	
+
+
+	/**
+	 * The asynchronous dispatch. The queue is bounded via a separate counter, so that neither the firing nor the
+	 * dispatching threads need locks.
+	 */
+	private class AsyncDispatcher implements Runnable {
+		private final Queue<EventType> queue = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger queueSize = new AtomicInteger();
+		private final AtomicLong enqueued = new AtomicLong(), delivered = new AtomicLong();
+		private final Thread thread;
+		private volatile boolean isRunning = true;
+		private volatile boolean isIdle = false;
+
+		AsyncDispatcher() {
+			thread = new Thread(this, "ONDEX event dispatcher " + Integer.toHexString(System.identityHashCode(ONDEXEventHandler.this)));
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		void enqueue(EventType e) {
+			// Wait for free space, if needed
+			for (int n;;) {
+				n = queueSize.get();
+				if (n < QUEUE_CAPACITY && queueSize.compareAndSet(n, n + 1)) break;
+				if (n >= QUEUE_CAPACITY) {
+					LockSupport.unpark(thread);
+					LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+				}
+			}
+			queue.offer(e);
+			enqueued.incrementAndGet();
+			if (isIdle) LockSupport.unpark(thread);
+		}
+
+		void flush() {
+			if (Thread.currentThread() == thread) return;
+			long target = enqueued.get();
+			while (delivered.get() < target && thread.isAlive()) {
+				LockSupport.unpark(thread);
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+			}
+		}
+
+		void stop() {
+			isRunning = false;
+			LockSupport.unpark(thread);
+			try {
+				thread.join();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			// Whatever arrived late
+			List<EventType> batch = new ArrayList<>();
+			for (EventType e; (e = queue.poll()) != null;) batch.add(e);
+			dispatchBatch(batch);
+		}
+
+		@Override
+		public void run() {
+			List<EventType> batch = new ArrayList<>(BATCH_SIZE);
+			while (isRunning || !queue.isEmpty()) {
+				for (EventType e; batch.size() < BATCH_SIZE && (e = queue.poll()) != null;) batch.add(e);
+				if (batch.isEmpty()) {
+					isIdle = true;
+					if (queue.isEmpty() && isRunning) LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+					isIdle = false;
+					continue;
+				}
+				queueSize.addAndGet(-batch.size());
+				dispatchBatch(batch);
+				batch.clear();
+			}
+		}
+
+		private void dispatchBatch(List<EventType> batch) {
+			int threshold = coalesceThreshold;
+			Map<Class<? extends EventType>, int[]> counts = threshold > 0 ? new HashMap<>() : null;
+			Map<Class<? extends EventType>, EventType> lastSkipped = null;
+
+			for (EventType e : batch) {
+				try {
+					if (counts != null && ++counts.computeIfAbsent(e.getClass(), c -> new int[1])[0] > threshold) {
+						if (lastSkipped == null) lastSkipped = new HashMap<>();
+						lastSkipped.put(e.getClass(), e);
+						continue;
+					}
+					deliver(listeners.forType(e.getClass()), e);
+				}
+				catch (RuntimeException ex) {
+					log.error("Error while dispatching the ONDEX event " + e.getCompleteMessage() + ": " + ex.getMessage(), ex);
+				}
+			}
+
+			if (lastSkipped != null) for (Map.Entry<Class<? extends EventType>, EventType> skipped : lastSkipped.entrySet()) {
+				Class<? extends EventType> type = skipped.getKey();
+				EventType summary = new CoalescedEvents(type, counts.get(type)[0] - threshold, skipped.getValue().getLog4jLevel());
+				try {
+					deliver(listeners.forType(type), summary);
+				}
+				catch (RuntimeException ex) {
+					log.error("Error while dispatching the ONDEX event " + summary.getCompleteMessage() + ": " + ex.getMessage(), ex);
+				}
+			}
+			delivered.addAndGet(batch.size());
+		}
+	}
+
 	//####STATIC METHODS####
 	/**
 	 * @return the event handler instance for all graph with the given SID.
 	 */
 	public static ONDEXEventHandler getEventHandlerForSID(long sid) {
-		ONDEXEventHandler h = instances.get(sid);
-		if (h == null) {
-			h = new ONDEXEventHandler();
-			instances.put(sid,h);
-		}
-		return h;
+		return instances.computeIfAbsent(sid, _sid -> new ONDEXEventHandler());
+	}
+
+	/**
+	 * {@link #close() Closes} the event handler of a graph and removes it from the handler instances, so that
+	 * it can be garbage-collected. Call this when the graph isn't used anymore. After this,
+	 * {@link #getEventHandlerForSID(long)} returns a new handler for the same SID.
+	 */
+	public static void releaseEventHandlerForSID(long sid) {
+		ONDEXEventHandler handler = instances.remove(sid);
+		if (handler != null) handler.close();
 	}
 }
@@ -2,6 +2,8 @@ package net.sourceforge.ondex.event;
 
 import java.util.EventListener;
 
+import net.sourceforge.ondex.event.type.EventType;
+
 /**
  * Interface defining a ONDEXListener.
  * 
@@ -18,4 +20,16 @@ public interface ONDEXListener extends EventListener {
 	 */
 	public abstract void eventOccurred(ONDEXEvent e);
 
+	/**
+	 * Tells {@link ONDEXEventHandler} if this listener wants events of a given type. Events that no listener wants 
+	 * aren't dispatched, and often they aren't even created. The default accepts everything. The result must not 
+	 * change after the listener is registered.
+	 * 
+	 * @param eventType
+	 *            the event class
+	 */
+	public default boolean isListening(Class<? extends EventType> eventType) {
+		return true;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package net.sourceforge.ondex.event.type;
+
+/**
+ * Replaces a run of events of the same type, when the asynchronous dispatch of
+ * {@link net.sourceforge.ondex.event.ONDEXEventHandler} receives too many of them at once.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class CoalescedEvents extends EventType
+{
+	private final Class<? extends EventType> coalescedType;
+	private final long count;
+
+	public CoalescedEvents ( Class<? extends EventType> coalescedType, long count, Level level )
+	{
+		super (
+			"Some events were coalesced.",
+			count + " more events of type " + coalescedType.getSimpleName () + " were omitted",
+			"[ONDEXEventHandler - dispatch]",
+			level
+		);
+		this.coalescedType = coalescedType;
+		this.count = count;
+	}
+
+	/**
+	 * The type of the events that were omitted.
+	 */
+	public Class<? extends EventType> getCoalescedType ()
+	{
+		return coalescedType;
+	}
+
+	/**
+	 * The no. of events that were omitted.
+	 */
+	public long getCount ()
+	{
+		return count;
+	}
+}
@@ -1,5 +1,7 @@
 package net.sourceforge.ondex.logging;
 
+import java.util.Set;
+
 import javax.swing.event.EventListenerList;
 
 import org.apache.log4j.Logger;
@@ -22,6 +24,33 @@ public class ONDEXLogger implements ONDEXListener {
 	 * List for EventListeners.
 	 */
 	private EventListenerList eventListenerList = new EventListenerList();
+
+	/**
+	 * See {@link #isListening(Class)}.
+	 */
+	private final Set<Class<? extends EventType>> ignoredEventTypes;
+
+	public ONDEXLogger() {
+		this(Set.of());
+	}
+
+	/**
+	 * A logger that doesn't want the events of the given types, or their subtypes. Use this for the event types
+	 * that would be logged at a disabled level anyway, so that they aren't even created.
+	 */
+	public ONDEXLogger(Set<Class<? extends EventType>> ignoredEventTypes) {
+		this.ignoredEventTypes = Set.copyOf(ignoredEventTypes);
+	}
+
+	/**
+	 * False for the event types that this logger was told to ignore.
+	 */
+	@Override
+	public boolean isListening(Class<? extends EventType> eventType) {
+		for (Class<? extends EventType> ignoredType : ignoredEventTypes)
+			if (ignoredType.isAssignableFrom(eventType)) return false;
+		return true;
+	}
 	
 	/**
 	 * Captures all events and writes them to Log4j.
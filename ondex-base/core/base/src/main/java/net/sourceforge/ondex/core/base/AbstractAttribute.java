@@ -15,6 +15,8 @@ import net.sourceforge.ondex.config.Config;
 import net.sourceforge.ondex.config.ONDEXGraphRegistry;
 import net.sourceforge.ondex.core.Attribute;
 import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
 import net.sourceforge.ondex.exception.type.AccessDeniedException;
 import net.sourceforge.ondex.exception.type.NullValueException;
 import net.sourceforge.ondex.exception.type.StorageException;
@@ -152,6 +154,10 @@ public abstract class AbstractAttribute extends AbstractONDEXEntity
 			throw new WrongParameterException(
 					Config.properties.getProperty("GDS.ObjectTypeMismatch"));
 
+		// the first call is from the constructor, the others are changes
+		if (this.value != null || compressed != null)
+			logChange();
+
 		if ( ! ( value instanceof String ) ) {
 			this.value = value;
 			return;
@@ -264,9 +270,25 @@ public abstract class AbstractAttribute extends AbstractONDEXEntity
 
 	@Override
 	public void setDoIndex(boolean doIndex) throws AccessDeniedException {
+		if (this.doIndex != doIndex)
+			logChange();
 		this.doIndex = doIndex;
 	}
 
+	/**
+	 * Reports a change of this attribute as a change of its owner to the 
+	 * {@link #getChangeLog() change log}, if any.
+	 */
+	protected void logChange() {
+		GraphChangeLog log = getChangeLog();
+		if (log == null)
+			return;
+		if (AbstractConcept.class.isAssignableFrom(getOwnerClass()))
+			log.conceptModified(ownerID, Aspect.ATTRIBUTES);
+		else
+			log.relationModified(ownerID, Aspect.ATTRIBUTES);
+	}
+
 	@Override
 	public boolean equals(Object o) 
 	{
@@ -14,6 +14,8 @@ import net.sourceforge.ondex.core.DataSource;
 import net.sourceforge.ondex.core.EvidenceType;
 import net.sourceforge.ondex.core.ONDEXConcept;
 import net.sourceforge.ondex.core.util.BitSetFunctions;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
 import net.sourceforge.ondex.exception.type.EmptyStringException;
 import net.sourceforge.ondex.exception.type.NullValueException;
 
@@ -113,6 +115,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 							.getProperty("AbstractConcept.EvidenceTypeNull"));
 
 		saveEvidenceType(evidenceType);
+		logChange(Aspect.EVIDENCE);
 	}
 
 	/**
@@ -131,6 +134,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 							.getProperty("AbstractConcept.ONDEXConceptNull"));
 
 		saveTag(concept);
+		logChange(Aspect.TAGS);
 	}
 
 	/**
@@ -155,8 +159,12 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 					Config.properties
 							.getProperty("AbstractConcept.ConceptAttributeValueNull"));
 
-		return storeConceptAttribute(new ConceptAttribute(sid, id,
-				attributeName, value, doIndex));
+		ConceptAttribute attribute = new ConceptAttribute(sid, id,
+				attributeName, poolValue(value), doIndex);
+		attribute.setParentGraph(getParentGraph());
+		Attribute result = storeConceptAttribute(attribute);
+		logChange(Aspect.ATTRIBUTES);
+		return result;
 	}
 
 	/**
@@ -187,8 +195,12 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 					Config.properties
 							.getProperty("AbstractConcept.ConceptAccessionElementOfNull"));
 
-		return storeConceptAccession(new ConceptAccessionImpl(sid, id,
-				accession, elementOf, ambiguous));
+		ConceptAccessionImpl conceptAccession = new ConceptAccessionImpl(sid, id,
+				poolValue(accession), elementOf, ambiguous);
+		conceptAccession.setParentGraph(getParentGraph());
+		ConceptAccession result = storeConceptAccession(conceptAccession);
+		logChange(Aspect.ACCESSIONS);
+		return result;
 	}
 
 	/**
@@ -214,7 +226,12 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 					Config.properties
 							.getProperty("AbstractConcept.ConceptNameNameEmpty"));
 
-		return storeConceptName(new ConceptNameImpl(sid, id, name, isPreferred));
+		ConceptNameImpl conceptName = new ConceptNameImpl(sid, id, poolValue(name),
+				isPreferred);
+		conceptName.setParentGraph(getParentGraph());
+		ConceptName result = storeConceptName(conceptName);
+		logChange(Aspect.NAMES);
+		return result;
 	}
 
 	/**
@@ -232,7 +249,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 					Config.properties
 							.getProperty("AbstractConcept.ConceptAttributeAttributeNameNull"));
 
-		return removeConceptAttribute(attributeName);
+		return logChange(removeConceptAttribute(attributeName), Aspect.ATTRIBUTES);
 	}
 
 	/**
@@ -263,7 +280,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 					Config.properties
 							.getProperty("AbstractConcept.ConceptAccessionElementOfNull"));
 
-		return removeConceptAccession(accession, elementOf);
+		return logChange(removeConceptAccession(accession, elementOf), Aspect.ACCESSIONS);
 	}
 
 	/**
@@ -287,7 +304,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 					Config.properties
 							.getProperty("AbstractConcept.ConceptNameNameEmpty"));
 
-		return removeConceptName(name);
+		return logChange(removeConceptName(name), Aspect.NAMES);
 	}
 
 	@Override
@@ -523,7 +540,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 					Config.properties
 							.getProperty("AbstractConcept.EvidenceTypeNull"));
 
-		return dropEvidenceType(evidenceType);
+		return logChange(dropEvidenceType(evidenceType), Aspect.EVIDENCE);
 	}
 
 	/**
@@ -541,7 +558,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 					Config.properties
 							.getProperty("AbstractConcept.ONDEXConceptNull"));
 
-		return dropTag(concept);
+		return logChange(dropTag(concept), Aspect.TAGS);
 	}
 
 	/**
@@ -563,6 +580,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 			throw new UnsupportedOperationException();
 
 		this.annotation = annotation;
+		logChange(Aspect.PROPERTIES);
 	}
 
 	/**
@@ -584,6 +602,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 			throw new UnsupportedOperationException();
 
 		this.description = description;
+		logChange(Aspect.PROPERTIES);
 	}
 
 	/**
@@ -604,6 +623,7 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 			throw new UnsupportedOperationException();
 
 		this.pid = pid;
+		logChange(Aspect.PROPERTIES);
 	}
 
 	@Override
@@ -611,6 +631,24 @@ public abstract class AbstractConcept extends AbstractONDEXEntity
 		return this.pid;
 	}
 
+	/**
+	 * Reports a change of this concept to the {@link #getChangeLog() change log}, if any.
+	 */
+	protected void logChange(Aspect aspect) {
+		GraphChangeLog log = getChangeLog();
+		if (log != null)
+			log.conceptModified(id, aspect);
+	}
+
+	/**
+	 * Reports the change if isChanged is true, returns isChanged.
+	 */
+	private boolean logChange(boolean isChanged, Aspect aspect) {
+		if (isChanged)
+			logChange(aspect);
+		return isChanged;
+	}
+
 	/**
 	 * Drops a given EvidenceType out of the list of EvidenceTypes.
 	 * 
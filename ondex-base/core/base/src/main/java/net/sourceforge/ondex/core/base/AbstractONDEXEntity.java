@@ -2,6 +2,11 @@ package net.sourceforge.ondex.core.base;
 
 import java.io.Serializable;
 
+import net.sourceforge.ondex.config.ONDEXGraphRegistry;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.StringPool;
+
 /**
  * Common functionality for security management.
  * 
@@ -12,6 +17,11 @@ public abstract class AbstractONDEXEntity
 
 	protected long sid = -1;
 
+	/**
+	 * See {@link #getParentGraph()}. It isn't serialised, it's looked up again when needed.
+	 */
+	private transient volatile AbstractONDEXGraph parentGraph;
+
 	/**
 	 * Returns the unique id associated with the parent AbstractONDEXGraph, or, for the case of 
 	 * a {@link AbstractONDEXGraph graph} itself, returns a unique ID for the graph. 
@@ -22,4 +32,51 @@ public abstract class AbstractONDEXEntity
 		return sid;
 	}
 
+	/**
+	 * Returns the shared instance of a string, if the parent graph has a {@link AbstractONDEXGraph#getStringPool()
+	 * string pool}, else returns the parameter as-is. Non-string values are always returned as they are.
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> T poolValue(T value) {
+		if (!(value instanceof String))
+			return value;
+		AbstractONDEXGraph graph = getParentGraph();
+		if (graph == null)
+			return value;
+		StringPool pool = graph.getStringPool();
+		return pool == null ? value : (T) pool.canonical((String) value);
+	}
+
+	/**
+	 * The parent graph, or null if it isn't an {@link AbstractONDEXGraph}. This is cached, so that the entity
+	 * writes don't look up the {@link ONDEXGraphRegistry} every time. The graph implementations and the entities
+	 * that create other entities set it via {@link #setParentGraph(AbstractONDEXGraph)}, else it's looked up in
+	 * the registry the first time.
+	 */
+	protected AbstractONDEXGraph getParentGraph() {
+		AbstractONDEXGraph result = parentGraph;
+		if (result != null)
+			return result;
+		ONDEXGraph graph = ONDEXGraphRegistry.graphs.get(sid);
+		if (!(graph instanceof AbstractONDEXGraph))
+			return null;
+		return parentGraph = (AbstractONDEXGraph) graph;
+	}
+
+	/**
+	 * See {@link #getParentGraph()}.
+	 */
+	protected void setParentGraph(AbstractONDEXGraph graph) {
+		this.parentGraph = graph;
+	}
+
+	/**
+	 * The {@link AbstractONDEXGraph#startChangeLog() change log} of the parent graph, or null if it isn't
+	 * recording changes. This is used by the entities to report their changes.
+	 */
+	protected GraphChangeLog getChangeLog() {
+		AbstractONDEXGraph graph = getParentGraph();
+		return graph == null ? null : graph.getChangeLog();
+	}
+
 }
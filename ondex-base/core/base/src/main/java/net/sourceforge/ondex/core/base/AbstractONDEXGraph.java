@@ -1,12 +1,17 @@
 package net.sourceforge.ondex.core.base;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 
 import net.sourceforge.ondex.config.Config;
 import net.sourceforge.ondex.config.ONDEXGraphRegistry;
+import net.sourceforge.ondex.core.Attribute;
 import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptAccession;
 import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.ConceptName;
 import net.sourceforge.ondex.core.DataSource;
 import net.sourceforge.ondex.core.EntityFactory;
 import net.sourceforge.ondex.core.EvidenceType;
@@ -16,6 +21,11 @@ import net.sourceforge.ondex.core.ONDEXGraphMetaData;
 import net.sourceforge.ondex.core.ONDEXRelation;
 import net.sourceforge.ondex.core.RelationType;
 import net.sourceforge.ondex.core.util.BitSetFunctions;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
+import net.sourceforge.ondex.core.util.GraphFootprint;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+import net.sourceforge.ondex.core.util.StringPool;
 import net.sourceforge.ondex.exception.type.AccessDeniedException;
 import net.sourceforge.ondex.exception.type.NullValueException;
 
@@ -54,6 +64,26 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 	protected boolean readOnly = false;
 
 	private boolean isLoadingMode = false;
+
+	/**
+	 * Set this system property to true to have all the new graphs {@link #setStringPool(StringPool) using a string pool}.
+	 */
+	public static final String STRING_POOL_PROP = "ondex.graph.stringPool";
+
+	/**
+	 * Optional, see {@link #setStringPool(StringPool)}.
+	 */
+	private transient StringPool stringPool = Boolean.getBoolean ( STRING_POOL_PROP ) ? new StringPool () : null;
+
+	/**
+	 * Set this system property to true to have all the new graphs {@link #startChangeLog() logging their changes}.
+	 */
+	public static final String CHANGE_LOG_PROP = "ondex.graph.changeLog";
+
+	/**
+	 * Optional, see {@link #startChangeLog()}.
+	 */
+	private transient volatile GraphChangeLog changeLog = null;
 	
 	/**
 	 * Stores the latest assigned int id to a concept. Every id gets assigned
@@ -92,6 +122,8 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 	 */
 	protected AbstractONDEXGraph(String name, ONDEXGraphMetaData data) {
 		this(System.nanoTime(), name, data);
+		if (Boolean.getBoolean(CHANGE_LOG_PROP))
+			startChangeLog();
 	}
 
 	/**
@@ -144,7 +176,28 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 							.getProperty("AbstractONDEXGraph.ONDEXConceptEvidenceTypeNull"));
 
 		int conceptId = getIdForNewConcept ( id );
-		return storeConcept(sid, conceptId, pid, annotation, description, elementOf, ofType, evidence);
+		GraphChangeLog log = changeLog;
+		if (log == null)
+			return storeConcept(sid, conceptId, pid, annotation, description, elementOf, ofType, evidence);
+		return storeConcept(log, sid, conceptId, pid, annotation, description, elementOf, ofType, evidence);
+	}
+
+	/**
+	 * Stores a concept when the {@link #startChangeLog() change log} is active, reporting it as created or, if
+	 * the concept already existed (in loading mode, an existing concept might be returned), as modified in its
+	 * evidence. Graphs that store concepts from multiple threads must override this, so that the check for an
+	 * existing concept and the store are atomic.
+	 */
+	protected ONDEXConcept storeConcept(GraphChangeLog log, long sid, int id, String pid,
+			String annotation, String description, DataSource elementOf,
+			ConceptClass ofType, Collection<EvidenceType> evidence) {
+		boolean isNew = retrieveConcept(id) == null;
+		ONDEXConcept result = storeConcept(sid, id, pid, annotation, description, elementOf, ofType, evidence);
+		if (isNew)
+			log.conceptCreated(result.getId());
+		else
+			log.conceptModified(result.getId(), Aspect.EVIDENCE);
+		return result;
 	}
 	
 	/**
@@ -157,16 +210,41 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 			if ( id == null ) throw new IllegalArgumentException ( 
 				"Need non-null ID to create a concept while ONDEX Graph is in loading mode"
 			);
-			// As usually, avoid overlaps
-			if ( this.lastIdForConcept < id ) lastIdForConcept = id;
-			return id;
+			return claimConceptId ( id );
 		}
 		// Else, it's normal mode
 		if ( id != null ) throw new IllegalArgumentException ( 
 			"Concept creation cannot specify an ID while ONDEX Graph isn't in loading mode"
 		);
+		return nextConceptId ();
+	}
+	
+	/**
+	 * Allocates a new concept id in normal mode. This and the other id allocation methods are overridden by 
+	 * implementations that support concurrent writes, the default versions aren't thread-safe.
+	 */
+	protected int nextConceptId ()
+	{
 		return ++lastIdForConcept;
 	}
+
+	/**
+	 * Registers an id given from outside in {@link #isLoadingMode() loading mode}, so that 
+	 * {@link #nextConceptId()} doesn't generate overlaps.
+	 */
+	protected int claimConceptId ( int id )
+	{
+		if ( this.lastIdForConcept < id ) lastIdForConcept = id;
+		return id;
+	}
+	
+	/**
+	 * @see #nextConceptId()
+	 */
+	protected int nextRelationId ()
+	{
+		return ++lastIdForRelation;
+	}
 	
 	@Override
 	public boolean isLoadingMode ()
@@ -189,6 +267,207 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 		return true;
 	}
 
+	/**
+	 * The pool used to share equal strings among the concept names, accessions and attribute values of this graph.
+	 * It's null (the default) when pooling is disabled.
+	 */
+	public StringPool getStringPool ()
+	{
+		return stringPool;
+	}
+
+	/**
+	 * <p>Enables the sharing of equal strings among the entities created from now on. When set, the concept names,
+	 * accessions and string attribute values are canonicalised through the pool, so that repeated values, which are
+	 * common in biological data, are kept in memory once. Any component that populates the graph (parsers, the OXL
+	 * loader, etc) gets this automatically.</p>
+	 *
+	 * <p>This is opt-in, since it costs a lookup for every new string. It can be enabled for all the graphs via
+	 * {@link #STRING_POOL_PROP}. Use null to disable it.</p>
+	 */
+	public void setStringPool ( StringPool stringPool )
+	{
+		this.stringPool = stringPool;
+	}
+
+	/**
+	 * <p>Starts recording which entities are created, deleted or modified, see {@link GraphChangeLog}. This is
+	 * useful for the components that can process the graph incrementally. It can be enabled for all the graphs
+	 * via {@link #CHANGE_LOG_PROP}.</p>
+	 *
+	 * <p>This is opt-in, since it costs some time for every change. The log isn't serialised with the graph.
+	 * Calling this more than once returns the same log.</p>
+	 *
+	 * <p>A log started this way is kept until {@link #stopChangeLog()}, with all its epochs, since anyone might read
+	 * it. This is true also if the log was already {@link #acquireChangeLog(Object) acquired} by some consumer.</p>
+	 */
+	public synchronized GraphChangeLog startChangeLog ()
+	{
+		if ( changeLog == null ) changeLog = new GraphChangeLog ();
+		changeLog.setConsumersOnly ( false );
+		return changeLog;
+	}
+
+	/**
+	 * <p>Registers a {@link GraphChangeLog#addConsumer(Object) consumer} with the change log, starting the log if
+	 * needed. The consumer gets the changes from {@link GraphChangeLog#getConsumerEpoch(Object) its epoch} on and
+	 * has to call {@link #releaseChangeLog(Object)} when it doesn't need the log anymore.</p>
+	 *
+	 * <p>If the log is started by this call, it's {@link GraphChangeLog#setConsumersOnly(boolean) for the consumers
+	 * only}, so it discards the epochs that they've processed and it's stopped when the last consumer is released.
+	 * </p>
+	 */
+	public synchronized GraphChangeLog acquireChangeLog ( Object consumer )
+	{
+		if ( changeLog == null )
+		{
+			changeLog = new GraphChangeLog ();
+			changeLog.setConsumersOnly ( true );
+		}
+		changeLog.addConsumer ( consumer );
+		return changeLog;
+	}
+
+	/**
+	 * Tells that a consumer that {@link #acquireChangeLog(Object) acquired} the change log doesn't need it
+	 * anymore. The log is {@link #stopChangeLog() stopped} if it was the last consumer and the log was started
+	 * for the consumers only.
+	 */
+	public synchronized void releaseChangeLog ( Object consumer )
+	{
+		if ( changeLog == null ) return;
+		if ( changeLog.removeConsumer ( consumer ) && changeLog.isConsumersOnly () ) stopChangeLog ();
+	}
+
+	/**
+	 * Stops and drops the {@link #startChangeLog() change log}.
+	 */
+	public synchronized void stopChangeLog ()
+	{
+		changeLog = null;
+	}
+
+	/**
+	 * The {@link #startChangeLog() change log}, null if the changes aren't being recorded.
+	 */
+	public GraphChangeLog getChangeLog ()
+	{
+		return changeLog;
+	}
+
+	/**
+	 * Uses the sample size in {@link GraphFootprint#SAMPLE_SIZE_PROP} or {@link GraphFootprint#DEFAULT_SAMPLE_SIZE}.
+	 */
+	public GraphFootprint getFootprint ()
+	{
+		return getFootprint ( Integer.getInteger ( GraphFootprint.SAMPLE_SIZE_PROP, GraphFootprint.DEFAULT_SAMPLE_SIZE ) );
+	}
+
+	/**
+	 * <p>Estimates the heap taken by this graph, which is useful to know what to blame when a workflow runs out of
+	 * memory.</p>
+	 *
+	 * <p>The entity counts come from the metadata indexes, while the entity bytes are extrapolated from the first
+	 * sampleSize entities of every concept class, relation type and attribute name, so the cost doesn't depend
+	 * much on the graph size and this can be used with large graphs that are being processed. The figures for the
+	 * internal indexes are provided by {@link #addIndexFootprints(GraphFootprint)}.</p>
+	 */
+	public GraphFootprint getFootprint ( int sampleSize )
+	{
+		long start = System.currentTimeMillis ();
+		GraphFootprint result = new GraphFootprint ( getName (), getConcepts ().size (), getRelations ().size () );
+		ONDEXGraphMetaData meta = getMetaData ();
+
+		for ( ConceptClass cc: meta.getConceptClasses () )
+		{
+			Set<ONDEXConcept> concepts = getConceptsOfConceptClass ( cc );
+			if ( concepts.isEmpty () ) continue;
+			result.addConceptClass ( cc.getId (), concepts.size (), sampleBytes ( concepts, sampleSize, this::estimateBytes ) );
+		}
+
+		for ( RelationType rt: meta.getRelationTypes () )
+		{
+			Set<ONDEXRelation> relations = getRelationsOfRelationType ( rt );
+			if ( relations.isEmpty () ) continue;
+			result.addRelationType ( rt.getId (), relations.size (), sampleBytes ( relations, sampleSize, this::estimateBytes ) );
+		}
+
+		for ( AttributeName an: meta.getAttributeNames () )
+		{
+			Set<ONDEXConcept> concepts = getConceptsOfAttributeName ( an );
+			Set<ONDEXRelation> relations = getRelationsOfAttributeName ( an );
+			if ( concepts.isEmpty () && relations.isEmpty () ) continue;
+			result.addAttributeName (
+				an.getId (),
+				concepts.size () + relations.size (),
+				sampleBytes ( concepts, sampleSize, c -> estimateBytes ( c.getAttribute ( an ) ) )
+					+ sampleBytes ( relations, sampleSize, r -> estimateBytes ( r.getAttribute ( an ) ) )
+			);
+		}
+
+		addIndexFootprints ( result );
+		result.setElapsedMillis ( System.currentTimeMillis () - start );
+		return result;
+	}
+
+	/**
+	 * Reports the internal indexes of a graph implementation, see {@link #getFootprint(int)}. This should be
+	 * reasonably fast, eg, it can scan the index keys, but not every entity. The default does nothing.
+	 */
+	protected void addIndexFootprints ( GraphFootprint footprint )
+	{
+	}
+
+	/**
+	 * Used by {@link #getFootprint(int)}, this includes the concept names, accessions and attributes.
+	 */
+	protected long estimateBytes ( ONDEXConcept concept )
+	{
+		long result = HeapEstimates.ofObject ( 48 )
+			+ HeapEstimates.ofString ( concept.getPID () )
+			+ HeapEstimates.ofString ( concept.getAnnotation () )
+			+ HeapEstimates.ofString ( concept.getDescription () );
+		for ( ConceptName name: concept.getConceptNames () )
+			result += HeapEstimates.ofObject ( 20 ) + HeapEstimates.ofString ( name.getName () );
+		for ( ConceptAccession acc: concept.getConceptAccessions () )
+			result += HeapEstimates.ofObject ( 24 ) + HeapEstimates.ofString ( acc.getAccession () );
+		for ( Attribute attribute: concept.getAttributes () )
+			result += estimateBytes ( attribute );
+		return result;
+	}
+
+	/**
+	 * Used by {@link #getFootprint(int)}, this includes the relation key and the attributes.
+	 */
+	protected long estimateBytes ( ONDEXRelation relation )
+	{
+		long result = HeapEstimates.ofObject ( 40 ) + HeapEstimates.ofObject ( 24 );
+		for ( Attribute attribute: relation.getAttributes () )
+			result += estimateBytes ( attribute );
+		return result;
+	}
+
+	/**
+	 * Used by {@link #getFootprint(int)}.
+	 */
+	protected long estimateBytes ( Attribute attribute )
+	{
+		if ( attribute == null ) return 0;
+		return HeapEstimates.ofObject ( 28 ) + HeapEstimates.ofValue ( attribute.getValue () );
+	}
+
+	/**
+	 * Extrapolates the bytes of a set of entities from its first sampleSize elements.
+	 */
+	private static <E> long sampleBytes ( Set<E> entities, int sampleSize, ToLongFunction<E> estimator )
+	{
+		long bytes = 0;
+		int n = 0;
+		for ( Iterator<E> itr = entities.iterator (); n < sampleSize && itr.hasNext (); n++ )
+			bytes += estimator.applyAsLong ( itr.next () );
+		return n == 0 ? 0 : bytes * entities.size () / n;
+	}
+
 	/**
 	 * 
 	 * @see net.sourceforge.ondex.core.ONDEXGraph#createRelation(net.sourceforge.
@@ -225,11 +504,34 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 					Config.properties
 							.getProperty("AbstractONDEXGraph.AbstractRelationEvidenceTypeNull"));
 
-		lastIdForRelation++;
-		return storeRelation(sid, lastIdForRelation, fromConcept, toConcept,
+		int relationId = nextRelationId ();
+		GraphChangeLog log = changeLog;
+		if (log == null)
+			return storeRelation(sid, relationId, fromConcept, toConcept,
+					ofType, evidence);
+		return storeRelation(log, sid, relationId, fromConcept, toConcept,
 				ofType, evidence);
 	}
 
+	/**
+	 * Stores a relation when the {@link #startChangeLog() change log} is active, reporting it as created or, if
+	 * a relation with the same key existed (which is returned, with the new evidence), as modified in its
+	 * evidence. As for {@link #storeConcept(GraphChangeLog, long, int, String, String, String, DataSource, ConceptClass, Collection)},
+	 * graphs with concurrent writers must make this atomic.
+	 */
+	protected ONDEXRelation storeRelation(GraphChangeLog log, long sid, int id,
+			ONDEXConcept fromConcept, ONDEXConcept toConcept,
+			RelationType ofType, Collection<EvidenceType> evidence) {
+		boolean isNew = retrieveRelation(fromConcept, toConcept, ofType) == null;
+		ONDEXRelation result = storeRelation(sid, id, fromConcept,
+				toConcept, ofType, evidence);
+		if (isNew)
+			log.relationCreated(result.getId());
+		else
+			log.relationModified(result.getId(), Aspect.EVIDENCE);
+		return result;
+	}
+
 	/**
 	 * 
 	 * @see net.sourceforge.ondex.core.ONDEXGraph#deleteConcept(java.lang.Integer)
@@ -262,6 +564,9 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 
 			// delete concept itself
 			removeConcept(id);
+			GraphChangeLog log = changeLog;
+			if (log != null)
+				log.conceptDeleted(id);
 			return true;
 		}
 
@@ -283,6 +588,9 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 
 			// delete relation itself
 			removeRelation(id);
+			GraphChangeLog log = changeLog;
+			if (log != null)
+				log.relationDeleted(id);
 			return true;
 		}
 
@@ -319,7 +627,15 @@ public abstract class AbstractONDEXGraph extends AbstractONDEXEntity implements
 					Config.properties
 							.getProperty("AbstractONDEXGraph.AbstractRelationOfTypeNull"));
 
-		return removeRelation(fromConcept, toConcept, ofType);
+		GraphChangeLog log = changeLog;
+		if (log == null)
+			return removeRelation(fromConcept, toConcept, ofType);
+
+		ONDEXRelation r = retrieveRelation(fromConcept, toConcept, ofType);
+		boolean result = removeRelation(fromConcept, toConcept, ofType);
+		if (result && r != null)
+			log.relationDeleted(r.getId());
+		return result;
 	}
 
 	/**
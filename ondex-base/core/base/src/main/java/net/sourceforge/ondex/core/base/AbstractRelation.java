@@ -11,6 +11,8 @@ import net.sourceforge.ondex.core.ONDEXRelation;
 import net.sourceforge.ondex.core.RelationKey;
 import net.sourceforge.ondex.core.RelationType;
 import net.sourceforge.ondex.core.util.BitSetFunctions;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
 import net.sourceforge.ondex.exception.type.NullValueException;
 
 /**
@@ -87,6 +89,7 @@ public abstract class AbstractRelation extends AbstractONDEXEntity implements
 							.getProperty("AbstractRelation.EvidenceTypeNull"));
 
 		saveEvidenceType(evidenceType);
+		logChange(Aspect.EVIDENCE);
 	}
 
 	/**
@@ -105,6 +108,7 @@ public abstract class AbstractRelation extends AbstractONDEXEntity implements
 							.getProperty("AbstractRelation.ONDEXConceptNull"));
 
 		saveTag(concept);
+		logChange(Aspect.TAGS);
 	}
 
 	/**
@@ -129,8 +133,12 @@ public abstract class AbstractRelation extends AbstractONDEXEntity implements
 					Config.properties
 							.getProperty("AbstractRelation.RelationAttributeValueNull"));
 
-		return storeRelationAttribute(new RelationAttribute(sid, id,
-				attributeName, value, doIndex));
+		RelationAttribute attribute = new RelationAttribute(sid, id,
+				attributeName, poolValue(value), doIndex);
+		attribute.setParentGraph(getParentGraph());
+		Attribute result = storeRelationAttribute(attribute);
+		logChange(Aspect.ATTRIBUTES);
+		return result;
 	}
 
 	/**
@@ -148,7 +156,7 @@ public abstract class AbstractRelation extends AbstractONDEXEntity implements
 					Config.properties
 							.getProperty("AbstractRelation.RelationAttributeAttributeNameNull"));
 
-		return removeRelationAttribute(attributeName);
+		return logChange(removeRelationAttribute(attributeName), Aspect.ATTRIBUTES);
 	}
 
 	@Override
@@ -294,7 +302,7 @@ public abstract class AbstractRelation extends AbstractONDEXEntity implements
 					Config.properties
 							.getProperty("AbstractRelation.EvidenceTypeNull"));
 
-		return dropEvidenceType(evidenceType);
+		return logChange(dropEvidenceType(evidenceType), Aspect.EVIDENCE);
 	}
 
 	/**
@@ -312,7 +320,25 @@ public abstract class AbstractRelation extends AbstractONDEXEntity implements
 					Config.properties
 							.getProperty("AbstractRelation.ONDEXConceptNull"));
 
-		return dropTag(concept);
+		return logChange(dropTag(concept), Aspect.TAGS);
+	}
+
+	/**
+	 * Reports a change of this relation to the {@link #getChangeLog() change log}, if any.
+	 */
+	protected void logChange(Aspect aspect) {
+		GraphChangeLog log = getChangeLog();
+		if (log != null)
+			log.relationModified(id, aspect);
+	}
+
+	/**
+	 * Reports the change if isChanged is true, returns isChanged.
+	 */
+	private boolean logChange(boolean isChanged, Aspect aspect) {
+		if (isChanged)
+			logChange(aspect);
+		return isChanged;
 	}
 
 	/**
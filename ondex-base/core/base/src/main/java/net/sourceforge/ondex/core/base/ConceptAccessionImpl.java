@@ -3,6 +3,8 @@ package net.sourceforge.ondex.core.base;
 import net.sourceforge.ondex.config.ONDEXGraphRegistry;
 import net.sourceforge.ondex.core.ConceptAccession;
 import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
 
 /**
  * Implementation of ConceptAccession.
@@ -130,6 +132,10 @@ public class ConceptAccessionImpl extends AbstractONDEXEntity implements
 			throw new UnsupportedOperationException();
 
 		this.ambiguous = ambiguous;
+
+		GraphChangeLog log = getChangeLog();
+		if (log != null)
+			log.conceptModified(getOwnerId(), Aspect.ACCESSIONS);
 	}
 
 }
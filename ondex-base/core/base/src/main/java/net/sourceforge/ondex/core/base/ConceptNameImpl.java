@@ -2,6 +2,8 @@ package net.sourceforge.ondex.core.base;
 
 import net.sourceforge.ondex.config.ONDEXGraphRegistry;
 import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
 
 /**
  * Simple implementation of ConceptName.
@@ -103,6 +105,10 @@ public class ConceptNameImpl extends AbstractONDEXEntity implements ConceptName
 			throw new UnsupportedOperationException();
 
 		this.isPreferred = isPreferred;
+
+		GraphChangeLog log = getChangeLog();
+		if (log != null)
+			log.conceptModified(getOwnerId(), Aspect.NAMES);
 	}
 
 }
@@ -208,7 +208,8 @@ public class BitSetFunctions {
 	}
 
 	/**
-	 * Return "and" of two given Set.
+	 * Return "and" of two given Set. This works at the bitmap level when both
+	 * sets are {@link EntityBitmapSet}.
 	 * 
 	 * @param view1
 	 *            Set<T>
@@ -217,13 +218,17 @@ public class BitSetFunctions {
 	 * @return Set<T>
 	 */
 	public static <T extends ONDEXEntity> Set<T> and(Set<T> view1, Set<T> view2) {
+		// "and" is symmetric, so we can start from the bitmap operand, if any
+		if (view2 instanceof EntityBitmapSet && !(view1 instanceof EntityBitmapSet))
+			return and(view2, view1);
 		Set<T> newset = copy(view1);
 		newset.retainAll(view2);
 		return newset;
 	}
 
 	/**
-	 * Return new set containing "andNot" of two given Set.
+	 * Return new set containing "andNot" of two given Set. This works at the
+	 * bitmap level when both sets are {@link EntityBitmapSet}.
 	 * 
 	 * @param view1
 	 *            Set<T>
@@ -247,7 +252,9 @@ public class BitSetFunctions {
 	 */
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public static <E> Set<E> copy(Set<E> set) {
-		if (set instanceof ONDEXSet) {
+		if (set instanceof EntityBitmapSet) {
+			return ((EntityBitmapSet) set).copy();
+		} else if (set instanceof ONDEXSet) {
 			ONDEXSet sat = (ONDEXSet) set;
 			return sat.clone();
 		} else {
@@ -287,46 +294,33 @@ public class BitSetFunctions {
 		}
 	}
 
+	/**
+	 * Creates a set of entities from their ids. The result is an
+	 * {@link EntityBitmapSet}.
+	 */
 	@SuppressWarnings("unchecked")
 	public static <AnyType extends ONDEXEntity> Set<AnyType> create(
 			final ONDEXGraph aog, Class<AnyType> c, Set<Integer> set) {
-		
-		// copy content of set to BitSet, will be optimised later
-		BitSet bs = new BitSet();
-		for (Integer i : set)
-			bs.set(i);
-		
-		if (ONDEXConcept.class.equals(c)) {
-			return (Set<AnyType>) new ONDEXSet<ONDEXConcept>(bs) {
-				@Override
-				public Class<ONDEXConcept> getDataType() {
-					return ONDEXConcept.class;
-				}
 
-				@Override
-				protected ONDEXConcept reallyGetEntity(int i) {
-					return aog.getConcept(i);
-				}
-			};
+		EntityBitmapSet<AnyType> result;
+		if (ONDEXConcept.class.equals(c)) {
+			result = (EntityBitmapSet<AnyType>) new EntityBitmapSet<ONDEXConcept>(
+					ONDEXConcept.class, aog.getSID(), aog::getConcept);
 		} else if (ONDEXRelation.class.equals(c)) {
-			return (Set<AnyType>) new ONDEXSet<ONDEXRelation>(bs) {
-				@Override
-				public Class<ONDEXRelation> getDataType() {
-					return ONDEXRelation.class;
-				}
-
-				@Override
-				protected ONDEXRelation reallyGetEntity(int i) {
-					return aog.getRelation(i);
-				}
-			};
+			result = (EntityBitmapSet<AnyType>) new EntityBitmapSet<ONDEXRelation>(
+					ONDEXRelation.class, aog.getSID(), aog::getRelation);
 		} else {
 			throw new ClassCastException("Can't instantiate ONDEXSet for: " + c);
 		}
+
+		for (Integer i : set)
+			result.getIds().add(i);
+		return result;
 	}
 
 	/**
-	 * Return "or" of two given Set.
+	 * Return "or" of two given Set. This works at the bitmap level when both
+	 * sets are {@link EntityBitmapSet}.
 	 * 
 	 * @param view1
 	 *            Set<T>
@@ -335,6 +329,16 @@ public class BitSetFunctions {
 	 * @return Set<T>
 	 */
 	public static <T extends ONDEXEntity> Set<T> or(Set<T> view1, Set<T> view2) {
+		// like "and", "or" is symmetric
+		if (view2 instanceof EntityBitmapSet && !(view1 instanceof EntityBitmapSet))
+			return or(view2, view1);
+		// A bitmap set resolves the ids via its graph, which doesn't know the entities of another graph
+		if (view1 instanceof EntityBitmapSet && view2 instanceof EntityBitmapSet
+				&& !((EntityBitmapSet<T>) view1).isCompatible(view2)) {
+			Set<T> newset = new HashSet<T>(view1);
+			newset.addAll(view2);
+			return newset;
+		}
 		Set<T> newset = copy(view1);
 		newset.addAll(view2);
 		return newset;
@@ -342,7 +346,9 @@ public class BitSetFunctions {
 
 	/**
 	 * Returns an unmodifiable set for the given set. If the given set is
-	 * already instance of UnmodifiableSet, simply return it.
+	 * already instance of UnmodifiableSet, simply return it. An
+	 * {@link EntityBitmapSet} is returned as its own read-only view, so that
+	 * the bitmap-level operations are still possible.
 	 * 
 	 * @param <E>
 	 *            generic type
@@ -350,11 +356,14 @@ public class BitSetFunctions {
 	 *            Set to wrap in UnmodifiableSet
 	 * @return UnmodifiableSet
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public static <E> Set<E> unmodifiableSet(Set<E> set) {
 		if (set == null)
 			return UnmodifiableSet.decorate(Collections.<E> emptySet());
 		if (set instanceof UnmodifiableSet)
 			return set;
+		if (set instanceof EntityBitmapSet)
+			return (Set<E>) ((EntityBitmapSet) set).unmodifiable();
 		return UnmodifiableSet.decorate(set);
 	}
 }
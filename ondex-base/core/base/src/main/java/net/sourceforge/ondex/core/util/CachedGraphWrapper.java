@@ -1,20 +1,22 @@
 package net.sourceforge.ondex.core.util;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import com.google.common.cache.CacheBuilder;
 
 import net.sourceforge.ondex.core.AttributeName;
 import net.sourceforge.ondex.core.ConceptAccession;
 import net.sourceforge.ondex.core.ConceptClass;
 import net.sourceforge.ondex.core.DataSource;
 import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXEntity;
 import net.sourceforge.ondex.core.ONDEXConcept;
 import net.sourceforge.ondex.core.ONDEXGraph;
 import net.sourceforge.ondex.core.ONDEXRelation;
@@ -37,6 +39,11 @@ import net.sourceforge.ondex.core.util.prototypes.RelationTypePrototype;
  * <p>Clearly, this is based on an internal static set of caches, that can be on a per-graph basis 
  * (see {@link #getInstance(ONDEXGraph)}).</p>
  * 
+ * <p>This class is thread-safe and doesn't use any global lock, so multiple threads can load the same graph 
+ * in parallel, provided that the graph is thread-safe too (eg, {@code ConcurrentMemoryONDEXGraph}). Each getXXX()
+ * call is atomic for its type/key, ie, the same object is never created twice, see 
+ * {@link #cacheGet(Class, String, Supplier)}.</p>
+ * 
  * <p>Note that this class would normally be a <a href = "https://en.wikipedia.org/wiki/Decorator_pattern">decorator</a>, 
  * but we prefer not to implement this way here (for the time being), for it would require too much review of 
  * existing code.</p>
@@ -55,24 +62,41 @@ import net.sourceforge.ondex.core.util.prototypes.RelationTypePrototype;
  */
 public class CachedGraphWrapper
 {
-	protected final ONDEXGraph graph; 
+	/**
+	 * Weak, so that {@link #getInstance(ONDEXGraph) the cached wrappers} don't add references to their graphs.
+	 * Note that this alone doesn't make a graph collectable: {@link net.sourceforge.ondex.config.ONDEXGraphRegistry}
+	 * keeps every graph strongly reachable until it's removed from there (eg, by {@code MappedONDEXGraph.close()}
+	 * or by the workflow engine's {@code releaseGraph()}), so the wrapper of a graph, its cache included, lives at
+	 * least as long as that.
+	 */
+	private final WeakReference<ONDEXGraph> graphRef;
 	
 	/**
 	 * The indexed and cached objects that we maintain for the current graph. Essentially it is a dynamic table of
 	 * object type (identified by its class), object key as string =&gt; object.
+	 * 
+	 * Concepts and relations are stored as their ids, since they refer their graph, and they're fetched from the
+	 * graph when requested.
 	 *    
 	 */
-	private final Table<Class<Object>, String, Object> cache = HashBasedTable.create ();
+	private final ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> cache = new ConcurrentHashMap<> ();
 	private Logger log = LoggerFactory.getLogger ( this.getClass () );
 	
-	private static Map<ONDEXGraph, CachedGraphWrapper> instances = new HashMap<> ();
+	/**
+	 * The graph is the key, compared by identity. Its entry goes away once the graph is collected, see
+	 * {@link #graphRef}.
+	 */
+	private static ConcurrentMap<ONDEXGraph, CachedGraphWrapper> instances = CacheBuilder.newBuilder ()
+		.weakKeys ()
+		.<ONDEXGraph, CachedGraphWrapper> build ()
+		.asMap ();
 	
 	/**
 	 * We recommend to use this to get a wrapper that caches this graph.
 	 *  
 	 * @param graph
 	 */
-	public static synchronized CachedGraphWrapper getInstance ( ONDEXGraph graph ) 
+	public static CachedGraphWrapper getInstance ( ONDEXGraph graph ) 
 	{
 		return instances.computeIfAbsent ( graph, g -> new CachedGraphWrapper ( g ) );
 	}
@@ -80,22 +104,22 @@ public class CachedGraphWrapper
 	
 	private CachedGraphWrapper ( ONDEXGraph graph )
 	{
-		this.graph = graph;
+		this.graphRef = new WeakReference<> ( graph );
 	}
 
 		
-	public synchronized ConceptClass getConceptClass ( String id, String fullName, String description, ConceptClass specialisationOf )
+	public ConceptClass getConceptClass ( String id, String fullName, String description, ConceptClass specialisationOf )
 	{
 		return this.cacheGet ( 
 			ConceptClass.class, id, 
-			() -> this.graph.getMetaData ().createConceptClass ( id, fullName, description, specialisationOf )
+			() -> getGraph ().getMetaData ().createConceptClass ( id, fullName, description, specialisationOf )
 		);
 	}
 
 	/**
 	 * TODO: Move to {@link ONDEXGraphUtils}
 	 */
-	public synchronized ConceptClass getConceptClass ( ConceptClassPrototype proto )
+	public ConceptClass getConceptClass ( ConceptClassPrototype proto )
 	{
 		try 
 		{
@@ -109,7 +133,7 @@ public class CachedGraphWrapper
 			
 			return this.cacheGet ( 
 				ConceptClass.class, proto.getId (), 
-				() -> this.graph.getMetaData ().getFactory ().createConceptClass ( 
+				() -> getGraph ().getMetaData ().getFactory ().createConceptClass ( 
 				proto.getId (), proto.getFullName (), proto.getDescription (), 
 				proto.getParent () 
 			));
@@ -121,28 +145,28 @@ public class CachedGraphWrapper
 		}
 	}
 
-	public synchronized ONDEXConcept getConcept (
+	public ONDEXConcept getConcept (
 		String id, String annotation, String description, DataSource ds, ConceptClass conceptClass, EvidenceType evidence
 	)
 	{
-		return this.cacheGet ( 
+		return this.cacheGetEntity ( 
 			ONDEXConcept.class, id, 
-			() -> this.graph.getFactory ().createConcept ( id, annotation, description, ds, conceptClass, evidence )
+			() -> getGraph ().getFactory ().createConcept ( id, annotation, description, ds, conceptClass, evidence )
 		);
 	}
 	
-	public synchronized ONDEXConcept getConcept ( String id ) 
+	public ONDEXConcept getConcept ( String id ) 
 	{
-		return this.cacheGet ( ONDEXConcept.class, id );
+		return this.cacheGetEntity ( ONDEXConcept.class, id );
 	}
 	
-	public synchronized RelationType getRelationType ( 
+	public RelationType getRelationType ( 
 		String id, boolean isAntisymmetric, boolean isReflexive, boolean isSymmetric, boolean isTransitive 
 	)
 	{
 		return this.cacheGet ( 
 			RelationType.class, id, 
-			() -> this.graph.getMetaData ().getFactory ().createRelationType (
+			() -> getGraph ().getMetaData ().getFactory ().createRelationType (
 				id, isAntisymmetric, isReflexive, isSymmetric, isTransitive 
 			)
 		);
@@ -151,7 +175,7 @@ public class CachedGraphWrapper
 	/**
 	 * TODO: Move to {@link ONDEXGraphUtils}
 	 */
-	public synchronized RelationType getRelationType ( RelationTypePrototype proto )
+	public RelationType getRelationType ( RelationTypePrototype proto )
 	{
 		try 
 		{
@@ -166,7 +190,7 @@ public class CachedGraphWrapper
 			
 			return this.cacheGet ( 
 				RelationType.class, proto.getId (), 
-				() -> this.graph.getMetaData ().getFactory ().createRelationType ( 
+				() -> getGraph ().getMetaData ().getFactory ().createRelationType ( 
 					proto.getId (), proto.getFullName (), proto.getDescription (), 
 					proto.isAntisymmetric (), proto.isReflexive (), proto.isSymmetric (), proto.isTransitive (), 
 					proto.getParent () )
@@ -180,24 +204,24 @@ public class CachedGraphWrapper
 	}
 	
 	
-	public synchronized ONDEXRelation getRelation ( ONDEXConcept from, ONDEXConcept to, RelationType type, EvidenceType evidence )
+	public ONDEXRelation getRelation ( ONDEXConcept from, ONDEXConcept to, RelationType type, EvidenceType evidence )
 	{
 		String id = from.getPID () + to.getPID () + type.getId () + evidence.getId ();
-		return this.cacheGet ( 
-				ONDEXRelation.class, id, 
-			() -> this.graph.getFactory ().createRelation ( from, to, type, evidence )
+		return this.cacheGetEntity ( 
+			ONDEXRelation.class, id, 
+			() -> getGraph ().getFactory ().createRelation ( from, to, type, evidence )
 		);
 	}
 	
-	public synchronized EvidenceType getEvidenceType ( String id, String fullName, String description )
+	public EvidenceType getEvidenceType ( String id, String fullName, String description )
 	{
 		return this.cacheGet ( 
 			EvidenceType.class, id, 
-			() -> this.graph.getMetaData ().createEvidenceType ( id, fullName, description ) 
+			() -> getGraph ().getMetaData ().createEvidenceType ( id, fullName, description ) 
 		);
 	}
 	
-	public synchronized EvidenceType getEvidenceType ( EvidenceTypePrototype proto )
+	public EvidenceType getEvidenceType ( EvidenceTypePrototype proto )
 	{
 		return this.getEvidenceType ( proto.getId (), proto.getFullName (), proto.getDescription () );
 	}
@@ -205,20 +229,20 @@ public class CachedGraphWrapper
 	/**
 	 * TODO: Move to {@link ONDEXGraphUtils}
 	 */
-	public synchronized DataSource getDataSource ( String id, String fullName, String description )
+	public DataSource getDataSource ( String id, String fullName, String description )
 	{
 		return this.cacheGet ( 
 			DataSource.class, id, 
-			() -> this.graph.getMetaData ().createDataSource ( id, fullName, description ) 
+			() -> getGraph ().getMetaData ().createDataSource ( id, fullName, description ) 
 		);
 	}
 
-	public synchronized DataSource getDataSource ( DataSourcePrototype proto )
+	public DataSource getDataSource ( DataSourcePrototype proto )
 	{
 		return this.getDataSource ( proto.getId (), proto.getFullName (), proto.getDescription () );
 	}
 	
-	public synchronized ConceptAccession getAccession ( String accession, DataSource dataSrc, boolean isAmbiguous, ONDEXConcept concept )
+	public ConceptAccession getAccession ( String accession, DataSource dataSrc, boolean isAmbiguous, ONDEXConcept concept )
 	{
 		// TODO: is the ID unique? Is it concept-unique? 
 		return this.cacheGet ( 
@@ -227,7 +251,7 @@ public class CachedGraphWrapper
 		);		
 	}
 	
-	public synchronized ConceptAccession getAccession ( AccessionPrototype proto, ONDEXConcept concept )
+	public ConceptAccession getAccession ( AccessionPrototype proto, ONDEXConcept concept )
 	{
 		// Let's see if it has a parent
 		if ( proto.getDataSource () == null )
@@ -245,17 +269,18 @@ public class CachedGraphWrapper
 	 * instead
 	 */
 	@Deprecated( forRemoval = true )
-	public synchronized AttributeName getAttributeName ( 
+	public AttributeName getAttributeName ( 
 		String id, String fullName, String description, Unit unit, Class<?> datatype, AttributeName parent 
 	)
 	{
-		return ONDEXGraphUtils.getOrCreateAttributeName ( 
-			graph, id, fullName, description, datatype, unit, parent 
+		return this.cacheGet ( 
+			AttributeName.class, id,
+			() -> ONDEXGraphUtils.getOrCreateAttributeName ( getGraph (), id, fullName, description, datatype, unit, parent )
 		);
 	}
 
 	@Deprecated( forRemoval = true )
-	public synchronized AttributeName getAttributeName ( 
+	public AttributeName getAttributeName ( 
 		String id, String fullName, String description, Class<?> datatype 
 	)
 	{
@@ -263,16 +288,19 @@ public class CachedGraphWrapper
 	}
 		
 	/**
-	 * Facility to return cached objects, or, create and return them, if not already in the cache. 
+	 * <p>Facility to return cached objects, or, create and return them, if not already in the cache.</p>
+	 * 
+	 * <p>This is atomic for each type/key: if multiple threads ask for the same new object, only one creates 
+	 * it and the others wait for it, while objects with other type/keys can be created in parallel.</p>
 	 */	
 	@SuppressWarnings ( "unchecked" )
 	private <V> V cacheGet ( Class<? super V> type, String key, Supplier<V> newValueGenerator )
 	{
-		V result = (V) this.cache.get ( type, key );
+		ConcurrentMap<String, Object> typeCache = getTypeCache ( type );
+		V result = (V) typeCache.get ( key );
 		if ( result != null ) return result;
 		
-		this.cache.put ( (Class<Object>) type, key, result = newValueGenerator.get () );
-		return result;
+		return (V) typeCache.computeIfAbsent ( key, k -> newValueGenerator.get () );
 	}
 
 	/**
@@ -281,6 +309,51 @@ public class CachedGraphWrapper
 	@SuppressWarnings ( "unchecked" )	
 	private <V> V cacheGet ( Class<? super V> type, String key )
 	{
-		return (V) this.cache.get ( type, key );
+		ConcurrentMap<String, Object> typeCache = cache.get ( type );
+		return typeCache == null ? null : (V) typeCache.get ( key );
+	}
+	
+	/**
+	 * Like {@link #cacheGet(Class, String, Supplier)}, for concepts and relations, which we keep as ids. If the entity
+	 * was deleted from the graph, a new one is created.
+	 */
+	private <E extends ONDEXEntity> E cacheGetEntity ( Class<E> type, String key, Supplier<E> newValueGenerator )
+	{
+		ConcurrentMap<String, Object> typeCache = getTypeCache ( type );
+		E result = getEntity ( type, (Integer) typeCache.get ( key ) );
+		if ( result != null ) return result;
+
+		int id = (Integer) typeCache.compute ( key, ( k, oldId ) -> 
+			getEntity ( type, (Integer) oldId ) != null ? oldId : newValueGenerator.get ().getId ()
+		);
+		return getEntity ( type, id );
+	}
+
+	/**
+	 * Like {@link #cacheGetEntity(Class, String, Supplier)}, but just returns null if the type/key is not in the cache.  
+	 */
+	private <E extends ONDEXEntity> E cacheGetEntity ( Class<E> type, String key )
+	{
+		ConcurrentMap<String, Object> typeCache = cache.get ( type );
+		return typeCache == null ? null : getEntity ( type, (Integer) typeCache.get ( key ) );
+	}
+	
+	private <E extends ONDEXEntity> E getEntity ( Class<E> type, Integer id )
+	{
+		if ( id == null ) return null;
+		ONDEXGraph graph = getGraph ();
+		return type.cast ( type == ONDEXConcept.class ? graph.getConcept ( id ) : graph.getRelation ( id ) );
+	}
+	
+	private ConcurrentMap<String, Object> getTypeCache ( Class<?> type )
+	{
+		return cache.computeIfAbsent ( type, t -> new ConcurrentHashMap<> () );
+	}
+	
+	private ONDEXGraph getGraph ()
+	{
+		return Objects.requireNonNull ( 
+			graphRef.get (), "The graph of this cached wrapper was garbage-collected"
+		);
 	}
 }
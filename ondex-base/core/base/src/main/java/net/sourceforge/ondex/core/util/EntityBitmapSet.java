@@ -0,0 +1,242 @@
+package net.sourceforge.ondex.core.util;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+
+import net.sourceforge.ondex.core.ONDEXEntity;
+
+/**
+ * <p>A set of ONDEX entities of the same type (concepts or relations), which is based on an {@link IdBitmap} of
+ * their ids.</p>
+ *
+ * <p>Entities are fetched via a resolver function (typically {@code graph::getConcept}) only when iterating, so
+ * the set takes a couple of bytes per entity, while {@link #contains(Object)} is a bitmap lookup. This is used by
+ * the graph implementations for their indexes (eg, concept class =&gt; concepts) and
+ * {@link BitSetFunctions#and(java.util.Set, java.util.Set)} and alike work at the bitmap level when both the
+ * operands are instances of this class, which is much faster than intersecting hash sets.</p>
+ *
+ * <p>A set can be turned into a read-only view ({@link #unmodifiable()}), which is what
+ * {@link BitSetFunctions#unmodifiableSet(java.util.Set)} does, so that the sets returned by graph getters still
+ * support the fast operations. Elements are iterated in ascending id order. This isn't thread-safe.</p>
+ *
+ * <p>The bitmap-level operations are used only between sets of the same entity type and from the same graph, since
+ * the ids of a set are resolved via its own graph. With a set from another graph, the operations fall back to the
+ * element-wise ones of {@link AbstractSet}.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class EntityBitmapSet<E extends ONDEXEntity> extends AbstractSet<E>
+{
+	private final IdBitmap ids;
+	private final Class<E> type;
+	private final long graphSID;
+	private final IntFunction<E> resolver;
+	private final boolean isReadOnly;
+
+	/**
+	 * @param type the entity type, ie, {@code ONDEXConcept.class} or {@code ONDEXRelation.class}. This is needed
+	 * since concepts and relations have overlapping ids.
+	 * @param graphSID the {@link net.sourceforge.ondex.core.ONDEXGraph#getSID() SID} of the graph the entities belong
+	 * to, which is needed since different graphs have overlapping ids.
+	 * @param resolver fetches an entity from its id, typically {@code graph::getConcept} or {@code graph::getRelation}.
+	 */
+	public EntityBitmapSet ( Class<E> type, long graphSID, IntFunction<E> resolver )
+	{
+		this ( new IdBitmap (), type, graphSID, resolver, false );
+	}
+
+	private EntityBitmapSet ( IdBitmap ids, Class<E> type, long graphSID, IntFunction<E> resolver, boolean isReadOnly )
+	{
+		this.ids = ids;
+		this.type = type;
+		this.graphSID = graphSID;
+		this.resolver = resolver;
+		this.isReadOnly = isReadOnly;
+	}
+
+	@Override
+	public boolean add ( E e )
+	{
+		checkWritable ();
+		return ids.add ( e.getId () );
+	}
+
+	@Override
+	public boolean remove ( Object o )
+	{
+		checkWritable ();
+		return type.isInstance ( o ) && ids.remove ( ( (ONDEXEntity) o ).getId () );
+	}
+
+	@Override
+	public boolean contains ( Object o )
+	{
+		return type.isInstance ( o ) && ids.contains ( ( (ONDEXEntity) o ).getId () );
+	}
+
+	/**
+	 * Like {@link #contains(Object)}, but based on the entity id, so that the entity doesn't need to be fetched.
+	 */
+	public boolean containsId ( int id )
+	{
+		return ids.contains ( id );
+	}
+
+	@Override
+	public int size ()
+	{
+		return ids.cardinality ();
+	}
+
+	@Override
+	public boolean isEmpty ()
+	{
+		return ids.isEmpty ();
+	}
+
+	@Override
+	public void clear ()
+	{
+		checkWritable ();
+		ids.clear ();
+	}
+
+	@Override
+	public Iterator<E> iterator ()
+	{
+		PrimitiveIterator.OfInt itr = ids.iterator ();
+		return new Iterator<E> ()
+		{
+			@Override
+			public boolean hasNext () {
+				return itr.hasNext ();
+			}
+
+			@Override
+			public E next () {
+				return resolver.apply ( itr.nextInt () );
+			}
+
+			@Override
+			public void remove ()
+			{
+				checkWritable ();
+				itr.remove ();
+			}
+		};
+	}
+
+	@Override
+	public boolean addAll ( Collection<? extends E> c )
+	{
+		checkWritable ();
+		if ( !isCompatible ( c ) ) return super.addAll ( c );
+		int size = size ();
+		ids.or ( ( (EntityBitmapSet<?>) c ).ids );
+		return size != size ();
+	}
+
+	@Override
+	public boolean retainAll ( Collection<?> c )
+	{
+		checkWritable ();
+		if ( !isCompatible ( c ) ) return super.retainAll ( c );
+		int size = size ();
+		ids.and ( ( (EntityBitmapSet<?>) c ).ids );
+		return size != size ();
+	}
+
+	@Override
+	public boolean removeAll ( Collection<?> c )
+	{
+		checkWritable ();
+		if ( !isCompatible ( c ) ) return super.removeAll ( c );
+		int size = size ();
+		ids.andNot ( ( (EntityBitmapSet<?>) c ).ids );
+		return size != size ();
+	}
+
+	@Override
+	public boolean containsAll ( Collection<?> c )
+	{
+		if ( !isCompatible ( c ) ) return super.containsAll ( c );
+		IdBitmap diff = ( (EntityBitmapSet<?>) c ).ids.clone ();
+		diff.andNot ( ids );
+		return diff.isEmpty ();
+	}
+
+	@Override
+	public boolean equals ( Object o )
+	{
+		if ( isCompatible ( o ) ) return ids.equals ( ( (EntityBitmapSet<?>) o ).ids );
+		return super.equals ( o );
+	}
+
+	/**
+	 * A modifiable copy of this set, including when this is {@link #unmodifiable() read-only}.
+	 */
+	public EntityBitmapSet<E> copy ()
+	{
+		return new EntityBitmapSet<> ( ids.clone (), type, graphSID, resolver, false );
+	}
+
+	/**
+	 * A read-only view of this set, which reflects the changes to this set.
+	 */
+	public EntityBitmapSet<E> unmodifiable ()
+	{
+		return isReadOnly ? this : new EntityBitmapSet<> ( ids, type, graphSID, resolver, true );
+	}
+
+	public boolean isReadOnly ()
+	{
+		return isReadOnly;
+	}
+
+	public Class<E> getType ()
+	{
+		return type;
+	}
+
+	public long getGraphSID ()
+	{
+		return graphSID;
+	}
+
+	/**
+	 * The approximate heap taken by this set, excluding the entities, see {@link HeapEstimates}.
+	 */
+	public long estimateBytes ()
+	{
+		return HeapEstimates.ofObject ( 16 ) + ids.estimateBytes ();
+	}
+
+	/**
+	 * The ids in this set. Changes to the bitmap affect the set.
+	 */
+	IdBitmap getIds ()
+	{
+		return ids;
+	}
+
+	/**
+	 * True if the bitmap-level operations can be used with the parameter, ie, it's a set of this class, about the
+	 * same entity type and the same graph.
+	 */
+	boolean isCompatible ( Object o )
+	{
+		if ( !( o instanceof EntityBitmapSet ) ) return false;
+		EntityBitmapSet<?> other = (EntityBitmapSet<?>) o;
+		return other.type == type && other.graphSID == graphSID;
+	}
+
+	private void checkWritable ()
+	{
+		if ( isReadOnly ) throw new UnsupportedOperationException ( "Can't change a read-only set of ONDEX entities" );
+	}
+}
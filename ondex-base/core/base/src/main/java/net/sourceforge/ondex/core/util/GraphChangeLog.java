@@ -0,0 +1,440 @@
+package net.sourceforge.ondex.core.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.WeakHashMap;
+import java.util.function.IntConsumer;
+
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
+
+/**
+ * <p>Records which concepts and relations of a graph are created, deleted or modified, so that the downstream
+ * components (eg, indexing, exporters) can process only what changed since their last run, rather than the
+ * whole graph. This is enabled via {@link AbstractONDEXGraph#startChangeLog()}.</p>
+ *
+ * <p>The changes are grouped into epochs. A consumer gets the current epoch with {@link #nextEpoch()}, processes
+ * the graph, and later asks for {@link #getChangesSince(int) what changed since} that epoch. Each epoch keeps
+ * compact id bitmaps, not the changes themselves, so the log doesn't say what a change was, only which entities
+ * and which {@link Aspect aspects} of them were affected.</p>
+ *
+ * <p>The changes are normalised: an entity created and then deleted within the requested epochs doesn't appear
+ * at all, a created entity is never reported as modified, and an entity that is deleted and re-created with the
+ * same id (possible in {@link AbstractONDEXGraph#isLoadingMode() loading mode}) is reported as modified in all
+ * its aspects.</p>
+ *
+ * <p>Components that follow the log for a long time should {@link #addConsumer(Object) register} with it and
+ * {@link #advanceConsumer(Object, int) report} what they have processed, see
+ * {@link AbstractONDEXGraph#acquireChangeLog(Object)}. When the log is {@link #setConsumersOnly(boolean) used by
+ * the registered consumers only}, the epochs that none of them needs anymore are discarded.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class GraphChangeLog implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * What is changed in a modified entity.
+	 */
+	public static enum Aspect
+	{
+		ATTRIBUTES,
+		/** Concept names, for concepts only. */
+		NAMES,
+		/** Concept accessions, for concepts only. */
+		ACCESSIONS,
+		EVIDENCE,
+		TAGS,
+		/** PID, annotation, description, for concepts only. */
+		PROPERTIES
+	}
+
+	/**
+	 * The changes about concepts or relations.
+	 */
+	public static class EntityChanges implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private static final Aspect[] ASPECTS = Aspect.values ();
+
+		private final IdBitmap created = new IdBitmap ();
+		private final IdBitmap deleted = new IdBitmap ();
+		private final IdBitmap[] modified = new IdBitmap [ ASPECTS.length ];
+
+		EntityChanges ()
+		{
+			for ( int i = 0; i < modified.length; i++ )
+				modified [ i ] = new IdBitmap ();
+		}
+
+		public IdBitmap getCreated () {
+			return created;
+		}
+
+		public IdBitmap getDeleted () {
+			return deleted;
+		}
+
+		/**
+		 * The entities modified in the given aspect, not including the created and deleted ones.
+		 */
+		public IdBitmap getModified ( Aspect aspect ) {
+			return modified [ aspect.ordinal () ];
+		}
+
+		/**
+		 * The entities modified in any aspect, this is a new bitmap.
+		 */
+		public IdBitmap getModified ()
+		{
+			IdBitmap result = new IdBitmap ();
+			for ( IdBitmap m: modified )
+				result.or ( m );
+			return result;
+		}
+
+		public boolean isEmpty ()
+		{
+			if ( !( created.isEmpty () && deleted.isEmpty () ) ) return false;
+			for ( IdBitmap m: modified )
+				if ( !m.isEmpty () ) return false;
+			return true;
+		}
+
+		void create ( int id )
+		{
+			// Deleted and re-created: from outside, it's a change of everything
+			if ( deleted.remove ( id ) )
+				for ( IdBitmap m: modified ) m.add ( id );
+			else
+			{
+				created.add ( id );
+				// Eg, evidence added while the graph was storing the new entity
+				for ( IdBitmap m: modified ) m.remove ( id );
+			}
+		}
+
+		void delete ( int id )
+		{
+			for ( IdBitmap m: modified ) m.remove ( id );
+			// Created and deleted: from outside, it never existed
+			if ( !created.remove ( id ) ) deleted.add ( id );
+		}
+
+		void modify ( int id, Aspect aspect )
+		{
+			if ( created.contains ( id ) ) return;
+			modified [ aspect.ordinal () ].add ( id );
+		}
+
+		/**
+		 * Adds the changes of a later epoch. In a normalised epoch, the created and deleted ids are disjoint and
+		 * neither is in the modified ones, so the order in which they're applied here doesn't matter.
+		 */
+		void merge ( EntityChanges later )
+		{
+			forEach ( later.deleted, this::delete );
+			forEach ( later.created, this::create );
+			for ( Aspect aspect: ASPECTS )
+				forEach ( later.getModified ( aspect ), id -> modify ( id, aspect ) );
+		}
+
+		long estimateBytes ()
+		{
+			long result = created.estimateBytes () + deleted.estimateBytes ();
+			for ( IdBitmap m: modified )
+				result += m.estimateBytes ();
+			return result;
+		}
+
+		private static void forEach ( IdBitmap ids, IntConsumer action )
+		{
+			for ( PrimitiveIterator.OfInt itr = ids.iterator (); itr.hasNext (); )
+				action.accept ( itr.nextInt () );
+		}
+	}
+
+	/**
+	 * The changes returned by {@link GraphChangeLog#getChangesSince(int)}. These are copies, which the caller can
+	 * modify.
+	 */
+	public static class Changes implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final int fromEpoch, toEpoch;
+		private final EntityChanges concepts = new EntityChanges ();
+		private final EntityChanges relations = new EntityChanges ();
+
+		Changes ( int fromEpoch, int toEpoch )
+		{
+			this.fromEpoch = fromEpoch;
+			this.toEpoch = toEpoch;
+		}
+
+		public EntityChanges getConcepts () {
+			return concepts;
+		}
+
+		public EntityChanges getRelations () {
+			return relations;
+		}
+
+		/**
+		 * The first epoch included.
+		 */
+		public int getFromEpoch () {
+			return fromEpoch;
+		}
+
+		/**
+		 * The last epoch included, ie, the current one when the changes were computed.
+		 */
+		public int getToEpoch () {
+			return toEpoch;
+		}
+
+		public boolean isEmpty () {
+			return concepts.isEmpty () && relations.isEmpty ();
+		}
+	}
+
+	/**
+	 * One per epoch, starting from firstEpoch.
+	 */
+	private final List<Changes> epochs = new ArrayList<> ();
+	private int firstEpoch = 0;
+
+	/**
+	 * consumer =&gt; the first epoch it still needs. The consumers are weakly referenced, so that one that is
+	 * garbage-collected without {@link #removeConsumer(Object) being removed} doesn't hold the epochs forever.
+	 */
+	private transient Map<Object, Integer> consumers = new WeakHashMap<> ();
+	private boolean isConsumersOnly = false;
+
+	/**
+	 * See {@link #getChangeCount()}.
+	 */
+	private volatile long changeCount = 0;
+
+
+	public GraphChangeLog ()
+	{
+		epochs.add ( new Changes ( 0, 0 ) );
+	}
+
+	/**
+	 * The epoch in which the changes are currently recorded.
+	 */
+	public synchronized int getEpoch ()
+	{
+		return firstEpoch + epochs.size () - 1;
+	}
+
+	/**
+	 * The no. of changes recorded so far. This doesn't need synchronisation, so consumers that poll the log often
+	 * can use it to check if there is anything new before calling {@link #getChangesSince(int)}.
+	 */
+	public long getChangeCount ()
+	{
+		return changeCount;
+	}
+
+	/**
+	 * Closes the current epoch and starts a new one.
+	 *
+	 * @return the new epoch, which can be passed to {@link #getChangesSince(int)} later, to get the changes made
+	 * after this call.
+	 */
+	public synchronized int nextEpoch ()
+	{
+		int result = getEpoch () + 1;
+		epochs.add ( new Changes ( result, result ) );
+		discardUnused ();
+		return result;
+	}
+
+	/**
+	 * The changes recorded from the beginning of the given epoch up to now.
+	 *
+	 * @throws IllegalArgumentException if the epoch was {@link #discardBefore(int) discarded}, in which case the
+	 * caller should process the whole graph.
+	 */
+	public synchronized Changes getChangesSince ( int epoch )
+	{
+		if ( !isAvailable ( epoch ) ) throw new IllegalArgumentException (
+			"The graph change log doesn't have the epoch " + epoch + ", the first available is " + firstEpoch
+		);
+
+		int current = getEpoch ();
+		Changes result = new Changes ( epoch, current );
+		for ( int i = epoch - firstEpoch; i < epochs.size (); i++ )
+		{
+			Changes ch = epochs.get ( i );
+			result.concepts.merge ( ch.concepts );
+			result.relations.merge ( ch.relations );
+		}
+		return result;
+	}
+
+	/**
+	 * True if {@link #getChangesSince(int)} can be used for the epoch. Future epochs are available and yield no
+	 * changes.
+	 */
+	public synchronized boolean isAvailable ( int epoch )
+	{
+		return epoch >= firstEpoch;
+	}
+
+	/**
+	 * Forgets the epochs before the given one, to free memory when no consumer needs them anymore.
+	 */
+	public synchronized void discardBefore ( int epoch )
+	{
+		int n = Math.min ( epoch, getEpoch () ) - firstEpoch;
+		if ( n <= 0 ) return;
+		epochs.subList ( 0, n ).clear ();
+		firstEpoch += n;
+	}
+
+	/**
+	 * Registers a consumer, which will get the changes from the returned epoch on. Registering an existing consumer
+	 * moves it to the new epoch.
+	 *
+	 * @return a new epoch, as for {@link #nextEpoch()}.
+	 */
+	public synchronized int addConsumer ( Object consumer )
+	{
+		int result = nextEpoch ();
+		consumers ().put ( consumer, result );
+		discardUnused ();
+		return result;
+	}
+
+	/**
+	 * The first epoch that a registered consumer still needs.
+	 */
+	public synchronized int getConsumerEpoch ( Object consumer )
+	{
+		Integer result = consumers ().get ( consumer );
+		if ( result == null ) throw new IllegalArgumentException (
+			"The consumer " + consumer + " isn't registered with the graph change log"
+		);
+		return result;
+	}
+
+	/**
+	 * Tells that the consumer has processed the changes before the epoch, so that they can be
+	 * {@link #discardBefore(int) discarded}, if no other consumer needs them.
+	 */
+	public synchronized void advanceConsumer ( Object consumer, int epoch )
+	{
+		if ( consumers ().replace ( consumer, epoch ) == null ) throw new IllegalArgumentException (
+			"The consumer " + consumer + " isn't registered with the graph change log"
+		);
+		discardUnused ();
+	}
+
+	/**
+	 * @return true if there are no consumers left, in which case, if the log is {@link #isConsumersOnly() for the
+	 * consumers only}, it keeps the current epoch only.
+	 */
+	public synchronized boolean removeConsumer ( Object consumer )
+	{
+		consumers ().remove ( consumer );
+		discardUnused ();
+		return consumers.isEmpty ();
+	}
+
+	/**
+	 * True if the log is read by the {@link #addConsumer(Object) registered consumers} only, which makes it
+	 * discard the epochs that they've all processed. This is false by default, since code that calls
+	 * {@link #getChangesSince(int)} without registering might need any epoch.
+	 */
+	public synchronized boolean isConsumersOnly ()
+	{
+		return isConsumersOnly;
+	}
+
+	/**
+	 * See {@link #isConsumersOnly()}. Setting this discards the epochs that the consumers don't need.
+	 */
+	public synchronized void setConsumersOnly ( boolean isConsumersOnly )
+	{
+		this.isConsumersOnly = isConsumersOnly;
+		discardUnused ();
+	}
+
+	/**
+	 * Keeps the epochs still needed by some consumer, if {@link #isConsumersOnly() nobody else reads the log}.
+	 */
+	private void discardUnused ()
+	{
+		if ( !isConsumersOnly ) return;
+		discardBefore ( consumers ().isEmpty () ? getEpoch () : Collections.min ( consumers.values () ) );
+	}
+
+	/**
+	 * The consumers aren't serialised.
+	 */
+	private Map<Object, Integer> consumers ()
+	{
+		if ( consumers == null ) consumers = new WeakHashMap<> ();
+		return consumers;
+	}
+
+	public synchronized void conceptCreated ( int id ) {
+		changeCount++;
+		current ().concepts.create ( id );
+	}
+
+	public synchronized void conceptDeleted ( int id ) {
+		changeCount++;
+		current ().concepts.delete ( id );
+	}
+
+	public synchronized void conceptModified ( int id, Aspect aspect ) {
+		changeCount++;
+		current ().concepts.modify ( id, aspect );
+	}
+
+	public synchronized void relationCreated ( int id ) {
+		changeCount++;
+		current ().relations.create ( id );
+	}
+
+	public synchronized void relationDeleted ( int id ) {
+		changeCount++;
+		current ().relations.delete ( id );
+	}
+
+	public synchronized void relationModified ( int id, Aspect aspect ) {
+		changeCount++;
+		current ().relations.modify ( id, aspect );
+	}
+
+	/**
+	 * The approximate heap taken by the recorded epochs, see {@link HeapEstimates}.
+	 */
+	public synchronized long estimateBytes ()
+	{
+		long result = HeapEstimates.ofObject ( 24 );
+		for ( Changes ch: epochs )
+			result += ch.concepts.estimateBytes () + ch.relations.estimateBytes ();
+		return result;
+	}
+
+	private Changes current ()
+	{
+		return epochs.get ( epochs.size () - 1 );
+	}
+}
@@ -0,0 +1,212 @@
+package net.sourceforge.ondex.core.util;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>An estimate of the heap taken by an ONDEX graph, as returned by
+ * {@link net.sourceforge.ondex.core.base.AbstractONDEXGraph#getFootprint()}.</p>
+ *
+ * <p>This reports entity counts and estimated bytes from three points of view:</p>
+ * <ul>
+ *   <li>the graph internal indexes (eg, id =&gt; concept, concept class =&gt; concepts), which depend on the graph
+ *   implementation</li>
+ *   <li>the concepts per concept class and the relations per relation type, including everything they own (names,
+ *   accessions, attributes)</li>
+ *   <li>the attributes per attribute name, which are part of the entity figures too</li>
+ * </ul>
+ *
+ * <p>The entity figures are extrapolated from a sample of entities per key, see {@link HeapEstimates} for the
+ * accuracy of the estimates.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class GraphFootprint implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The no. of entities that are inspected per concept class, relation type and attribute name. Can be set via
+	 * {@link #SAMPLE_SIZE_PROP}.
+	 */
+	public static final int DEFAULT_SAMPLE_SIZE = 64;
+	public static final String SAMPLE_SIZE_PROP = "ondex.graph.footprint.sampleSize";
+
+	/**
+	 * The no. of elements and the estimated bytes of a graph component.
+	 */
+	public static class Entry implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final long count;
+		private final long bytes;
+
+		public Entry ( long count, long bytes )
+		{
+			this.count = count;
+			this.bytes = bytes;
+		}
+
+		public long getCount () {
+			return count;
+		}
+
+		public long getBytes () {
+			return bytes;
+		}
+
+		@Override
+		public String toString () {
+			return String.format ( "%,d elements, %s", count, formatBytes ( bytes ) );
+		}
+	}
+
+	private final String graphName;
+	private final long conceptCount;
+	private final long relationCount;
+
+	private final Map<String, Entry> indexes = new LinkedHashMap<> ();
+	private final Map<String, Entry> conceptClasses = new TreeMap<> ();
+	private final Map<String, Entry> relationTypes = new TreeMap<> ();
+	private final Map<String, Entry> attributeNames = new TreeMap<> ();
+
+	private long elapsedMillis = 0;
+
+	public GraphFootprint ( String graphName, long conceptCount, long relationCount )
+	{
+		this.graphName = graphName;
+		this.conceptCount = conceptCount;
+		this.relationCount = relationCount;
+	}
+
+	public void addIndex ( String name, long entries, long bytes ) {
+		indexes.put ( name, new Entry ( entries, bytes ) );
+	}
+
+	public void addConceptClass ( String id, long concepts, long bytes ) {
+		conceptClasses.put ( id, new Entry ( concepts, bytes ) );
+	}
+
+	public void addRelationType ( String id, long relations, long bytes ) {
+		relationTypes.put ( id, new Entry ( relations, bytes ) );
+	}
+
+	public void addAttributeName ( String id, long attributes, long bytes ) {
+		attributeNames.put ( id, new Entry ( attributes, bytes ) );
+	}
+
+	public String getGraphName () {
+		return graphName;
+	}
+
+	public long getConceptCount () {
+		return conceptCount;
+	}
+
+	public long getRelationCount () {
+		return relationCount;
+	}
+
+	/**
+	 * Index name =&gt; no. of entries (ie, the entity references) and bytes, in the order the graph reported them.
+	 */
+	public Map<String, Entry> getIndexes () {
+		return Collections.unmodifiableMap ( indexes );
+	}
+
+	public Map<String, Entry> getConceptClasses () {
+		return Collections.unmodifiableMap ( conceptClasses );
+	}
+
+	public Map<String, Entry> getRelationTypes () {
+		return Collections.unmodifiableMap ( relationTypes );
+	}
+
+	/**
+	 * These bytes are included in {@link #getConceptClasses()} and {@link #getRelationTypes()} too.
+	 */
+	public Map<String, Entry> getAttributeNames () {
+		return Collections.unmodifiableMap ( attributeNames );
+	}
+
+	public long getIndexBytes () {
+		return sumBytes ( indexes );
+	}
+
+	/**
+	 * The concepts and relations, including their attributes.
+	 */
+	public long getEntityBytes () {
+		return sumBytes ( conceptClasses ) + sumBytes ( relationTypes );
+	}
+
+	public long getEstimatedBytes () {
+		return getIndexBytes () + getEntityBytes ();
+	}
+
+	/**
+	 * How long it took to compute this footprint.
+	 */
+	public long getElapsedMillis () {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis ( long elapsedMillis ) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * A one-line summary, with the totals only.
+	 */
+	public String getSummary ()
+	{
+		return String.format (
+			"Heap footprint of the graph \"%s\": %,d concepts, %,d relations, about %s (%s in the indexes), computed in %d ms",
+			graphName, conceptCount, relationCount, formatBytes ( getEstimatedBytes () ), formatBytes ( getIndexBytes () ),
+			elapsedMillis
+		);
+	}
+
+	/**
+	 * A multi-line report, which starts with the {@link #getSummary() summary} and then lists the components from
+	 * the largest to the smallest.
+	 */
+	@Override
+	public String toString ()
+	{
+		StringBuilder sb = new StringBuilder ( getSummary () );
+		appendSection ( sb, "Indexes", indexes );
+		appendSection ( sb, "Concept classes", conceptClasses );
+		appendSection ( sb, "Relation types", relationTypes );
+		appendSection ( sb, "Attribute names", attributeNames );
+		return sb.toString ();
+	}
+
+	private static void appendSection ( StringBuilder sb, String title, Map<String, Entry> entries )
+	{
+		if ( entries.isEmpty () ) return;
+		sb.append ( "\n  " ).append ( title ).append ( ':' );
+		entries.entrySet ()
+			.stream ()
+			.sorted ( ( e1, e2 ) -> Long.compare ( e2.getValue ().getBytes (), e1.getValue ().getBytes () ) )
+			.forEach ( e -> sb.append ( "\n    " ).append ( e.getKey () ).append ( ": " ).append ( e.getValue () ) );
+	}
+
+	private static long sumBytes ( Map<String, Entry> entries ) {
+		return entries.values ().stream ().mapToLong ( Entry::getBytes ).sum ();
+	}
+
+	public static String formatBytes ( long bytes )
+	{
+		if ( bytes < 1024 ) return bytes + " B";
+		if ( bytes < 1024 * 1024 ) return String.format ( "%.1f KB", bytes / 1024d );
+		if ( bytes < 1024 * 1024 * 1024 ) return String.format ( "%.1f MB", bytes / ( 1024d * 1024 ) );
+		return String.format ( "%.2f GB", bytes / ( 1024d * 1024 * 1024 ) );
+	}
+}
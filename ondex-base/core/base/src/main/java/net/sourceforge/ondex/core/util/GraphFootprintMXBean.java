@@ -0,0 +1,59 @@
+package net.sourceforge.ondex.core.util;
+
+import java.util.Map;
+
+/**
+ * <p>The JMX view of a {@link GraphFootprint}, registered by {@link GraphFootprintMonitor}.</p>
+ *
+ * <p>The attributes are taken from a footprint that is cached for {@link GraphFootprintMonitor#MAX_AGE_MILLIS}, so
+ * that a JMX console that polls all the attributes doesn't compute it for each of them. Use {@link #refresh()} to
+ * get fresh figures.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public interface GraphFootprintMXBean
+{
+	String getGraphName ();
+
+	long getConceptCount ();
+
+	long getRelationCount ();
+
+	long getEstimatedBytes ();
+
+	long getIndexBytes ();
+
+	/**
+	 * Index name =&gt; estimated bytes.
+	 */
+	Map<String, Long> getIndexes ();
+
+	/**
+	 * Concept class id =&gt; estimated bytes.
+	 */
+	Map<String, Long> getConceptClasses ();
+
+	/**
+	 * Relation type id =&gt; estimated bytes.
+	 */
+	Map<String, Long> getRelationTypes ();
+
+	/**
+	 * Attribute name id =&gt; estimated bytes.
+	 */
+	Map<String, Long> getAttributeNames ();
+
+	long getElapsedMillis ();
+
+	/**
+	 * {@link GraphFootprint#toString()}.
+	 */
+	String getReport ();
+
+	/**
+	 * Recomputes the footprint.
+	 */
+	void refresh ();
+}
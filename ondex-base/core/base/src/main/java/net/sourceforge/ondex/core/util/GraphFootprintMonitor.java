@@ -0,0 +1,199 @@
+package net.sourceforge.ondex.core.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
+
+/**
+ * <p>Publishes the {@link GraphFootprint} of a graph on the platform MBean server, so that it can be inspected with
+ * tools like JConsole or VisualVM while a workflow is running.</p>
+ *
+ * <p>The monitor only keeps a weak reference to the graph, so registering it doesn't prevent the graph from being
+ * garbage-collected. When this happens, the attributes return empty values and the bean can be
+ * {@link #unregister(AbstractONDEXGraph) unregistered}.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class GraphFootprintMonitor implements GraphFootprintMXBean
+{
+	/**
+	 * How long the computed footprint is reused.
+	 */
+	public static final long MAX_AGE_MILLIS = 10000;
+
+	private static final Logger log = LoggerFactory.getLogger ( GraphFootprintMonitor.class );
+
+	private final WeakReference<AbstractONDEXGraph> graphRef;
+	private final String graphName;
+
+	private GraphFootprint footprint = null;
+	private long footprintTime = 0;
+
+	public GraphFootprintMonitor ( AbstractONDEXGraph graph )
+	{
+		this.graphRef = new WeakReference<> ( graph );
+		this.graphName = graph.getName ();
+	}
+
+	/**
+	 * Registers a monitor for the graph, replacing any previous one.
+	 *
+	 * @return the registered name, or null if the registration failed. Failures are logged and not propagated,
+	 * since the monitoring is an optional feature.
+	 */
+	public static ObjectName register ( AbstractONDEXGraph graph )
+	{
+		try
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer ();
+			ObjectName name = getObjectName ( graph );
+			if ( server.isRegistered ( name ) ) server.unregisterMBean ( name );
+			server.registerMBean ( new GraphFootprintMonitor ( graph ), name );
+			return name;
+		}
+		catch ( JMException ex )
+		{
+			log.warn ( "Can't register the JMX footprint monitor for the graph \"{}\": {}", graph.getName (), ex.getMessage () );
+			return null;
+		}
+	}
+
+	public static void unregister ( AbstractONDEXGraph graph )
+	{
+		try
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer ();
+			ObjectName name = getObjectName ( graph );
+			if ( server.isRegistered ( name ) ) server.unregisterMBean ( name );
+		}
+		catch ( JMException ex )
+		{
+			log.warn ( "Can't unregister the JMX footprint monitor for the graph \"{}\": {}", graph.getName (), ex.getMessage () );
+		}
+	}
+
+	/**
+	 * net.sourceforge.ondex:type=ONDEXGraph,name=&lt;graph name&gt;,sid=&lt;graph SID&gt;
+	 */
+	public static ObjectName getObjectName ( AbstractONDEXGraph graph ) throws JMException
+	{
+		String name = graph.getName () == null ? "" : graph.getName ();
+		return new ObjectName (
+			"net.sourceforge.ondex:type=ONDEXGraph,name=" + ObjectName.quote ( name ) + ",sid=" + graph.getSID ()
+		);
+	}
+
+	/**
+	 * The cached footprint, possibly recomputed. Returns null if the graph was garbage-collected.
+	 */
+	public synchronized GraphFootprint getFootprint ()
+	{
+		AbstractONDEXGraph graph = graphRef.get ();
+		if ( graph == null ) return null;
+
+		if ( footprint == null || System.currentTimeMillis () - footprintTime > MAX_AGE_MILLIS ) refresh ();
+		return footprint;
+	}
+
+	@Override
+	public synchronized void refresh ()
+	{
+		AbstractONDEXGraph graph = graphRef.get ();
+		footprint = graph == null ? null : graph.getFootprint ();
+		footprintTime = System.currentTimeMillis ();
+	}
+
+	@Override
+	public String getGraphName () {
+		return graphName;
+	}
+
+	@Override
+	public long getConceptCount ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? 0 : fp.getConceptCount ();
+	}
+
+	@Override
+	public long getRelationCount ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? 0 : fp.getRelationCount ();
+	}
+
+	@Override
+	public long getEstimatedBytes ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? 0 : fp.getEstimatedBytes ();
+	}
+
+	@Override
+	public long getIndexBytes ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? 0 : fp.getIndexBytes ();
+	}
+
+	@Override
+	public Map<String, Long> getIndexes ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? Map.of () : toBytes ( fp.getIndexes () );
+	}
+
+	@Override
+	public Map<String, Long> getConceptClasses ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? Map.of () : toBytes ( fp.getConceptClasses () );
+	}
+
+	@Override
+	public Map<String, Long> getRelationTypes ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? Map.of () : toBytes ( fp.getRelationTypes () );
+	}
+
+	@Override
+	public Map<String, Long> getAttributeNames ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? Map.of () : toBytes ( fp.getAttributeNames () );
+	}
+
+	@Override
+	public long getElapsedMillis ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? 0 : fp.getElapsedMillis ();
+	}
+
+	@Override
+	public String getReport ()
+	{
+		GraphFootprint fp = getFootprint ();
+		return fp == null ? "The graph \"" + graphName + "\" is no longer available" : fp.toString ();
+	}
+
+	private static Map<String, Long> toBytes ( Map<String, GraphFootprint.Entry> entries )
+	{
+		Map<String, Long> result = new LinkedHashMap<> ();
+		entries.forEach ( ( k, v ) -> result.put ( k, v.getBytes () ) );
+		return result;
+	}
+}
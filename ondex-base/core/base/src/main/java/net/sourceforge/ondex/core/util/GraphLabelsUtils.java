@@ -1,8 +1,14 @@
 package net.sourceforge.ondex.core.util;
 
+import java.lang.ref.WeakReference;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.PrimitiveIterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -11,18 +17,228 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
+import com.google.common.cache.CacheBuilder;
+
+import net.sourceforge.ondex.config.ONDEXGraphRegistry;
 import net.sourceforge.ondex.core.ConceptAccession;
 import net.sourceforge.ondex.core.ConceptClass;
 import net.sourceforge.ondex.core.ConceptName;
 import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
+import net.sourceforge.ondex.core.util.GraphChangeLog.EntityChanges;
 import uk.ac.ebi.utils.regex.RegEx;
 
 /**
- * Methods to choose best labels for {@link ONDEXConcept}.
- * Was migrated from KnetMiner.
+ * <p>Methods to choose best labels for {@link ONDEXConcept}.
+ * Was migrated from KnetMiner.</p>
+ * 
+ * <p>Computing a label requires scanning and sorting the concept names and accessions, which is expensive when 
+ * it's done for every concept in a request or an export. So, for a given graph, the best labels and accessions 
+ * can be cached, see {@link #precomputeLabels(ONDEXGraph)}.</p>
  */
 public class GraphLabelsUtils
 {
+	/**
+	 * <p>The labels cached for a graph, concept id =&gt; labels, as per slots in {@link #SLOTS}.</p>
+	 * 
+	 * <p>The labels of concepts that change are evicted by means of the graph's 
+	 * {@link AbstractONDEXGraph#startChangeLog() change log}, in the same way as {@link GraphMemIndex}, including
+	 * being one of its {@link AbstractONDEXGraph#acquireChangeLog(Object) consumers}.</p>
+	 */
+	private static class LabelsCache
+	{
+		/**
+		 * The label variants: best concept label (without and with filterAccessionsFromNames, and then the same 
+		 * with useGeneSpeciePrefix), best accession, best gene accession.
+		 */
+		private static final int SLOTS = 6;
+		
+		private final ConcurrentMap<Integer, String[]> labels = new ConcurrentHashMap<> ();
+		private final WeakReference<ONDEXGraph> graphRef;
+		
+		/**
+		 * null if the graph doesn't support it.
+		 */
+		private volatile GraphChangeLog changeLog;
+		private volatile long syncedChangeCount;
+		private int syncedEpoch;
+		
+		LabelsCache ( ONDEXGraph graph )
+		{
+			this.graphRef = new WeakReference<> ( graph );
+			this.reset ( graph );
+		}
+		
+		/**
+		 * Multiple threads might compute the same label, which is harmless, since they yield the same result.
+		 */
+		String get ( int conceptId, int slot, Supplier<String> labelComputer )
+		{
+			syncChanges ();
+			String[] row = labels.computeIfAbsent ( conceptId, id -> new String [ SLOTS ] );
+			String result = row [ slot ];
+			if ( result == null ) row [ slot ] = result = labelComputer.get ();
+			return result;
+		}
+		
+		/**
+		 * Drops the labels of the concepts having new, deleted or changed names/accessions/PIDs. Deleted and 
+		 * re-created concepts are reported as created or modified, so they're dropped too.
+		 */
+		private void syncChanges ()
+		{
+			GraphChangeLog clog = this.changeLog;
+			if ( clog == null ) return;
+			if ( clog.getChangeCount () == syncedChangeCount && clog == currentChangeLog () ) return;
+			
+			synchronized ( this )
+			{
+				ONDEXGraph graph = graphRef.get ();
+				if ( graph == null || changeLog == null ) return; // released meanwhile
+				
+				if ( changeLog != currentChangeLog () ) {
+					// The log was stopped or replaced, we might have missed something
+					reset ( graph );
+					return;
+				}
+				
+				long changeCount = changeLog.getChangeCount ();
+				if ( changeCount == syncedChangeCount ) return;
+
+				int newEpoch = changeLog.nextEpoch ();
+				if ( !changeLog.isAvailable ( syncedEpoch ) ) {
+					reset ( graph );
+					return;
+				}
+				EntityChanges changes = changeLog.getChangesSince ( syncedEpoch ).getConcepts ();
+				
+				for ( IdBitmap ids: List.of ( 
+					changes.getCreated (), changes.getDeleted (), changes.getModified ( Aspect.NAMES ), 
+					changes.getModified ( Aspect.ACCESSIONS ), changes.getModified ( Aspect.PROPERTIES ) 
+				))
+					for ( PrimitiveIterator.OfInt itr = ids.iterator (); itr.hasNext (); )
+						labels.remove ( itr.nextInt () );
+				
+				syncedEpoch = newEpoch;
+				syncedChangeCount = changeCount;
+				changeLog.advanceConsumer ( this, newEpoch );
+			}
+		}
+		
+		private synchronized void reset ( ONDEXGraph graph )
+		{
+			labels.clear ();
+			if ( !( graph instanceof AbstractONDEXGraph ) ) return;
+			
+			changeLog = ( (AbstractONDEXGraph) graph ).acquireChangeLog ( this );
+			syncedChangeCount = changeLog.getChangeCount ();
+			syncedEpoch = changeLog.getConsumerEpoch ( this );
+		}
+		
+		/**
+		 * Releases the change log, see {@link GraphMemIndex#clear()}.
+		 */
+		private synchronized void release ()
+		{
+			ONDEXGraph graph = graphRef.get ();
+			if ( changeLog != null && graph != null ) ( (AbstractONDEXGraph) graph ).releaseChangeLog ( this );
+			changeLog = null;
+		}
+		
+		private GraphChangeLog currentChangeLog ()
+		{
+			ONDEXGraph graph = graphRef.get ();
+			return graph == null ? null : ( (AbstractONDEXGraph) graph ).getChangeLog ();
+		}
+	}
+	
+	/**
+	 * graph =&gt; its labels cache, the graph is compared by identity. 
+	 */
+	private static final ConcurrentMap<ONDEXGraph, LabelsCache> LABEL_CACHES = CacheBuilder.newBuilder ()
+		.weakKeys ()
+		.<ONDEXGraph, LabelsCache> build ()
+		.asMap ();
+	
+	
+	/**
+	 * <p>Enables the labels cache for the graph and fills it in parallel, with all the label variants used by the 
+	 * getBestConceptLabelXXX(), {@link #getBestAccession(ONDEXConcept)} and {@link #getBestGeneAccession(ONDEXConcept)} 
+	 * methods. After this, these methods just fetch labels from the cache for the concepts of this graph, 
+	 * until {@link #clearLabelsCache(ONDEXGraph)} is called. This is useful before exporting a graph, or when serving
+	 * label requests about the same graph.</p>
+	 * 
+	 * <p>If the graph is an {@link AbstractONDEXGraph}, this acquires its {@link AbstractONDEXGraph#acquireChangeLog(Object) 
+	 * change log} and the labels of the concepts that change names, accessions or PID are re-computed 
+	 * at the next request. For other graphs, the cache isn't updated and you should call this method again after 
+	 * changing the graph.</p>
+	 * 
+	 * <p>The graph must support concurrent reads.</p>
+	 */
+	public static void precomputeLabels ( ONDEXGraph graph )
+	{
+		LabelsCache cache = LABEL_CACHES.computeIfAbsent ( graph, LabelsCache::new );
+		if ( !( graph instanceof AbstractONDEXGraph ) ) cache.reset ( graph );
+		
+		graph.getConcepts ().parallelStream ().forEach ( c -> 
+		{
+			for ( boolean filterAccessionsFromNames: new boolean[] { false, true } )
+			{
+				getBestConceptLabelCore ( c, filterAccessionsFromNames, 0, false );
+				getBestConceptLabelCore ( c, filterAccessionsFromNames, 0, true );
+			}
+			getBestAccession ( c );
+			getBestGeneAccession ( c );
+		});
+	}
+	
+	/**
+	 * <p>Enables the labels cache for the graph, if it doesn't have one yet. Unlike 
+	 * {@link #precomputeLabels(ONDEXGraph)}, this doesn't compute anything in advance, each label variant is 
+	 * cached the first time it's requested for a concept. This is what a component like an exporter needs, since 
+	 * it uses only one or two of the variants, and it doesn't drop a cache owned by someone else.</p>
+	 * 
+	 * @return true if the cache was created by this call, in which case the caller should 
+	 * {@link #clearLabelsCache(ONDEXGraph) clear it} when it's done.
+	 */
+	public static boolean enableLabelsCacheIfAbsent ( ONDEXGraph graph )
+	{
+		boolean[] isCreated = { false };
+		LABEL_CACHES.computeIfAbsent ( graph, g -> {
+			isCreated [ 0 ] = true;
+			return new LabelsCache ( g );
+		});
+		return isCreated [ 0 ];
+	}
+	
+	/**
+	 * Disables and drops the cache set by {@link #precomputeLabels(ONDEXGraph)} or 
+	 * {@link #enableLabelsCacheIfAbsent(ONDEXGraph)}, releasing the graph's change log. 
+	 */
+	public static void clearLabelsCache ( ONDEXGraph graph )
+	{
+		LabelsCache cache = LABEL_CACHES.remove ( graph );
+		if ( cache != null ) cache.release ();
+	}
+
+	/**
+	 * Uses the {@link #precomputeLabels(ONDEXGraph) labels cache} if the concept's graph has one, else just computes 
+	 * the label. 
+	 */
+	private static String getCachedLabel ( ONDEXConcept c, int slot, Supplier<String> labelComputer )
+	{
+		if ( LABEL_CACHES.isEmpty () ) return labelComputer.get ();
+		
+		ONDEXGraph graph = ONDEXGraphRegistry.graphs.get ( c.getSID () );
+		LabelsCache cache = graph == null ? null : LABEL_CACHES.get ( graph );
+		if ( cache == null ) return labelComputer.get ();
+		
+		return cache.get ( c.getId (), slot, labelComputer );
+	}
+	
+	
 	/**
 	 * Defaults to false.
 	 */
@@ -95,6 +311,21 @@ public class GraphLabelsUtils
 	 */
 	private static String getBestConceptLabelCore (
 		ONDEXConcept c, boolean filterAccessionsFromNames, int maxLen, boolean useGeneSpeciePrefix )
+	{
+		int slot = ( filterAccessionsFromNames ? 1 : 0 ) + ( useGeneSpeciePrefix ? 2 : 0 );
+		String result = getCachedLabel ( 
+			c, slot, () -> computeBestConceptLabel ( c, filterAccessionsFromNames, useGeneSpeciePrefix ) 
+		);
+		if ( maxLen > 3 ) result = StringUtils.abbreviate ( result, maxLen - 3 );
+		return result;
+	}
+
+	/**
+	 * The real computation behind {@link #getBestConceptLabelCore(ONDEXConcept, boolean, int, boolean)}, without 
+	 * the abbreviation. 
+	 */
+	private static String computeBestConceptLabel ( 
+		ONDEXConcept c, boolean filterAccessionsFromNames, boolean useGeneSpeciePrefix )
 	{
 		String typeId = c.getOfType ().getId ();
 		
@@ -113,7 +344,6 @@ public class GraphLabelsUtils
 		}
 			
 		if ( result.isEmpty () ) result = StringUtils.trimToEmpty ( c.getPID () );
-		if ( maxLen > 3 ) result = StringUtils.abbreviate ( result, maxLen - 3 );
 		return result;
 	}
 
@@ -126,7 +356,7 @@ public class GraphLabelsUtils
 	 */
 	public static String getBestAccession ( ONDEXConcept concept )
 	{
-		return getBestAccession ( concept.getConceptAccessions () );
+		return getCachedLabel ( concept, 4, () -> getBestAccession ( concept.getConceptAccessions () ) );
 	}
 	
 	/**
@@ -135,7 +365,7 @@ public class GraphLabelsUtils
 	 */
 	public static String getBestGeneAccession ( ONDEXConcept geneConcept )
 	{
-		return getBestGeneAccession ( geneConcept.getConceptAccessions () );
+		return getCachedLabel ( geneConcept, 5, () -> getBestGeneAccession ( geneConcept.getConceptAccessions () ) );
 	}
 
 	
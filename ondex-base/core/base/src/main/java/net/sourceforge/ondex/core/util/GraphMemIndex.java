@@ -3,30 +3,55 @@ package net.sourceforge.ondex.core.util;
 import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.abbreviate;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Stream;
-
-import javax.crypto.KeyGenerator;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import com.google.common.cache.CacheBuilder;
 
+import net.sourceforge.ondex.config.ONDEXGraphRegistry;
 import net.sourceforge.ondex.core.Attribute;
 import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptAccession;
+import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.ONDEXConcept;
 import net.sourceforge.ondex.core.ONDEXEntity;
 import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Changes;
+import net.sourceforge.ondex.core.util.GraphChangeLog.EntityChanges;
 import uk.ac.ebi.utils.runcontrol.PercentProgressLogger;
 
 /**
- * A simple in-memory index for {@link ONDEXGraph} elements. This is faster (though more limited)
- * than Lucene and we use it for certain functions (eg, to search by URIs in the Cypher graph traverser).
+ * <p>A simple in-memory index for {@link ONDEXGraph} elements. This is faster (though more limited)
+ * than Lucene and we use it for certain functions (eg, to search by URIs in the Cypher graph traverser).</p>
+ *
+ * <p>What is indexed is defined by a list of {@link IndexField}s, the default being the 'iri' attribute only.</p>
+ *
+ * <p>When the graph is an {@link AbstractONDEXGraph}, the index uses its {@link AbstractONDEXGraph#startChangeLog()
+ * change log} to follow the graph: before a lookup, it checks if anything changed since the last time and, if yes,
+ * re-indexes only the created, deleted or modified entities. The index {@link AbstractONDEXGraph#acquireChangeLog(Object)
+ * acquires} the log as one of its consumers and {@link #clear()} releases it, so a log that only the consumers use
+ * discards the epochs they've processed and it's stopped when nobody needs it. For other graphs, {@link #updateIndex()} has to be called after the graph changes, as in the past.</p>
+ *
+ * <p>This class is thread-safe, many threads can query the same index. The index keeps entity ids rather than the
+ * entities.</p>
  *
  * @author brandizi
  * <dl><dt>Date:</dt><dd>Oct 25, 2019</dd></dl>
@@ -34,228 +59,489 @@ import uk.ac.ebi.utils.runcontrol.PercentProgressLogger;
  */
 public class GraphMemIndex
 {
-	private final ONDEXGraph graph; 
+	/**
+	 * <p>An index field, ie, a function that yields index keys for a concept or a relation, plus some configuration
+	 * about how the keys are managed.</p>
+	 *
+	 * <p>A unique field is expected to have one distinct key for each indexed entity, so that missing and duplicated
+	 * keys are reported. A non-unique field can have multiple entities for a key, which are returned by
+	 * {@link GraphMemIndex#getAll(String, Object)}.</p>
+	 */
+	public static class IndexField
+	{
+		/**
+		 * The 'iri' attribute of concepts and relations, field name: "iri". This is the default field.
+		 */
+		public static final IndexField IRI = ofStringAttribute ( "iri", "iri" );
+
+		/**
+		 * The concept accessions, field name: "accession".
+		 */
+		public static final IndexField ACCESSIONS = new IndexField (
+			"accession", true, false, false, Aspect.ACCESSIONS,
+			( graph, concept ) -> ( (ONDEXConcept) concept ).getConceptAccessions ()
+				.stream ()
+				.map ( ConceptAccession::getAccession )
+				.collect ( Collectors.toList () )
+		);
+
+		/**
+		 * The concept names, field name: "name".
+		 */
+		public static final IndexField NAMES = new IndexField (
+			"name", true, false, false, Aspect.NAMES,
+			( graph, concept ) -> ( (ONDEXConcept) concept ).getConceptNames ()
+				.stream ()
+				.map ( ConceptName::getName )
+				.collect ( Collectors.toList () )
+		);
+
+		private final String name;
+		private final boolean forConcepts, forRelations, isUnique;
+		private final Aspect aspect;
+		private final BiFunction<ONDEXGraph, ONDEXEntity, Collection<?>> keysGenerator;
+
+		/**
+		 * @param name the field name used with {@link GraphMemIndex#get(String, Object)}.
+		 * @param aspect the entity {@link Aspect aspect} from which the keys are taken, used to decide what to re-index
+		 * when the graph changes.
+		 * @param keysGenerator a function that returns the keys of an entity. It can return null or an empty
+		 * collection, and it's called by multiple threads.
+		 */
+		public IndexField (
+			String name, boolean forConcepts, boolean forRelations, boolean isUnique, Aspect aspect,
+			BiFunction<ONDEXGraph, ONDEXEntity, Collection<?>> keysGenerator
+		)
+		{
+			this.name = name;
+			this.forConcepts = forConcepts;
+			this.forRelations = forRelations;
+			this.isUnique = isUnique;
+			this.aspect = aspect;
+			this.keysGenerator = keysGenerator;
+		}
+
+		/**
+		 * A unique field, which of keys are the string values of an attribute, for both concepts and relations.
+		 * If the attribute type doesn't exist, nothing is indexed, until it's created.
+		 */
+		public static IndexField ofStringAttribute ( String attribName, String fieldName )
+		{
+			return new IndexField ( fieldName, true, true, true, Aspect.ATTRIBUTES, ( graph, entity ) ->
+			{
+				AttributeName attrType = graph.getMetaData ().getAttributeName ( attribName );
+				if ( attrType == null ) return null;
+
+				return Optional.ofNullable ( entity.getAttribute ( attrType ) )
+					.map ( Attribute::getValue )
+					.map ( av ->
+					{
+						if ( ! ( av instanceof String ) ) throw new IllegalArgumentException ( format (
+							"The attribute \"%s\" has a non-string value: %s", attribName, abbreviate ( av.toString (), 30 )
+						));
+						return Collections.singletonList ( av );
+					})
+					.orElse ( null );
+			});
+		}
+
+		public String getName () {
+			return name;
+		}
+
+		public boolean isForConcepts () {
+			return forConcepts;
+		}
+
+		public boolean isForRelations () {
+			return forRelations;
+		}
+
+		public boolean isUnique () {
+			return isUnique;
+		}
+
+		public Aspect getAspect () {
+			return aspect;
+		}
+	}
 
 	/**
-	 * The indexed and cached objects that we maintain for the current graph. Essentially it is a dynamic table of
-	 * key name, key object =&gt; object.
-	 * 
+	 * The index of a field. Entities are identified by a code, which is the id for the concepts and ~id (ie,
+	 * a negative number) for the relations.
 	 */
-	private Table<String, Object, Object> cache;
+	private class FieldIndex
+	{
+		private final IndexField field;
+
+		/**
+		 * key =&gt; Integer code, or int[] codes for multiple entities.
+		 */
+		private final ConcurrentMap<Object, Object> entities = new ConcurrentHashMap<> ();
+
+		/**
+		 * code =&gt; the keys it was indexed with, needed to un-index entities that were changed or deleted.
+		 */
+		private final ConcurrentMap<Integer, Collection<?>> keys = new ConcurrentHashMap<> ();
+
+		FieldIndex ( IndexField field )
+		{
+			this.field = field;
+		}
+
+		/**
+		 * (Re-)indexes an entity with its current keys.
+		 */
+		void index ( ONDEXGraph graph, ONDEXEntity entity, int code, boolean isFullBuild )
+		{
+			Collection<?> newKeys = field.keysGenerator.apply ( graph, entity );
+			if ( newKeys == null || newKeys.isEmpty () )
+			{
+				unindex ( code );
+				if ( isFullBuild && field.isUnique && log.isWarnEnabled () ) log.warn (
+					"=== NO VALUE FOR THE ONDEX MEMORY INDEX, field: \"{}\", entity: {}",
+					field.name,
+					abbreviate ( entity.toString (), 30 )
+				);
+				return;
+			}
+
+			Collection<?> oldKeys = keys.put ( code, newKeys );
+			if ( oldKeys != null )
+				for ( Object key: oldKeys )
+					if ( !newKeys.contains ( key ) ) entities.computeIfPresent ( key, ( k, v ) -> removeCode ( v, code ) );
+
+			for ( Object key: newKeys )
+			{
+				Object codes = entities.compute ( key, ( k, v ) -> addCode ( v, code ) );
+				if ( field.isUnique && codes instanceof int[] && log.isWarnEnabled () ) log.warn (
+					"=== DUPED VALUES FOR THE ONDEX MEMORY INDEX, field: \"{}\", key: \"{}\", entity: {}",
+					field.name,
+					abbreviate ( key.toString (), 1000 ),
+					abbreviate ( entity.toString (), 30 )
+				);
+			}
+		}
+
+		void unindex ( int code )
+		{
+			Collection<?> oldKeys = keys.remove ( code );
+			if ( oldKeys == null ) return;
+			for ( Object key: oldKeys )
+				entities.computeIfPresent ( key, ( k, v ) -> removeCode ( v, code ) );
+		}
+
+		/**
+		 * The codes for the key, in the order they were indexed.
+		 */
+		int[] getCodes ( Object key )
+		{
+			Object codes = entities.get ( key );
+			if ( codes == null ) return new int [ 0 ];
+			if ( codes instanceof Integer ) return new int[] { (Integer) codes };
+			return (int[]) codes;
+		}
+
+		private Object addCode ( Object codes, int code )
+		{
+			if ( codes == null ) return code;
+			if ( codes instanceof Integer )
+				return (Integer) codes == code ? codes : new int[] { (Integer) codes, code };
+
+			int[] codesArray = (int[]) codes;
+			for ( int c: codesArray )
+				if ( c == code ) return codes;
+			int[] result = Arrays.copyOf ( codesArray, codesArray.length + 1 );
+			result [ codesArray.length ] = code;
+			return result;
+		}
+
+		/**
+		 * Returns null when nothing is left, so that compute() removes the key.
+		 */
+		private Object removeCode ( Object codes, int code )
+		{
+			if ( codes instanceof Integer ) return (Integer) codes == code ? null : codes;
+
+			int[] codesArray = (int[]) codes;
+			int[] result = Arrays.stream ( codesArray ).filter ( c -> c != code ).toArray ();
+			if ( result.length == codesArray.length ) return codes;
+			return result.length == 1 ? (Object) result [ 0 ] : result;
+		}
+	}
+
+
+	private final WeakReference<ONDEXGraph> graphRef;
+	private final List<IndexField> fields;
+
+	/**
+	 * field name =&gt; index. This is replaced as a whole by a full rebuild, so that concurrent lookups see either
+	 * the old or the new version. It's null after {@link #clear()}.
+	 */
+	private volatile Map<String, FieldIndex> indexes;
+
+	/**
+	 * The change log we follow, and where we are with it. null when the graph doesn't support it.
+	 */
+	private volatile GraphChangeLog changeLog;
+	private volatile long syncedChangeCount;
+	private int syncedEpoch;
+
 	private Logger log = LoggerFactory.getLogger ( this.getClass () );
-	
-	
-	
-	private static Map<ONDEXGraph, GraphMemIndex> instances = new HashMap<> ();
+
 
 	/**
-	 * Similarly to {@link CachedGraphWrapper#getInstance(ONDEXGraph)}, we recommend to use this to get a wrapper that 
-	 * caches this graph.
-	 *  
+	 * The graph is the key, compared by identity. Note that the graphs are also referenced by
+	 * {@link ONDEXGraphRegistry}, so the instances stay here as long as their graph is registered.
+	 */
+	private static ConcurrentMap<ONDEXGraph, GraphMemIndex> instances = CacheBuilder.newBuilder ()
+		.weakKeys ()
+		.<ONDEXGraph, GraphMemIndex> build ()
+		.asMap ();
+
+	/**
+	 * Similarly to {@link CachedGraphWrapper#getInstance(ONDEXGraph)}, we recommend to use this to get a wrapper that
+	 * caches this graph. This indexes the default field, {@link IndexField#IRI}.
+	 *
 	 * @param graph
 	 */
-	public static synchronized GraphMemIndex getInstance ( ONDEXGraph graph ) 
+	public static GraphMemIndex getInstance ( ONDEXGraph graph )
 	{
 		return instances.computeIfAbsent ( graph, g -> new GraphMemIndex ( g ) );
 	}
-	
-	
+
+
 	/**
-	 * This will create the index using {@link #createIndex()}, so it will take time (and might need synchronisation).
-	 * 
+	 * Indexes {@link IndexField#IRI}.
 	 */
 	public GraphMemIndex ( ONDEXGraph graph )
 	{
-		this.graph = graph;
+		this ( graph, List.of ( IndexField.IRI ) );
+	}
+
+	/**
+	 * This will create the index using {@link #updateIndex()}, so it will take time. For an
+	 * {@link AbstractONDEXGraph}, it will also acquire its {@link AbstractONDEXGraph#acquireChangeLog(Object) change log}.
+	 */
+	public GraphMemIndex ( ONDEXGraph graph, List<IndexField> fields )
+	{
+		this.graphRef = new WeakReference<> ( graph );
+		this.fields = List.copyOf ( fields );
 		this.updateIndex ();
 	}
 
 	/**
-	 * Get an entry for the index, null if it doesn't exist. 
-	 * @see #createIndex()
+	 * Get an entry for the index, null if it doesn't exist. For a non-unique field, returns the entity that
+	 * was indexed first.
+	 *
+	 * @see #getAll(String, Object)
 	 */
 	@SuppressWarnings ( "unchecked" )
 	public <OO, KV> OO get ( String fieldName, KV keyValue )
 	{
-		if ( this.cache == null ) throw new IllegalStateException ( 
-			"Index was clear()-ed, call updateIndex() again to keep using its methods"
-		);
-		return (OO) this.cache.get ( fieldName, (KV) keyValue );
+		FieldIndex idx = getFieldIndex ( fieldName );
+		if ( idx == null ) return null;
+
+		ONDEXGraph graph = getGraph ();
+		for ( int code: idx.getCodes ( keyValue ) )
+		{
+			ONDEXEntity result = fromCode ( graph, code );
+			if ( result != null ) return (OO) result;
+		}
+		return null;
 	}
-	
-		
-	
+
 	/**
-	 * <p>Does all the job of creating the index.</p>
-	 * 
-	 * <p><b>NOTE</b>: this is written so that a fixed number of things are indexed here (at the moment, just the 'iri' 
-	 * attribute. Should you need more, change this method or even introduce some configuration (eg, list of attributes
-	 * to index).</p>
+	 * All the entities indexed with the key, which might be more than one for non-unique fields.
 	 */
-	private void createIndex ()
+	@SuppressWarnings ( "unchecked" )
+	public <OO extends ONDEXEntity, KV> List<OO> getAll ( String fieldName, KV keyValue )
 	{
-		log.info ( "Ondex Memory Index, starting indexing operations" );
+		FieldIndex idx = getFieldIndex ( fieldName );
+		if ( idx == null ) return List.of ();
 
-		this.indexStringAttribute ( this.graph.getConcepts (), "iri", "iri" );
-		this.indexStringAttribute ( this.graph.getRelations (), "iri", "iri" );
+		ONDEXGraph graph = getGraph ();
+		List<OO> result = new ArrayList<> ();
+		for ( int code: idx.getCodes ( keyValue ) )
+		{
+			ONDEXEntity entity = fromCode ( graph, code );
+			if ( entity != null ) result.add ( (OO) entity );
+		}
+		return result;
 	}
-	
+
+	public List<IndexField> getFields ()
+	{
+		return fields;
+	}
+
 	/**
-	 * <p>Deletes the index, useful to free the memory.</p>
-	 * 
-	 * <p><b>WARNING</b>: You'll get errors after having invoked this method, unless you call {@link #updateIndex()} 
+	 * <p>Deletes the index, useful to free the memory. This also releases the graph's change log, which is
+	 * {@link AbstractONDEXGraph#releaseChangeLog(Object) stopped} if it was started by its consumers and
+	 * none of them uses it anymore.</p>
+	 *
+	 * <p><b>WARNING</b>: You'll get errors after having invoked this method, unless you call {@link #updateIndex()}
 	 * (in which case you typically won't need to clear me explicitly, since, the update implies that).</p>
-	 * 
+	 *
 	 */
-	public void clear ()
+	public synchronized void clear ()
 	{
-		this.cache = HashBasedTable.create ();
+		this.indexes = null;
+		if ( changeLog == null ) return;
+
+		ONDEXGraph graph = graphRef.get ();
+		if ( graph != null ) ( (AbstractONDEXGraph) graph ).releaseChangeLog ( this );
+		changeLog = null;
 	}
-	
+
 	/**
-	 * Updates the index after the graph has changed.
+	 * Re-creates the whole index. This is needed after the graph has changed only if it isn't an
+	 * {@link AbstractONDEXGraph}, since in that case the index follows the graph changes.
 	 */
-	public void updateIndex ()
+	public synchronized void updateIndex ()
 	{
-		this.clear ();
-		this.createIndex ();
+		ONDEXGraph graph = getGraph ();
+
+		// Start following the changes before indexing, what changes in the meantime is re-indexed later
+		GraphChangeLog newLog = null;
+		if ( graph instanceof AbstractONDEXGraph )
+		{
+			newLog = ( (AbstractONDEXGraph) graph ).acquireChangeLog ( this );
+			syncedChangeCount = newLog.getChangeCount ();
+			syncedEpoch = newLog.getConsumerEpoch ( this );
+		}
+
+		log.info ( "Ondex Memory Index, starting indexing operations" );
+
+		Map<String, FieldIndex> newIndexes = new HashMap<> ();
+		for ( IndexField field: fields )
+		{
+			FieldIndex idx = new FieldIndex ( field );
+			newIndexes.put ( field.name, idx );
+			if ( field.forConcepts ) indexEntities ( graph, idx, graph.getConcepts () );
+			if ( field.forRelations ) indexEntities ( graph, idx, graph.getRelations () );
+		}
+
+		this.indexes = newIndexes;
+		this.changeLog = newLog;
 	}
-	
-		
+
 	/**
-	 * Indexes ONDEX objects, creating entries in the cache, which of field name is fieldName and field value is 
-	 * given by keyGenerator. In other words, if {@code oo} is in {@code odxObjects}, then 
-	 * {@link #get(String, Object) get ( fieldName, keyGenerator ( oo ) ) } will return {@code oo} after having called
-	 * this method.
-	 *  
-	 * @param <OO> the type of objects being indexed 
-	 * @param <KV> the type of key
-	 * @param odxObjects the objects being indexed
-	 * @param fieldName the field name used for this index
-	 * @param keyGenerator a function that generates a key for every object in odxObjects. If this returns null for 
-	 * a value, a warning is logged and the corresponding object is ignored.
-	 *   
+	 * The full indexing of a field.
 	 */
-	@SuppressWarnings ( "unchecked" )
-	private <OO, KV> void indexObjects ( 
-		PercentProgressLogger progressLogger, Stream<OO> odxObjects, String fieldName, Function<OO, KV> keyGenerator 
-	)
+	private void indexEntities ( ONDEXGraph graph, FieldIndex idx, Collection<? extends ONDEXEntity> odxEntities )
 	{
-		odxObjects.forEach ( odxObjs ->
+		// "concept" or "relation"
+		String type = ONDEXGraphUtils.getEntityType ( odxEntities );
+
+		log.info (
+			"indexing {} {}(s) against the field: \"{}\"", odxEntities.size (), type, idx.field.name
+		);
+		PercentProgressLogger progressLogger = new PercentProgressLogger ( "{}% of " + type + "s indexed", odxEntities.size () );
+
+		for ( ONDEXEntity entity: odxEntities )
 		{
-			try
-			{
-				// Get the key via the generator and perform several checks about null
-				//
-				Optional<Object> keyValOpt = Optional.ofNullable ( keyGenerator.apply ( odxObjs ) );
-				
-				KV keyVal = (KV) keyValOpt.orElseGet ( () -> 
-				{
-					if ( log.isWarnEnabled () ) log.warn 
-					(
-						"=== NO VALUE FOR THE ONDEX MEMORY INDEX, field: \"{}\", entity: {}", 
-						fieldName, 
-						abbreviate ( odxObjs.toString (), 30 ) 
-					);
-					return null;
-				});
-				
-				if ( keyVal == null ) return;
-
-				// OK, we have a key, let's see if it has duplicates and possibly store the new value
-				//
-				KV oldEntry = (KV) this.cache.get ( fieldName, keyVal );
-				if ( oldEntry != null )
-				{
-					if ( log.isWarnEnabled () ) log.warn 
-					(
-						"=== DUPED VALUES FOR THE ONDEX MEMORY INDEX, field: \"{}\", key: \"{}\", entity: {}", 
-						fieldName,					
-						abbreviate ( keyVal.toString (), 1000 ), 
-						abbreviate ( odxObjs.toString (), 30 ) 
-					);
-					return;
-				}
-				
-				this.cache.put ( fieldName, keyVal, odxObjs );
-				
-			} // indexObjects() body
-			finally {
-				if ( progressLogger == null ) return;
-				progressLogger.updateWithIncrement ();
-			}
-		}); // indexObjects() foreach
-	} // indexObjects()
-	
-	
+			idx.index ( graph, entity, toCode ( entity ), true );
+			progressLogger.updateWithIncrement ();
+		}
+	}
+
 	/**
-	 * <p>A wrapper of {@link #indexObjects(Stream, String, Function)}, which uses 
-	 * {@link ONDEXEntity#getAttribute(AttributeName) ONDEX attributes} as index keys.</p>
-	 * 
-	 * <p>if the {@link ONDEXGraph#getAttributeName attribute type} doesn't existin in the current graph, it reports a 
-	 * warning and doesn't index anything.</p>
-	 * 
-	 * <p>You have to take care of null cases in {@link KeyGenerator}, ie, when the an entity doesn't return an
-	 * attribute for {@code attribName}, or when the {@link Attribute#getValue() value} returned by an entity
-	 * is null.</p> 
-	 * 
+	 * Gets the index for the field, after having synchronised it with the graph changes.
 	 */
-	private <OE extends ONDEXEntity, AV, KV> void indexAttribute ( 
-		Collection<OE> odxEntities, String attribName, String fieldName, Function<Attribute, KV> keyGenerator 
-	)
+	private FieldIndex getFieldIndex ( String fieldName )
 	{
-		AttributeName attrType = this.graph.getMetaData ().getAttributeName ( attribName );
-		if ( attrType == null ) {
-			log.warn ( "==== NO ATTRIBUTE TYPE \"{}\" AVAILABLE FOR THE ONDEX MEMORY INDEX, skipping ===", attribName );
-			return;
-		}
-		
-		// Setup the progress reporter and do initial logging
-		String type = ONDEXGraphUtils.getEntityType ( odxEntities ); // "concept" or "relation"
-
-		log.info ( 
-			"indexing {} {}(s) against the field/attribute: \"{}\"/\"{}\"",
-			odxEntities.size (),
-			type,
-			fieldName,
-			attribName
+		Map<String, FieldIndex> idxs = this.indexes;
+		if ( idxs == null ) throw new IllegalStateException (
+			"Index was clear()-ed, call updateIndex() again to keep using its methods"
 		);
-		PercentProgressLogger progressLogger = new PercentProgressLogger ( "{}% of " + type + "s indexed", odxEntities.size () ); 
-
-		// The attribute extractor
-		Function<OE, Attribute> attrbConverter = odxEntity -> odxEntity.getAttribute ( attrType );
-		Function<OE, KV> finalKeyGenerator = attrbConverter.andThen ( keyGenerator );
-		
-		// Here we go
-		this.indexObjects ( progressLogger, odxEntities.stream (), fieldName, finalKeyGenerator );
+
+		GraphChangeLog clog = this.changeLog;
+		if ( clog != null && ( clog != currentChangeLog () || clog.getChangeCount () != syncedChangeCount ) )
+		{
+			syncChanges ();
+			idxs = this.indexes;
+		}
+
+		return idxs == null ? null : idxs.get ( fieldName );
 	}
 
-	
 	/**
-	 * A wrapper of {@link #indexAttribute(Stream, String, String, Function)} that consider the simplified case where a
-	 * given attribute is expected to store string values.
-	 * 
+	 * Re-indexes what changed since the last synchronisation.
 	 */
-	private <OE extends ONDEXEntity> void indexStringAttribute ( 
-		Collection<OE> odxEntities, String attribName, String fieldName 
-	)
+	private synchronized void syncChanges ()
+	{
+		GraphChangeLog clog = this.changeLog;
+		if ( clog == null || this.indexes == null ) return;
+
+		// Someone stopped or restarted the log and we might have missed changes
+		if ( clog != currentChangeLog () ) {
+			updateIndex ();
+			return;
+		}
+
+		long changeCount = clog.getChangeCount ();
+		if ( changeCount == syncedChangeCount ) return;
+
+		// In this order, we might see some changes twice, which is fine, but we don't miss any
+		int newEpoch = clog.nextEpoch ();
+		if ( !clog.isAvailable ( syncedEpoch ) ) {
+			updateIndex ();
+			return;
+		}
+		Changes changes = clog.getChangesSince ( syncedEpoch );
+
+		ONDEXGraph graph = getGraph ();
+		for ( FieldIndex idx: indexes.values () )
+		{
+			if ( idx.field.forConcepts ) syncEntities ( graph, idx, changes.getConcepts (), true );
+			if ( idx.field.forRelations ) syncEntities ( graph, idx, changes.getRelations (), false );
+		}
+
+		syncedEpoch = newEpoch;
+		syncedChangeCount = changeCount;
+		clog.advanceConsumer ( this, newEpoch );
+	}
+
+	private void syncEntities ( ONDEXGraph graph, FieldIndex idx, EntityChanges changes, boolean isConcept )
 	{
-		// Define an attribute converter that extract its string value, after having checked the type.
-		//
-		Function<Attribute, String> finalKeyGenerator = attr ->
-		( 
-			Optional.ofNullable ( attr )
-			 .map ( attr1 -> 
-			 {
-				 Object av = attr1.getValue ();
-				 if ( ! ( av instanceof String ) ) throw new IllegalArgumentException ( 
-						format ( "The attribute \"{}\" has a non-string value: {}",	attribName, abbreviate ( av.toString (), 30 ) )
-				 );
-				 return (String) av;
-			 })
-			 .orElse ( null )
+		for ( PrimitiveIterator.OfInt itr = changes.getDeleted ().iterator (); itr.hasNext (); )
+		{
+			int id = itr.nextInt ();
+			idx.unindex ( isConcept ? id : ~id );
+		}
+
+		for ( IdBitmap ids: List.of ( changes.getCreated (), changes.getModified ( idx.field.aspect ) ) )
+			for ( PrimitiveIterator.OfInt itr = ids.iterator (); itr.hasNext (); )
+			{
+				int id = itr.nextInt ();
+				ONDEXEntity entity = isConcept ? graph.getConcept ( id ) : graph.getRelation ( id );
+				int code = isConcept ? id : ~id;
+				// Deleted after the changes were fetched, the next sync will report it
+				if ( entity == null ) idx.unindex ( code );
+				else idx.index ( graph, entity, code, false );
+			}
+	}
+
+	private GraphChangeLog currentChangeLog ()
+	{
+		return ( (AbstractONDEXGraph) getGraph () ).getChangeLog ();
+	}
+
+	private ONDEXGraph getGraph ()
+	{
+		return Objects.requireNonNull (
+			graphRef.get (), "The graph of this memory index was garbage-collected"
 		);
+	}
 
-		this.indexAttribute ( odxEntities, attribName, fieldName, finalKeyGenerator );
+	private static int toCode ( ONDEXEntity entity )
+	{
+		return entity instanceof ONDEXConcept ? entity.getId () : ~entity.getId ();
+	}
+
+	private static ONDEXEntity fromCode ( ONDEXGraph graph, int code )
+	{
+		return code >= 0 ? graph.getConcept ( code ) : graph.getRelation ( ~code );
 	}
 }
@@ -0,0 +1,150 @@
+package net.sourceforge.ondex.core.util;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Rough estimates of the heap taken by common objects, used to compute a {@link GraphFootprint}.</p>
+ *
+ * <p>The figures assume a 64-bit JVM with compressed references (ie, heaps up to 32G), 12-byte object headers and
+ * 8-byte alignment. They're meant to tell which parts of a graph take the most memory, not to be precise: shared
+ * objects (eg, pooled strings) are counted at every reference, and the unknown object types are given a fixed
+ * size.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public final class HeapEstimates
+{
+	public static final int OBJECT_HEADER = 12;
+	public static final int ARRAY_HEADER = 16;
+	public static final int REFERENCE = 4;
+
+	/**
+	 * What we assume for an object we can't inspect.
+	 */
+	public static final int UNKNOWN_OBJECT = 32;
+
+	/**
+	 * The no. of elements that are inspected to estimate the size of collections and arrays of objects.
+	 */
+	private static final int ELEMENTS_SAMPLE = 16;
+
+	private HeapEstimates () {
+	}
+
+	public static long align ( long bytes )
+	{
+		return ( bytes + 7 ) & ~7L;
+	}
+
+	/**
+	 * An object having the header plus the given bytes of fields.
+	 */
+	public static long ofObject ( int fieldBytes )
+	{
+		return align ( OBJECT_HEADER + fieldBytes );
+	}
+
+	public static long ofArray ( int length, int elementBytes )
+	{
+		return align ( ARRAY_HEADER + (long) length * elementBytes );
+	}
+
+	/**
+	 * Considers the compact representation of Latin-1 strings.
+	 */
+	public static long ofString ( String s )
+	{
+		if ( s == null ) return 0;
+		int len = s.length ();
+		int charBytes = 1;
+		for ( int i = 0; i < len; i++ )
+			if ( s.charAt ( i ) > 0xFF ) { charBytes = 2; break; }
+		return ofObject ( 12 ) + ofArray ( len, charBytes );
+	}
+
+	/**
+	 * A {@link java.util.HashMap} with the given no. of entries, excluding the keys and values.
+	 */
+	public static long ofHashMap ( int size )
+	{
+		long result = ofObject ( 36 );
+		if ( size == 0 ) return result;
+		int minCapacity = (int) Math.ceil ( size / 0.75 );
+		int capacity = minCapacity <= 16 ? 16 : Integer.highestOneBit ( minCapacity - 1 ) << 1;
+		return result + ofArray ( capacity, REFERENCE ) + size * ofObject ( 20 );
+	}
+
+	/**
+	 * A {@link java.util.HashSet} with the given no. of elements, excluding the elements.
+	 */
+	public static long ofHashSet ( int size )
+	{
+		return ofObject ( REFERENCE ) + ofHashMap ( size );
+	}
+
+	/**
+	 * A value like an attribute value. Collections, maps and arrays are estimated from a sample of their elements.
+	 */
+	public static long ofValue ( Object value )
+	{
+		return ofValue ( value, 2 );
+	}
+
+	private static long ofValue ( Object value, int depth )
+	{
+		if ( value == null ) return 0;
+		if ( value instanceof String ) return ofString ( (String) value );
+		if ( value instanceof Long || value instanceof Double ) return ofObject ( 8 );
+		if ( value instanceof Number || value instanceof Boolean || value instanceof Character ) return ofObject ( 4 );
+
+		Class<?> type = value.getClass ();
+		if ( type.isArray () )
+		{
+			Class<?> ctype = type.getComponentType ();
+			int len = Array.getLength ( value );
+			if ( ctype == long.class || ctype == double.class ) return ofArray ( len, 8 );
+			if ( ctype == int.class || ctype == float.class ) return ofArray ( len, 4 );
+			if ( ctype == short.class || ctype == char.class ) return ofArray ( len, 2 );
+			if ( ctype.isPrimitive () ) return ofArray ( len, 1 );
+
+			long sample = 0;
+			int n = Math.min ( len, ELEMENTS_SAMPLE );
+			if ( depth > 0 ) for ( int i = 0; i < n; i++ ) sample += ofValue ( Array.get ( value, i ), depth - 1 );
+			return ofArray ( len, REFERENCE ) + ( n == 0 ? 0 : sample * len / n );
+		}
+
+		if ( value instanceof Collection )
+		{
+			Collection<?> coll = (Collection<?>) value;
+			int size = coll.size ();
+			long result = value instanceof Set ? ofHashSet ( size ) : ofObject ( 12 ) + ofArray ( size, REFERENCE );
+			return result + sampleElements ( coll.iterator (), size, depth );
+		}
+
+		if ( value instanceof Map )
+		{
+			Map<?, ?> map = (Map<?, ?>) value;
+			return ofHashMap ( map.size () )
+				+ sampleElements ( map.keySet ().iterator (), map.size (), depth )
+				+ sampleElements ( map.values ().iterator (), map.size (), depth );
+		}
+
+		return UNKNOWN_OBJECT;
+	}
+
+	private static long sampleElements ( Iterator<?> itr, int size, int depth )
+	{
+		if ( depth == 0 ) return (long) size * UNKNOWN_OBJECT;
+
+		long sample = 0;
+		int n = 0;
+		for ( ; n < ELEMENTS_SAMPLE && itr.hasNext (); n++ ) sample += ofValue ( itr.next (), depth - 1 );
+		return n == 0 ? 0 : sample * size / n;
+	}
+}
@@ -0,0 +1,594 @@
+package net.sourceforge.ondex.core.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * <p>A compressed bitmap of int ids, used by {@link EntityBitmapSet} to represent sets of ONDEX entities.</p>
+ *
+ * <p>This follows the Roaring bitmap approach: the ids are partitioned by their 16 high bits and each partition
+ * is kept in a container that depends on its density: a sorted array of the 16 low bits when the partition has
+ * at most {@link #ARRAY_MAX} ids, a 2<sup>16</sup>-bit bitmap otherwise. This takes 2 bytes per id for the sparse
+ * partitions and at most 8k per partition for the dense ones, while the set operations ({@link #and(IdBitmap)},
+ * {@link #or(IdBitmap)}, {@link #andNot(IdBitmap)}) work container by container and, for the bitmaps, 64 bits a
+ * time.</p>
+ *
+ * <p>Ids are iterated in ascending order (negative ids included). This class isn't thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class IdBitmap implements Cloneable, Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Partitions with up to this number of ids are stored as arrays.
+	 */
+	static final int ARRAY_MAX = 4096;
+
+	/**
+	 * The high 16 bits of the ids in each container, sorted, signed.
+	 */
+	private int[] keys = new int [ 0 ];
+	private Container[] containers = new Container [ 0 ];
+	private int ncontainers = 0;
+
+	public boolean add ( int id )
+	{
+		int key = id >> 16, low = id & 0xFFFF;
+		int idx = Arrays.binarySearch ( keys, 0, ncontainers, key );
+		if ( idx >= 0 )
+		{
+			Container c = containers [ idx ];
+			int card = c.card;
+			containers [ idx ] = c = c.add ( low );
+			return c.card != card;
+		}
+
+		ArrayContainer c = new ArrayContainer ( 4 );
+		c.add ( low );
+		insertContainer ( -idx - 1, key, c );
+		return true;
+	}
+
+	public boolean remove ( int id )
+	{
+		int idx = Arrays.binarySearch ( keys, 0, ncontainers, id >> 16 );
+		if ( idx < 0 ) return false;
+
+		Container c = containers [ idx ];
+		int card = c.card;
+		c.remove ( id & 0xFFFF );
+		if ( c.card == card ) return false;
+		if ( c.card == 0 ) removeContainer ( idx );
+		return true;
+	}
+
+	public boolean contains ( int id )
+	{
+		int idx = Arrays.binarySearch ( keys, 0, ncontainers, id >> 16 );
+		return idx >= 0 && containers [ idx ].contains ( id & 0xFFFF );
+	}
+
+	public int cardinality ()
+	{
+		int result = 0;
+		for ( int i = 0; i < ncontainers; i++ ) result += containers [ i ].card;
+		return result;
+	}
+
+	public boolean isEmpty ()
+	{
+		return ncontainers == 0;
+	}
+
+	/**
+	 * The approximate heap taken by this bitmap, see {@link HeapEstimates}.
+	 */
+	public long estimateBytes ()
+	{
+		long result = HeapEstimates.ofObject ( 12 )
+			+ HeapEstimates.ofArray ( keys.length, 4 )
+			+ HeapEstimates.ofArray ( containers.length, HeapEstimates.REFERENCE );
+		for ( int i = 0; i < ncontainers; i++ )
+		{
+			Container c = containers [ i ];
+			result += HeapEstimates.ofObject ( 8 ) + ( c instanceof BitmapContainer
+				? HeapEstimates.ofArray ( 1024, 8 )
+				: HeapEstimates.ofArray ( ( (ArrayContainer) c ).values.length, 2 ) );
+		}
+		return result;
+	}
+
+	public void clear ()
+	{
+		keys = new int [ 0 ];
+		containers = new Container [ 0 ];
+		ncontainers = 0;
+	}
+
+	/**
+	 * Keeps the ids that are also in the other bitmap.
+	 */
+	public void and ( IdBitmap other )
+	{
+		int[] rkeys = new int [ Math.min ( ncontainers, other.ncontainers ) ];
+		Container[] rcontainers = new Container [ rkeys.length ];
+		int n = 0;
+
+		for ( int i = 0, j = 0; i < ncontainers && j < other.ncontainers; )
+		{
+			int k1 = keys [ i ], k2 = other.keys [ j ];
+			if ( k1 < k2 ) i++;
+			else if ( k1 > k2 ) j++;
+			else
+			{
+				Container c = containers [ i++ ].and ( other.containers [ j++ ] );
+				if ( c.card == 0 ) continue;
+				rkeys [ n ] = k1;
+				rcontainers [ n++ ] = c;
+			}
+		}
+		setContainers ( rkeys, rcontainers, n );
+	}
+
+	/**
+	 * Adds all the ids of the other bitmap.
+	 */
+	public void or ( IdBitmap other )
+	{
+		int[] rkeys = new int [ ncontainers + other.ncontainers ];
+		Container[] rcontainers = new Container [ rkeys.length ];
+		int n = 0, i = 0, j = 0;
+
+		while ( i < ncontainers || j < other.ncontainers )
+		{
+			int k1 = i < ncontainers ? keys [ i ] : Integer.MAX_VALUE;
+			int k2 = j < other.ncontainers ? other.keys [ j ] : Integer.MAX_VALUE;
+			if ( k1 < k2 ) {
+				rkeys [ n ] = k1;
+				rcontainers [ n++ ] = containers [ i++ ];
+			}
+			else if ( k1 > k2 ) {
+				rkeys [ n ] = k2;
+				rcontainers [ n++ ] = other.containers [ j++ ].clone ();
+			}
+			else {
+				rkeys [ n ] = k1;
+				rcontainers [ n++ ] = containers [ i++ ].or ( other.containers [ j++ ] );
+			}
+		}
+		setContainers ( rkeys, rcontainers, n );
+	}
+
+	/**
+	 * Removes all the ids that are in the other bitmap.
+	 */
+	public void andNot ( IdBitmap other )
+	{
+		int[] rkeys = new int [ ncontainers ];
+		Container[] rcontainers = new Container [ ncontainers ];
+		int n = 0;
+
+		for ( int i = 0, j = 0; i < ncontainers; i++ )
+		{
+			int k1 = keys [ i ];
+			while ( j < other.ncontainers && other.keys [ j ] < k1 ) j++;
+
+			Container c = containers [ i ];
+			if ( j < other.ncontainers && other.keys [ j ] == k1 ) c = c.andNot ( other.containers [ j ] );
+			if ( c.card == 0 ) continue;
+			rkeys [ n ] = k1;
+			rcontainers [ n++ ] = c;
+		}
+		setContainers ( rkeys, rcontainers, n );
+	}
+
+	/**
+	 * A deep copy of this bitmap.
+	 */
+	@Override
+	public IdBitmap clone ()
+	{
+		IdBitmap result;
+		try {
+			result = (IdBitmap) super.clone ();
+		}
+		catch ( CloneNotSupportedException ex ) {
+			throw new IllegalStateException ( "Internal error: can't clone an IdBitmap", ex );
+		}
+		result.keys = Arrays.copyOf ( keys, ncontainers );
+		result.containers = new Container [ ncontainers ];
+		for ( int i = 0; i < ncontainers; i++ ) result.containers [ i ] = containers [ i ].clone ();
+		return result;
+	}
+
+	/**
+	 * Iterates the ids in ascending order. Removing the ids via this iterator is supported.
+	 */
+	public PrimitiveIterator.OfInt iterator ()
+	{
+		return new PrimitiveIterator.OfInt ()
+		{
+			/** Position of the next id, which is available if ci < ncontainers */
+			private int ci = 0, low = ncontainers == 0 ? -1 : containers [ 0 ].nextValue ( 0 );
+			private int last;
+			private boolean canRemove = false;
+
+			@Override
+			public boolean hasNext () {
+				return ci < ncontainers;
+			}
+
+			@Override
+			public int nextInt ()
+			{
+				if ( ci >= ncontainers ) throw new NoSuchElementException ();
+				last = keys [ ci ] << 16 | low;
+				canRemove = true;
+
+				if ( low < 0xFFFF && ( low = containers [ ci ].nextValue ( low + 1 ) ) != -1 ) return last;
+				if ( ++ci < ncontainers ) low = containers [ ci ].nextValue ( 0 );
+				return last;
+			}
+
+			@Override
+			public void remove ()
+			{
+				if ( !canRemove ) throw new IllegalStateException ();
+				canRemove = false;
+				int n = ncontainers;
+				IdBitmap.this.remove ( last );
+
+				// If the container of the removed id was dropped, the next id is in a container that has shifted back
+				// (the container of the next id can't be the dropped one, since that became empty).
+				if ( ncontainers < n ) ci--;
+			}
+		};
+	}
+
+	@Override
+	public boolean equals ( Object obj )
+	{
+		if ( this == obj ) return true;
+		if ( !( obj instanceof IdBitmap ) ) return false;
+		IdBitmap other = (IdBitmap) obj;
+		if ( ncontainers != other.ncontainers ) return false;
+		for ( int i = 0; i < ncontainers; i++ )
+		{
+			if ( keys [ i ] != other.keys [ i ] ) return false;
+			Container c1 = containers [ i ], c2 = other.containers [ i ];
+			if ( c1.card != c2.card || c1.andNot ( c2 ).card != 0 ) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode ()
+	{
+		int result = 0;
+		for ( PrimitiveIterator.OfInt itr = iterator (); itr.hasNext (); ) result = 31 * result + itr.nextInt ();
+		return result;
+	}
+
+	private void setContainers ( int[] keys, Container[] containers, int n )
+	{
+		this.keys = keys;
+		this.containers = containers;
+		this.ncontainers = n;
+	}
+
+	private void insertContainer ( int idx, int key, Container c )
+	{
+		if ( ncontainers == keys.length )
+		{
+			int newSize = Math.max ( 4, ncontainers * 2 );
+			keys = Arrays.copyOf ( keys, newSize );
+			containers = Arrays.copyOf ( containers, newSize );
+		}
+		System.arraycopy ( keys, idx, keys, idx + 1, ncontainers - idx );
+		System.arraycopy ( containers, idx, containers, idx + 1, ncontainers - idx );
+		keys [ idx ] = key;
+		containers [ idx ] = c;
+		ncontainers++;
+	}
+
+	private void removeContainer ( int idx )
+	{
+		System.arraycopy ( keys, idx + 1, keys, idx, ncontainers - idx - 1 );
+		System.arraycopy ( containers, idx + 1, containers, idx, ncontainers - idx - 1 );
+		containers [ --ncontainers ] = null;
+	}
+
+
+	/**
+	 * The ids that share the same 16 high bits, represented by their low 16 bits.
+	 */
+	private abstract static class Container implements Cloneable, Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		int card = 0;
+
+		abstract boolean contains ( int low );
+
+		/**
+		 * Might return a different container, if the representation has to change.
+		 */
+		abstract Container add ( int low );
+
+		abstract void remove ( int low );
+
+		/**
+		 * The first value &gt;= from, or -1.
+		 */
+		abstract int nextValue ( int from );
+
+		/**
+		 * The set operations return new containers and don't change the operands.
+		 */
+		abstract Container and ( Container other );
+
+		abstract Container or ( Container other );
+
+		abstract Container andNot ( Container other );
+
+		@Override
+		protected abstract Container clone ();
+	}
+
+	private static class ArrayContainer extends Container
+	{
+		private static final long serialVersionUID = 1L;
+
+		char[] values;
+
+		ArrayContainer ( int capacity ) {
+			values = new char [ capacity ];
+		}
+
+		ArrayContainer ( char[] values, int card )
+		{
+			this.values = values;
+			this.card = card;
+		}
+
+		@Override
+		boolean contains ( int low ) {
+			return Arrays.binarySearch ( values, 0, card, (char) low ) >= 0;
+		}
+
+		@Override
+		Container add ( int low )
+		{
+			int idx = Arrays.binarySearch ( values, 0, card, (char) low );
+			if ( idx >= 0 ) return this;
+
+			if ( card == ARRAY_MAX ) return toBitmap ().add ( low );
+
+			idx = -idx - 1;
+			if ( card == values.length ) values = Arrays.copyOf ( values, Math.min ( ARRAY_MAX, card * 2 ) );
+			System.arraycopy ( values, idx, values, idx + 1, card - idx );
+			values [ idx ] = (char) low;
+			card++;
+			return this;
+		}
+
+		@Override
+		void remove ( int low )
+		{
+			int idx = Arrays.binarySearch ( values, 0, card, (char) low );
+			if ( idx < 0 ) return;
+			System.arraycopy ( values, idx + 1, values, idx, card - idx - 1 );
+			card--;
+		}
+
+		@Override
+		int nextValue ( int from )
+		{
+			int idx = Arrays.binarySearch ( values, 0, card, (char) from );
+			if ( idx < 0 ) idx = -idx - 1;
+			return idx < card ? values [ idx ] : -1;
+		}
+
+		@Override
+		Container and ( Container other )
+		{
+			char[] result = new char [ Math.min ( card, other.card ) ];
+			int n = 0;
+			if ( other instanceof ArrayContainer )
+			{
+				char[] ov = ( (ArrayContainer) other ).values;
+				for ( int i = 0, j = 0; i < card && j < other.card; )
+				{
+					if ( values [ i ] < ov [ j ] ) i++;
+					else if ( values [ i ] > ov [ j ] ) j++;
+					else { result [ n++ ] = values [ i ]; i++; j++; }
+				}
+			}
+			else
+				for ( int i = 0; i < card; i++ )
+					if ( other.contains ( values [ i ] ) ) result [ n++ ] = values [ i ];
+
+			return new ArrayContainer ( result, n );
+		}
+
+		@Override
+		Container or ( Container other )
+		{
+			if ( other instanceof BitmapContainer ) return other.or ( this );
+
+			char[] ov = ( (ArrayContainer) other ).values;
+			char[] result = new char [ card + other.card ];
+			int n = 0, i = 0, j = 0;
+			while ( i < card || j < other.card )
+			{
+				if ( j == other.card || i < card && values [ i ] < ov [ j ] ) result [ n++ ] = values [ i++ ];
+				else if ( i == card || values [ i ] > ov [ j ] ) result [ n++ ] = ov [ j++ ];
+				else { result [ n++ ] = values [ i++ ]; j++; }
+			}
+
+			ArrayContainer c = new ArrayContainer ( result, n );
+			return n > ARRAY_MAX ? c.toBitmap () : c;
+		}
+
+		@Override
+		Container andNot ( Container other )
+		{
+			char[] result = new char [ card ];
+			int n = 0;
+			for ( int i = 0; i < card; i++ )
+				if ( !other.contains ( values [ i ] ) ) result [ n++ ] = values [ i ];
+			return new ArrayContainer ( result, n );
+		}
+
+		BitmapContainer toBitmap ()
+		{
+			BitmapContainer result = new BitmapContainer ();
+			for ( int i = 0; i < card; i++ ) result.words [ values [ i ] >>> 6 ] |= 1L << values [ i ];
+			result.card = card;
+			return result;
+		}
+
+		@Override
+		protected ArrayContainer clone () {
+			return new ArrayContainer ( Arrays.copyOf ( values, Math.max ( card, 1 ) ), card );
+		}
+	}
+
+	private static class BitmapContainer extends Container
+	{
+		private static final long serialVersionUID = 1L;
+
+		final long[] words;
+
+		BitmapContainer () {
+			words = new long [ 1024 ];
+		}
+
+		BitmapContainer ( long[] words, int card )
+		{
+			this.words = words;
+			this.card = card;
+		}
+
+		@Override
+		boolean contains ( int low ) {
+			return ( words [ low >>> 6 ] & 1L << low ) != 0;
+		}
+
+		@Override
+		Container add ( int low )
+		{
+			long w = words [ low >>> 6 ];
+			long nw = w | 1L << low;
+			if ( w != nw ) {
+				words [ low >>> 6 ] = nw;
+				card++;
+			}
+			return this;
+		}
+
+		@Override
+		void remove ( int low )
+		{
+			// We don't convert back to array here, to keep iterators simple, the bulk operations do it
+			long w = words [ low >>> 6 ];
+			long nw = w & ~( 1L << low );
+			if ( w != nw ) {
+				words [ low >>> 6 ] = nw;
+				card--;
+			}
+		}
+
+		@Override
+		int nextValue ( int from )
+		{
+			int wi = from >>> 6;
+			long w = words [ wi ] & -1L << from;
+			while ( true )
+			{
+				if ( w != 0 ) return wi * 64 + Long.numberOfTrailingZeros ( w );
+				if ( ++wi == words.length ) return -1;
+				w = words [ wi ];
+			}
+		}
+
+		@Override
+		Container and ( Container other )
+		{
+			if ( other instanceof ArrayContainer ) return other.and ( this );
+
+			long[] ow = ( (BitmapContainer) other ).words;
+			long[] result = new long [ 1024 ];
+			int n = 0;
+			for ( int i = 0; i < 1024; i++ ) n += Long.bitCount ( result [ i ] = words [ i ] & ow [ i ] );
+			return newContainer ( result, n );
+		}
+
+		@Override
+		Container or ( Container other )
+		{
+			long[] result = words.clone ();
+			if ( other instanceof ArrayContainer )
+			{
+				ArrayContainer oa = (ArrayContainer) other;
+				for ( int i = 0; i < oa.card; i++ ) result [ oa.values [ i ] >>> 6 ] |= 1L << oa.values [ i ];
+			}
+			else
+			{
+				long[] ow = ( (BitmapContainer) other ).words;
+				for ( int i = 0; i < 1024; i++ ) result [ i ] |= ow [ i ];
+			}
+			return new BitmapContainer ( result, countBits ( result ) );
+		}
+
+		@Override
+		Container andNot ( Container other )
+		{
+			long[] result = words.clone ();
+			if ( other instanceof ArrayContainer )
+			{
+				ArrayContainer oa = (ArrayContainer) other;
+				for ( int i = 0; i < oa.card; i++ ) result [ oa.values [ i ] >>> 6 ] &= ~( 1L << oa.values [ i ] );
+			}
+			else
+			{
+				long[] ow = ( (BitmapContainer) other ).words;
+				for ( int i = 0; i < 1024; i++ ) result [ i ] &= ~ow [ i ];
+			}
+			return newContainer ( result, countBits ( result ) );
+		}
+
+		@Override
+		protected BitmapContainer clone () {
+			return new BitmapContainer ( words.clone (), card );
+		}
+
+		private static int countBits ( long[] words )
+		{
+			int result = 0;
+			for ( long w: words ) result += Long.bitCount ( w );
+			return result;
+		}
+
+		/**
+		 * Goes back to an array, when the result of an operation is sparse enough.
+		 */
+		private static Container newContainer ( long[] words, int card )
+		{
+			if ( card > ARRAY_MAX ) return new BitmapContainer ( words, card );
+
+			char[] values = new char [ card ];
+			int n = 0;
+			for ( int i = 0; i < words.length; i++ )
+				for ( long w = words [ i ]; w != 0; w &= w - 1 )
+					values [ n++ ] = (char) ( i * 64 + Long.numberOfTrailingZeros ( w ) );
+			return new ArrayContainer ( values, card );
+		}
+	}
+}
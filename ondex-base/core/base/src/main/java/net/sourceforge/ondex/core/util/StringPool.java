@@ -0,0 +1,90 @@
+package net.sourceforge.ondex.core.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * <p>A canonicalising pool of strings, which makes equal strings share the same instance.</p>
+ *
+ * <p>Biological data are full of repeated strings: accessions shared by many data sources, names like
+ * "hypothetical protein", attribute values like taxonomy IDs or evidence text. When a graph is
+ * {@link net.sourceforge.ondex.core.base.AbstractONDEXGraph#setStringPool(StringPool) configured with a pool},
+ * the concept names, accessions and string attributes that are created for it are passed through
+ * {@link #canonical(String)}, so that each distinct value is kept in memory only once.</p>
+ *
+ * <p>The pool has weak semantics: a string that isn't referred by anything else anymore can be garbage-collected
+ * and leaves the pool. Strings longer than {@link #getMaxLength()} aren't pooled, since they're rarely repeated
+ * and the long ones are compressed by the attributes anyway.</p>
+ *
+ * <p>This is thread-safe. The pool is split into a number of independently-locked segments, to reduce contention
+ * when a graph is populated by concurrent writers.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class StringPool
+{
+	public static final int DEFAULT_MAX_LENGTH = 256;
+
+	private static final int SEGMENTS = 16;
+
+	private final int maxLength;
+
+	@SuppressWarnings ( "unchecked" )
+	private final Map<String, WeakReference<String>>[] segments = new Map [ SEGMENTS ];
+
+	public StringPool ()
+	{
+		this ( DEFAULT_MAX_LENGTH );
+	}
+
+	/**
+	 * @param maxLength strings longer than this are returned as they are, without pooling them.
+	 */
+	public StringPool ( int maxLength )
+	{
+		this.maxLength = maxLength;
+		for ( int i = 0; i < SEGMENTS; i++ ) segments [ i ] = new WeakHashMap<> ();
+	}
+
+	/**
+	 * Returns the pooled instance equal to s, after having added s to the pool, if it's not there yet.
+	 * null is returned as-is.
+	 */
+	public String canonical ( String s )
+	{
+		if ( s == null || s.length () > maxLength ) return s;
+
+		Map<String, WeakReference<String>> segment = segments [ ( s.hashCode () & 0x7fffffff ) % SEGMENTS ];
+		synchronized ( segment )
+		{
+			WeakReference<String> ref = segment.get ( s );
+			String pooled = ref == null ? null : ref.get ();
+			if ( pooled != null ) return pooled;
+
+			segment.put ( s, new WeakReference<> ( s ) );
+			return s;
+		}
+	}
+
+	/**
+	 * The no. of distinct strings currently in the pool. Strings that were garbage-collected might still be counted
+	 * for a while.
+	 */
+	public int size ()
+	{
+		int result = 0;
+		for ( Map<String, WeakReference<String>> segment: segments )
+			synchronized ( segment ) {
+				result += segment.size ();
+			}
+		return result;
+	}
+
+	public int getMaxLength ()
+	{
+		return maxLength;
+	}
+}
@@ -1,6 +1,9 @@
 package net.sourceforge.ondex.core.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import java.util.Set;
 import org.junit.Test;
 import net.sourceforge.ondex.core.ConceptClass;
@@ -8,6 +11,7 @@ import net.sourceforge.ondex.core.DataSource;
 import net.sourceforge.ondex.core.EvidenceType;
 import net.sourceforge.ondex.core.ONDEXConcept;
 import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
 import net.sourceforge.ondex.core.util.GraphLabelsUtils;
 import net.sourceforge.ondex.core.util.ONDEXGraphUtils;
 
@@ -213,5 +217,68 @@ public abstract class AbstractGraphLabelsUtilsTest
 		
 		assertEquals ( "Accession filtering didn't work (fallback case)!", acc, GraphLabelsUtils.getBestName ( c, true ) );
 	}
+
+	/**
+	 * Tests {@link GraphLabelsUtils#precomputeLabels(ONDEXGraph)} and the invalidation of cached labels.
+	 */
+	@Test
+	public void testLabelsCache ()
+	{
+		c.createConceptName ( "ABC", true );
+		geneConcept.createConceptAccession ( "GENE1", srcENSEMBL, false );
+
+		GraphLabelsUtils.precomputeLabels ( graph );
+		try
+		{
+			assertEquals ( "Wrong cached label!", "ABC", GraphLabelsUtils.getBestConceptLabel ( c ) );
+			assertEquals ( "Wrong cached gene label!", "GENE1", GraphLabelsUtils.getBestConceptLabel ( geneConcept ) );
+			
+			c.createConceptName ( "AB", true );
+			assertEquals ( "Label not updated after a new name!", "AB", GraphLabelsUtils.getBestConceptLabel ( c ) );
+			
+			geneConcept.createConceptAccession ( "GEN2", srcENSEMBL, false );
+			assertEquals ( 
+				"Accession not updated after a new accession!", "GEN2", GraphLabelsUtils.getBestGeneAccession ( geneConcept ) 
+			);
+			assertEquals ( 
+				"Label variant not updated!", "GEN2", GraphLabelsUtils.getBestConceptLabelWithGeneSpeciePrefix ( geneConcept, true ) 
+			);
+		}
+		finally {
+			GraphLabelsUtils.clearLabelsCache ( graph );
+		}
+		
+		c.createConceptName ( "A", true );
+		assertEquals ( "Wrong label after clearing the cache!", "A", GraphLabelsUtils.getBestConceptLabel ( c ) );
+	}
+	
+	/**
+	 * Tests {@link GraphLabelsUtils#enableLabelsCacheIfAbsent(ONDEXGraph)}, as exporters use it.
+	 */
+	@Test
+	public void testLabelsCacheIfAbsent ()
+	{
+		GraphLabelsUtils.precomputeLabels ( graph );
+		try {
+			assertFalse ( "Existing cache replaced!", GraphLabelsUtils.enableLabelsCacheIfAbsent ( graph ) );
+		}
+		finally {
+			GraphLabelsUtils.clearLabelsCache ( graph );
+		}
+		
+		c.createConceptName ( "ABC", true );
+		assertTrue ( "Cache not created!", GraphLabelsUtils.enableLabelsCacheIfAbsent ( graph ) );
+		try
+		{
+			assertEquals ( "Wrong lazily cached label!", "ABC", GraphLabelsUtils.getBestConceptLabel ( c ) );
+			c.createConceptName ( "AB", true );
+			assertEquals ( "Lazily cached label not updated!", "AB", GraphLabelsUtils.getBestConceptLabel ( c ) );
+		}
+		finally {
+			GraphLabelsUtils.clearLabelsCache ( graph );
+		}
+		if ( graph instanceof AbstractONDEXGraph ) 
+			assertNull ( "Change log not released!", ( (AbstractONDEXGraph) graph ).getChangeLog () );
+	}
 	
 }
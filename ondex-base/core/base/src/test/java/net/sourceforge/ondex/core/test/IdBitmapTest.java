@@ -0,0 +1,128 @@
+package net.sourceforge.ondex.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import net.sourceforge.ondex.core.util.IdBitmap;
+
+/**
+ * Tests for {@link IdBitmap}, compared to a reference {@link TreeSet}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class IdBitmapTest
+{
+	private final Random rnd = new Random ( 42 );
+
+	@Test
+	public void testBasics ()
+	{
+		IdBitmap bmp = new IdBitmap ();
+		int[] ids = { 0, 1, 65535, 65536, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1_000_000 };
+		for ( int id: ids ) assertTrue ( "add() of a new id returns false!", bmp.add ( id ) );
+		for ( int id: ids ) assertFalse ( "add() of an existing id returns true!", bmp.add ( id ) );
+		for ( int id: ids ) assertTrue ( "contains() doesn't work for " + id + "!", bmp.contains ( id ) );
+		assertFalse ( "contains() of a missing id returns true!", bmp.contains ( 2 ) );
+		assertEquals ( "Wrong cardinality!", ids.length, bmp.cardinality () );
+
+		assertEquals ( "Wrong iteration order!",
+			List.of ( Integer.MIN_VALUE, -1, 0, 1, 65535, 65536, 1_000_000, Integer.MAX_VALUE ), toList ( bmp )
+		);
+
+		assertTrue ( "remove() doesn't work!", bmp.remove ( 65536 ) );
+		assertFalse ( "remove() of a missing id returns true!", bmp.remove ( 65536 ) );
+		assertEquals ( "Wrong cardinality after remove()!", ids.length - 1, bmp.cardinality () );
+	}
+
+	/**
+	 * Sparse and dense ids, so that both array and bitmap containers are involved.
+	 */
+	@Test
+	public void testRandomOperations ()
+	{
+		for ( int round = 0; round < 20; round++ )
+		{
+			TreeSet<Integer> ref1 = randomIds (), ref2 = randomIds ();
+			IdBitmap bmp1 = toBitmap ( ref1 ), bmp2 = toBitmap ( ref2 );
+			assertEquals ( "Wrong contents!", new ArrayList<> ( ref1 ), toList ( bmp1 ) );
+			assertEquals ( "Wrong cardinality!", ref1.size (), bmp1.cardinality () );
+
+			IdBitmap and = bmp1.clone ();
+			and.and ( bmp2 );
+			TreeSet<Integer> refAnd = new TreeSet<> ( ref1 );
+			refAnd.retainAll ( ref2 );
+			assertEquals ( "Wrong and()!", new ArrayList<> ( refAnd ), toList ( and ) );
+
+			IdBitmap or = bmp1.clone ();
+			or.or ( bmp2 );
+			TreeSet<Integer> refOr = new TreeSet<> ( ref1 );
+			refOr.addAll ( ref2 );
+			assertEquals ( "Wrong or()!", new ArrayList<> ( refOr ), toList ( or ) );
+			assertEquals ( "Wrong or() cardinality!", refOr.size (), or.cardinality () );
+
+			IdBitmap andNot = bmp1.clone ();
+			andNot.andNot ( bmp2 );
+			TreeSet<Integer> refAndNot = new TreeSet<> ( ref1 );
+			refAndNot.removeAll ( ref2 );
+			assertEquals ( "Wrong andNot()!", new ArrayList<> ( refAndNot ), toList ( andNot ) );
+
+			assertEquals ( "Operations changed the operand!", new ArrayList<> ( ref1 ), toList ( bmp1 ) );
+			assertEquals ( "equals() doesn't work!", bmp1, bmp1.clone () );
+		}
+	}
+
+	@Test
+	public void testIteratorRemove ()
+	{
+		TreeSet<Integer> ref = randomIds ();
+		IdBitmap bmp = toBitmap ( ref );
+
+		for ( PrimitiveIterator.OfInt itr = bmp.iterator (); itr.hasNext (); )
+			if ( itr.nextInt () % 3 != 0 ) itr.remove ();
+		ref.removeIf ( id -> id % 3 != 0 );
+
+		assertEquals ( "Wrong contents after iterator removals!", new ArrayList<> ( ref ), toList ( bmp ) );
+
+		for ( PrimitiveIterator.OfInt itr = bmp.iterator (); itr.hasNext (); ) {
+			itr.nextInt ();
+			itr.remove ();
+		}
+		assertTrue ( "Bitmap not empty after removing everything!", bmp.isEmpty () );
+	}
+
+	private TreeSet<Integer> randomIds ()
+	{
+		TreeSet<Integer> result = new TreeSet<> ();
+		// A dense region, a sparse one and a few isolated ids
+		int denseBase = rnd.nextInt ( 4 ) << 16;
+		for ( int i = 0; i < 20_000; i++ ) result.add ( denseBase + rnd.nextInt ( 30_000 ) );
+		for ( int i = 0; i < 500; i++ ) result.add ( rnd.nextInt ( 1 << 20 ) );
+		for ( int i = 0; i < 5; i++ ) result.add ( -rnd.nextInt ( 100_000 ) );
+		return result;
+	}
+
+	private static IdBitmap toBitmap ( TreeSet<Integer> ids )
+	{
+		IdBitmap result = new IdBitmap ();
+		for ( int id: ids ) result.add ( id );
+		return result;
+	}
+
+	private static List<Integer> toList ( IdBitmap bmp )
+	{
+		List<Integer> result = new ArrayList<> ();
+		for ( PrimitiveIterator.OfInt itr = bmp.iterator (); itr.hasNext (); ) result.add ( itr.nextInt () );
+		return result;
+	}
+}
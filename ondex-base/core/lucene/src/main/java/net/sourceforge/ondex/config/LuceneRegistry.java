@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import net.sourceforge.ondex.core.searchable.LuceneEnv;
+import net.sourceforge.ondex.core.searchable.LuceneEnv.DirectoryType;
 
 /**
  * Registers all available Lucene graphs.
@@ -15,4 +16,11 @@ public class LuceneRegistry {
 
 	public final static Map<Long, LuceneEnv> sid2luceneEnv = new HashMap<Long, LuceneEnv>();
 
+	/**
+	 * The {@link LuceneEnv#setDirectoryType(DirectoryType) directory type} that new {@link LuceneEnv} instances
+	 * start with. Its initial value comes from {@link LuceneEnv#DIRECTORY_TYPE_PROP}.
+	 */
+	public static volatile DirectoryType directoryType =
+		DirectoryType.parse ( System.getProperty ( LuceneEnv.DIRECTORY_TYPE_PROP, DirectoryType.FS.name () ) );
+
 }
@@ -0,0 +1,89 @@
+package net.sourceforge.ondex.core.searchable;
+
+import java.util.Objects;
+
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+
+/**
+ * A single lookup in the batch searches like {@link LuceneEnv#searchConceptsByAccessionsExact(java.util.Collection, boolean)}.
+ *
+ * It's a term (eg, an accession) to be searched exactly, optionally restricted to the concepts of a given
+ * concept class and to a given data source (for accessions).
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ConceptTermLookup
+{
+	private final String conceptClassId;
+	private final String dataSourceId;
+	private final String term;
+
+	/**
+	 * @param conceptClass if non-null, only the concepts of this type are searched.
+	 * @param dataSource if non-null, the term is searched among the accessions of this data source only. This
+	 * is ignored by name searches.
+	 * @param term the term to search, not null.
+	 */
+	public ConceptTermLookup ( ConceptClass conceptClass, DataSource dataSource, String term )
+	{
+		this (
+			conceptClass == null ? null : conceptClass.getId (),
+			dataSource == null ? null : dataSource.getId (),
+			term
+		);
+	}
+
+	/**
+	 * For name lookups.
+	 */
+	public ConceptTermLookup ( ConceptClass conceptClass, String term )
+	{
+		this ( conceptClass, null, term );
+	}
+
+	/**
+	 * Like {@link #ConceptTermLookup(ConceptClass, DataSource, String)}, but based on metadata identifiers.
+	 */
+	public ConceptTermLookup ( String conceptClassId, String dataSourceId, String term )
+	{
+		this.conceptClassId = conceptClassId;
+		this.dataSourceId = dataSourceId;
+		this.term = Objects.requireNonNull ( term, "Can't search a null term" );
+	}
+
+	public String getConceptClassId () {
+		return conceptClassId;
+	}
+
+	public String getDataSourceId () {
+		return dataSourceId;
+	}
+
+	public String getTerm () {
+		return term;
+	}
+
+	@Override
+	public boolean equals ( Object obj )
+	{
+		if ( this == obj ) return true;
+		if ( !( obj instanceof ConceptTermLookup ) ) return false;
+		ConceptTermLookup other = (ConceptTermLookup) obj;
+		return term.equals ( other.term )
+			&& Objects.equals ( conceptClassId, other.conceptClassId )
+			&& Objects.equals ( dataSourceId, other.dataSourceId );
+	}
+
+	@Override
+	public int hashCode () {
+		return Objects.hash ( conceptClassId, dataSourceId, term );
+	}
+
+	@Override
+	public String toString () {
+		return String.format ( "ConceptTermLookup{cc: %s, ds: %s, term: '%s'}", conceptClassId, dataSourceId, term );
+	}
+}
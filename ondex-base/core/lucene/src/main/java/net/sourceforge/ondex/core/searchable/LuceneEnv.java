@@ -4,29 +4,48 @@ import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Paths;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.Uninterruptibles;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
-import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
@@ -35,29 +54,46 @@ import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.index.TieredMergePolicy;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.SimpleCollector;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.machinezoo.noexception.Exceptions;
 
+import net.sourceforge.ondex.config.LuceneRegistry;
 import net.sourceforge.ondex.core.Attribute;
 import net.sourceforge.ondex.core.AttributeName;
 import net.sourceforge.ondex.core.ConceptAccession;
+import net.sourceforge.ondex.core.ConceptClass;
 import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.DataSource;
 import net.sourceforge.ondex.core.ONDEXConcept;
 import net.sourceforge.ondex.core.ONDEXEntity;
 import net.sourceforge.ondex.core.ONDEXGraph;
@@ -129,44 +165,53 @@ public class LuceneEnv implements ONDEXLuceneFields
 	}
 
 	/**
-	 * Collects documents and their scores from a search.
-	 * 
-	 * @see DocIdCollector
+	 * Collects the ONDEX ids of the search hits, together with their scores if requested.
 	 * 
-	 * @author hindlem, brandizi
+	 * The ids are read from the numeric doc values that we index with the id fields, which is much faster than 
+	 * loading the stored documents, especially with many hits. See {@link LuceneEnv#getEntityId} for indexes 
+	 * created before these doc values.
 	 */
-	private class ScoreCollector extends DocIdCollector 
+	private static class EntityIdCollector extends SimpleCollector 
 	{
-		private Scorer scorer;
-
+		private final String idField;
+		private final BitSet ids = new BitSet ();
+		
 		/**
-		 * Collects scores for each doc.
+		 * Entity ID -&gt; score, null if we're not collecting scores.
 		 */
-		private final Map<Integer, Float> docScores;
+		private final Map<Integer, Float> scores;
+
+		private int skippedDocs = 0;
+		
+		private LeafReader reader;
+		private NumericDocValues idValues;
+		private Bits docsWithId;
+		private Scorer scorer;
 
-		public ScoreCollector ( IndexReader indexReader ) 
+		public EntityIdCollector ( String idField, boolean isScoring ) 
 		{
-			super ( indexReader );
-			docScores = new HashMap<> ( indexReader.maxDoc() );
+			this.idField = idField;
+			this.scores = isScoring ? new HashMap<> () : null;
 		}
 
 		@Override
-		public void collect ( int doc )
+		protected void doSetNextReader ( LeafReaderContext context ) throws IOException
 		{
-			try {
-				super.collect ( doc );
-				docScores.put ( doc + docBase, scorer.score() );
-			}
-			catch ( IOException ex ) {
-				throw new UncheckedIOException ( "Internal error while working with Lucene: " + ex.getMessage (), ex );
-			}
+			this.reader = context.reader ();
+			this.idValues = reader.getNumericDocValues ( idField );
+			this.docsWithId = idValues == null ? null : reader.getDocsWithField ( idField );
 		}
 
-		/**
-		 * @return a map going from do IDs to scores.
-		 */
-		public Map<Integer, Float> getScores() {
-			return docScores;
+		@Override
+		public void collect ( int doc ) throws IOException
+		{
+			int id = getEntityId ( reader, idField, idValues, docsWithId, doc );
+			if ( id == -1 ) {
+				skippedDocs++;
+				return;
+			}
+			ids.set ( id );
+			if ( scores != null ) scores.put ( id, scorer.score () );
 		}
 
 		@Override
@@ -176,8 +221,143 @@ public class LuceneEnv implements ONDEXLuceneFields
 		
 		@Override
 		public boolean needsScores () {
-			return true;
-		}		
+			return scores != null;
+		}
+
+		public BitSet getIds () {
+			return ids;
+		}
+
+		public Map<Integer, Float> getScores () {
+			return scores;
+		}
+
+		/**
+		 * The no. of hits that were skipped, since they haven't any ID value. 
+		 */
+		public int getSkippedDocs () {
+			return skippedDocs;
+		}
+	}
+	
+	/**
+	 * The result of a search, as it's kept by the {@link LuceneEnv#resultCache results cache}.
+	 */
+	private static class SearchResult
+	{
+		private final BitSet ids;
+		private final Map<Integer, Float> scores;
+		
+		public SearchResult ( BitSet ids, Map<Integer, Float> scores ) 
+		{
+			this.ids = ids;
+			this.scores = scores;
+		}
+
+		/**
+		 * A copy, since the sets built on it by {@link BitSetFunctions} can be modified.
+		 */
+		public BitSet getIds () {
+			return (BitSet) ids.clone ();
+		}
+
+		/**
+		 * A copy, for the same reasons as {@link #getIds()}.
+		 */
+		public Map<Integer, Float> getScores () {
+			return scores == null ? null : new HashMap<> ( scores );
+		}
+		
+		/**
+		 * A rough estimate of the memory taken, in bytes. 
+		 */
+		public int getWeight () 
+		{
+			long result = 64 + ids.size () / 8;
+			if ( scores != null ) result += 64L * scores.size ();
+			return (int) Math.min ( result, Integer.MAX_VALUE );
+		}
+	}
+	
+	/**
+	 * The key of {@link LuceneEnv#resultCache}. Queries are compared by means of their own 
+	 * {@link Query#equals(Object) equality}, which is structural. The reader version is the 
+	 * {@link DirectoryReader#getVersion() version} of the index that the search was run against.
+	 */
+	private static class ResultCacheKey
+	{
+		private final String searchType;
+		private final String idField;
+		private final Query query;
+		private final int limit;
+		private final long indexGeneration;
+		private final long readerVersion;
+		
+		public ResultCacheKey ( 
+			String searchType, String idField, Query query, int limit, long indexGeneration, long readerVersion 
+		)
+		{
+			this.searchType = searchType;
+			this.idField = idField;
+			this.query = query;
+			this.limit = limit;
+			this.indexGeneration = indexGeneration;
+			this.readerVersion = readerVersion;
+		}
+
+		@Override
+		public boolean equals ( Object obj )
+		{
+			if ( this == obj ) return true;
+			if ( !( obj instanceof ResultCacheKey ) ) return false;
+			ResultCacheKey other = (ResultCacheKey) obj;
+			return limit == other.limit && readerVersion == other.readerVersion 
+				&& indexGeneration == other.indexGeneration
+				&& searchType.equals ( other.searchType ) && idField.equals ( other.idField ) 
+				&& query.equals ( other.query ); 
+		}
+
+		@Override
+		public int hashCode () {
+			return Objects.hash ( searchType, idField, query, limit, indexGeneration, readerVersion );
+		}
+	}
+	
+	/**
+	 * The kind of Lucene {@link Directory} that holds the index, see {@link LuceneEnv#setDirectoryType(DirectoryType)}.
+	 */
+	public static enum DirectoryType 
+	{
+		/**
+		 * {@link FSDirectory#open(Path)}, which picks the best file system implementation for the platform.
+		 */
+		FS,
+		
+		/**
+		 * {@link MMapDirectory}, optionally preloading the index files, see {@link LuceneEnv#setMMapPreload(boolean)}. 
+		 * Good for large persistent indexes.
+		 */
+		MMAP,
+		
+		/**
+		 * An in-heap {@link RAMDirectory}, good for small short-lived indexes, like those the workflow engine creates
+		 * for a plug-in and deletes afterwards. Nothing is written to the index directory. When an existing index is 
+		 * opened, it's loaded from the index directory into the heap, but the changes aren't saved back.
+		 */
+		HEAP;
+		
+		/**
+		 * A case-insensitive {@link #valueOf(String)}, with a more informative error message.
+		 */
+		public static DirectoryType parse ( String name )
+		{
+			for ( DirectoryType type: values () )
+				if ( type.name ().equalsIgnoreCase ( StringUtils.trimToEmpty ( name ) ) ) return type;
+			
+			throw new IllegalArgumentException ( String.format ( 
+				"Invalid Lucene directory type \"%s\", the valid values are: %s", name, Arrays.toString ( values () ) 
+			));
+		}
 	}
 	
 	/**
@@ -193,6 +373,29 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 */
 	private Directory idxDirectory;
 
+	/**
+	 * See {@link #setDirectoryType(DirectoryType)}.
+	 */
+	private DirectoryType directoryType = LuceneRegistry.directoryType;
+	
+	/**
+	 * See {@link #setMMapPreload(boolean)}.
+	 */
+	private boolean isMMapPreload = Boolean.parseBoolean ( System.getProperty ( MMAP_PRELOAD_PROP, "true" ) );
+	
+	/**
+	 * In {@link DirectoryType#HEAP} mode, this is where the index lives. Unlike the other directory types, it's kept
+	 * open when {@link #idxDirectory} is closed.  
+	 */
+	private RAMDirectory heapDirectory;
+	
+	/**
+	 * See {@link #setIndexProfile(LuceneIndexProfile)}.
+	 */
+	private LuceneIndexProfile indexProfile = LuceneIndexProfile.forName ( 
+		System.getProperty ( INDEX_PROFILE_PROP, LuceneIndexProfile.FULL.getName () ) 
+	);
+
 	/**
 	 * Lucene index writer
 	 */
@@ -212,6 +415,50 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 * index reader
 	 */
 	private IndexReader idxReader;
+	
+	/**
+	 * See {@link #setNearRealTimeMode(boolean)}.
+	 */
+	private boolean isNearRealTimeMode = Boolean.getBoolean ( NRT_MODE_PROP );
+
+	/**
+	 * See {@link #setReadYourWrites(boolean)}.
+	 */
+	private boolean isReadYourWrites = true;
+
+	/**
+	 * See {@link #setNearRealTimeRefreshInterval(long)}.
+	 */
+	private long nearRealTimeRefreshInterval = Long.getLong ( NRT_REFRESH_INTERVAL_PROP, 1000 );
+	
+	/**
+	 * Provides the searchers in near-real-time mode, it's bound to the long-lived {@link #idxWriter}.
+	 */
+	private SearcherManager searcherManager;
+	
+	private ScheduledFuture<?> nearRealTimeRefreshTask;
+	
+	/**
+	 * Counts the index updates done in near-real-time mode, used to know if the searcher needs a refresh.
+	 */
+	private final AtomicLong nearRealTimeWriteGen = new AtomicLong ();
+	
+	/**
+	 * The last value of {@link #nearRealTimeWriteGen} that the searcher has been refreshed to. 
+	 */
+	private final AtomicLong nearRealTimeRefreshedGen = new AtomicLong ();
+	
+	/**
+	 * See {@link #setResultCacheSize(long)}. null when the cache is disabled.
+	 */
+	private volatile Cache<ResultCacheKey, SearchResult> resultCache = 
+		buildResultCache ( Long.getLong ( RESULT_CACHE_SIZE_PROP, 64 ) * 1024 * 1024 );
+	
+	/**
+	 * Part of the {@link #resultCache} keys, it changes every time the index is (re)built, since the reader versions 
+	 * of different indexes can't be compared. 
+	 */
+	private final AtomicLong indexGeneration = new AtomicLong ();
 
 	/**
 	 * contains all registered listeners
@@ -223,14 +470,21 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 */
 	private LuceneONDEXGraph og = null;
 
-	// contains all used DataSources for concept accessions
-	private Set<String> listOfConceptAccDataSources = new HashSet<>();
+	// contains all used DataSources for concept accessions, concurrent because of the parallel indexing
+	private Set<String> listOfConceptAccDataSources = ConcurrentHashMap.newKeySet ();
 
 	// contains all used attribute names for concepts
-	private Set<String> listOfConceptAttrNames = new HashSet<>();
+	private Set<String> listOfConceptAttrNames = ConcurrentHashMap.newKeySet ();
 
 	// contains all used attribute names for relations
-	private Set<String> listOfRelationAttrNames = new HashSet<>();
+	private Set<String> listOfRelationAttrNames = ConcurrentHashMap.newKeySet ();
+
+	/**
+	 * See {@link #setIndexingThreads(int)}.
+	 */
+	private int indexingThreads = Integer.getInteger ( 
+		INDEXING_THREADS_PROP, Runtime.getRuntime ().availableProcessors () 
+	);
 	
 	/**
 	 * global analyser used for the index
@@ -245,16 +499,8 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 */
 	private final static Pattern DOUBLE_SPACES_RE = Pattern.compile("\\s{2,}");
 
-	/**
-	 * empty BitSet for empty results
-	 */
-	private final static BitSet EMPTYBITSET = new BitSet(0);
-
-	private final static Map<Integer, Float> EMPTYSCOREMAP = new HashMap<>( 0 );
-
 	/* Options to reflect these names are set in the class initialising block, see below */
 	private final static FieldType FIELD_TYPE_STORED_INDEXED_NO_NORMS = new FieldType ( TextField.TYPE_STORED );
-	private final static FieldType FIELD_TYPE_STORED_INDEXED_VECT_STORE = new FieldType ( TextField.TYPE_STORED );
 	private final static FieldType FIELD_TYPE_STORED_INDEXED_UNCHANGED = new FieldType ( StringField.TYPE_STORED );
 
 
@@ -263,6 +509,53 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 */
 	private static final ExecutorService EXECUTOR;
 
+	/**
+	 * The default for {@link #setIndexingThreads(int)}, if not set, the no. of available processors is used.
+	 */
+	public static final String INDEXING_THREADS_PROP = "ondex.lucene.indexingThreads";
+
+	/**
+	 * How many entities a worker of {@link #indexingHelper(Set, String, Consumer)} takes at a time.
+	 */
+	private static final int INDEXING_BATCH_SIZE = 1000;
+
+	/**
+	 * The default for {@link #setNearRealTimeMode(boolean)}, false if not set.
+	 */
+	public static final String NRT_MODE_PROP = "ondex.lucene.nrtMode";
+	
+	/**
+	 * The default for {@link #setNearRealTimeRefreshInterval(long)}, 1000ms if not set.
+	 */
+	public static final String NRT_REFRESH_INTERVAL_PROP = "ondex.lucene.nrtRefreshInterval";
+	
+	/**
+	 * The default for {@link #setResultCacheSize(long)}, in MB. If not set, it's 64MB.
+	 */
+	public static final String RESULT_CACHE_SIZE_PROP = "ondex.lucene.resultCacheSizeMB";
+
+	/**
+	 * The default for {@link #setDirectoryType(DirectoryType)}, as one of the {@link DirectoryType} names. 
+	 * If not set, it's {@link DirectoryType#FS}. This is used to initialise {@link LuceneRegistry#directoryType}.
+	 */
+	public static final String DIRECTORY_TYPE_PROP = "ondex.lucene.directoryType";
+
+	/**
+	 * The default for {@link #setMMapPreload(boolean)}, true if not set.
+	 */
+	public static final String MMAP_PRELOAD_PROP = "ondex.lucene.mmapPreload";
+
+	/**
+	 * The default for {@link #setIndexProfile(LuceneIndexProfile)}, see {@link LuceneIndexProfile#forName(String)}.
+	 * If not set, it's {@link LuceneIndexProfile#FULL}.
+	 */
+	public static final String INDEX_PROFILE_PROP = "ondex.lucene.indexProfile";
+
+	/**
+	 * Runs the periodic refreshes of the near-real-time searchers. 
+	 */
+	private static final ScheduledExecutorService NRT_REFRESHER;
+
 	/**
 	 * Allows only the id of a document to be loaded
 	 */
@@ -288,11 +581,6 @@ public class LuceneEnv implements ONDEXLuceneFields
 			f.freeze ();
 		}
 		
-		{
-			FieldType f = FIELD_TYPE_STORED_INDEXED_VECT_STORE;
-			f.setStoreTermVectors ( true );
-			f.freeze ();
-		}
 		{
 			FieldType f = FIELD_TYPE_STORED_INDEXED_UNCHANGED;
 			f.setIndexOptions ( IndexOptions.DOCS_AND_FREQS_AND_POSITIONS );
@@ -301,6 +589,11 @@ public class LuceneEnv implements ONDEXLuceneFields
 		}
 		
 		EXECUTOR = Executors.newCachedThreadPool ();
+		NRT_REFRESHER = Executors.newSingleThreadScheduledExecutor ( r -> {
+			Thread t = new Thread ( r, "LuceneEnv NRT Refresher" );
+			t.setDaemon ( true );
+			return t;
+		});
 		Runtime.getRuntime ().addShutdownHook ( 
 			new Thread ( 
 				() -> { if ( EXECUTOR != null ) EXECUTOR.shutdownNow (); } 
@@ -400,6 +693,8 @@ public class LuceneEnv implements ONDEXLuceneFields
 				
 		try 
 		{
+			closeNearRealTime ();
+			
 			// add last document to index
 			addMetadataToIndex ();
 
@@ -424,9 +719,11 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		DocIdCollector collector = null;
 		try {
-			openIdxReader ();
-			collector = new DocIdCollector(idxSearcher.getIndexReader());
-			idxSearcher.search( new TermQuery(new Term(CONID_FIELD, String.valueOf(cid))), collector);
+			collector = searchIdx ( searcher -> {
+				DocIdCollector result = new DocIdCollector ( searcher.getIndexReader () );
+				searcher.search ( new TermQuery ( new Term ( CONID_FIELD, String.valueOf ( cid ) ) ), result );
+				return result;
+			});
 		} 
 		catch (IOException ex) {
 			throw new UncheckedIOException ( 
@@ -453,8 +750,7 @@ public class LuceneEnv implements ONDEXLuceneFields
 		String fieldname = CONATTRIBUTE_FIELD + DELIM + an.getId();
 		Term term = new Term(fieldname, word);
 		try {
-			this.openIdxReader ();
-			return idxReader.docFreq( term );
+			return searchIdx ( searcher -> searcher.getIndexReader ().docFreq ( term ) );
 		} 
 		catch (IOException ex) 
 		{
@@ -482,14 +778,16 @@ public class LuceneEnv implements ONDEXLuceneFields
 		String fieldname = CONATTRIBUTE_FIELD + DELIM + an.getId();
 
 		try {
-			this.openIdxReader ();			
-			int[] freqs = new int[word.length];
-			for (int i = 0; i < word.length; i++) {
-				freqs[i] = idxReader.docFreq ( new Term ( fieldname, word[i] ) );
-			}
-
-			// Returns the number of documents containing the terms.
-			return freqs;
+			return searchIdx ( searcher -> 
+			{
+				int[] freqs = new int[word.length];
+				for (int i = 0; i < word.length; i++) {
+					freqs[i] = searcher.getIndexReader ().docFreq ( new Term ( fieldname, word[i] ) );
+				}
+	
+				// Returns the number of documents containing the terms.
+				return freqs;
+			});
 		} 
 		catch (IOException ex) 
 		{
@@ -515,8 +813,7 @@ public class LuceneEnv implements ONDEXLuceneFields
 		Term term = new Term(fieldname, word);
 		try {
 			// Returns the number of documents containing the term.
-			this.openIdxReader ();						
-			return idxReader.docFreq ( term );
+			return searchIdx ( searcher -> searcher.getIndexReader ().docFreq ( term ) );
 		} 
 		catch (IOException ex) {
 			fireEventOccurred ( 
@@ -541,14 +838,16 @@ public class LuceneEnv implements ONDEXLuceneFields
 		String fieldname = RELATTRIBUTE_FIELD + DELIM + an.getId();
 
 		try {
-			this.openIdxReader ();
-			int[] freqs = new int[word.length];
-			for (int i = 0; i < word.length; i++) {
-				freqs[i] = idxReader.docFreq ( new Term(fieldname, word[i]) );
-			}
-
-			// Returns the number of documents containing the terms.
-			return freqs;
+			return searchIdx ( searcher -> 
+			{
+				int[] freqs = new int[word.length];
+				for (int i = 0; i < word.length; i++) {
+					freqs[i] = searcher.getIndexReader ().docFreq ( new Term(fieldname, word[i]) );
+				}
+	
+				// Returns the number of documents containing the terms.
+				return freqs;
+			});
 		}
 		catch (IOException ex) {
 			fireEventOccurred(
@@ -593,6 +892,190 @@ public class LuceneEnv implements ONDEXLuceneFields
 		return isReadOnlyMode;
 	}
 
+	public int getIndexingThreads () {
+		return indexingThreads;
+	}
+
+	/**
+	 * The no. of threads that build the Lucene documents when a whole graph is indexed by 
+	 * {@link #setONDEXGraph(ONDEXGraph)}. They all feed the same {@link IndexWriter}, which is thread-safe. 
+	 * The default is {@link #INDEXING_THREADS_PROP}, or the no. of available processors. 
+	 */
+	public void setIndexingThreads ( int indexingThreads ) 
+	{
+		if ( indexingThreads < 1 ) throw new IllegalArgumentException ( 
+			"The no. of Lucene indexing threads must be > 0, got " + indexingThreads 
+		);
+		this.indexingThreads = indexingThreads;
+	}
+
+	public boolean isNearRealTimeMode () {
+		return isNearRealTimeMode;
+	}
+
+	/**
+	 * <p>In near-real-time (NRT) mode, the index updates (eg, {@link #updateConceptToIndex(ONDEXConcept)}, 
+	 * {@link #removeConceptFromIndex(int)}) are sent to a long-lived {@link IndexWriter}, without committing and 
+	 * reopening the index every time, and the searches use a {@link SearcherManager} bound to this writer. 
+	 * This is much faster when updates and searches are interleaved, as it happens in many transformers.</p>
+	 * 
+	 * <p>The changes are committed by {@link #commitIdx()} and {@link #closeAll()}, so the latter must be invoked
+	 * when you're done with the index. Moreover, the writer keeps the index locked in the meantime, so this mode
+	 * isn't suitable when other components write the same index directory. For these reasons, it's off by default 
+	 * (see {@link #NRT_MODE_PROP}). It's ignored in {@link #isReadOnlyMode() read-only mode}.</p>
+	 * 
+	 * <p>See also {@link #setReadYourWrites(boolean)} and {@link #setNearRealTimeRefreshInterval(long)}.</p>
+	 */
+	public void setNearRealTimeMode ( boolean isNearRealTimeMode ) 
+	{
+		if ( !isNearRealTimeMode && this.searcherManager != null ) this.closeIdxWriter ();
+		this.isNearRealTimeMode = isNearRealTimeMode;
+	}
+
+	public boolean isReadYourWrites () {
+		return isReadYourWrites;
+	}
+
+	/**
+	 * In {@link #setNearRealTimeMode(boolean) NRT mode}, if this is true (the default), a search
+	 * refreshes the searcher when there are updates it doesn't see yet, so that it always returns 
+	 * up-to-date results. If it's false, the searcher is refreshed only periodically, or by 
+	 * {@link #refreshIdxSearcher()}. 
+	 */
+	public void setReadYourWrites ( boolean isReadYourWrites ) {
+		this.isReadYourWrites = isReadYourWrites;
+	}
+
+	public long getNearRealTimeRefreshInterval () {
+		return nearRealTimeRefreshInterval;
+	}
+
+	/**
+	 * How often, in ms, the {@link #setNearRealTimeMode(boolean) NRT searcher} is refreshed in background, when
+	 * there are new index updates. 0 disables this periodic refresh. This is applied the next time the index
+	 * writer is opened. Default is {@link #NRT_REFRESH_INTERVAL_PROP} or 1000.
+	 */
+	public void setNearRealTimeRefreshInterval ( long nearRealTimeRefreshInterval ) 
+	{
+		if ( nearRealTimeRefreshInterval < 0 ) throw new IllegalArgumentException ( 
+			"The Lucene NRT refresh interval must be >= 0, got " + nearRealTimeRefreshInterval 
+		);
+		this.nearRealTimeRefreshInterval = nearRealTimeRefreshInterval;
+	}
+	
+	public DirectoryType getDirectoryType () {
+		return directoryType;
+	}
+
+	/**
+	 * The kind of Lucene {@link Directory} that is used for the index. This must be set before the index is 
+	 * opened, ie, before {@link #setONDEXGraph(ONDEXGraph)}. The default is {@link LuceneRegistry#directoryType}.
+	 * 
+	 * In {@link DirectoryType#HEAP} mode, the index lives as long as this object and {@link #closeAll()} doesn't
+	 * discard it, so that the index can be reopened for further use.
+	 */
+	public void setDirectoryType ( DirectoryType directoryType ) 
+	{
+		if ( this.idxDirectory != null || this.heapDirectory != null ) throw new IllegalStateException ( 
+			"Can't change the Lucene directory type after the index has been opened"
+		);
+		this.directoryType = Objects.requireNonNull ( directoryType, "The Lucene directory type can't be null" );
+	}
+
+	public LuceneIndexProfile getIndexProfile () {
+		return indexProfile;
+	}
+
+	/**
+	 * Which entity parts are indexed and how. This must be set before the index is opened, and an existing index
+	 * must be opened with the same profile it was built with. The searches that need fields the profile leaves out
+	 * fail with {@link IllegalArgumentException}. The default is {@link #INDEX_PROFILE_PROP}, or 
+	 * {@link LuceneIndexProfile#FULL}.
+	 */
+	public void setIndexProfile ( LuceneIndexProfile indexProfile ) 
+	{
+		if ( this.idxDirectory != null || this.heapDirectory != null ) throw new IllegalStateException ( 
+			"Can't change the Lucene index profile after the index has been opened"
+		);
+		this.indexProfile = Objects.requireNonNull ( indexProfile, "The Lucene index profile can't be null" );
+	}
+
+	/**
+	 * Fails if a case-insensitive search is requested and the {@link #setIndexProfile(LuceneIndexProfile) profile}
+	 * doesn't index the lower-case variants it needs.
+	 */
+	private void checkCaseInsensitiveSearch ( boolean isCaseSensitive )
+	{
+		if ( isCaseSensitive || this.indexProfile.isCaseInsensitiveVariants () ) return;
+		throw new IllegalArgumentException ( String.format ( 
+			"Can't do case-insensitive searches with the Lucene index profile \"%s\", which doesn't index the"
+			+ " lower-case variants", this.indexProfile.getName () 
+		));
+	}
+	
+	public boolean isMMapPreload () {
+		return isMMapPreload;
+	}
+
+	/**
+	 * In {@link DirectoryType#MMAP} mode, asks the OS to load the index files into the physical memory upon opening 
+	 * them (see {@link MMapDirectory#setPreload(boolean)}), which makes the first searches faster. The default is 
+	 * {@link #MMAP_PRELOAD_PROP} or true. This is applied the next time the index is opened.
+	 */
+	public void setMMapPreload ( boolean isMMapPreload ) {
+		this.isMMapPreload = isMMapPreload;
+	}
+	
+	/**
+	 * The max memory, in bytes, that the search results cache can take (roughly estimated). The cache is used by 
+	 * methods like {@link #searchInConcepts(Query)}, {@link #scoredSearchInConcepts(Query)} or 
+	 * {@link #searchTopConcepts(Query, int)}, and by those based on them. The least recently used results are 
+	 * evicted when the limit is reached. All the entries are invalidated when the index changes.
+	 * 
+	 * 0 disables the cache. The default is {@link #RESULT_CACHE_SIZE_PROP} or 64MB. Setting this clears the cache.
+	 */
+	public void setResultCacheSize ( long maxBytes ) 
+	{
+		if ( maxBytes < 0 ) throw new IllegalArgumentException ( 
+			"The Lucene results cache size must be >= 0, got " + maxBytes 
+		);
+		this.resultCache = buildResultCache ( maxBytes );
+	}
+
+	/**
+	 * Hit/miss/eviction statistics about the search result cache (see {@link #setResultCacheSize(long)}). 
+	 * They're zero if the cache is disabled and restart when the cache size is changed.
+	 */
+	public CacheStats getResultCacheStats () 
+	{
+		Cache<ResultCacheKey, SearchResult> cache = this.resultCache;
+		return cache == null ? new CacheStats ( 0, 0, 0, 0, 0, 0 ) : cache.stats ();
+	}
+	
+	private static Cache<ResultCacheKey, SearchResult> buildResultCache ( long maxBytes )
+	{
+		if ( maxBytes == 0 ) return null;
+		return CacheBuilder.newBuilder ()
+			.maximumWeight ( maxBytes )
+			.weigher ( ( ResultCacheKey key, SearchResult value ) -> value.getWeight () )
+			.recordStats ()
+			.build ();
+	}
+	
+	/**
+	 * Invoked when the index changes, to free the search results computed so far. They wouldn't be used anyway,
+	 * since their keys have an older reader version. 
+	 */
+	private void invalidateResultCache ()
+	{
+		Cache<ResultCacheKey, SearchResult> cache = this.resultCache;
+		if ( cache != null ) cache.invalidateAll ();
+	}
+	
+	private boolean isNearRealTimeActive () {
+		return this.isNearRealTimeMode && !this.isReadOnlyMode;
+	}
+
 	/**
 	 * This can be set to true when you know that you're not going to write to the index anymore and you 
 	 * want to speedup search-only operations.
@@ -622,6 +1105,15 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 * Open index for writing.
 	 */
 	public void openIdxWriter ()
+	{
+		openIdxWriter ( false );
+	}
+	
+	/**
+	 * @param isBulkBuild if true, the writer is configured for building a new index in one go, as in 
+	 * {@link #indexONDEXGraph(ONDEXGraph)}. 
+	 */
+	private void openIdxWriter ( boolean isBulkBuild )
 	{
 		checkReadOnlyMode ();		
 		
@@ -634,12 +1126,24 @@ public class LuceneEnv implements ONDEXLuceneFields
 			this.closeIdxReader ();
 			
 			
-			this.idxDirectory = FSDirectory.open ( Paths.get ( indexDirPath ) );
+			this.openIdxDirectory ();
 			
 			IndexWriterConfig writerConfig = new IndexWriterConfig ( DEFAULTANALYZER );
 			writerConfig.setOpenMode ( OpenMode.CREATE_OR_APPEND );
 			// set RAM buffer, hopefully speeds up things
 			writerConfig.setRAMBufferSizeMB ( getOptimalRamBufferSize () );
+			
+			if ( isBulkBuild )
+			{
+				// Fewer and larger merges, and no compound files, which save file handles when searching an index 
+				// that changes often, not our case. 
+				TieredMergePolicy mergePolicy = new TieredMergePolicy ();
+				mergePolicy.setSegmentsPerTier ( 20 );
+				mergePolicy.setMaxMergeAtOnce ( 20 );
+				mergePolicy.setNoCFSRatio ( 0 );
+				writerConfig.setMergePolicy ( mergePolicy );
+				writerConfig.setUseCompoundFile ( false );
+			}
 
 			this.idxWriter = new IndexWriter ( idxDirectory, writerConfig );
 			
@@ -650,68 +1154,274 @@ public class LuceneEnv implements ONDEXLuceneFields
 			log.info ( "Index opened, old metadata deletions: ", idxWriter.hasDeletions () );
 		}
 		catch ( IOException ex ) {
-			fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LucenceEnv - openIndex]" ) );
+			fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LucenceEnv - openIndex]" ) );
+			throw new UncheckedIOException ( "Internal error while working with Lucene: " + ex.getMessage (), ex );
+		}
+	}
+	
+	
+	/**
+	 * This was added by brandizi in 2017, to ensure {@link #idxReader} and {@link #idxSearcher} are open 
+	 * before starting using them in an operation. 
+	 */
+	private void openIdxReader () throws IOException
+	{
+		this.openIdxDirectory ();
+
+		if ( this.isReadOnlyMode ) return;
+		
+		DirectoryReader newReader = null;
+		
+		try
+		{
+			if ( this.idxReader == null )
+				newReader = DirectoryReader.open ( this.idxDirectory );
+			else
+			{
+				try {
+					newReader = DirectoryReader.openIfChanged ( (DirectoryReader) idxReader );
+				}
+				catch ( AlreadyClosedException ex ) {
+					// It seems there isn't a method to know if the reader was already closed, apart from a listener, which
+					// would be a bit more cumbersome here and not so useful
+					newReader = DirectoryReader.open ( idxDirectory );
+				}
+			}
+		}
+		finally {
+			if ( newReader != null )
+			{
+				if ( this.idxReader != null ) this.idxReader.close ();
+				this.idxReader = newReader;
+				this.idxSearcher = new IndexSearcher ( this.idxReader );
+			}
+		}
+	}	
+	
+	/**
+	 * This is normally  not needed, except by {@link #openIdxWriter()}, which invokes it to invalidated the current
+	 * reader objects and ensure they're refreshed.
+	 */
+	private void closeIdxReader () throws IOException
+	{
+		if ( this.idxReader != null ) {
+			this.idxReader.close ();
+			this.idxReader = null;
+		}
+		this.idxSearcher = null;
+		if ( this.idxDirectory != null ) {
+			// The in-heap index would be lost otherwise
+			if ( this.idxDirectory != this.heapDirectory ) this.idxDirectory.close ();
+			this.idxDirectory = null;
+		}
+	}
+	
+	/**
+	 * Opens {@link #idxDirectory} if it's not open yet, according to {@link #setDirectoryType(DirectoryType)}.
+	 */
+	private Directory openIdxDirectory () throws IOException
+	{
+		if ( this.idxDirectory != null ) return this.idxDirectory;
+		
+		Path path = Paths.get ( indexDirPath );
+		switch ( this.directoryType )
+		{
+			case MMAP:
+				MMapDirectory mmapDirectory = new MMapDirectory ( path );
+				mmapDirectory.setPreload ( this.isMMapPreload );
+				return this.idxDirectory = mmapDirectory;
+				
+			case HEAP:
+				if ( this.heapDirectory == null ) this.heapDirectory = createHeapDirectory ( path );
+				return this.idxDirectory = this.heapDirectory;
+				
+			default:
+				return this.idxDirectory = FSDirectory.open ( path );
+		}
+	}
+	
+	/**
+	 * Creates the index for {@link DirectoryType#HEAP}, copying the existing index from the index directory, 
+	 * unless we're creating a new index.
+	 */
+	private RAMDirectory createHeapDirectory ( Path path ) throws IOException
+	{
+		if ( this.createNewIndex ) return new RAMDirectory ();
+		
+		try ( FSDirectory fsDirectory = FSDirectory.open ( path ) ) {
+			return new RAMDirectory ( fsDirectory, IOContext.READONCE );
+		}
+	}
+	
+	/**
+	 * Opens the long-lived writer and the searcher manager used in {@link #setNearRealTimeMode(boolean) NRT mode}, 
+	 * if they're not open yet.
+	 */
+	private synchronized SearcherManager openNearRealTime () throws IOException
+	{
+		if ( this.searcherManager != null ) return this.searcherManager;
+		
+		this.openIdxWriter ();
+		this.searcherManager = new SearcherManager ( this.idxWriter, null );
+		this.nearRealTimeRefreshedGen.set ( this.nearRealTimeWriteGen.get () );
+		
+		if ( this.nearRealTimeRefreshInterval > 0 ) this.nearRealTimeRefreshTask = NRT_REFRESHER.scheduleWithFixedDelay ( 
+			this::refreshNearRealTimePeriodically, 
+			this.nearRealTimeRefreshInterval, this.nearRealTimeRefreshInterval, TimeUnit.MILLISECONDS 
+		);
+		log.info ( "Lucene index opened in near-real-time mode" );
+		return this.searcherManager;
+	}
+	
+	/**
+	 * Invoked by {@link #closeIdxWriter()}, before closing the writer that the NRT searchers depend on.
+	 */
+	private synchronized void closeNearRealTime () throws IOException
+	{
+		if ( this.nearRealTimeRefreshTask != null ) {
+			this.nearRealTimeRefreshTask.cancel ( false );
+			this.nearRealTimeRefreshTask = null;
+		}
+		if ( this.searcherManager != null ) {
+			this.searcherManager.close ();
+			this.searcherManager = null;
+		}
+	}
+	
+	/**
+	 * Refreshes the NRT searcher, if there are index updates that it doesn't see yet.
+	 */
+	private void refreshNearRealTime () throws IOException
+	{
+		SearcherManager mgr = this.searcherManager;
+		if ( mgr == null ) return;
+
+		long gen = this.nearRealTimeWriteGen.get ();
+		if ( this.nearRealTimeRefreshedGen.get () >= gen ) return;
+		
+		mgr.maybeRefreshBlocking ();
+		this.nearRealTimeRefreshedGen.accumulateAndGet ( gen, Math::max );
+		// With read-your-writes off, the previous results could have been computed against a stale searcher 
+		invalidateResultCache ();
+	}
+
+	private void refreshNearRealTimePeriodically ()
+	{
+		try {
+			refreshNearRealTime ();
+		}
+		catch ( IOException | RuntimeException ex ) {
+			// Don't let it propagate, the executor would stop the periodic task
+			log.warn ( "Error while refreshing the Lucene NRT searcher: " + ex.getMessage (), ex );
+		}
+	}
+	
+	/**
+	 * Makes the index updates visible to the searches in {@link #setNearRealTimeMode(boolean) NRT mode}.
+	 * This is needed only when {@link #isReadYourWrites()} is false and you don't want to wait for the 
+	 * periodic refresh. It does nothing in the normal mode, where every update is committed.
+	 */
+	public void refreshIdxSearcher ()
+	{
+		try {
+			refreshNearRealTime ();
+		}
+		catch ( IOException ex ) {
+			fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LuceneEnv - refreshIdxSearcher]" ) );
 			throw new UncheckedIOException ( "Internal error while working with Lucene: " + ex.getMessage (), ex );
 		}
 	}
 	
-	
 	/**
-	 * This was added by brandizi in 2017, to ensure {@link #idxReader} and {@link #idxSearcher} are open 
-	 * before starting using them in an operation. 
+	 * Commits the pending index updates, including the metadata document. In {@link #setNearRealTimeMode(boolean) NRT 
+	 * mode}, this allows for making the index durable and visible to other readers, without closing the writer. 
+	 * Nothing happens if the index writer isn't open.
 	 */
-	private void openIdxReader () throws IOException
+	public synchronized void commitIdx ()
 	{
-		if ( this.idxDirectory == null )
-			this.idxDirectory = FSDirectory.open ( new File ( indexDirPath ).toPath () );
-
-		if ( this.isReadOnlyMode ) return;
-		
-		DirectoryReader newReader = null;
+		if ( this.idxWriter == null ) return;
 		
-		try
+		try 
 		{
-			if ( this.idxReader == null )
-				newReader = DirectoryReader.open ( this.idxDirectory );
-			else
-			{
-				try {
-					newReader = DirectoryReader.openIfChanged ( (DirectoryReader) idxReader );
-				}
-				catch ( AlreadyClosedException ex ) {
-					// It seems there isn't a method to know if the reader was already closed, apart from a listener, which
-					// would be a bit more cumbersome here and not so useful
-					newReader = DirectoryReader.open ( idxDirectory );
-				}
-			}
+			addMetadataToIndex ();
+			idxWriter.commit ();
 		}
-		finally {
-			if ( newReader != null )
-			{
-				if ( this.idxReader != null ) this.idxReader.close ();
-				this.idxReader = newReader;
-				this.idxSearcher = new IndexSearcher ( this.idxReader );
-			}
+		catch ( IOException ex ) {
+			fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LuceneEnv - commitIdx]" ) );
+			throw new UncheckedIOException ( "Internal error while working with Lucene: " + ex.getMessage (), ex );
 		}
-	}	
+	}
 	
 	/**
-	 * This is normally  not needed, except by {@link #openIdxWriter()}, which invokes it to invalidated the current
-	 * reader objects and ensure they're refreshed.
+	 * Used by {@link LuceneEnv#searchIdx(IdxSearchFunction)}.
 	 */
-	private void closeIdxReader () throws IOException
+	@FunctionalInterface
+	private static interface IdxSearchFunction<T>
 	{
-		if ( this.idxReader != null ) {
-			this.idxReader.close ();
-			this.idxReader = null;
+		T apply ( IndexSearcher searcher ) throws IOException;
+	}
+	
+	/**
+	 * Runs a search-based operation against the current searcher. In the normal mode, this is {@link #idxSearcher},
+	 * after {@link #openIdxReader()}. In {@link #setNearRealTimeMode(boolean) NRT mode}, it's acquired from 
+	 * {@link #searcherManager} (and released at the end), after a refresh if {@link #isReadYourWrites()} requires it.
+	 */
+	private <T> T searchIdx ( IdxSearchFunction<T> action ) throws IOException
+	{
+		if ( !isNearRealTimeActive () )
+		{
+			this.openIdxReader ();
+			return action.apply ( this.idxSearcher );
 		}
-		this.idxSearcher = null;
-		if ( this.idxDirectory != null ) {
-			this.idxDirectory.close ();
-			this.idxDirectory = null;
+		
+		SearcherManager mgr = openNearRealTime ();
+		if ( this.isReadYourWrites ) refreshNearRealTime ();
+
+		IndexSearcher searcher = mgr.acquire ();
+		try {
+			return action.apply ( searcher );
+		}
+		finally {
+			mgr.release ( searcher );
 		}
 	}
 	
+	/**
+	 * Runs a search via {@link #searchIdx(IdxSearchFunction)}, unless its result is in the {@link #resultCache}.
+	 * 
+	 * @param searchType and idField, together with the query and the limit, identify the search in the cache. 
+	 */
+	private SearchResult cachedSearch ( 
+		String searchType, String idField, Query q, int limit, IdxSearchFunction<SearchResult> search 
+	) throws IOException
+	{
+		LuceneQueryBuilder.checkQueryFields ( q, this.indexProfile );
+		
+		Cache<ResultCacheKey, SearchResult> cache = this.resultCache;
+		if ( cache == null ) return searchIdx ( search );
+		
+		// Taken before the search, so that, if the index is rebuilt in the meantime, the result is stored under an
+		// old key, which isn't looked up anymore.
+		long indexGeneration = this.indexGeneration.get ();
+		
+		return searchIdx ( searcher -> 
+		{
+			// The version of the searcher's reader changes with every commit and NRT refresh, so the key refers to
+			// exactly the index view that the result comes from.
+			IndexReader reader = searcher.getIndexReader ();
+			if ( !( reader instanceof DirectoryReader ) ) return search.apply ( searcher );
+			
+			long readerVersion = ( (DirectoryReader) reader ).getVersion ();
+			ResultCacheKey key = new ResultCacheKey ( searchType, idField, q, limit, indexGeneration, readerVersion );
+			SearchResult result = cache.getIfPresent ( key );
+			if ( result != null ) return result;
+			
+			result = search.apply ( searcher );
+			cache.put ( key, result );
+			return result;
+		});
+	}
+	
 	
 	/**
 	 * <p>Execute an action, which presumably will do something with the current {@link LuceneEnv}, and 
@@ -748,9 +1458,11 @@ public class LuceneEnv implements ONDEXLuceneFields
 		DocIdCollector collector = null;
 		try 
 		{
-			this.openIdxReader ();
-			collector = new DocIdCollector ( idxSearcher.getIndexReader () );
-			idxSearcher.search ( new TermQuery ( new Term ( RELID_FIELD, String.valueOf ( rid ) ) ), collector );
+			collector = searchIdx ( searcher -> {
+				DocIdCollector result = new DocIdCollector ( searcher.getIndexReader () );
+				searcher.search ( new TermQuery ( new Term ( RELID_FIELD, String.valueOf ( rid ) ) ), result );
+				return result;
+			});
 		}
 		catch ( IOException ex ) {
 			throw new UncheckedIOException ( 
@@ -839,6 +1551,44 @@ public class LuceneEnv implements ONDEXLuceneFields
 		});		
 	}
 
+	/**
+	 * Gets the ONDEX ID of a Lucene document, ie, of the concept or relation it represents.
+	 * 
+	 * @param reader the reader for the index segment the document belongs to.
+	 * @param idField {@link #CONID_FIELD} or {@link #RELID_FIELD}.
+	 * @param idValues the numeric doc values for idField. If this is null, or the document isn't in docsWithId, the 
+	 * document was indexed before we started storing the IDs this way (segments merged from old and new documents
+	 * have both kinds), so we fall back to loading the stored ID.
+	 * @param docsWithId tells which documents have a value in idValues.
+	 * @param doc the document ID, relative to the segment.
+	 *  
+	 * @return the entity ID, or -1 if the document doesn't have one (eg, it's the metadata document). 
+	 */
+	private static int getEntityId ( 
+		LeafReader reader, String idField, NumericDocValues idValues, Bits docsWithId, int doc 
+	) throws IOException
+	{
+		if ( idValues != null && docsWithId.get ( doc ) ) return (int) idValues.get ( doc );
+		
+		String idStr = reader.document ( doc, ID_FIELDS ).get ( idField );
+		return idStr == null ? -1 : Integer.parseInt ( idStr );
+	}
+
+	/**
+	 * Reports the hits that {@link EntityIdCollector} had to skip.
+	 */
+	private void logSkippedHits ( int skippedDocs, Query q, String luceneIdField )
+	{
+		if ( skippedDocs == 0 ) return;
+		log.warn ( 
+			"Skipped {} Lucene document(s) having a null ID for the Lucene field: \"{}\", found by the query \"{}\"."
+			+ " This is likely to be caused by https://github.com/Rothamsted/knetbuilder/issues/53",
+			skippedDocs,
+			luceneIdField,
+			q.toString ()
+		);
+	}
+	
 	/**
 	 * 
 	 * Searches for an {@link ONDEXEntity} in the index, ie, a concept or a relation.
@@ -852,38 +1602,16 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		try
 		{
-			this.openIdxReader ();
-			DocIdCollector collector = new DocIdCollector ( idxSearcher.getIndexReader () );
-			idxSearcher.search ( q, collector );
-
-			BitSet bs = collector.getBits ();
-			if ( bs.length () == 0 ) return BitSetFunctions.create ( og, entityClass, EMPTYBITSET );
-
-			BitSet set = new BitSet ( bs.length () );
-			// iterator of document indices
-			for ( int i = bs.nextSetBit ( 0 ); i >= 0; i = bs.nextSetBit ( i + 1 ) )
+			SearchResult result = cachedSearch ( "ids", luceneIdField, q, 0, searcher -> 
 			{
-				// retrieve associated document
-				Document document = idxSearcher.doc ( i, ID_FIELDS );
-				
-				// get concept ID from document
-				Integer entityId = Optional.ofNullable ( document.get ( luceneIdField ) )
-					.map ( Integer::valueOf )
-					.orElse ( null );
-				
-				if ( entityId == null ) {
-					log.warn ( 
-						"Skipping Lucene document having a null ID for the Lucene field: \"{}\", found by the query \"{}\"."
-						+ " This is likely to be caused by https://github.com/Rothamsted/knetbuilder/issues/53",
-						luceneIdField,
-						q.toString ()
-					);
-					continue;
-				}
-				
-				set.set ( entityId );
-			}
-			return BitSetFunctions.create ( og, entityClass, set );
+				EntityIdCollector collector = new EntityIdCollector ( luceneIdField, false );
+				searcher.search ( q, collector );
+				logSkippedHits ( collector.getSkippedDocs (), q, luceneIdField );
+				return new SearchResult ( collector.getIds (), null );
+			});
+			
+			// This is a view, the entity objects are fetched from the graph only when it's iterated 
+			return BitSetFunctions.create ( og, entityClass, result.getIds () );
 		}
 		catch ( IOException ex ) {
 			fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LuceneEnv - searchEntity]" ) );
@@ -907,47 +1635,16 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		try
 		{
-			openIdxReader ();
-			ScoreCollector collector = new ScoreCollector ( idxSearcher.getIndexReader () );
-			idxSearcher.search ( q, collector );
-			Set<E> view;
-			Map<Integer, Float> doc2Scores = collector.getScores ();
-			Map<Integer, Float> id2scores = new HashMap<> ();
-			BitSet bs = collector.getBits ();
-			if ( bs.length () > 0 )
-			{
-				BitSet set = new BitSet ( bs.length () );
-				// iterator of document indices
-				for ( int i = bs.nextSetBit ( 0 ); i >= 0; i = bs.nextSetBit ( i + 1 ) )
-				{
-					Document document = idxSearcher.doc ( i, ID_FIELDS );
-					float score = doc2Scores.get ( i );
-					
-					Integer entityId = Optional.ofNullable ( document.get ( luceneIdField ) )
-						.map ( Integer::valueOf )
-						.orElse ( null );
-					
-					if ( entityId == null ) {
-						log.warn ( 
-							"Skipping Lucene document having a null ID for the Lucene field: \"{}\", found by the query \"{}\"."
-							+ " This is likely to be caused by https://github.com/Rothamsted/knetbuilder/issues/53",
-							luceneIdField,
-							q.toString ()
-						);
-						continue;
-					}
-							
-					id2scores.put ( entityId, score );
-					set.set ( entityId );
-				}
-				view = BitSetFunctions.create ( og, entityClass, set );
-				return new ScoredHits<> ( view, id2scores );
-			} 
-			else
+			SearchResult result = cachedSearch ( "scored", luceneIdField, q, 0, searcher -> 
 			{
-				view = BitSetFunctions.create ( og, entityClass, EMPTYBITSET );
-				return new ScoredHits<> ( view, EMPTYSCOREMAP );
-			}
+				EntityIdCollector collector = new EntityIdCollector ( luceneIdField, true );
+				searcher.search ( q, collector );
+				logSkippedHits ( collector.getSkippedDocs (), q, luceneIdField );
+				return new SearchResult ( collector.getIds (), collector.getScores () );
+			});
+
+			Set<E> view = BitSetFunctions.create ( og, entityClass, result.getIds () );
+			return new ScoredHits<> ( view, result.getScores () );
 		}
 		catch ( IOException ex ) {
 			fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LuceneEnv - searchScoredEntity]" ) );
@@ -1002,6 +1699,7 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		try
 		{
+			checkCaseInsensitiveSearch ( isCaseSensitive );
 			var q = LuceneQueryBuilder.searchByTypeAndAccession ( conceptClassId, accessionTerm, isCaseSensitive );
 			if (log.isDebugEnabled () ) log.debug ( "Searching by accession with: {}", q );
 			return this.searchInConcepts ( q );
@@ -1030,6 +1728,7 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		try
 		{
+			checkCaseInsensitiveSearch ( isCaseSensitive );
 			var q = LuceneQueryBuilder.searchByTypeAndName ( conceptClassId, nameTerm, isCaseSensitive );
 			if (log.isDebugEnabled () ) log.debug ( "Searching by name with: {}", q );
 			return this.searchInConcepts ( q );
@@ -1049,6 +1748,216 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		return this.searchByTypeAndName ( conceptClassId, nameTerm, true );
 	}
+
+	/**
+	 * Batch version of {@link LuceneQueryBuilder#searchConceptByConceptAccessionExact(DataSource, String, ConceptClass, boolean)},
+	 * meant for the mapping plug-ins that resolve thousands of accessions.
+	 * 
+	 * Rather than running one query per lookup, this seeks all the looked-up terms in the term dictionary of 
+	 * each index segment, visiting the terms in order, and the segments are searched in parallel. 
+	 * 
+	 * @param lookups the (concept class, data source, accession) tuples to search. If the data source is null, the 
+	 * accession is searched among all the data sources. If the concept class is null, all the concepts are searched.
+	 * @param includeAmbiguous if true, the ambiguous accessions are searched too. This is ignored when the data source is
+	 * null.
+	 * 
+	 * @return a map from each of the lookups to its hits, which is empty if there are none. As in 
+	 * {@link #searchInConcepts(Query)}, the hit sets are views over the graph. 
+	 */
+	public Map<ConceptTermLookup, Set<ONDEXConcept>> searchConceptsByAccessionsExact ( 
+		Collection<ConceptTermLookup> lookups, boolean includeAmbiguous 
+	)
+	{
+		return searchConceptTerms ( lookups, lookup -> 
+		{
+			String dsId = lookup.getDataSourceId ();
+			if ( dsId == null ) return List.of ( CONACC_FIELD + DELIM + RAW );
+			
+			String fieldPrefix = CONACC_FIELD + DELIM + dsId + DELIM;
+			return includeAmbiguous 
+				? List.of ( fieldPrefix + RAW, fieldPrefix + AMBIGUOUS + DELIM + RAW )
+				: List.of ( fieldPrefix + RAW );
+		}, 
+		ConceptTermLookup::getTerm );
+	}
+
+	/**
+	 * Batch version of {@link #searchByTypeAndName(String, String, boolean)}, which works like 
+	 * {@link #searchConceptsByAccessionsExact(Collection, boolean)}. The data source in the lookups is ignored.
+	 * 
+	 * As in the single search, the lower-cased names are indexed in the same field as the original ones, so a 
+	 * case-sensitive lookup of a lower-case term also finds the names that differ from it only by case.
+	 */
+	public Map<ConceptTermLookup, Set<ONDEXConcept>> searchConceptsByNamesExact ( 
+		Collection<ConceptTermLookup> lookups, boolean isCaseSensitive 
+	)
+	{
+		checkCaseInsensitiveSearch ( isCaseSensitive );
+		
+		// Names are indexed both as they are and lower-cased
+		List<String> nameFields = List.of ( CONNAME_FIELD + DELIM + RAW );
+		return searchConceptTerms ( 
+			lookups, 
+			lookup -> nameFields, 
+			lookup -> isCaseSensitive ? lookup.getTerm () : lookup.getTerm ().toLowerCase () 
+		);
+	}
+	
+	/**
+	 * The common implementation of the batch lookups.
+	 * 
+	 * @param fieldsMapper the index fields where a lookup has to be searched.
+	 * @param termMapper the exact index term that a lookup corresponds to.
+	 */
+	private Map<ConceptTermLookup, Set<ONDEXConcept>> searchConceptTerms ( 
+		Collection<ConceptTermLookup> lookups, 
+		Function<ConceptTermLookup, List<String>> fieldsMapper,
+		Function<ConceptTermLookup, String> termMapper
+	)
+	{
+		// field -> term -> lookups for it. Sorted, so that the seeks move forward only in the term dictionary
+		Map<String, SortedMap<BytesRef, List<ConceptTermLookup>>> fieldTerms = new HashMap<> ();
+		for ( ConceptTermLookup lookup: lookups )
+		{
+			BytesRef term = new BytesRef ( termMapper.apply ( lookup ) );
+			for ( String field: fieldsMapper.apply ( lookup ) )
+				fieldTerms.computeIfAbsent ( field, f -> new TreeMap<> () )
+					.computeIfAbsent ( term, t -> new ArrayList<> () )
+					.add ( lookup );
+		}
+		
+		for ( String field: fieldTerms.keySet () )
+			if ( !this.indexProfile.isIndexed ( field ) ) throw new IllegalArgumentException ( String.format (
+				"The concept term lookups need the field \"%s\", which isn't indexed with the Lucene index profile \"%s\"",
+				field, this.indexProfile.getName () 
+			));
+		
+		try
+		{
+			Map<ConceptTermLookup, BitSet> hits = fieldTerms.isEmpty () 
+				? Map.of ()
+				: searchIdx ( searcher -> 
+				{
+					List<LeafReaderContext> leaves = searcher.getIndexReader ().leaves ();
+					if ( leaves.size () == 1 ) return searchConceptTerms ( leaves.get ( 0 ).reader (), fieldTerms ); 
+	
+					List<Future<Map<ConceptTermLookup, BitSet>>> leafTasks = new ArrayList<> ();
+					for ( LeafReaderContext leaf: leaves )
+						leafTasks.add ( EXECUTOR.submit ( () -> searchConceptTerms ( leaf.reader (), fieldTerms ) ) );
+	
+					// Entity IDs are graph-wide, so we just need to merge the per-segment hits
+					Map<ConceptTermLookup, BitSet> result = new HashMap<> ();
+					for ( Future<Map<ConceptTermLookup, BitSet>> leafTask: leafTasks )
+						getLeafHits ( leafTask ).forEach ( 
+							( lookup, ids ) -> result.merge ( lookup, ids, ( ids1, ids2 ) -> { ids1.or ( ids2 ); return ids1; } )
+						);
+					return result;
+				});
+			
+			Map<ConceptTermLookup, Set<ONDEXConcept>> result = new HashMap<> ();
+			for ( ConceptTermLookup lookup: lookups )
+				result.put ( 
+					lookup, BitSetFunctions.create ( og, ONDEXConcept.class, hits.getOrDefault ( lookup, new BitSet () ) ) 
+				);
+			return result;
+		}
+		catch ( IOException ex ) {
+			fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LuceneEnv - searchConceptTerms]" ) );
+			log.error ( "Error while searching " + lookups.size () + " concept terms: " + ex.getMessage (), ex );
+			throw new UncheckedIOException ( "Internal error while working with Lucene: " + ex.getMessage (), ex );			
+		}
+	}
+
+	/**
+	 * Does the job of {@link #searchConceptTerms(Collection, Function, Function)} for a single index segment.
+	 * 
+	 * @return the IDs of the concepts found for each lookup, lookups without hits are omitted.
+	 */
+	private static Map<ConceptTermLookup, BitSet> searchConceptTerms ( 
+		LeafReader reader, Map<String, SortedMap<BytesRef, List<ConceptTermLookup>>> fieldTerms 
+	) throws IOException
+	{
+		Map<ConceptTermLookup, BitSet> result = new HashMap<> ();
+		
+		NumericDocValues idValues = reader.getNumericDocValues ( CONID_FIELD );
+		Bits docsWithId = idValues == null ? null : reader.getDocsWithField ( CONID_FIELD );
+		// Unlike searches, postings include the deleted documents
+		Bits liveDocs = reader.getLiveDocs ();
+		// concept class ID -> docs of that type in this segment, computed on demand
+		Map<String, BitSet> ccDocs = new HashMap<> ();
+		PostingsEnum postings = null;
+		
+		for ( Entry<String, SortedMap<BytesRef, List<ConceptTermLookup>>> fieldEntry: fieldTerms.entrySet () )
+		{
+			Terms terms = reader.terms ( fieldEntry.getKey () );
+			if ( terms == null ) continue;
+			TermsEnum termsEnum = terms.iterator ();
+			
+			for ( Entry<BytesRef, List<ConceptTermLookup>> termEntry: fieldEntry.getValue ().entrySet () )
+			{
+				if ( !termsEnum.seekExact ( termEntry.getKey () ) ) continue;
+				
+				postings = termsEnum.postings ( postings, PostingsEnum.NONE );
+				for ( int doc = postings.nextDoc (); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc () )
+				{
+					if ( liveDocs != null && !liveDocs.get ( doc ) ) continue;
+					
+					int id = getEntityId ( reader, CONID_FIELD, idValues, docsWithId, doc );
+					if ( id == -1 ) continue;
+					
+					for ( ConceptTermLookup lookup: termEntry.getValue () )
+					{
+						String ccId = lookup.getConceptClassId ();
+						if ( ccId != null && !getTermDocs ( reader, CC_FIELD, ccId, ccDocs ).get ( doc ) ) continue;
+						result.computeIfAbsent ( lookup, l -> new BitSet () ).set ( id );
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The docs in a segment having a term, cached in docsCache, which is assumed to be bound to field.
+	 */
+	private static BitSet getTermDocs ( 
+		LeafReader reader, String field, String term, Map<String, BitSet> docsCache 
+	) throws IOException
+	{
+		BitSet result = docsCache.get ( term );
+		if ( result != null ) return result;
+		
+		result = new BitSet ( reader.maxDoc () );
+		PostingsEnum postings = reader.postings ( new Term ( field, term ), PostingsEnum.NONE );
+		if ( postings != null )
+			for ( int doc = postings.nextDoc (); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc () )
+				result.set ( doc );
+		
+		docsCache.put ( term, result );
+		return result;
+	}
+	
+	/**
+	 * Waits for the result of a segment task in {@link #searchConceptTerms(Collection, Function, Function)}.
+	 */
+	private static Map<ConceptTermLookup, BitSet> getLeafHits ( Future<Map<ConceptTermLookup, BitSet>> leafTask ) 
+		throws IOException
+	{
+		try {
+			return leafTask.get ();
+		}
+		catch ( ExecutionException ex ) 
+		{
+			Throwable cause = ex.getCause ();
+			if ( cause instanceof IOException ) throw (IOException) cause;
+			throw new RuntimeException ( "Error while searching concept terms: " + cause.getMessage (), cause );
+		}
+		catch ( InterruptedException ex ) 
+		{
+			Thread.currentThread ().interrupt ();
+			throw new RuntimeException ( "Interrupted while searching concept terms", ex );
+		}
+	}
 	
 	
 	/**
@@ -1067,26 +1976,16 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 */
 	private <E extends ONDEXEntity> E getEntityByIRI ( String iri, Function<Query, Set<E>> searcher )
 	{
-		try
-		{
-			openIdxReader ();
-			PhraseQuery q = new PhraseQuery ( "iri", iri );
-			Set<E> results = searcher.apply ( q );
-			if ( results == null ) return null;
-			int size = results.size ();
-			if ( size == 0 ) return null;
-			E result = results.iterator ().next ();
-			if ( size > 1 ) log.warn ( 
-				"I've found {} instances of {} for the URI '{}'", size, result.getClass ().getSimpleName (), iri 
-			);
-			return result;
-		}
-		catch ( IOException ex )
-		{
-			throw ExceptionUtils.buildEx ( 
-				UncheckedIOException.class, ex, "Error while using lucene to lookup for <%s>: %s", iri, ex.getMessage () 
-			);
-		} 
+		PhraseQuery q = new PhraseQuery ( "iri", iri );
+		Set<E> results = searcher.apply ( q );
+		if ( results == null ) return null;
+		int size = results.size ();
+		if ( size == 0 ) return null;
+		E result = results.iterator ().next ();
+		if ( size > 1 ) log.warn ( 
+			"I've found {} instances of {} for the URI '{}'", size, result.getClass ().getSimpleName (), iri 
+		);
+		return result;
 	}
 	
 	/**
@@ -1112,28 +2011,35 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		try
 		{
-			this.openIdxReader ();
-			final BitSet bits = new BitSet ();
-			TopDocs hits = idxSearcher.search ( q, limit );
-			Map<Integer, Float> scores = new HashMap<> ();
-			for ( int i = 0; i < hits.scoreDocs.length; i++ )
+			SearchResult result = cachedSearch ( "top", field, q, limit, searcher -> 
 			{
-				int docId = hits.scoreDocs[ i ].doc;
-				float score = hits.scoreDocs[ i ].score;
-				Document document = idxSearcher.doc ( docId, ID_FIELDS );
-								
-				Integer entityId = Optional.ofNullable ( document.get ( field ) )
-					.map ( Integer::valueOf )
-					.orElse ( null );
+				final BitSet bits = new BitSet ();
+				TopDocs hits = searcher.search ( q, limit );
+				Map<Integer, Float> scores = new HashMap<> ();
+				List<LeafReaderContext> leaves = searcher.getIndexReader ().leaves ();
+				for ( int i = 0; i < hits.scoreDocs.length; i++ )
+				{
+					int docId = hits.scoreDocs[ i ].doc;
+					float score = hits.scoreDocs[ i ].score;
+					
+					LeafReaderContext leaf = leaves.get ( ReaderUtil.subIndex ( docId, leaves ) );
+					LeafReader reader = leaf.reader ();
+					NumericDocValues idValues = reader.getNumericDocValues ( field );
+					int entityId = getEntityId ( 
+						reader, field, idValues, idValues == null ? null : reader.getDocsWithField ( field ), docId - leaf.docBase 
+					);
 				
-				if ( entityId != null ) {
-					bits.set ( entityId );
-					scores.put ( entityId, score );
+					if ( entityId != -1 ) {
+						bits.set ( entityId );
+						scores.put ( entityId, score );
+					}
 				}
-			}
 
-			Set<E> view = BitSetFunctions.create ( og, returnedValueClass, bits );
-			return new ScoredHits<> ( view, scores );
+				return new SearchResult ( bits, scores );
+			});
+
+			Set<E> view = BitSetFunctions.create ( og, returnedValueClass, result.getIds () );
+			return new ScoredHits<> ( view, result.getScores () );
 		}
 		catch ( IOException ex ) {
 			fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LuceneEnv - searchScoredEntity]" ) );
@@ -1219,7 +2125,8 @@ public class LuceneEnv implements ONDEXLuceneFields
 	public void setONDEXGraph(ONDEXGraph aog) throws AccessDeniedException {
 
 		GeneralOutputEvent so = new GeneralOutputEvent(
-			"Using Lucene with index dir: " + this.indexDirPath,
+			"Using Lucene with index dir: " + this.indexDirPath + ", directory type: " + this.directoryType
+				+ ", index profile: " + this.indexProfile.getName (),
 			"[LuceneEnv - setONDEXGraph]",
 			Level.INFO
 		);
@@ -1268,8 +2175,8 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		updateIndexVoid ( () -> 
 		{
-			boolean exists = conceptExistsInIndex ( concept.getId () );
-			if ( exists ) Exceptions.sneak ().run ( 
+			// As in the batch version, checking if it exists would need a searcher reopen
+			Exceptions.sneak ().run ( 
 				() -> idxWriter.deleteDocuments ( new Term ( CONID_FIELD, String.valueOf ( concept.getId () ) ) ) 
 			);
 			addConceptToIndex ( concept );
@@ -1310,11 +2217,9 @@ public class LuceneEnv implements ONDEXLuceneFields
 	{
 		updateIndexVoid ( () -> 
 		{
-			boolean exists = relationExistsInIndex ( relation.getId() );
-			if ( exists )
-				Exceptions.sneak ().run ( () ->
-					idxWriter.deleteDocuments ( new Term ( RELID_FIELD, String.valueOf ( relation.getId () ) ) )				
-				);
+			Exceptions.sneak ().run ( () ->
+				idxWriter.deleteDocuments ( new Term ( RELID_FIELD, String.valueOf ( relation.getId () ) ) )
+			);
 			addRelationToIndex ( relation );
 		});
 	}
@@ -1377,20 +2282,26 @@ public class LuceneEnv implements ONDEXLuceneFields
 		Document doc = this.getCommonFields ( c );
 		
 		doc.add ( new Field ( CONID_FIELD, conceptID, FIELD_TYPE_STORED_INDEXED_UNCHANGED ) );
+		// Used to resolve the search hits quickly, see EntityIdCollector
+		doc.add ( new NumericDocValuesField ( CONID_FIELD, c.getId () ) );
 		doc.add ( new Field ( PID_FIELD, parserID, StringField.TYPE_STORED ) );
 		
 		doc.add ( new Field ( CC_FIELD, c.getOfType ().getId (), FIELD_TYPE_STORED_INDEXED_UNCHANGED ) );
 		doc.add ( new Field ( DataSource_FIELD, c.getElementOf ().getId (), FIELD_TYPE_STORED_INDEXED_UNCHANGED ) );
 
-		if ( annotation.length () > 0 )
-			doc.add ( new Field ( ANNO_FIELD, LuceneEnv.preProcessTokenizedText ( annotation ), FIELD_TYPE_STORED_INDEXED_VECT_STORE ) );
+		LuceneIndexProfile profile = this.indexProfile;
+		FieldType textFieldType = profile.getTextFieldType ();
+		FieldType rawFieldType = profile.getRawFieldType ();
+		
+		if ( annotation.length () > 0 && profile.isAnnotations () )
+			doc.add ( new Field ( ANNO_FIELD, LuceneEnv.preProcessTokenizedText ( annotation ), textFieldType ) );
 
-		if ( description.length () > 0 )
-			doc.add ( new Field ( DESC_FIELD, LuceneEnv.preProcessTokenizedText ( description ), FIELD_TYPE_STORED_INDEXED_VECT_STORE ) );
+		if ( description.length () > 0 && profile.isDescriptions () )
+			doc.add ( new Field ( DESC_FIELD, LuceneEnv.preProcessTokenizedText ( description ), textFieldType ) );
 
 				
 		// start concept accession handling
-		if ( caccs != null )
+		if ( caccs != null && profile.isAccessions () )
 		{
 			// add all concept accessions for this concept
 			for ( ConceptAccession ca : caccs )
@@ -1403,34 +2314,41 @@ public class LuceneEnv implements ONDEXLuceneFields
 				String accFieldId = CONACC_FIELD + DELIM + elementOf;
 				if ( isAmbiguous ) accFieldId += "" + DELIM + AMBIGUOUS;
 
-				FieldType ftype = FIELD_TYPE_STORED_INDEXED_VECT_STORE;
-				doc.add ( new Field ( accFieldId, preProcessTokenizedText ( accession ), ftype ));
+				if ( profile.isTokenizedVariants () )
+					doc.add ( new Field ( accFieldId, preProcessTokenizedText ( accession ), textFieldType ));
 
+				if ( !profile.isRawVariants () ) continue;
+				
 				// see rawAccession about why we do this
 				// TODO: remove var rawAcc = rawAccession ( accession );
-				doc.add ( new StringField ( accFieldId + DELIM + RAW, accession, Store.YES  ));
+				doc.add ( new Field ( accFieldId + DELIM + RAW, accession, rawFieldType ));
 				
 				// TODO: do we need the lower case version?
 				
 				// Needed for exact search by accession independently on the source
-				doc.add ( new StringField ( CONACC_FIELD + DELIM + RAW, accession, Store.YES ) );
+				doc.add ( new Field ( CONACC_FIELD + DELIM + RAW, accession, rawFieldType ) );
 				// To support case-insensitive searches too
-				doc.add ( new StringField ( CONACC_FIELD + DELIM + RAW, accession.toLowerCase (), Store.YES ) );
+				if ( profile.isCaseInsensitiveVariants () )
+					doc.add ( new Field ( CONACC_FIELD + DELIM + RAW, accession.toLowerCase (), rawFieldType ) );
 			}
 		}
 
 		// start concept name handling
-		if ( cnames != null )
+		if ( cnames != null && profile.isNames () )
 		{			
 			cnames.stream ()
 			.map ( ConceptName::getName )
 			.filter ( Objects::nonNull )
 			.forEach ( nameStr -> { 
-				doc.add ( new Field ( CONNAME_FIELD, LuceneEnv.preProcessTokenizedText ( nameStr ), FIELD_TYPE_STORED_INDEXED_VECT_STORE ) );
+				if ( profile.isTokenizedVariants () )
+					doc.add ( new Field ( CONNAME_FIELD, LuceneEnv.preProcessTokenizedText ( nameStr ), textFieldType ) );
+				if ( !profile.isRawVariants () ) return;
+				
 				// Like the accession case, allows for exact searches and case-insensitive exact searches
 				var nameFieldId = CONNAME_FIELD + DELIM + RAW; 
-				doc.add ( new StringField ( nameFieldId, nameStr, Store.YES ) );
-				doc.add ( new StringField ( nameFieldId, nameStr.toLowerCase (), Store.YES ) );
+				doc.add ( new Field ( nameFieldId, nameStr, rawFieldType ) );
+				if ( profile.isCaseInsensitiveVariants () )
+					doc.add ( new Field ( nameFieldId, nameStr.toLowerCase (), rawFieldType ) );
 			});
 		}
 
@@ -1443,9 +2361,9 @@ public class LuceneEnv implements ONDEXLuceneFields
 			// add all concept gds for this concept
 			for ( Attribute attribute : cattrs )
 			{
-				if ( attribute.isDoIndex () )
+				String name = attribute.getOfType ().getId ();
+				if ( attribute.isDoIndex () && profile.isConceptAttributeIndexed ( name ) )
 				{
-					String name = attribute.getOfType ().getId ();
 					listOfConceptAttrNames.add ( name );
 					String value = attribute.getValue ().toString ();
 					attrsRaw.put ( name, LuceneEnv.preProcessTokenizedText ( value ) );
@@ -1454,7 +2372,7 @@ public class LuceneEnv implements ONDEXLuceneFields
 
 			// write attribute name specific Attribute fields
 			attrsRaw.forEach ( ( name, value ) -> 
-				doc.add ( new Field ( CONATTRIBUTE_FIELD + DELIM + name, value, FIELD_TYPE_STORED_INDEXED_VECT_STORE ) )
+				doc.add ( new Field ( CONATTRIBUTE_FIELD + DELIM + name, value, textFieldType ) )
 			);
 			
 			attrsRaw = null; // clear() was here, maybe to cut memory?
@@ -1473,7 +2391,8 @@ public class LuceneEnv implements ONDEXLuceneFields
 
 	
 	/**
-	 * Adds sets of used meta data to the index.
+	 * Adds sets of used meta data to the index, replacing the metadata document added by a previous call, so that
+	 * there is only one such document, no matter how many times the index is committed before it's closed.
 	 * WARNING: this assumes the index is already {@link #openIdxWriter() opened}. 
 	 */
 	private void addMetadataToIndex() 
@@ -1482,20 +2401,23 @@ public class LuceneEnv implements ONDEXLuceneFields
 
 		// new document for fields
 		Document doc = new Document();
+		// These are read back when the index is reopened, so they're stored in any case
+		FieldType fieldType = this.indexProfile.getStoredTextFieldType ();
 		doc.add(new Field(LASTDOCUMENT_FIELD, "true", StringField.TYPE_NOT_STORED ));
 		// Attribute fields about the last document were initially not stored. However, this isn't good for Lucene 6,
 		// because it complaints that a field name having mixed docs where the field it's stored and not stored cannot 
 		// be used to build certain searches (https://goo.gl/Ee1sfm)
 		//
 		for (String name : listOfConceptAttrNames)
-			doc.add(new Field(CONATTRIBUTE_FIELD + DELIM + name, name,	FIELD_TYPE_STORED_INDEXED_VECT_STORE ));
+			doc.add(new Field(CONATTRIBUTE_FIELD + DELIM + name, name,	fieldType ));
 		for (String name : listOfRelationAttrNames)
-			doc.add(new Field(RELATTRIBUTE_FIELD + DELIM + name, name,	FIELD_TYPE_STORED_INDEXED_VECT_STORE ));
+			doc.add(new Field(RELATTRIBUTE_FIELD + DELIM + name, name,	fieldType ));
 		for (String elementOf : listOfConceptAccDataSources)
-			doc.add(new Field(CONACC_FIELD + DELIM + elementOf, elementOf, FIELD_TYPE_STORED_INDEXED_VECT_STORE ));
+			doc.add(new Field(CONACC_FIELD + DELIM + elementOf, elementOf, fieldType ));
 
 		// add last document
 		try {
+			this.idxWriter.deleteDocuments ( new Term ( LASTDOCUMENT_FIELD, "true" ) );
 			this.idxWriter.addDocument(doc);
 		} 
 		catch (IOException ex) {
@@ -1517,11 +2439,14 @@ public class LuceneEnv implements ONDEXLuceneFields
 
 		// If it hasn't attributes, everything is already in Ondex
 		if ( attrs.size () == 0 ) return;
+		
+		LuceneIndexProfile profile = this.indexProfile;
 
 		// createNewIndex a Document for each relation and store ids
 		Document doc = this.getCommonFields ( r );
 
 		doc.add ( new Field ( RELID_FIELD, String.valueOf ( r.getId () ), FIELD_TYPE_STORED_INDEXED_UNCHANGED ) );
+		doc.add ( new NumericDocValuesField ( RELID_FIELD, r.getId () ) );
 		doc.add ( new Field ( FROM_FIELD, String.valueOf ( r.getFromConcept ().getId () ), FIELD_TYPE_STORED_INDEXED_UNCHANGED ) );
 		doc.add ( new Field ( TO_FIELD, String.valueOf ( r.getToConcept ().getId () ), FIELD_TYPE_STORED_INDEXED_UNCHANGED ) );
 		doc.add ( new Field ( OFTYPE_FIELD, r.getOfType ().getId (), StringField.TYPE_STORED ) );
@@ -1532,9 +2457,9 @@ public class LuceneEnv implements ONDEXLuceneFields
 		// add all relation gds for this relation
 		for ( Attribute attribute : attrs )
 		{
-			if ( attribute.isDoIndex () )
+			String name = attribute.getOfType ().getId ();
+			if ( attribute.isDoIndex () && profile.isRelationAttributeIndexed ( name ) )
 			{
-				String name = attribute.getOfType ().getId ();
 				listOfRelationAttrNames.add ( name );
 				String value = attribute.getValue ().toString ();
 				attrsRaw.put ( name, LuceneEnv.preProcessTokenizedText ( value ) );
@@ -1545,7 +2470,7 @@ public class LuceneEnv implements ONDEXLuceneFields
 		for ( String name : attrsRaw.keySet () )
 		{
 			String value = attrsRaw.get ( name );
-			doc.add ( new Field ( RELATTRIBUTE_FIELD + DELIM + name, value, FIELD_TYPE_STORED_INDEXED_VECT_STORE ) );
+			doc.add ( new Field ( RELATTRIBUTE_FIELD + DELIM + name, value, profile.getTextFieldType () ) );
 		}
 		
 		attrsRaw = null; // clear() was initially here, maybe it's useful for memory consumption
@@ -1570,6 +2495,10 @@ public class LuceneEnv implements ONDEXLuceneFields
 		fireEventOccurred(
 			new GeneralOutputEvent(	"Starting the Lucene environment.", "[LuceneEnv - indexONDEXGraph]")
 		);
+		
+		// Either a new index or a different one, in both cases, the old results aren't valid anymore
+		this.indexGeneration.incrementAndGet ();
+		invalidateResultCache ();
 
 		try 
 		{
@@ -1578,7 +2507,7 @@ public class LuceneEnv implements ONDEXLuceneFields
 			{
 				// Just in case
 				this.closeIdxWriter();
-				this.openIdxWriter ();
+				this.openIdxWriter ( true );
 				
 				try
 				{
@@ -1591,6 +2520,9 @@ public class LuceneEnv implements ONDEXLuceneFields
 				}
 				finally {
 					this.closeIdxWriter ();
+					// in case some search was run in the meantime
+					this.indexGeneration.incrementAndGet ();
+					invalidateResultCache ();
 					this.openIdxReader (); // Cause they're going to read it next and threads want it open
 				}
 				return;
@@ -1632,38 +2564,91 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 * It indexes a set of concepts or relations, by means of {@link #addConceptToIndex(ONDEXConcept)} or
 	 * {@link #addRelationToIndex(ONDEXRelation)}. {@code label} should be "concept" or "relation" and idxSearcher
 	 * used for logging.
+	 * 
+	 * The work is spread over {@link #getIndexingThreads()} workers, which take batches of entities from the
+	 * same iterator (the graph sets aren't meant for parallel iteration) and build their documents in parallel.
+	 * With one worker only, the entities are indexed sequentially by the calling thread. Commits aren't done until 
+	 * the end, the RAM buffer decides when to flush.
+	 * 
+	 * If a worker fails, the others are stopped and this waits for all of them before re-throwing, since the 
+	 * caller closes the {@link IndexWriter} right after.  
 	 */
 	private <OE extends ONDEXEntity> void indexingHelper ( Set<OE> inputs, String label, Consumer<OE> indexSubmitter )
 		throws IOException
 	{		
 		final int sz = inputs.size ();
-		log.info ( "Start indexing the Ondex Graph, {} {}(s) sent to index", sz, label );
+		final int nthreads = Math.max ( 1, Math.min ( this.indexingThreads, sz / INDEXING_BATCH_SIZE + 1 ) );
+		log.info ( "Start indexing the Ondex Graph, {} {}(s) sent to index, using {} thread(s)", sz, label, nthreads );
 			
 		PercentProgressLogger progressLogger = new PercentProgressLogger ( 
 			"{}% of " + label + "s submitted to index", sz 
 		);
-		progressLogger.appendProgressReportAction ( 
-			Exceptions.sneak ().fromBiConsumer ( (oldp, newp) -> this.idxWriter.commit () )
-		);
 		
-		// TODO: the use of a parallel task manager comes from existing code, what's the point of it?!
-		Future<?> task = EXECUTOR.submit ( 
-			() -> {
-				for ( OE entity : inputs )
+		if ( nthreads == 1 )
+		{
+			for ( OE entity: inputs )
+			{
+				indexSubmitter.accept ( entity );
+				progressLogger.updateWithIncrement ();
+			}
+			this.idxWriter.commit ();
+			return;
+		}
+		
+		Iterator<OE> itr = inputs.iterator ();
+		AtomicBoolean isFailed = new AtomicBoolean ( false );
+		
+		List<Future<?>> tasks = new ArrayList<> ( nthreads );
+		for ( int i = 0; i < nthreads; i++ )
+			tasks.add ( EXECUTOR.submit ( () -> 
+			{
+				List<OE> batch = new ArrayList<> ( INDEXING_BATCH_SIZE );
+				try
 				{
-					indexSubmitter.accept ( entity );
-					progressLogger.updateWithIncrement ();
+					while ( !isFailed.get () )
+					{
+						batch.clear ();
+						synchronized ( itr ) {
+							while ( batch.size () < INDEXING_BATCH_SIZE && itr.hasNext () ) batch.add ( itr.next () );
+						}
+						if ( batch.isEmpty () ) return;
+						
+						for ( OE entity: batch )
+							indexSubmitter.accept ( entity );
+						
+						synchronized ( progressLogger ) {
+							progressLogger.updateWithIncrement ( batch.size () );
+						}
+					}
 				}
-			}
-		);
+				catch ( RuntimeException ex ) {
+					// Stops the other workers at their next batch
+					isFailed.set ( true );
+					throw ex;
+				}
+			}));
 		
 		try {
-			task.get();
-			this.idxWriter.commit ();
+			for ( Future<?> task: tasks ) task.get ();
 		} 
-		catch ( InterruptedException|ExecutionException ex ) {
+		catch ( InterruptedException|ExecutionException ex ) 
+		{
+			// Stops the workers that are still running at their next batch and the ones not started yet as soon 
+			// as they start. We can't interrupt them, an interrupted IndexWriter would close itself.
+			isFailed.set ( true );
+			for ( Future<?> task: tasks )
+			{
+				try {
+					Uninterruptibles.getUninterruptibly ( task );
+				}
+				catch ( ExecutionException ignored ) {
+					// We report the first error only
+				}
+			}
+			if ( ex instanceof InterruptedException ) Thread.currentThread ().interrupt ();
 			throw new RuntimeException ( "Error while indexing Ondex Graph:" + ex.getMessage (), ex );
 		}
+		this.idxWriter.commit ();
 	}
 	
 	/**
@@ -1696,6 +2681,25 @@ public class LuceneEnv implements ONDEXLuceneFields
 	 */
 	private <R> R updateIndex ( Supplier<R> action )
 	{
+		if ( isNearRealTimeActive () )
+		{
+			// No commit and reopening in this case, see setNearRealTimeMode()
+			try {
+				openNearRealTime ();
+			}
+			catch ( IOException ex ) {
+				fireEventOccurred ( new DataFileErrorEvent ( ex.getMessage (), "[LuceneEnv - updateIndex]" ) );
+				throw new UncheckedIOException ( "Internal error while working with Lucene: " + ex.getMessage (), ex );
+			}
+			try {
+				return action.get ();
+			}
+			finally {
+				this.nearRealTimeWriteGen.incrementAndGet ();
+				invalidateResultCache ();
+			}
+		}
+		
 		openIdxWriter ();
 		
 		try {
@@ -1703,6 +2707,7 @@ public class LuceneEnv implements ONDEXLuceneFields
 		}	
 		finally {
 			closeIdxWriter ();
+			invalidateResultCache ();
 		}		
 	}
 	
@@ -0,0 +1,338 @@
+package net.sourceforge.ondex.core.searchable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+
+/**
+ * <p>Tells {@link LuceneEnv} which parts of the ONDEX entities are indexed and how, so that an index can be
+ * limited to what is actually searched, which makes it smaller and faster to build.</p>
+ *
+ * <p>A profile is declared by means of {@link Properties}, having these keys (all the flags default to true):</p>
+ *
+ * <ul>
+ *   <li><b>concept.annotations, concept.descriptions, concept.names, concept.accessions</b>: which concept parts
+ *   are indexed</li>
+ *   <li><b>concept.attributes, relation.attributes</b>: whether the indexable attributes
+ *   (see {@link net.sourceforge.ondex.core.Attribute#isDoIndex()}) are indexed</li>
+ *   <li><b>concept.attributeNames, relation.attributeNames</b>: comma-separated lists of attribute name IDs,
+ *   which restrict the indexed attributes to these ones. If empty, all the indexable attributes are indexed</li>
+ *   <li><b>variants.tokenized</b>: the analysed copies of names and accessions, used for the free-text searches</li>
+ *   <li><b>variants.raw</b>: the untouched copies of names and accessions, used for the exact searches</li>
+ *   <li><b>variants.caseInsensitive</b>: the lower-case copies of the raw variants, used for the
+ *   case-insensitive exact searches</li>
+ *   <li><b>fields.stored</b>: whether the field values are stored in the index. The IDs and the index metadata are
+ *   always stored, since {@link LuceneEnv} needs them</li>
+ *   <li><b>fields.termVectors</b>: whether the text fields have term vectors</li>
+ * </ul>
+ *
+ * <p>The index must be searched with the same profile it was built with. The searches that need fields the
+ * profile doesn't index fail with an {@link IllegalArgumentException} (see
+ * {@link LuceneQueryBuilder#checkQueryFields(org.apache.lucene.search.Query, LuceneIndexProfile)}).</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class LuceneIndexProfile implements ONDEXLuceneFields
+{
+	public static final String ANNOTATIONS_KEY = "concept.annotations";
+	public static final String DESCRIPTIONS_KEY = "concept.descriptions";
+	public static final String NAMES_KEY = "concept.names";
+	public static final String ACCESSIONS_KEY = "concept.accessions";
+	public static final String CONCEPT_ATTRIBUTES_KEY = "concept.attributes";
+	public static final String CONCEPT_ATTRIBUTE_NAMES_KEY = "concept.attributeNames";
+	public static final String RELATION_ATTRIBUTES_KEY = "relation.attributes";
+	public static final String RELATION_ATTRIBUTE_NAMES_KEY = "relation.attributeNames";
+	public static final String TOKENIZED_VARIANTS_KEY = "variants.tokenized";
+	public static final String RAW_VARIANTS_KEY = "variants.raw";
+	public static final String CASE_INSENSITIVE_VARIANTS_KEY = "variants.caseInsensitive";
+	public static final String STORED_KEY = "fields.stored";
+	public static final String TERM_VECTORS_KEY = "fields.termVectors";
+
+	private static final List<String> KEYS = Arrays.asList (
+		ANNOTATIONS_KEY, DESCRIPTIONS_KEY, NAMES_KEY, ACCESSIONS_KEY, CONCEPT_ATTRIBUTES_KEY, CONCEPT_ATTRIBUTE_NAMES_KEY,
+		RELATION_ATTRIBUTES_KEY, RELATION_ATTRIBUTE_NAMES_KEY, TOKENIZED_VARIANTS_KEY, RAW_VARIANTS_KEY,
+		CASE_INSENSITIVE_VARIANTS_KEY, STORED_KEY, TERM_VECTORS_KEY
+	);
+
+	/**
+	 * Everything is indexed, this is the default and how {@link LuceneEnv} has always worked.
+	 */
+	public static final LuceneIndexProfile FULL = new LuceneIndexProfile ( "full", new Properties () );
+
+	/**
+	 * Names, accessions and concept attributes only, no case-insensitive variants, no stored values and no
+	 * term vectors. This supports the common searches and the mapping plug-ins.
+	 */
+	public static final LuceneIndexProfile SLIM;
+
+	static
+	{
+		Properties props = new Properties ();
+		props.setProperty ( ANNOTATIONS_KEY, "false" );
+		props.setProperty ( DESCRIPTIONS_KEY, "false" );
+		props.setProperty ( RELATION_ATTRIBUTES_KEY, "false" );
+		props.setProperty ( CASE_INSENSITIVE_VARIANTS_KEY, "false" );
+		props.setProperty ( STORED_KEY, "false" );
+		props.setProperty ( TERM_VECTORS_KEY, "false" );
+		SLIM = new LuceneIndexProfile ( "slim", props );
+	}
+
+	private final String name;
+
+	private final boolean isAnnotations;
+	private final boolean isDescriptions;
+	private final boolean isNames;
+	private final boolean isAccessions;
+	private final boolean isConceptAttributes;
+	private final Set<String> conceptAttributeNames;
+	private final boolean isRelationAttributes;
+	private final Set<String> relationAttributeNames;
+	private final boolean isTokenizedVariants;
+	private final boolean isRawVariants;
+	private final boolean isCaseInsensitiveVariants;
+	private final boolean isStored;
+	private final boolean isTermVectors;
+
+	private final FieldType textFieldType;
+	private final FieldType storedTextFieldType;
+	private final FieldType rawFieldType;
+
+
+	/**
+	 * @param name used for reporting
+	 * @param props the profile declaration, see the class description
+	 */
+	public LuceneIndexProfile ( String name, Properties props )
+	{
+		this.name = name;
+
+		for ( String key: props.stringPropertyNames () )
+			if ( !KEYS.contains ( key ) ) throw new IllegalArgumentException ( String.format (
+				"Invalid key \"%s\" for the Lucene index profile \"%s\", the valid keys are: %s", key, name, KEYS
+			));
+
+		isAnnotations = getFlag ( props, ANNOTATIONS_KEY );
+		isDescriptions = getFlag ( props, DESCRIPTIONS_KEY );
+		isNames = getFlag ( props, NAMES_KEY );
+		isAccessions = getFlag ( props, ACCESSIONS_KEY );
+		isConceptAttributes = getFlag ( props, CONCEPT_ATTRIBUTES_KEY );
+		conceptAttributeNames = getNames ( props, CONCEPT_ATTRIBUTE_NAMES_KEY );
+		isRelationAttributes = getFlag ( props, RELATION_ATTRIBUTES_KEY );
+		relationAttributeNames = getNames ( props, RELATION_ATTRIBUTE_NAMES_KEY );
+		isTokenizedVariants = getFlag ( props, TOKENIZED_VARIANTS_KEY );
+		isRawVariants = getFlag ( props, RAW_VARIANTS_KEY );
+		isCaseInsensitiveVariants = getFlag ( props, CASE_INSENSITIVE_VARIANTS_KEY );
+		isStored = getFlag ( props, STORED_KEY );
+		isTermVectors = getFlag ( props, TERM_VECTORS_KEY );
+
+		textFieldType = buildTextFieldType ( isStored, isTermVectors );
+		storedTextFieldType = buildTextFieldType ( true, isTermVectors );
+		rawFieldType = isStored ? StringField.TYPE_STORED : StringField.TYPE_NOT_STORED;
+	}
+
+	/**
+	 * Gets {@link #FULL} or {@link #SLIM} from their names, else it loads a profile from a properties file.
+	 */
+	public static LuceneIndexProfile forName ( String nameOrPath )
+	{
+		if ( FULL.getName ().equalsIgnoreCase ( nameOrPath ) ) return FULL;
+		if ( SLIM.getName ().equalsIgnoreCase ( nameOrPath ) ) return SLIM;
+
+		Path path = Paths.get ( nameOrPath );
+		if ( !Files.exists ( path ) ) throw new IllegalArgumentException ( String.format (
+			"The Lucene index profile \"%s\" is neither one of \"%s\", \"%s\" nor an existing file",
+			nameOrPath, FULL.getName (), SLIM.getName ()
+		));
+
+		try ( Reader reader = Files.newBufferedReader ( path ) )
+		{
+			Properties props = new Properties ();
+			props.load ( reader );
+			return new LuceneIndexProfile ( nameOrPath, props );
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException (
+				"Error while loading the Lucene index profile \"" + nameOrPath + "\": " + ex.getMessage (), ex
+			);
+		}
+	}
+
+	private static boolean getFlag ( Properties props, String key )
+	{
+		return Boolean.parseBoolean ( props.getProperty ( key, "true" ).trim () );
+	}
+
+	/**
+	 * An empty set means no restriction.
+	 */
+	private static Set<String> getNames ( Properties props, String key )
+	{
+		String namesStr = StringUtils.trimToNull ( props.getProperty ( key ) );
+		if ( namesStr == null ) return Collections.emptySet ();
+
+		return Collections.unmodifiableSet (
+			Arrays.stream ( namesStr.split ( "," ) )
+			.map ( String::trim )
+			.filter ( n -> !n.isEmpty () )
+			.collect ( Collectors.toSet () )
+		);
+	}
+
+	private static FieldType buildTextFieldType ( boolean isStored, boolean isTermVectors )
+	{
+		FieldType result = new FieldType ( isStored ? TextField.TYPE_STORED : TextField.TYPE_NOT_STORED );
+		result.setStoreTermVectors ( isTermVectors );
+		result.freeze ();
+		return result;
+	}
+
+
+	/**
+	 * true if every field that {@link LuceneEnv} knows about is indexed, like in {@link #FULL}.
+	 */
+	public boolean isComplete ()
+	{
+		return isAnnotations && isDescriptions && isNames && isAccessions
+			&& isConceptAttributes && conceptAttributeNames.isEmpty ()
+			&& isRelationAttributes && relationAttributeNames.isEmpty ()
+			&& isTokenizedVariants && isRawVariants && isCaseInsensitiveVariants;
+	}
+
+	/**
+	 * Tells if an index field is searchable with this profile. The fields this class doesn't know about are
+	 * considered indexed.
+	 */
+	public boolean isIndexed ( String field )
+	{
+		if ( ANNO_FIELD.equals ( field ) ) return isAnnotations;
+		if ( DESC_FIELD.equals ( field ) ) return isDescriptions;
+
+		if ( CONNAME_FIELD.equals ( field ) ) return isNames && isTokenizedVariants;
+		if ( ( CONNAME_FIELD + DELIM + RAW ).equals ( field ) ) return isNames && isRawVariants;
+
+		if ( field.startsWith ( CONACC_FIELD + DELIM ) )
+			return isAccessions && ( field.endsWith ( DELIM + RAW ) ? isRawVariants : isTokenizedVariants );
+
+		String attrPrefix = CONATTRIBUTE_FIELD + DELIM;
+		if ( field.startsWith ( attrPrefix ) )
+			return isConceptAttributeIndexed ( field.substring ( attrPrefix.length () ) );
+
+		attrPrefix = RELATTRIBUTE_FIELD + DELIM;
+		if ( field.startsWith ( attrPrefix ) )
+			return isRelationAttributeIndexed ( field.substring ( attrPrefix.length () ) );
+
+		return true;
+	}
+
+	public boolean isConceptAttributeIndexed ( String attributeNameId ) {
+		return isConceptAttributes && ( conceptAttributeNames.isEmpty () || conceptAttributeNames.contains ( attributeNameId ) );
+	}
+
+	public boolean isRelationAttributeIndexed ( String attributeNameId ) {
+		return isRelationAttributes && ( relationAttributeNames.isEmpty () || relationAttributeNames.contains ( attributeNameId ) );
+	}
+
+	public String getName () {
+		return name;
+	}
+
+	public boolean isAnnotations () {
+		return isAnnotations;
+	}
+
+	public boolean isDescriptions () {
+		return isDescriptions;
+	}
+
+	public boolean isNames () {
+		return isNames;
+	}
+
+	public boolean isAccessions () {
+		return isAccessions;
+	}
+
+	public boolean isConceptAttributes () {
+		return isConceptAttributes;
+	}
+
+	/**
+	 * Empty means all the indexable attributes.
+	 */
+	public Set<String> getConceptAttributeNames () {
+		return conceptAttributeNames;
+	}
+
+	public boolean isRelationAttributes () {
+		return isRelationAttributes;
+	}
+
+	/**
+	 * Empty means all the indexable attributes.
+	 */
+	public Set<String> getRelationAttributeNames () {
+		return relationAttributeNames;
+	}
+
+	public boolean isTokenizedVariants () {
+		return isTokenizedVariants;
+	}
+
+	public boolean isRawVariants () {
+		return isRawVariants;
+	}
+
+	public boolean isCaseInsensitiveVariants () {
+		return isCaseInsensitiveVariants;
+	}
+
+	public boolean isStored () {
+		return isStored;
+	}
+
+	public boolean isTermVectors () {
+		return isTermVectors;
+	}
+
+	/**
+	 * The type for the analysed text fields.
+	 */
+	FieldType getTextFieldType () {
+		return textFieldType;
+	}
+
+	/**
+	 * Like {@link #getTextFieldType()}, but always stored, for the index metadata.
+	 */
+	FieldType getStoredTextFieldType () {
+		return storedTextFieldType;
+	}
+
+	/**
+	 * The type for the raw variants.
+	 */
+	FieldType getRawFieldType () {
+		return rawFieldType;
+	}
+
+	@Override
+	public String toString () {
+		return "LuceneIndexProfile{" + name + "}";
+	}
+}
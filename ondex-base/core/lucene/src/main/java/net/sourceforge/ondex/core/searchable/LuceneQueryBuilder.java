@@ -1,6 +1,7 @@
 package net.sourceforge.ondex.core.searchable;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
@@ -23,9 +24,15 @@ import static org.apache.lucene.search.BooleanClause.Occur.MUST;
 import static org.apache.lucene.search.BooleanClause.Occur.MUST_NOT;
 import static org.apache.lucene.search.BooleanClause.Occur.SHOULD;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
 import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.MultiPhraseQuery;
+import org.apache.lucene.search.MultiTermQuery;
 import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SynonymQuery;
 import org.apache.lucene.search.TermQuery;
 
 import com.machinezoo.noexception.Exceptions;
@@ -1127,5 +1134,61 @@ public class LuceneQueryBuilder implements ONDEXLuceneFields {
 	{
 		return createPhraseQuery ( queryParser, field, searchTerm, searchTerm );
 	}
+	
+	/**
+	 * Checks that the fields a query searches are in an index built with the given profile, so that a query on a
+	 * left-out field fails clearly, instead of silently returning nothing.
+	 * 
+	 * @throws IllegalArgumentException if the query needs a field that the profile doesn't index.
+	 */
+	public static void checkQueryFields ( Query query, LuceneIndexProfile profile )
+	{
+		if ( profile.isComplete () ) return;
+		
+		for ( String field: getQueryFields ( query ) )
+			if ( !profile.isIndexed ( field ) ) throw new IllegalArgumentException ( String.format ( 
+				"The Lucene query \"%s\" needs the field \"%s\", which isn't indexed with the Lucene index profile \"%s\"",
+				query, field, profile.getName ()
+			));
+	}
+	
+	/**
+	 * The fields searched by a query. This recognises the query types built here and by the Lucene query parsers, 
+	 * other types are ignored.
+	 */
+	public static Set<String> getQueryFields ( Query query )
+	{
+		Set<String> result = new HashSet<> ();
+		collectQueryFields ( query, result );
+		return result;
+	}
+	
+	private static void collectQueryFields ( Query query, Set<String> fields )
+	{
+		if ( query instanceof TermQuery ) 
+			fields.add ( ( (TermQuery) query ).getTerm ().field () );
+		else if ( query instanceof PhraseQuery ) 
+			Stream.of ( ( (PhraseQuery) query ).getTerms () ).map ( Term::field ).forEach ( fields::add );
+		else if ( query instanceof MultiPhraseQuery )
+			Stream.of ( ( (MultiPhraseQuery) query ).getTermArrays () )
+			.flatMap ( Stream::of )
+			.map ( Term::field )
+			.forEach ( fields::add );
+		else if ( query instanceof SynonymQuery ) 
+			( (SynonymQuery) query ).getTerms ().stream ().map ( Term::field ).forEach ( fields::add );
+		else if ( query instanceof MultiTermQuery ) 
+			fields.add ( ( (MultiTermQuery) query ).getField () );
+		else if ( query instanceof BooleanQuery ) 
+		{
+			for ( BooleanClause clause: ( (BooleanQuery) query ).clauses () )
+				collectQueryFields ( clause.getQuery (), fields );
+		}
+		else if ( query instanceof BoostQuery ) 
+			collectQueryFields ( ( (BoostQuery) query ).getQuery (), fields );
+		else if ( query instanceof ConstantScoreQuery ) 
+			collectQueryFields ( ( (ConstantScoreQuery) query ).getQuery (), fields );
+		else if ( query instanceof DisjunctionMaxQuery )
+			( (DisjunctionMaxQuery) query ).getDisjuncts ().forEach ( q -> collectQueryFields ( q, fields ) );
+	}
 
 }
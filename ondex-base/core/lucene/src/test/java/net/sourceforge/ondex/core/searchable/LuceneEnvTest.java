@@ -4,15 +4,32 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.function.Consumer;
 
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
@@ -28,6 +45,7 @@ import net.sourceforge.ondex.core.ONDEXConcept;
 import net.sourceforge.ondex.core.ONDEXRelation;
 import net.sourceforge.ondex.core.RelationType;
 import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+import net.sourceforge.ondex.core.searchable.LuceneEnv.DirectoryType;
 import net.sourceforge.ondex.core.util.BitSetFunctions;
 import net.sourceforge.ondex.logging.ONDEXLogger;
 import net.sourceforge.ondex.tools.DirUtils;
@@ -657,7 +675,376 @@ public class LuceneEnvTest
 		ScoredHits<ONDEXConcept> results = lenv.scoredSearchInConcepts ( query );
 		assertEquals ( "Wrong no. of results!", 1, results.getOndexHits ().size () );
 	}
-	
+
+	/**
+	 * Checks that {@link LuceneEnv#setIndexingThreads(int) multi-thread indexing} doesn't miss anything.
+	 */
+	@Test
+	public void testParallelIndexing () throws Exception
+	{
+		int nconcepts = 5000;
+		createTestConcepts ( og, nconcepts );
+
+		lenv.setIndexingThreads ( 4 );
+		lenv.setONDEXGraph ( og );
+
+		assertEquals ( "Wrong no. of results (single accession)!",
+			1, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:" + ( nconcepts - 1 ) ).size ()
+		);
+		// 1, 10-19, 100-199, 1000-1999
+		assertEquals ( "Wrong no. of results (wildcard)!",
+			1111, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" ).size ()
+		);
+
+		var query = LuceneQueryBuilder.searchConceptByConceptAttribute ( at, "value", LuceneEnv.DEFAULTANALYZER );
+		assertEquals ( "Wrong no. of results (attribute)!", nconcepts, lenv.searchInConcepts ( query ).size () );
+	}
+
+	/**
+	 * Checks that the search hits are mapped to the right ONDEX entities and scores.
+	 */
+	@Test
+	public void testHitsResolution () throws Exception
+	{
+		createTestConcepts ( og, 100 );
+		ONDEXConcept concept = og.getConcepts ().stream ()
+			.filter ( c -> "C42".equals ( c.getPID () ) )
+			.findFirst ()
+			.get ();
+		lenv.setONDEXGraph ( og );
+
+		var query = LuceneQueryBuilder.searchConceptByConceptAttribute ( at, "value", LuceneEnv.DEFAULTANALYZER );
+		ScoredHits<ONDEXConcept> hits = lenv.scoredSearchInConcepts ( query );
+		assertEquals ( "Wrong no. of scored hits!", 100, hits.getOndexHits ().size () );
+		assertEquals ( "Wrong no. of scores!", 100, hits.getScoresForHits ().size () );
+		assertTrue ( "Scored hit not found!", hits.getOndexHits ().contains ( concept ) );
+		assertTrue ( "Wrong score!", hits.getScoreOnEntity ( concept ) > 0 );
+
+		hits = lenv.searchTopConcepts ( query, 10 );
+		assertEquals ( "Wrong no. of top hits!", 10, hits.getOndexHits ().size () );
+		for ( ONDEXConcept c: hits.getOndexHits () )
+			assertTrue ( "Top hit without a score!", hits.getScoreOnEntity ( c ) > 0 );
+
+		Set<ONDEXConcept> concepts = lenv.searchByTypeAndAccession ( cc.getId (), "ACC:42" );
+		assertEquals ( "Wrong no. of hits!", 1, concepts.size () );
+		assertEquals ( "Wrong hit!", concept.getId (), concepts.iterator ().next ().getId () );
+	}
+
+	/**
+	 * Documents indexed before the id doc values, and segments merged from such documents and new ones, must still
+	 * be resolved, via the stored ids.
+	 */
+	@Test
+	public void testHitsResolutionWithoutDocValues () throws Exception
+	{
+		createTestConcepts ( og, 10 );
+		lenv.setONDEXGraph ( og );
+		lenv.closeAll ();
+
+		// Like an old index, this doesn't have the id doc values
+		ONDEXConcept oldConcept = og.getFactory ().createConcept ( "Old", dataSource, cc, et );
+		try ( 
+			Directory dir = FSDirectory.open ( file.toPath () );
+			IndexWriter writer = new IndexWriter ( 
+				dir, new IndexWriterConfig ( LuceneEnv.DEFAULTANALYZER ).setOpenMode ( OpenMode.APPEND ) 
+			)
+		)
+		{
+			Document doc = new Document ();
+			doc.add ( new StringField ( ONDEXLuceneFields.CONID_FIELD, String.valueOf ( oldConcept.getId () ), Store.YES ) );
+			doc.add ( new StringField ( ONDEXLuceneFields.CC_FIELD, cc.getId (), Store.YES ) );
+			writer.addDocument ( doc );
+			// Mixes old and new documents in the same segment
+			writer.forceMerge ( 1 );
+		}
+
+		lenv = new LuceneEnv ( file.getAbsolutePath (), false );
+		lenv.setONDEXGraph ( og );
+		
+		Query query = new TermQuery ( new Term ( ONDEXLuceneFields.CC_FIELD, cc.getId () ) );
+		Set<ONDEXConcept> concepts = lenv.searchInConcepts ( query );
+		assertEquals ( "Wrong no. of hits!", 11, concepts.size () );
+		assertTrue ( "Old document not resolved!", concepts.contains ( oldConcept ) );
+
+		ScoredHits<ONDEXConcept> hits = lenv.scoredSearchInConcepts ( query );
+		assertTrue ( "Old document not resolved (scored search)!", hits.getOndexHits ().contains ( oldConcept ) );
+
+		hits = lenv.searchTopConcepts ( query, 100 );
+		assertTrue ( "Old document not resolved (top hits)!", hits.getOndexHits ().contains ( oldConcept ) );
+	}
+
+	@Test
+	public void testResultCache ()
+	{
+		createTestConcepts ( og, 100 );
+		lenv.setONDEXGraph ( og );
+
+		assertEquals ( "Wrong no. of hits!", 11, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" ).size () );
+		assertEquals ( "Wrong no. of cached hits!", 11, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" ).size () );
+		assertEquals ( "Result not cached!", 1, lenv.getResultCacheStats ().hitCount () );
+
+		// The index changes, the new result must be computed again
+		ONDEXConcept newConcept = og.getFactory ().createConcept ( "C1000", dataSource, cc, et );
+		newConcept.createConceptAccession ( "ACC:1000", dataSource, false );
+		lenv.updateConceptToIndex ( newConcept );
+		assertEquals ( "Cache not invalidated!", 12, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" ).size () );
+		assertEquals ( "Stale result used!", 1, lenv.getResultCacheStats ().hitCount () );
+
+		lenv.setResultCacheSize ( 0 );
+		lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" );
+		assertEquals ( "Disabled cache was used!", 0, lenv.getResultCacheStats ().requestCount () );
+	}
+
+	@Test
+	public void testNearRealTimeMode () throws IOException
+	{
+		ONDEXConcept concept1 = og.getFactory ().createConcept ( "C1", dataSource, cc, et );
+		concept1.createConceptAccession ( "ACC:1", dataSource, false );
+		lenv.setONDEXGraph ( og );
+
+		lenv.setNearRealTimeMode ( true );
+		lenv.setNearRealTimeRefreshInterval ( 0 );
+
+		ONDEXConcept concept2 = og.getFactory ().createConcept ( "C2", dataSource, cc, et );
+		concept2.createConceptAccession ( "ACC:2", dataSource, false );
+		lenv.updateConceptToIndex ( concept2 );
+		assertEquals ( "New concept not found!", 1, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:2" ).size () );
+
+		lenv.removeConceptFromIndex ( concept1.getId () );
+		assertEquals ( "Removed concept still found!", 0, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1" ).size () );
+
+		lenv.setReadYourWrites ( false );
+		ONDEXConcept concept3 = og.getFactory ().createConcept ( "C3", dataSource, cc, et );
+		concept3.createConceptAccession ( "ACC:3", dataSource, false );
+		lenv.updateConceptToIndex ( concept3 );
+		assertEquals ( "Update seen before refresh!", 0, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:3" ).size () );
+		lenv.refreshIdxSearcher ();
+		assertEquals ( "Update not seen after refresh!", 1, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:3" ).size () );
+
+		// The changes have to be committed upon closing
+		lenv.commitIdx ();
+		lenv.closeAll ();
+		LuceneEnv reopenedEnv = new LuceneEnv ( file.getAbsolutePath (), false );
+		reopenedEnv.setONDEXGraph ( og );
+		assertEquals ( "Changes not committed!", 2, reopenedEnv.searchByTypeAndAccession ( cc.getId (), "ACC:*" ).size () );
+		reopenedEnv.closeAll ();
+
+		// Both the commit and the closing write the metadata, the latter has to replace the former
+		try ( Directory dir = FSDirectory.open ( file.toPath () ); IndexReader reader = DirectoryReader.open ( dir ) ) 
+		{
+			int nmetaDocs = new IndexSearcher ( reader ).count ( new TermQuery ( new Term ( "LASTDOCUMENT_FIELD", "true" ) ) );
+			assertEquals ( "Metadata document duplicated!", 1, nmetaDocs );
+		}
+	}
+
+	@Test
+	public void testBatchTermLookups ()
+	{
+		createTestConcepts ( og, 100 );
+		ONDEXConcept other = og.getFactory ().createConcept ( "Other", dataSource1, cc1, et );
+		other.createConceptAccession ( "ACC:5", dataSource1, true );
+		lenv.setONDEXGraph ( og );
+
+		// Goes to a new segment
+		ONDEXConcept newConcept = og.getFactory ().createConcept ( "C200", dataSource, cc, et );
+		newConcept.createConceptAccession ( "ACC:200", dataSource, false );
+		lenv.updateConceptToIndex ( newConcept );
+
+		ConceptTermLookup accLookup = new ConceptTermLookup ( cc, dataSource, "ACC:1" );
+		ConceptTermLookup ambiguousLookup = new ConceptTermLookup ( cc1, dataSource1, "ACC:5" );
+		ConceptTermLookup wrongTypeLookup = new ConceptTermLookup ( cc, dataSource1, "ACC:5" );
+		ConceptTermLookup anySourceLookup = new ConceptTermLookup ( (String) null, null, "ACC:5" );
+		ConceptTermLookup newSegmentLookup = new ConceptTermLookup ( cc, dataSource, "ACC:200" );
+		ConceptTermLookup missingLookup = new ConceptTermLookup ( cc, dataSource, "ACC:none" );
+		List<ConceptTermLookup> lookups = List.of ( 
+			accLookup, ambiguousLookup, wrongTypeLookup, anySourceLookup, newSegmentLookup, missingLookup 
+		);
+
+		Map<ConceptTermLookup, Set<ONDEXConcept>> hits = lenv.searchConceptsByAccessionsExact ( lookups, false );
+		assertEquals ( "Wrong no. of results!", lookups.size (), hits.size () );
+		assertEquals ( "Wrong hit!", "C1", hits.get ( accLookup ).iterator ().next ().getPID () );
+		assertEquals ( "Ambiguous accession found!", 0, hits.get ( ambiguousLookup ).size () );
+		assertEquals ( "Concept class filter not applied!", 0, hits.get ( wrongTypeLookup ).size () );
+		assertEquals ( "Source-independent lookup failed!", 2, hits.get ( anySourceLookup ).size () );
+		assertEquals ( "Hit in the new segment not found!", 1, hits.get ( newSegmentLookup ).size () );
+		assertEquals ( "Missing accession found!", 0, hits.get ( missingLookup ).size () );
+
+		hits = lenv.searchConceptsByAccessionsExact ( lookups, true );
+		assertEquals ( "Ambiguous accession not found!", 1, hits.get ( ambiguousLookup ).size () );
+
+		lenv.removeConceptFromIndex ( hits.get ( accLookup ).iterator ().next ().getId () );
+		hits = lenv.searchConceptsByAccessionsExact ( lookups, false );
+		assertEquals ( "Deleted concept found!", 0, hits.get ( accLookup ).size () );
+
+		// The lower-cased variant is in the same field, so only a term that differs from both variants can tell
+		ConceptTermLookup nameLookup = new ConceptTermLookup ( cc, "CONCEPT 3" );
+		assertEquals ( "Case-insensitive name not found!", 1,
+			lenv.searchConceptsByNamesExact ( List.of ( nameLookup ), false ).get ( nameLookup ).size () );
+		assertEquals ( "Case-sensitive name search is wrong!", 0,
+			lenv.searchConceptsByNamesExact ( List.of ( nameLookup ), true ).get ( nameLookup ).size () );
+	}
+
+	@Test
+	public void testDirectoryTypes ()
+	{
+		createTestConcepts ( og, 100 );
+
+		lenv.setDirectoryType ( DirectoryType.HEAP );
+		lenv.setONDEXGraph ( og );
+		assertEquals ( "Wrong no. of hits!", 11, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" ).size () );
+		assertEquals ( "In-heap index written to disk!", 0, file.list ().length );
+
+		// The in-heap index has to survive the closing
+		lenv.closeAll ();
+		ONDEXConcept newConcept = og.getFactory ().createConcept ( "C1000", dataSource, cc, et );
+		newConcept.createConceptAccession ( "ACC:1000", dataSource, false );
+		lenv.updateConceptToIndex ( newConcept );
+		assertEquals ( "In-heap index lost!", 12, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" ).size () );
+
+		LuceneEnv mmapEnv = new LuceneEnv ( file.getAbsolutePath () + "-mmap", true );
+		mmapEnv.setDirectoryType ( DirectoryType.MMAP );
+		mmapEnv.setONDEXGraph ( og );
+		assertEquals ( "Wrong no. of hits with mmap!", 12, mmapEnv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" ).size () );
+		mmapEnv.closeAll ();
+	}
+
+	@Test
+	public void testIndexProfile ()
+	{
+		createTestConcepts ( og, 100 );
+
+		Properties props = new Properties ();
+		props.setProperty ( LuceneIndexProfile.ANNOTATIONS_KEY, "false" );
+		props.setProperty ( LuceneIndexProfile.CASE_INSENSITIVE_VARIANTS_KEY, "false" );
+		props.setProperty ( LuceneIndexProfile.CONCEPT_ATTRIBUTE_NAMES_KEY, "otherAttr" );
+		props.setProperty ( LuceneIndexProfile.STORED_KEY, "false" );
+		props.setProperty ( LuceneIndexProfile.TERM_VECTORS_KEY, "false" );
+		lenv.setIndexProfile ( new LuceneIndexProfile ( "test", props ) );
+		lenv.setONDEXGraph ( og );
+
+		assertEquals ( "Wrong no. of hits!", 11, lenv.searchByTypeAndAccession ( cc.getId (), "ACC:1*" ).size () );
+		assertEquals ( "Exact name search failed!", 1, lenv.searchByTypeAndName ( cc.getId (), "Concept 1" ).size () );
+
+		assertIndexProfileError ( 
+			"Case-insensitive search didn't fail!", () -> lenv.searchByTypeAndName ( cc.getId (), "concept 1", false ) 
+		);
+		assertIndexProfileError ( 
+			"Search on a left-out attribute didn't fail!",
+			() -> lenv.searchInConcepts ( LuceneQueryBuilder.searchConceptByConceptAttributeExact ( at, "test" ) )
+		);
+		assertIndexProfileError ( 
+			"Search on annotations didn't fail!",
+			() -> lenv.searchInConcepts ( LuceneQueryBuilder.searchConceptByAnnotationExact ( "test" ) )
+		);
+	}
+
+	/**
+	 * Reports the indexing time of a large graph, sequentially (a single thread is the sequential code path) and 
+	 * with {@link LuceneEnv#INDEXING_THREADS_PROP} threads, which defaults to all the available processors. At least
+	 * 2 threads are used for the parallel run, so that it's still run on a single-processor machine, where it shows
+	 * the overhead of the parallel code path.
+	 */
+	@Test
+	@Ignore ( "Not a real unit test, time consuming" )
+	public void testParallelIndexingBenchmark ()
+	{
+		createTestConcepts ( og, 2_000_000 );
+
+		int parallelThreads = Math.max ( 
+			2, Integer.getInteger ( LuceneEnv.INDEXING_THREADS_PROP, Runtime.getRuntime ().availableProcessors () )
+		);
+		long singleThreadTime = 0;
+		for ( int nthreads: new int[] { 1, parallelThreads } )
+		{
+			LuceneEnv benchEnv = new LuceneEnv ( file.getAbsolutePath () + "-bench-" + nthreads, true );
+			benchEnv.setIndexingThreads ( nthreads );
+
+			long start = System.currentTimeMillis ();
+			benchEnv.setONDEXGraph ( og );
+			long time = System.currentTimeMillis () - start;
+			benchEnv.closeAll ();
+
+			if ( nthreads == 1 ) {
+				singleThreadTime = time;
+				log.info ( "Sequential indexing: {} ms", time );
+				continue;
+			}
+			log.info (
+				"Parallel indexing with {} thread(s): {} ms, speed-up over the sequential one: {}", 
+				nthreads, time, (double) singleThreadTime / time
+			);
+		}
+	}
+
+	/**
+	 * Reports the index build and query times with the different directory types.
+	 */
+	@Test
+	@Ignore ( "Not a real unit test, time consuming" )
+	public void testDirectoryTypesBenchmark ()
+	{
+		int nconcepts = 500_000, nqueries = 20_000;
+		createTestConcepts ( og, nconcepts );
+
+		// Warms up the JIT, else the first directory type would be penalised
+		benchmarkDirectoryType ( DirectoryType.HEAP, "warm-up", nconcepts, nqueries );
+
+		for ( DirectoryType directoryType: DirectoryType.values () )
+		{
+			long[] times = benchmarkDirectoryType ( directoryType, directoryType.toString (), nconcepts, nqueries );
+			log.info (
+				"Directory type: {}, indexing time: {} ms, queries/s: {}", 
+				directoryType, times [ 0 ], nqueries * 1000L / Math.max ( times [ 1 ], 1 ) 
+			);
+		}
+	}
+
+	/**
+	 * @return the indexing and querying times.
+	 */
+	private long[] benchmarkDirectoryType ( DirectoryType directoryType, String label, int nconcepts, int nqueries )
+	{
+		LuceneEnv benchEnv = new LuceneEnv ( file.getAbsolutePath () + "-bench-" + label, true );
+		benchEnv.setDirectoryType ( directoryType );
+		// Else, we'd measure the cache
+		benchEnv.setResultCacheSize ( 0 );
+
+		long start = System.currentTimeMillis ();
+		benchEnv.setONDEXGraph ( og );
+		long indexingTime = System.currentTimeMillis () - start;
+
+		start = System.currentTimeMillis ();
+		for ( int i = 0; i < nqueries; i++ )
+			benchEnv.searchByTypeAndAccession ( cc.getId (), "ACC:" + ( i * 31L % nconcepts ) ).size ();
+		long queryTime = System.currentTimeMillis () - start;
+		benchEnv.closeAll ();
+
+		return new long[] { indexingTime, queryTime };
+	}
+
+	private void assertIndexProfileError ( String errMsg, Runnable search )
+	{
+		try {
+			search.run ();
+		}
+		catch ( IllegalArgumentException ex ) {
+			log.info ( "Expected index profile error: {}", ex.getMessage () );
+			return;
+		}
+		fail ( errMsg );
+	}
+
+	private void createTestConcepts ( MemoryONDEXGraph graph, int nconcepts )
+	{
+		for ( int i = 0; i < nconcepts; i++ )
+		{
+			ONDEXConcept concept = graph.getFactory ().createConcept ( "C" + i, dataSource, cc, et );
+			concept.createConceptAccession ( "ACC:" + i, dataSource, false );
+			concept.createConceptName ( "Concept " + i, true );
+			concept.createAttribute ( at, "Test value " + i, true );
+		}
+	}
+
 	
 	private Set<ONDEXConcept> testSearchByTypeAndName ( 
 		String conceptClassId, String accessionTerm, boolean isCaseSensitive, int expectedResultSize,
@@ -0,0 +1,279 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+
+/**
+ * <p>The default {@link EntityIdIndex}, which is used by {@link MemoryONDEXGraph} to store all the concepts and
+ * relations.</p>
+ *
+ * <p>This replaces the {@code DualHashBidiMap<Integer, E>} that we used in the past. That required boxed
+ * {@link Integer} keys and two hash tables per entity (about 90 bytes of overhead for each of them), while the
+ * entity =&gt; id direction is available from the entity itself, via {@link ONDEXEntity#getId()}.</p>
+ *
+ * <p>Since the graph assigns ids by counting up, ids are normally dense and here we store them in a plain array,
+ * indexed by id, which costs one reference per id. Ids that are negative or far beyond the current range (which
+ * might happen in {@link ONDEXGraph#isLoadingMode() loading mode}) go to an overflow hash map, so that a few
+ * sparse ids don't cause huge array allocations.</p>
+ *
+ * <p>This class isn't thread-safe, like the rest of {@link MemoryONDEXGraph}.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ArrayEntityIdIndex<E extends ONDEXEntity> implements EntityIdIndex<E>
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The array can't be larger than this times the number of stored entities, ids that would make it bigger
+	 * go to the overflow map.
+	 */
+	private static final int MAX_SPARSENESS = 4;
+
+	/**
+	 * Below this capacity, we don't care about sparseness.
+	 */
+	private static final int MIN_CAPACITY = 1024;
+
+	private Object[] entities;
+	private int size = 0;
+	private int overflowSize = 0;
+
+	/**
+	 * Lazily created, most of the time it's never needed.
+	 */
+	private Map<Integer, E> overflow = null;
+
+	/**
+	 * Lazily created, it's a stateless view, so it isn't serialised.
+	 */
+	private transient Set<E> valuesView = null;
+
+	public ArrayEntityIdIndex ()
+	{
+		this ( 16 );
+	}
+
+	public ArrayEntityIdIndex ( int initialCapacity )
+	{
+		this.entities = new Object [ Math.max ( initialCapacity, 1 ) ];
+	}
+
+
+	@Override
+	@SuppressWarnings ( "unchecked" )
+	public E get ( int id )
+	{
+		if ( id >= 0 && id < entities.length )
+		{
+			E result = (E) entities [ id ];
+			if ( result != null || overflow == null ) return result;
+		}
+		return overflow == null ? null : overflow.get ( id );
+	}
+
+	@Override
+	@SuppressWarnings ( "unchecked" )
+	public E put ( E entity )
+	{
+		int id = entity.getId ();
+
+		if ( id >= 0 && ( id < entities.length || ensureCapacity ( id ) ) )
+		{
+			E old = (E) entities [ id ];
+			if ( old == null && overflow != null )
+			{
+				// Might have ended up in the overflow map before the array was grown to reach it
+				old = overflow.remove ( id );
+				if ( old != null ) overflowSize--;
+			}
+			entities [ id ] = entity;
+			if ( old == null ) size++;
+			return old;
+		}
+
+		if ( overflow == null ) overflow = new HashMap<> ();
+		E old = overflow.put ( id, entity );
+		if ( old == null ) { size++; overflowSize++; }
+		return old;
+	}
+
+	@Override
+	@SuppressWarnings ( "unchecked" )
+	public E remove ( int id )
+	{
+		if ( id >= 0 && id < entities.length )
+		{
+			E old = (E) entities [ id ];
+			if ( old != null )
+			{
+				entities [ id ] = null;
+				size--;
+				return old;
+			}
+		}
+		if ( overflow == null ) return null;
+
+		E old = overflow.remove ( id );
+		if ( old != null ) { size--; overflowSize--; }
+		return old;
+	}
+
+	@Override
+	public int size ()
+	{
+		return size;
+	}
+
+	@Override
+	public void clear ()
+	{
+		Arrays.fill ( entities, null );
+		overflow = null;
+		size = overflowSize = 0;
+	}
+
+	/**
+	 * The view iterates the entities in id order (overflow ids come at the end).
+	 */
+	@Override
+	public Set<E> values ()
+	{
+		if ( valuesView == null ) valuesView = new ValuesView ();
+		return valuesView;
+	}
+
+	/**
+	 * The size of the id array with the current allocation.
+	 */
+	@Override
+	public int getCapacity ()
+	{
+		return entities.length;
+	}
+
+	@Override
+	public long estimateBytes ()
+	{
+		long result = HeapEstimates.ofObject ( 20 ) + HeapEstimates.ofArray ( entities.length, HeapEstimates.REFERENCE );
+		if ( overflow != null ) result += HeapEstimates.ofHashMap ( overflowSize ) + overflowSize * HeapEstimates.ofObject ( 4 );
+		return result;
+	}
+
+	/**
+	 * Grows the array to host id, unless this would make it too sparse.
+	 *
+	 * @return true if the array can now contain id.
+	 */
+	private boolean ensureCapacity ( int id )
+	{
+		if ( id >= MIN_CAPACITY && id > MAX_SPARSENESS * ( size + 1L ) ) return false;
+
+		int newCapacity = (int) Math.min (
+			Math.max ( id + 1L, entities.length + ( entities.length >> 1 ) ), Integer.MAX_VALUE - 8
+		);
+		if ( newCapacity <= id ) return false;
+		entities = Arrays.copyOf ( entities, newCapacity );
+		return true;
+	}
+
+
+	private class ValuesView extends AbstractSet<E>
+	{
+		@Override
+		public Iterator<E> iterator ()
+		{
+			return new Iterator<E> ()
+			{
+				private int nextIdx = advance ( 0 );
+				private int lastIdx = -1;
+				private Iterator<E> overflowItr = null;
+				private boolean lastFromOverflow = false;
+
+				private int advance ( int from )
+				{
+					Object[] ents = entities;
+					for ( int i = from; i < ents.length; i++ )
+						if ( ents [ i ] != null ) return i;
+					return -1;
+				}
+
+				private Iterator<E> getOverflowItr ()
+				{
+					if ( overflowItr == null ) overflowItr = overflow == null
+						? Collections.emptyIterator ()
+						: overflow.values ().iterator ();
+					return overflowItr;
+				}
+
+				@Override
+				public boolean hasNext ()
+				{
+					return nextIdx != -1 || getOverflowItr ().hasNext ();
+				}
+
+				@Override
+				@SuppressWarnings ( "unchecked" )
+				public E next ()
+				{
+					if ( nextIdx != -1 )
+					{
+						lastIdx = nextIdx;
+						lastFromOverflow = false;
+						nextIdx = advance ( nextIdx + 1 );
+						return (E) entities [ lastIdx ];
+					}
+					if ( !getOverflowItr ().hasNext () ) throw new NoSuchElementException ();
+					lastFromOverflow = true;
+					return overflowItr.next ();
+				}
+
+				@Override
+				public void remove ()
+				{
+					if ( lastFromOverflow )
+					{
+						overflowItr.remove ();
+						size--; overflowSize--;
+						return;
+					}
+					if ( lastIdx == -1 || entities [ lastIdx ] == null ) throw new IllegalStateException ();
+					entities [ lastIdx ] = null;
+					size--;
+				}
+			};
+		}
+
+		@Override
+		public int size ()
+		{
+			return size;
+		}
+
+		@Override
+		public boolean contains ( Object o )
+		{
+			return ArrayEntityIdIndex.this.contains ( o );
+		}
+
+		@Override
+		public boolean remove ( Object o )
+		{
+			if ( !contains ( o ) ) return false;
+			ArrayEntityIdIndex.this.remove ( ( (ONDEXEntity) o ).getId () );
+			return true;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.io.Serializable;
+
+import net.sourceforge.ondex.config.Config;
+import net.sourceforge.ondex.config.ONDEXGraphRegistry;
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.base.AbstractConcept;
+import net.sourceforge.ondex.core.base.AbstractONDEXEntity;
+import net.sourceforge.ondex.core.base.AbstractRelation;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
+import net.sourceforge.ondex.exception.type.NullValueException;
+import net.sourceforge.ondex.exception.type.WrongParameterException;
+
+/**
+ * <p>An {@link Attribute} whose value lives in a {@link NumericColumn}. These are views created on demand, so two
+ * instances for the same entity and attribute name are equal, and a change made through one of them is seen by the
+ * other.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+class ColumnAttribute extends AbstractONDEXEntity implements Attribute, Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	private final NumericColumn column;
+	private final int ownerId;
+
+	ColumnAttribute ( NumericColumn column, int ownerId )
+	{
+		this.sid = column.getSID ();
+		this.column = column;
+		this.ownerId = ownerId;
+	}
+
+	@Override
+	public int getOwnerId () {
+		return ownerId;
+	}
+
+	@Override
+	public Class<? extends ONDEXEntity> getOwnerClass () {
+		return column.isConceptColumn () ? AbstractConcept.class : AbstractRelation.class;
+	}
+
+	@Override
+	public AttributeName getOfType () {
+		return column.getAttributeName ();
+	}
+
+	/**
+	 * @throws IllegalStateException if the attribute has been removed from its entity.
+	 */
+	@Override
+	public Object getValue ()
+	{
+		Number result = column.get ( ownerId );
+		if ( result == null ) throw new IllegalStateException (
+			"The attribute \"" + getOfType ().getId () + "\" was removed from the entity #" + ownerId
+		);
+		return result;
+	}
+
+	@Override
+	public void setValue ( Object value ) throws NullValueException, UnsupportedOperationException
+	{
+		// Same checks as AbstractAttribute
+		if ( value == null )
+			throw new NullValueException ( Config.properties.getProperty ( "GDS.ValueNull" ) );
+
+		if ( ONDEXGraphRegistry.graphs.get ( sid ).isReadOnly () )
+			throw new UnsupportedOperationException ();
+
+		if ( !getOfType ().getDataType ().isAssignableFrom ( value.getClass () ) )
+			throw new WrongParameterException ( Config.properties.getProperty ( "GDS.ObjectTypeMismatch" ) );
+
+		if ( !column.contains ( ownerId ) ) throw new IllegalStateException (
+			"The attribute \"" + getOfType ().getId () + "\" was removed from the entity #" + ownerId
+		);
+
+		column.set ( ownerId, (Number) value, column.isDoIndex ( ownerId ) );
+		logChange ();
+	}
+
+	@Override
+	public boolean isDoIndex () {
+		return column.isDoIndex ( ownerId );
+	}
+
+	@Override
+	public void setDoIndex ( boolean doIndex )
+	{
+		if ( column.isDoIndex ( ownerId ) != doIndex ) logChange ();
+		column.setDoIndex ( ownerId, doIndex );
+	}
+
+	/**
+	 * Like AbstractAttribute, reports the change as a change of the owner.
+	 */
+	private void logChange ()
+	{
+		GraphChangeLog log = getChangeLog ();
+		if ( log == null ) return;
+		if ( column.isConceptColumn () ) log.conceptModified ( ownerId, Aspect.ATTRIBUTES );
+		else log.relationModified ( ownerId, Aspect.ATTRIBUTES );
+	}
+
+	@Override
+	public boolean inheritedFrom ( AttributeName attributeName )
+	{
+		for ( AttributeName an = getOfType (); an != null; an = an.getSpecialisationOf () )
+			if ( an.equals ( attributeName ) ) return true;
+		return false;
+	}
+
+	@Override
+	public int compareTo ( Attribute o ) {
+		return getOfType ().compareTo ( o.getOfType () );
+	}
+
+	/**
+	 * Same semantics as in AbstractAttribute, so that column attributes and object attributes can be compared.
+	 */
+	@Override
+	public boolean equals ( Object o )
+	{
+		if ( o == this ) return true;
+		if ( !( o instanceof Attribute ) ) return false;
+
+		Attribute attribute = (Attribute) o;
+		return getOfType ().equals ( attribute.getOfType () ) && getValue ().equals ( attribute.getValue () );
+	}
+
+	@Override
+	public int hashCode () {
+		return getValue ().hashCode () + getOfType ().hashCode ();
+	}
+
+	@Override
+	public String toString () {
+		return "ColumnAttribute{" + getOfType ().getId () + ": " + column.get ( ownerId ) + "}";
+	}
+}
@@ -0,0 +1,143 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+
+/**
+ * <p>The attributes of a concept or relation, indexed by their {@link AttributeName}.</p>
+ *
+ * <p>This is the same idea as {@link CompactSet}: up to {@link CompactSet#THRESHOLD} attributes are kept in a small
+ * array and looked up with a linear scan of their types, above that they're promoted to a {@link HashMap}. This
+ * replaces the bidirectional map that was used before, which costs two hash tables per entity, while the reverse
+ * direction (attribute to name) is {@link Attribute#getOfType()} already.</p>
+ *
+ * <p>The set view is read-only, changes go through {@link #put(Attribute)} and {@link #remove(AttributeName)}. As
+ * {@link CompactSet}, this isn't thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+class CompactAttributeSet extends AbstractSet<Attribute> implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final Attribute[] EMPTY = new Attribute [ 0 ];
+
+	private Attribute[] elements = EMPTY;
+	private int size = 0;
+
+	/**
+	 * Not null after the promotion, when {@link #elements} isn't used anymore.
+	 */
+	private Map<AttributeName, Attribute> hashed = null;
+
+	public Attribute get ( AttributeName an )
+	{
+		if ( hashed != null ) return hashed.get ( an );
+		int idx = indexOf ( an );
+		return idx == -1 ? null : elements [ idx ];
+	}
+
+	/**
+	 * Stores the attribute under its type, replacing any previous attribute of the same type.
+	 *
+	 * @return the replaced attribute or null
+	 */
+	public Attribute put ( Attribute attribute )
+	{
+		AttributeName an = attribute.getOfType ();
+		if ( hashed != null ) return hashed.put ( an, attribute );
+
+		int idx = indexOf ( an );
+		if ( idx != -1 )
+		{
+			Attribute old = elements [ idx ];
+			elements [ idx ] = attribute;
+			return old;
+		}
+
+		if ( size == CompactSet.THRESHOLD )
+		{
+			hashed = new HashMap<> ();
+			for ( int i = 0; i < size; i++ ) hashed.put ( elements [ i ].getOfType (), elements [ i ] );
+			hashed.put ( an, attribute );
+			elements = null;
+			return null;
+		}
+
+		if ( size == elements.length ) elements = Arrays.copyOf ( elements, size < 2 ? size + 1 : size * 2 );
+		elements [ size++ ] = attribute;
+		return null;
+	}
+
+	/**
+	 * @return the removed attribute or null
+	 */
+	public Attribute remove ( AttributeName an )
+	{
+		if ( hashed != null ) return hashed.remove ( an );
+
+		int idx = indexOf ( an );
+		if ( idx == -1 ) return null;
+
+		Attribute old = elements [ idx ];
+		System.arraycopy ( elements, idx + 1, elements, idx, size - idx - 1 );
+		elements [ --size ] = null;
+		return old;
+	}
+
+	@Override
+	public boolean contains ( Object o )
+	{
+		if ( !( o instanceof Attribute ) ) return false;
+		Attribute existing = get ( ( (Attribute) o ).getOfType () );
+		return existing != null && existing.equals ( o );
+	}
+
+	@Override
+	public int size ()
+	{
+		return hashed != null ? hashed.size () : size;
+	}
+
+	@Override
+	public Iterator<Attribute> iterator ()
+	{
+		if ( hashed != null ) return Collections.unmodifiableCollection ( hashed.values () ).iterator ();
+
+		return new Iterator<Attribute> ()
+		{
+			private int next = 0;
+
+			@Override
+			public boolean hasNext () {
+				return next < size;
+			}
+
+			@Override
+			public Attribute next ()
+			{
+				if ( next >= size ) throw new NoSuchElementException ();
+				return elements [ next++ ];
+			}
+		};
+	}
+
+	private int indexOf ( AttributeName an )
+	{
+		if ( an == null ) return -1;
+		for ( int i = 0; i < size; i++ )
+			if ( an.equals ( elements [ i ].getOfType () ) ) return i;
+		return -1;
+	}
+}
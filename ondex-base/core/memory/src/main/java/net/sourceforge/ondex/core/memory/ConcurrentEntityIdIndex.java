@@ -0,0 +1,135 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+
+/**
+ * <p>A thread-safe {@link EntityIdIndex}, used by {@link ConcurrentMemoryONDEXGraph}.</p>
+ *
+ * <p>The entities are kept in a {@link ConcurrentHashMap}, instead of the id array of {@link ArrayEntityIdIndex},
+ * so that lookups don't need any lock. The {@link #values()} view iterates over the weakly consistent values of the
+ * map, so it never fails because of concurrent writes and it doesn't copy the index, though it might or might not
+ * see the changes made after its creation. Unlike the array index, the iteration order isn't based on the ids.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ConcurrentEntityIdIndex<E extends ONDEXEntity> implements EntityIdIndex<E>
+{
+	private static final long serialVersionUID = 1L;
+
+	private final ConcurrentMap<Integer, E> entities;
+
+	/**
+	 * @see EntityIdIndex#values()
+	 */
+	private transient volatile Set<E> valuesView = null;
+
+	public ConcurrentEntityIdIndex ()
+	{
+		this ( 16 );
+	}
+
+	public ConcurrentEntityIdIndex ( int initialCapacity )
+	{
+		this.entities = new ConcurrentHashMap<> ( Math.max ( initialCapacity, 1 ) );
+	}
+
+
+	@Override
+	public E get ( int id )
+	{
+		return entities.get ( id );
+	}
+
+	@Override
+	public E put ( E entity )
+	{
+		return entities.put ( entity.getId (), entity );
+	}
+
+	@Override
+	public E remove ( int id )
+	{
+		return entities.remove ( id );
+	}
+
+	@Override
+	public int size ()
+	{
+		return entities.size ();
+	}
+
+	@Override
+	public boolean isEmpty ()
+	{
+		return entities.isEmpty ();
+	}
+
+	@Override
+	public void clear ()
+	{
+		entities.clear ();
+	}
+
+	@Override
+	public Set<E> values ()
+	{
+		// Creating more than one view in a race is harmless
+		if ( valuesView == null ) valuesView = new ValuesView ();
+		return valuesView;
+	}
+
+	/**
+	 * There is no id array here, so this is the no. of stored entities.
+	 */
+	@Override
+	public int getCapacity ()
+	{
+		return size ();
+	}
+
+	@Override
+	public long estimateBytes ()
+	{
+		int size = size ();
+		return HeapEstimates.ofObject ( 8 ) + HeapEstimates.ofHashMap ( size ) + size * HeapEstimates.ofObject ( 4 );
+	}
+
+
+	private class ValuesView extends AbstractSet<E>
+	{
+		@Override
+		public Iterator<E> iterator ()
+		{
+			// Weakly consistent, and its remove() goes straight to the map
+			return entities.values ().iterator ();
+		}
+
+		@Override
+		public int size ()
+		{
+			return entities.size ();
+		}
+
+		@Override
+		public boolean contains ( Object o )
+		{
+			return ConcurrentEntityIdIndex.this.contains ( o );
+		}
+
+		@Override
+		public boolean remove ( Object o )
+		{
+			if ( !( o instanceof ONDEXEntity ) ) return false;
+			return entities.remove ( ( (ONDEXEntity) o ).getId (), o );
+		}
+	}
+}
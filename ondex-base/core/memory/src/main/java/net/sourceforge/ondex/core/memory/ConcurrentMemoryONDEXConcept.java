@@ -0,0 +1,99 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptAccession;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.DataSource;
+
+/**
+ * <p>The concept used by {@link ConcurrentMemoryONDEXGraph}.</p>
+ *
+ * <p>Evidence and tags are kept by the graph, in concurrent indexes. The names, accessions and attributes are
+ * local to the concept and here their accesses are synchronised on the concept. The methods returning all of
+ * them return snapshot copies, so that they can be iterated while other threads add new ones.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ConcurrentMemoryONDEXConcept extends MemoryONDEXConcept
+{
+	private static final long serialVersionUID = 1L;
+
+	protected ConcurrentMemoryONDEXConcept (
+		long sid, ConcurrentMemoryONDEXGraph graph, int id, String pid, String annotation, String description,
+		DataSource elementOf, ConceptClass ofType )
+	{
+		super ( sid, graph, id, pid, annotation, description, elementOf, ofType );
+	}
+
+	@Override
+	protected synchronized boolean removeConceptAccession ( String accession, DataSource elementOf ) {
+		return super.removeConceptAccession ( accession, elementOf );
+	}
+
+	@Override
+	protected synchronized boolean removeConceptAttribute ( AttributeName attrname ) {
+		return super.removeConceptAttribute ( attrname );
+	}
+
+	@Override
+	protected synchronized boolean removeConceptName ( String name ) {
+		return super.removeConceptName ( name );
+	}
+
+	@Override
+	protected synchronized ConceptAccession retrieveConceptAccession ( String accession, DataSource elementOf ) {
+		return super.retrieveConceptAccession ( accession, elementOf );
+	}
+
+	@Override
+	protected synchronized Set<ConceptAccession> retrieveConceptAccessionAll () {
+		return new HashSet<> ( super.retrieveConceptAccessionAll () );
+	}
+
+	@Override
+	protected synchronized Attribute retrieveConceptAttribute ( AttributeName attrname ) {
+		return super.retrieveConceptAttribute ( attrname );
+	}
+
+	@Override
+	protected synchronized Set<Attribute> retrieveConceptAttributeAll () {
+		return new HashSet<> ( super.retrieveConceptAttributeAll () );
+	}
+
+	@Override
+	protected synchronized ConceptName retrieveConceptName ( String name ) {
+		return super.retrieveConceptName ( name );
+	}
+
+	@Override
+	protected synchronized Set<ConceptName> retrieveConceptNameAll () {
+		return new HashSet<> ( super.retrieveConceptNameAll () );
+	}
+
+	@Override
+	protected synchronized ConceptName retrievePreferredConceptName () {
+		return super.retrievePreferredConceptName ();
+	}
+
+	@Override
+	protected synchronized ConceptAccession storeConceptAccession ( ConceptAccession ca ) {
+		return super.storeConceptAccession ( ca );
+	}
+
+	@Override
+	protected synchronized Attribute storeConceptAttribute ( Attribute attribute ) {
+		return super.storeConceptAttribute ( attribute );
+	}
+
+	@Override
+	protected synchronized ConceptName storeConceptName ( ConceptName cn ) {
+		return super.storeConceptName ( cn );
+	}
+}
@@ -0,0 +1,285 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import net.sourceforge.ondex.core.BulkLoadSession;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationKey;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.event.ONDEXListener;
+
+/**
+ * <p>A {@link MemoryONDEXGraph} that can be written by multiple threads, eg, by parsers that process their input
+ * in parallel.</p>
+ *
+ * <p>This is based on:</p>
+ * <ul>
+ *   <li>atomic allocation of new concept and relation ids</li>
+ *   <li>{@link ConcurrentHashMap} for all the indexes, including the sets they contain, and
+ *   {@link ConcurrentEntityIdIndex} and {@link ConcurrentRelationKeyIndex} for the id and key =&gt; entity
+ *   indexes</li>
+ *   <li>lock striping on the concept id and the relation key, so that storing the same concept (in loading mode)
+ *   or the same relation from different threads still yields one entity, as in the single-threaded graph</li>
+ *   <li>{@link ConcurrentMemoryONDEXConcept}, {@link ConcurrentMemoryONDEXRelation} and
+ *   {@link ConcurrentMemoryONDEXGraphMetaData}, which synchronise the entity-local data and the metadata</li>
+ * </ul>
+ *
+ * <p>Reads are allowed while writers are running, with the usual weak consistency of the concurrent collections:
+ * eg, {@link #getConcepts()} might or might not include a concept that is being created. The indexes are fully
+ * consistent once all the writers have finished. Deletions are thread-safe too, but deleting entities
+ * that other threads are linking (eg, a concept used for a new relation) is the caller's responsibility.</p>
+ *
+ * <p>Writes cost a bit more than in {@link MemoryONDEXGraph}, so use this only when you really need parallel
+ * writes.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ConcurrentMemoryONDEXGraph extends MemoryONDEXGraph
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Must be a power of 2.
+	 */
+	private static final int LOCK_STRIPES = 256;
+
+	private final AtomicInteger lastConceptId = new AtomicInteger ( 0 );
+	private final AtomicInteger lastRelationId = new AtomicInteger ( 0 );
+
+	private final Lock[] conceptLocks = newLocks ();
+	private final Lock[] relationLocks = newLocks ();
+
+	public ConcurrentMemoryONDEXGraph ( String name )
+	{
+		this ( name, null );
+	}
+
+	public ConcurrentMemoryONDEXGraph ( String name, ONDEXListener l )
+	{
+		super ( name, l, new ConcurrentMemoryONDEXGraphMetaData () );
+	}
+
+	/**
+	 * @return true, that's the point of this class.
+	 */
+	@Override
+	public boolean isConcurrentWriteSafe ()
+	{
+		return true;
+	}
+
+
+	@Override
+	protected <K, V> Map<K, V> newIndexMap ()
+	{
+		return new ConcurrentHashMap<> ();
+	}
+
+	@Override
+	protected <E> Set<E> newIndexSet ()
+	{
+		return ConcurrentHashMap.newKeySet ();
+	}
+
+	/**
+	 * The bitmap sets used by the parent aren't thread-safe, so we use concurrent hash sets here too.
+	 */
+	@Override
+	protected Set<ONDEXConcept> newConceptIndexSet ()
+	{
+		return newIndexSet ();
+	}
+
+	@Override
+	protected Set<ONDEXRelation> newRelationIndexSet ()
+	{
+		return newIndexSet ();
+	}
+
+	@Override
+	protected <E extends ONDEXEntity> EntityIdIndex<E> newEntityIdIndex ()
+	{
+		return new ConcurrentEntityIdIndex<> ();
+	}
+
+	@Override
+	protected RelationKeyIndex newRelationKeyIndex ()
+	{
+		return new ConcurrentRelationKeyIndex ();
+	}
+
+	/**
+	 * The columns used by the parent aren't thread-safe, so the numeric attributes are always stored as objects.
+	 */
+	@Override
+	protected boolean isColumnarStorageSupported ()
+	{
+		return false;
+	}
+
+	@Override
+	protected int nextConceptId ()
+	{
+		return lastConceptId.incrementAndGet ();
+	}
+
+	@Override
+	protected int claimConceptId ( int id )
+	{
+		lastConceptId.accumulateAndGet ( id, Math::max );
+		return id;
+	}
+
+	@Override
+	protected int nextRelationId ()
+	{
+		return lastRelationId.incrementAndGet ();
+	}
+
+	@Override
+	protected ONDEXConcept newConcept (
+		long sid, int id, String pid, String annotation, String description, DataSource elementOf, ConceptClass ofType
+	)
+	{
+		return new ConcurrentMemoryONDEXConcept ( sid, this, id, pid, annotation, description, elementOf, ofType );
+	}
+
+	@Override
+	protected ONDEXRelation newRelation (
+		long sid, int id, ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType
+	)
+	{
+		return new ConcurrentMemoryONDEXRelation ( sid, this, id, fromConcept, toConcept, ofType );
+	}
+
+	@Override
+	protected ONDEXConcept storeConcept ( long sid, int id, String pid, String annotation, String description,
+			DataSource elementOf, ConceptClass ofType, Collection<EvidenceType> evidence )
+	{
+		return withLock ( conceptLocks, id,
+			() -> super.storeConcept ( sid, id, pid, annotation, description, elementOf, ofType, evidence )
+		);
+	}
+
+	/**
+	 * Holds the concept lock while checking if the concept exists and storing it, so that concurrent writers of
+	 * the same concept (in loading mode) don't report it as created twice.
+	 */
+	@Override
+	protected ONDEXConcept storeConcept ( GraphChangeLog log, long sid, int id, String pid, String annotation,
+			String description, DataSource elementOf, ConceptClass ofType, Collection<EvidenceType> evidence )
+	{
+		return withLock ( conceptLocks, id,
+			() -> super.storeConcept ( log, sid, id, pid, annotation, description, elementOf, ofType, evidence )
+		);
+	}
+
+	@Override
+	protected ONDEXConcept removeConcept ( int id )
+	{
+		return withLock ( conceptLocks, id, () -> super.removeConcept ( id ) );
+	}
+
+	@Override
+	protected ONDEXRelation storeRelation ( long sid, int id, ONDEXConcept fromConcept, ONDEXConcept toConcept,
+			RelationType ofType, Collection<EvidenceType> evidence )
+	{
+		return withLock ( relationLocks, keyHash ( fromConcept.getId (), toConcept.getId (), ofType.getId () ),
+			() -> super.storeRelation ( sid, id, fromConcept, toConcept, ofType, evidence )
+		);
+	}
+
+	/**
+	 * As {@link #storeConcept(GraphChangeLog, long, int, String, String, String, DataSource, ConceptClass, Collection)},
+	 * based on the relation key.
+	 */
+	@Override
+	protected ONDEXRelation storeRelation ( GraphChangeLog log, long sid, int id, ONDEXConcept fromConcept,
+			ONDEXConcept toConcept, RelationType ofType, Collection<EvidenceType> evidence )
+	{
+		return withLock ( relationLocks, keyHash ( fromConcept.getId (), toConcept.getId (), ofType.getId () ),
+			() -> super.storeRelation ( log, sid, id, fromConcept, toConcept, ofType, evidence )
+		);
+	}
+
+	@Override
+	protected boolean removeRelation ( int id )
+	{
+		ONDEXRelation r = retrieveRelation ( id );
+		if ( r == null ) return false;
+		RelationKey key = r.getKey ();
+		return withLock (
+			relationLocks, keyHash ( key.getFromID (), key.getToID (), key.getRtId () ), () -> super.removeRelation ( id )
+		);
+	}
+
+	@Override
+	protected boolean removeRelation ( ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType )
+	{
+		return withLock ( relationLocks, keyHash ( fromConcept.getId (), toConcept.getId (), ofType.getId () ),
+			() -> super.removeRelation ( fromConcept, toConcept, ofType )
+		);
+	}
+
+	/**
+	 * Bulk loading isn't supported here, since deferring the index updates would make the secondary indexes
+	 * incoherent with the parallel writers. This returns a session that does nothing, as the default does.
+	 */
+	@Override
+	public BulkLoadSession beginBulkLoad ()
+	{
+		return () -> {};
+	}
+
+	@Override
+	public boolean isBulkLoading ()
+	{
+		return false;
+	}
+
+
+	private static Lock[] newLocks ()
+	{
+		Lock[] result = new Lock [ LOCK_STRIPES ];
+		for ( int i = 0; i < result.length; i++ ) result [ i ] = new ReentrantLock ();
+		return result;
+	}
+
+	/**
+	 * The lock stripe hash for a relation key, computed without creating a key object.
+	 */
+	private static int keyHash ( int fromId, int toId, String relationTypeId )
+	{
+		return 31 * fromId + toId + relationTypeId.hashCode ();
+	}
+
+	/**
+	 * Runs the action holding the stripe lock that corresponds to the hash.
+	 */
+	private static <T> T withLock ( Lock[] locks, int hash, Supplier<T> action )
+	{
+		Lock lock = locks [ ( hash ^ ( hash >>> 16 ) ) & ( LOCK_STRIPES - 1 ) ];
+		lock.lock ();
+		try {
+			return action.get ();
+		}
+		finally {
+			lock.unlock ();
+		}
+	}
+}
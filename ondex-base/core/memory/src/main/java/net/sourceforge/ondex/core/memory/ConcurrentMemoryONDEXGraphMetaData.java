@@ -0,0 +1,177 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.Unit;
+
+/**
+ * <p>The metadata used by {@link ConcurrentMemoryONDEXGraph}.</p>
+ * 
+ * <p>Metadata are few and rarely written, so here we simply synchronise all the accesses. This makes the 
+ * "get or create" pattern used by the parsers safe, since storing an existing ID returns the existing element. 
+ * The methods returning all the elements of a type return a snapshot copy.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ConcurrentMemoryONDEXGraphMetaData extends MemoryONDEXGraphMetaData
+{
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected synchronized boolean removeDataSource ( String id ) {
+		return super.removeDataSource ( id );
+	}
+
+	@Override
+	protected synchronized DataSource retrieveDataSource ( String id ) {
+		return super.retrieveDataSource ( id );
+	}
+
+	@Override
+	protected synchronized boolean existsDataSource ( String id ) {
+		return super.existsDataSource ( id );
+	}
+
+	@Override
+	protected synchronized Set<DataSource> retrieveDataSourceAll () {
+		return new HashSet<> ( super.retrieveDataSourceAll () );
+	}
+
+	@Override
+	protected synchronized DataSource storeDataSource ( DataSource dataSource ) {
+		return super.storeDataSource ( dataSource );
+	}
+
+	@Override
+	protected synchronized boolean removeConceptClass ( String id ) {
+		return super.removeConceptClass ( id );
+	}
+
+	@Override
+	protected synchronized ConceptClass retrieveConceptClass ( String id ) {
+		return super.retrieveConceptClass ( id );
+	}
+
+	@Override
+	protected synchronized boolean existsConceptClass ( String id ) {
+		return super.existsConceptClass ( id );
+	}
+
+	@Override
+	protected synchronized Set<ConceptClass> retrieveConceptClassAll () {
+		return new HashSet<> ( super.retrieveConceptClassAll () );
+	}
+
+	@Override
+	protected synchronized ConceptClass storeConceptClass ( ConceptClass cc ) {
+		return super.storeConceptClass ( cc );
+	}
+
+	@Override
+	protected synchronized boolean removeAttributeName ( String id ) {
+		return super.removeAttributeName ( id );
+	}
+
+	@Override
+	protected synchronized AttributeName retrieveAttributeName ( String id ) {
+		return super.retrieveAttributeName ( id );
+	}
+
+	@Override
+	protected synchronized boolean existsAttributeName ( String id ) {
+		return super.existsAttributeName ( id );
+	}
+
+	@Override
+	protected synchronized Set<AttributeName> retrieveAttributeNameAll () {
+		return new HashSet<> ( super.retrieveAttributeNameAll () );
+	}
+
+	@Override
+	protected synchronized AttributeName storeAttributeName ( AttributeName an ) {
+		return super.storeAttributeName ( an );
+	}
+
+	@Override
+	protected synchronized boolean removeUnit ( String id ) {
+		return super.removeUnit ( id );
+	}
+
+	@Override
+	protected synchronized Unit retrieveUnit ( String id ) {
+		return super.retrieveUnit ( id );
+	}
+
+	@Override
+	protected synchronized boolean existsUnit ( String id ) {
+		return super.existsUnit ( id );
+	}
+
+	@Override
+	protected synchronized Set<Unit> retrieveUnitAll () {
+		return new HashSet<> ( super.retrieveUnitAll () );
+	}
+
+	@Override
+	protected synchronized Unit storeUnit ( Unit unit ) {
+		return super.storeUnit ( unit );
+	}
+
+	@Override
+	protected synchronized boolean removeEvidenceType ( String id ) {
+		return super.removeEvidenceType ( id );
+	}
+
+	@Override
+	protected synchronized EvidenceType retrieveEvidenceType ( String id ) {
+		return super.retrieveEvidenceType ( id );
+	}
+
+	@Override
+	protected synchronized boolean existsEvidenceType ( String id ) {
+		return super.existsEvidenceType ( id );
+	}
+
+	@Override
+	protected synchronized Set<EvidenceType> retrieveEvidenceTypeAll () {
+		return new HashSet<> ( super.retrieveEvidenceTypeAll () );
+	}
+
+	@Override
+	protected synchronized EvidenceType storeEvidenceType ( EvidenceType evitype ) {
+		return super.storeEvidenceType ( evitype );
+	}
+
+	@Override
+	protected synchronized boolean removeRelationType ( String id ) {
+		return super.removeRelationType ( id );
+	}
+
+	@Override
+	protected synchronized RelationType retrieveRelationType ( String id ) {
+		return super.retrieveRelationType ( id );
+	}
+
+	@Override
+	protected synchronized boolean existsRelationType ( String id ) {
+		return super.existsRelationType ( id );
+	}
+
+	@Override
+	protected synchronized Set<RelationType> retrieveRelationTypeAll () {
+		return new HashSet<> ( super.retrieveRelationTypeAll () );
+	}
+
+	@Override
+	protected synchronized RelationType storeRelationType ( RelationType rt ) {
+		return super.storeRelationType ( rt );
+	}
+}
@@ -0,0 +1,51 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.RelationType;
+
+/**
+ * <p>The relation used by {@link ConcurrentMemoryONDEXGraph}.</p>
+ *
+ * <p>As in {@link ConcurrentMemoryONDEXConcept}, the accesses to the relation-local attributes are synchronised
+ * on the relation, the rest is in the graph's concurrent indexes.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ConcurrentMemoryONDEXRelation extends MemoryONDEXRelation
+{
+	private static final long serialVersionUID = 1L;
+
+	protected ConcurrentMemoryONDEXRelation (
+		long sid, ConcurrentMemoryONDEXGraph graph, int id, ONDEXConcept fromConcept, ONDEXConcept toConcept,
+		RelationType ofType )
+	{
+		super ( sid, graph, id, fromConcept, toConcept, ofType );
+	}
+
+	@Override
+	protected synchronized boolean removeRelationAttribute ( AttributeName attributeName ) {
+		return super.removeRelationAttribute ( attributeName );
+	}
+
+	@Override
+	protected synchronized Attribute retrieveRelationAttribute ( AttributeName attributeName ) {
+		return super.retrieveRelationAttribute ( attributeName );
+	}
+
+	@Override
+	protected synchronized Set<Attribute> retrieveRelationAttributeAll () {
+		return new HashSet<> ( super.retrieveRelationAttributeAll () );
+	}
+
+	@Override
+	protected synchronized Attribute storeRelationAttribute ( Attribute attribute ) {
+		return super.storeRelationAttribute ( attribute );
+	}
+}
@@ -0,0 +1,131 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.sourceforge.ondex.core.ONDEXRelation;
+
+/**
+ * <p>A thread-safe {@link RelationKeyIndex}, used by {@link ConcurrentMemoryONDEXGraph}.</p>
+ *
+ * <p>Operations are guarded by a read/write lock, so that lookups can proceed in parallel.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ConcurrentRelationKeyIndex extends RelationKeyIndex
+{
+	private static final long serialVersionUID = 1L;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock ();
+
+	public ConcurrentRelationKeyIndex ()
+	{
+		super ();
+	}
+
+	public ConcurrentRelationKeyIndex ( int expectedSize )
+	{
+		super ( expectedSize );
+	}
+
+
+	@Override
+	public ONDEXRelation get ( int fromId, int toId, String relationTypeId )
+	{
+		Lock rlock = lock.readLock ();
+		rlock.lock ();
+		try {
+			return super.get ( fromId, toId, relationTypeId );
+		}
+		finally {
+			rlock.unlock ();
+		}
+	}
+
+	@Override
+	public ONDEXRelation put ( ONDEXRelation relation )
+	{
+		Lock wlock = lock.writeLock ();
+		wlock.lock ();
+		try {
+			return super.put ( relation );
+		}
+		finally {
+			wlock.unlock ();
+		}
+	}
+
+	@Override
+	public ONDEXRelation remove ( int fromId, int toId, String relationTypeId )
+	{
+		Lock wlock = lock.writeLock ();
+		wlock.lock ();
+		try {
+			return super.remove ( fromId, toId, relationTypeId );
+		}
+		finally {
+			wlock.unlock ();
+		}
+	}
+
+	@Override
+	public int size ()
+	{
+		Lock rlock = lock.readLock ();
+		rlock.lock ();
+		try {
+			return super.size ();
+		}
+		finally {
+			rlock.unlock ();
+		}
+	}
+
+	@Override
+	public boolean isEmpty ()
+	{
+		return size () == 0;
+	}
+
+	@Override
+	public void clear ()
+	{
+		Lock wlock = lock.writeLock ();
+		wlock.lock ();
+		try {
+			super.clear ();
+		}
+		finally {
+			wlock.unlock ();
+		}
+	}
+
+	@Override
+	public long estimateBytes ()
+	{
+		Lock rlock = lock.readLock ();
+		rlock.lock ();
+		try {
+			return super.estimateBytes ();
+		}
+		finally {
+			rlock.unlock ();
+		}
+	}
+
+	@Override
+	public int getCapacity ()
+	{
+		Lock rlock = lock.readLock ();
+		rlock.lock ();
+		try {
+			return super.getCapacity ();
+		}
+		finally {
+			rlock.unlock ();
+		}
+	}
+}
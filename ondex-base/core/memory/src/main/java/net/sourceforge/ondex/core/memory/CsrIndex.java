@@ -0,0 +1,176 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+
+/**
+ * <p>An immutable key =&gt; entity set index in the
+ * <a href = "https://en.wikipedia.org/wiki/Sparse_matrix#Compressed_sparse_row_(CSR,_CRS_or_Yale_format)">compressed
+ * sparse row</a> format, ie, all the entity ids are stored in one int array, where each key has a slice, defined
+ * by an offsets array.</p>
+ *
+ * <p>This is used by {@link MemoryONDEXGraph#freeze()} to replace the {@code Map<K, Set<E>>} indexes, which need
+ * a hash set and one hash entry per set element.</p>
+ *
+ * <p>The key to slice mapping depends on the key type: metadata keys (few) are mapped via a small hash map, entity
+ * keys (eg, concept =&gt; relations) use the entity id, either directly as slice index, when ids are dense, or via
+ * binary search over a sorted array of key ids.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+final class CsrIndex implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The slice of the ith key is [ offsets [ i ], offsets [ i + 1 ] ).
+	 */
+	private final int[] offsets;
+	private final int[] ids;
+
+	/**
+	 * Used for metadata keys, null otherwise.
+	 */
+	private final Map<Object, Integer> keySlots;
+
+	/**
+	 * Used for entity keys that are sparse, null otherwise (and for dense keys, the key id is the slot).
+	 */
+	private final int[] keyIds;
+
+	private CsrIndex ( int[] offsets, int[] ids, Map<Object, Integer> keySlots, int[] keyIds )
+	{
+		this.offsets = offsets;
+		this.ids = ids;
+		this.keySlots = keySlots;
+		this.keyIds = keyIds;
+	}
+
+
+	/**
+	 * Builds an index for non-entity keys (eg, concept classes, relation types).
+	 */
+	static CsrIndex ofKeys ( Map<?, ? extends Set<? extends ONDEXEntity>> index )
+	{
+		Map<Object, Integer> keySlots = new HashMap<> ();
+		int[] offsets = new int [ index.size () + 1 ];
+		int[] ids = new int [ countValues ( index ) ];
+
+		int slot = 0, pos = 0;
+		for ( Map.Entry<?, ? extends Set<? extends ONDEXEntity>> entry: index.entrySet () )
+		{
+			keySlots.put ( entry.getKey (), slot );
+			offsets [ slot ] = pos;
+			pos = fillRow ( ids, pos, entry.getValue () );
+			offsets [ ++slot ] = pos;
+		}
+		return new CsrIndex ( offsets, ids, keySlots, null );
+	}
+
+	/**
+	 * Builds an index for entity keys (eg, concept =&gt; relations, tag =&gt; concepts).
+	 */
+	static CsrIndex ofEntityKeys ( Map<? extends ONDEXEntity, ? extends Set<? extends ONDEXEntity>> index )
+	{
+		int[] keyIds = index.keySet ().stream ().mapToInt ( ONDEXEntity::getId ).sorted ().toArray ();
+		int minId = keyIds.length == 0 ? 0 : keyIds [ 0 ];
+		int maxId = keyIds.length == 0 ? -1 : keyIds [ keyIds.length - 1 ];
+		boolean isDense = minId >= 0 && maxId < Math.max ( 1024, 4L * keyIds.length );
+
+		int nslots = isDense ? maxId + 1 : keyIds.length;
+		int[] offsets = new int [ nslots + 1 ];
+		int[] ids = new int [ countValues ( index ) ];
+
+		// Rows must be laid in slot order, so we need to lookup the keys in order
+		Map<Integer, Set<? extends ONDEXEntity>> byId = new HashMap<> ( index.size () );
+		index.forEach ( ( k, v ) -> byId.put ( k.getId (), v ) );
+
+		int pos = 0;
+		for ( int slot = 0; slot < nslots; slot++ )
+		{
+			offsets [ slot ] = pos;
+			Set<? extends ONDEXEntity> row = byId.get ( isDense ? slot : keyIds [ slot ] );
+			if ( row != null ) pos = fillRow ( ids, pos, row );
+		}
+		offsets [ nslots ] = pos;
+
+		return new CsrIndex ( offsets, ids, null, isDense ? null : keyIds );
+	}
+
+
+	/**
+	 * @return a view of the entities associated to the key, or null if there is no such key, or it has no
+	 * entities associated.
+	 */
+	<E extends ONDEXEntity> Set<E> get ( Object key, IntFunction<E> resolver )
+	{
+		int slot = getSlot ( key );
+		if ( slot < 0 ) return null;
+
+		int from = offsets [ slot ], to = offsets [ slot + 1 ];
+		if ( from == to ) return null;
+
+		return new IdArraySet<> ( ids, from, to, resolver );
+	}
+
+	/**
+	 * The number of entity ids stored in this index.
+	 */
+	int size ()
+	{
+		return ids.length;
+	}
+
+	/**
+	 * The approximate heap taken by this index, excluding the keys, see {@link HeapEstimates}.
+	 */
+	long estimateBytes ()
+	{
+		long result = HeapEstimates.ofObject ( 16 )
+			+ HeapEstimates.ofArray ( offsets.length, 4 )
+			+ HeapEstimates.ofArray ( ids.length, 4 );
+		if ( keyIds != null ) result += HeapEstimates.ofArray ( keyIds.length, 4 );
+		if ( keySlots != null ) result += HeapEstimates.ofHashMap ( keySlots.size () ) + keySlots.size () * HeapEstimates.ofObject ( 4 );
+		return result;
+	}
+
+	private int getSlot ( Object key )
+	{
+		if ( key == null ) return -1;
+		if ( keySlots != null )
+		{
+			Integer slot = keySlots.get ( key );
+			return slot == null ? -1 : slot;
+		}
+
+		int id = ( (ONDEXEntity) key ).getId ();
+		if ( keyIds != null ) return Math.max ( Arrays.binarySearch ( keyIds, id ), -1 );
+		return id >= 0 && id < offsets.length - 1 ? id : -1;
+	}
+
+	private static int countValues ( Map<?, ? extends Set<? extends ONDEXEntity>> index )
+	{
+		long result = index.values ().stream ().mapToLong ( Set::size ).sum ();
+		if ( result > Integer.MAX_VALUE - 8 ) throw new IllegalStateException (
+			"Can't freeze an ONDEX graph index with more than 2^31 elements"
+		);
+		return (int) result;
+	}
+
+	private static int fillRow ( int[] ids, int pos, Set<? extends ONDEXEntity> row )
+	{
+		int start = pos;
+		for ( ONDEXEntity e: row ) ids [ pos++ ] = e.getId ();
+		Arrays.sort ( ids, start, pos );
+		return pos;
+	}
+}
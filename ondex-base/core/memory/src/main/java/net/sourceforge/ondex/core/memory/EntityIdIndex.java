@@ -0,0 +1,74 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+
+/**
+ * <p>An id =&gt; entity index for ONDEX entities, which is what {@link MemoryONDEXGraph} uses to store all the
+ * concepts and relations. The entity =&gt; id direction is available from the entity itself, via
+ * {@link ONDEXEntity#getId()}.</p>
+ *
+ * <p>{@link ArrayEntityIdIndex} is the default implementation, {@link ConcurrentEntityIdIndex} is the thread-safe
+ * one, used by {@link ConcurrentMemoryONDEXGraph}, see {@link MemoryONDEXGraph#newEntityIdIndex()}.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public interface EntityIdIndex<E extends ONDEXEntity> extends Serializable
+{
+	/**
+	 * @return the entity with this id, or null.
+	 */
+	E get ( int id );
+
+	/**
+	 * Stores the entity, using its {@link ONDEXEntity#getId() own id} as key.
+	 *
+	 * @return the entity previously stored with the same id, or null.
+	 */
+	E put ( E entity );
+
+	/**
+	 * @return the removed entity, or null if nothing was stored with this id.
+	 */
+	E remove ( int id );
+
+	/**
+	 * Checks that the parameter is stored here, using its {@link ONDEXEntity#getId() id}.
+	 */
+	default boolean contains ( Object entity )
+	{
+		if ( !( entity instanceof ONDEXEntity ) ) return false;
+		E stored = get ( ( (ONDEXEntity) entity ).getId () );
+		return stored != null && stored.equals ( entity );
+	}
+
+	int size ();
+
+	default boolean isEmpty ()
+	{
+		return size () == 0;
+	}
+
+	void clear ();
+
+	/**
+	 * A live view of the stored entities, which supports removals, but not additions.
+	 */
+	Set<E> values ();
+
+	/**
+	 * The no. of entities that the index can host with the current allocation. Mainly useful for memory-related
+	 * reports.
+	 */
+	int getCapacity ();
+
+	/**
+	 * The approximate heap taken by this index, excluding the entities, see {@link HeapEstimates}.
+	 */
+	long estimateBytes ();
+}
@@ -0,0 +1,90 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+import net.sourceforge.ondex.core.ONDEXEntity;
+
+/**
+ * <p>A read-only set of ONDEX entities, which is a view over a slice of a sorted array of entity ids.</p>
+ *
+ * <p>This is what a {@link MemoryONDEXGraph#freeze() frozen graph} returns from its retrieve methods. It's lightweight,
+ * since it doesn't copy anything, and entities are fetched from the graph via the resolver function only when
+ * iterating. {@link #contains(Object)} is a binary search over the ids.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class IdArraySet<E extends ONDEXEntity> extends AbstractSet<E>
+{
+	private final int[] ids;
+	private final int from, to;
+	private final IntFunction<E> resolver;
+
+	/**
+	 * @param ids the ids, which must be sorted in the [from, to) interval.
+	 * @param resolver fetches an entity from its id, typically {@code graph::getConcept} or {@code graph::getRelation}.
+	 */
+	public IdArraySet ( int[] ids, int from, int to, IntFunction<E> resolver )
+	{
+		this.ids = ids;
+		this.from = from;
+		this.to = to;
+		this.resolver = resolver;
+	}
+
+	public IdArraySet ( int[] ids, IntFunction<E> resolver )
+	{
+		this ( ids, 0, ids.length, resolver );
+	}
+
+	@Override
+	public Iterator<E> iterator ()
+	{
+		return new Iterator<E> ()
+		{
+			private int i = from;
+
+			@Override
+			public boolean hasNext () {
+				return i < to;
+			}
+
+			@Override
+			public E next ()
+			{
+				if ( i >= to ) throw new NoSuchElementException ();
+				return resolver.apply ( ids [ i++ ] );
+			}
+		};
+	}
+
+	@Override
+	public int size ()
+	{
+		return to - from;
+	}
+
+	@Override
+	public boolean contains ( Object o )
+	{
+		if ( !( o instanceof ONDEXEntity ) ) return false;
+		int id = ( (ONDEXEntity) o ).getId ();
+		if ( Arrays.binarySearch ( ids, from, to, id ) < 0 ) return false;
+
+		// Checks it's the right type (ie, not a concept with the same id of a relation)
+		return o.equals ( resolver.apply ( id ) );
+	}
+
+	/**
+	 * A copy of the ids in this set, in ascending order.
+	 */
+	public int[] toIdArray ()
+	{
+		return Arrays.copyOfRange ( ids, from, to );
+	}
+}
@@ -1,12 +1,8 @@
 package net.sourceforge.ondex.core.memory;
 
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
 
-import org.apache.commons.collections15.BidiMap;
-import org.apache.commons.collections15.bidimap.DualHashBidiMap;
-
 import net.sourceforge.ondex.config.Config;
 import net.sourceforge.ondex.core.Attribute;
 import net.sourceforge.ondex.core.AttributeName;
@@ -40,7 +36,7 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 	private final Set<ConceptAccession> accessions;
 
 	// concept attributes associated with this concept
-	private final BidiMap<AttributeName, Attribute> attributes;
+	private final CompactAttributeSet attributes;
 
 	/**
 	 * parent graph
@@ -49,7 +45,7 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 
 	/**
 	 * Constructor which fills all fields of Concept and initialise empty
-	 * HashMap for possible concept names and concept accessions
+	 * compact sets for possible concept names and concept accessions
 	 * 
 	 * @param graph
 	 *            parent MemoryONDEXGraph
@@ -72,11 +68,13 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 			ConceptClass ofType) {
 		super(sid, id, pid, annotation, description, elementOf, ofType);
 		this.graph = graph;
+		setParentGraph(graph);
 
-		// initialise new concept specific data structures
-		names = new HashSet<ConceptName>();
-		accessions = new HashSet<ConceptAccession>();
-		attributes = new DualHashBidiMap<AttributeName, Attribute>();
+		// initialise new concept specific data structures, these are usually
+		// small, so they start as arrays and become hash-based when they grow
+		names = new CompactSet<ConceptName>();
+		accessions = new CompactSet<ConceptAccession>();
+		attributes = new CompactAttributeSet();
 	}
 
 	@Override
@@ -86,6 +84,9 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 
 	@Override
 	protected boolean dropEvidenceType(EvidenceType evidencetype) {
+		graph.checkNotFrozen();
+		// the indexes below must be up to date, see MemoryONDEXGraph.beginBulkLoad()
+		graph.indexPending();
 		// evidence types are held centrally by the graph
 		graph.conceptToEvidence.get(this).remove(evidencetype);
 		Set<ONDEXConcept> set = graph.evidenceTypeToConcepts.get(evidencetype);
@@ -98,6 +99,9 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 
 	@Override
 	protected boolean dropTag(ONDEXConcept concept) {
+		graph.checkNotFrozen();
+		// the indexes below must be up to date, see MemoryONDEXGraph.beginBulkLoad()
+		graph.indexPending();
 		return graph.conceptToTags.get(this).remove(concept)
 				&& graph.tagToConcepts.get(concept).remove(this);
 	}
@@ -105,6 +109,7 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 	@Override
 	protected boolean removeConceptAccession(String accession,
 			DataSource elementOf) {
+		graph.checkNotFrozen();
 
 		// using iterator to allow concurrent modification
 		for (Iterator<ConceptAccession> i = accessions.iterator(); i.hasNext();) {
@@ -126,16 +131,23 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 
 	@Override
 	protected boolean removeConceptAttribute(AttributeName attrname) {
+		graph.checkNotFrozen();
+		// the indexes below must be up to date, see MemoryONDEXGraph.beginBulkLoad()
+		graph.indexPending();
 		Set<ONDEXConcept> existingAttribute = graph.attributeNameToConcepts
 				.get(attrname);
 		if (existingAttribute != null) {
 			existingAttribute.remove(this);
 		}
+		NumericColumn column = graph.getColumn(attrname, true, false);
+		if (column != null)
+			return column.remove(getId());
 		return attributes.remove(attrname) != null;
 	}
 
 	@Override
 	protected boolean removeConceptName(String name) {
+		graph.checkNotFrozen();
 
 		// using iterator to allow concurrent modification
 		for (Iterator<ConceptName> i = names.iterator(); i.hasNext();) {
@@ -181,13 +193,28 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 	@Override
 	protected Attribute retrieveConceptAttribute(AttributeName attrname) {
 		// attributes index by their attribute name
+		NumericColumn column = graph.getColumn(attrname, true, false);
+		if (column != null)
+			return column.getAttribute(getId());
 		return attributes.get(attrname);
 	}
 
 	@Override
 	protected Set<Attribute> retrieveConceptAttributeAll() {
 		// will be wrapped as UnmodifiableSet in base
-		return attributes.values();
+		if (!graph.hasColumns())
+			return attributes;
+
+		// a copy with the attributes stored in the graph columns too
+		CompactAttributeSet result = new CompactAttributeSet();
+		for (Attribute attribute : attributes)
+			result.put(attribute);
+		for (NumericColumn column : graph.getColumns(true)) {
+			Attribute attribute = column.getAttribute(getId());
+			if (attribute != null)
+				result.put(attribute);
+		}
+		return result;
 	}
 
 	@Override
@@ -243,28 +270,33 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 	@Override
 	protected void saveEvidenceType(EvidenceType evidencetype) 
 	{
-		graph.evidenceTypeToConcepts
-		.computeIfAbsent ( evidencetype, ev -> new HashSet<> () )
-		.add ( this );
+		graph.checkNotFrozen();
+		if ( !graph.isIndexPending ( this ) )
+			graph.evidenceTypeToConcepts
+			.computeIfAbsent ( evidencetype, ev -> graph.newConceptIndexSet () )
+			.add ( this );
 		
 		graph.conceptToEvidence.get(this).add(evidencetype);
 	}
 
 	@Override
 	protected void saveTag(ONDEXConcept tag) {
+		graph.checkNotFrozen();
 		// associate this concept with tag
-		graph.tagToConcepts
-		.computeIfAbsent ( tag, tg -> new HashSet<> () )
-		.add ( this );
+		if ( !graph.isIndexPending ( this ) )
+			graph.tagToConcepts
+			.computeIfAbsent ( tag, tg -> graph.newConceptIndexSet () )
+			.add ( this );
 		
 		// associate tag with this concept
 		graph.conceptToTags
-		.computeIfAbsent ( this, c -> new HashSet<> () )
+		.computeIfAbsent ( this, c -> graph.newIndexSet () )
 		.add ( tag );		
 	}
 
 	@Override
 	protected ConceptAccession storeConceptAccession(ConceptAccession ca) {
+		graph.checkNotFrozen();
 
 		// add concept accession to local set
 		accessions.add(ca);
@@ -273,30 +305,46 @@ public class MemoryONDEXConcept extends AbstractConcept implements
 
 	@Override
 	protected Attribute storeConceptAttribute(Attribute attribute) {
+		graph.checkNotFrozen();
 
 		AttributeName an = attribute.getOfType();
 
-		// check if attribute already exists
-		Attribute existing = attributes.put(an, attribute);
+		// check if attribute already exists, numeric attributes might go to a graph column
+		NumericColumn column = graph.getColumn(an, true, true);
+		boolean isDuplicate = column == null
+				? attributes.put(attribute) != null
+				: column.set(getId(), (Number) attribute.getValue(), attribute.isDoIndex());
 
 		// complain about duplicates
-		if (existing != null) {
-			graph.fireEventOccurred(new DuplicatedEntryEvent(Config.properties
+		if (isDuplicate) {
+			graph.fireEventOccurred(DuplicatedEntryEvent.class, () -> new DuplicatedEntryEvent(Config.properties
 					.getProperty("memory.Concept.DuplicatedConceptAttribute")
-					+ attribute.getOfType().getId(),
+					+ an.getId(),
 					"[Concept - storeConceptAttribute]"));
 		}
 
 		// store it in central index
-		graph.attributeNameToConcepts
-		.computeIfAbsent ( an, _an -> new HashSet<> () )
-		.add ( this );
+		if ( !graph.isIndexPending ( this ) )
+			graph.attributeNameToConcepts
+			.computeIfAbsent ( an, _an -> graph.newConceptIndexSet () )
+			.add ( this );
 		
-		return attribute;
+		return column == null ? attribute : column.getAttribute(getId());
+	}
+
+	/**
+	 * Used by {@link MemoryONDEXGraph#setColumnarStorage(AttributeName)}, moves the attribute of the column type
+	 * from this entity to the column.
+	 */
+	void moveAttributeToColumn(NumericColumn column) {
+		Attribute attribute = attributes.remove(column.getAttributeName());
+		if (attribute != null)
+			column.set(getId(), (Number) attribute.getValue(), attribute.isDoIndex());
 	}
 
 	@Override
 	protected ConceptName storeConceptName(ConceptName cn) {
+		graph.checkNotFrozen();
 
 		// add concept name to local set
 		names.add(cn);
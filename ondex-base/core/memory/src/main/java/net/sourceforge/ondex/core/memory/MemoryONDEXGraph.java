@@ -1,30 +1,40 @@
 package net.sourceforge.ondex.core.memory;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.Set;
-
-import org.apache.commons.collections15.BidiMap;
-import org.apache.commons.collections15.bidimap.DualHashBidiMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import net.sourceforge.ondex.config.Config;
 import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeColumn;
 import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.BulkLoadSession;
 import net.sourceforge.ondex.core.ConceptClass;
 import net.sourceforge.ondex.core.DataSource;
 import net.sourceforge.ondex.core.EvidenceType;
 import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXEntity;
 import net.sourceforge.ondex.core.ONDEXRelation;
-import net.sourceforge.ondex.core.RelationKey;
 import net.sourceforge.ondex.core.RelationType;
 import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
-import net.sourceforge.ondex.core.base.RelationKeyImpl;
+import net.sourceforge.ondex.core.util.BitSetFunctions;
+import net.sourceforge.ondex.core.util.EntityBitmapSet;
+import net.sourceforge.ondex.core.util.GraphFootprint;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+import net.sourceforge.ondex.core.util.IdBitmap;
 import net.sourceforge.ondex.event.ONDEXEventHandler;
 import net.sourceforge.ondex.event.ONDEXListener;
 import net.sourceforge.ondex.event.type.DuplicatedEntryEvent;
 import net.sourceforge.ondex.event.type.EventType;
+import net.sourceforge.ondex.exception.type.NullValueException;
 
 /**
  * This class represents a pure memory based implementation of the abstract ONDEX graph. It uses standard JAVA
@@ -37,14 +47,26 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	// serial version id
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Set this system property to true to have all the new graphs storing their numeric attributes 
+	 * {@link #setColumnarStorage(AttributeName) in columns}.
+	 */
+	public static final String COLUMNAR_ATTRIBUTES_PROP = "ondex.graph.columnarAttributes";
+
+	/**
+	 * Set this system property to true to have the {@link #beginBulkLoad() bulk-loading sessions} deferring the
+	 * index build, see {@link #isIndexDeferralWorthwhile()}.
+	 */
+	public static final String DEFER_INDEXES_PROP = "ondex.graph.deferIndexes";
+
 	// contains all relations indexed by key
-	protected Map<RelationKey, ONDEXRelation> keyToRelation;
+	protected RelationKeyIndex keyToRelation;
 
 	// contains all relations indexed by id
-	protected BidiMap<Integer, ONDEXRelation> idToRelation;
+	protected EntityIdIndex<ONDEXRelation> idToRelation;
 
 	// contains all concepts indexed by id
-	protected BidiMap<Integer, ONDEXConcept> idToConcept;
+	protected EntityIdIndex<ONDEXConcept> idToConcept;
 
 	// mapping from cv to concepts
 	protected Map<DataSource, Set<ONDEXConcept>> dataSourceToConcepts;
@@ -94,6 +116,47 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	// all evidence of one relation
 	protected Map<ONDEXRelation, Set<EvidenceType>> relationToEvidence;
 
+	// the compact indexes that replace some of the maps above, after freeze()
+	private FrozenIndexes frozen = null;
+
+	// the no. of open bulk-loading sessions, see beginBulkLoad()
+	private transient int bulkLoadDepth = 0;
+
+	// the entities that aren't in the secondary indexes yet, null when no bulk-loading session is open. These are
+	// set and changed while holding the graph monitor, volatile allows for the lock-free check in indexPending()
+	private transient volatile IdBitmap pendingConcepts = null, pendingRelations = null;
+
+	// cached, since the events are fired on hot paths
+	private transient ONDEXEventHandler eventHandler = null;
+
+	// the numeric attributes stored in columns, null until the first one, see setColumnarStorage()
+	private Map<AttributeName, NumericColumn> conceptColumns = null, relationColumns = null;
+
+	// see COLUMNAR_ATTRIBUTES_PROP
+	private final boolean isAutoColumnar = Boolean.getBoolean ( COLUMNAR_ATTRIBUTES_PROP );
+
+	/**
+	 * The indexes built by {@link MemoryONDEXGraph#freeze()}.
+	 */
+	private static class FrozenIndexes implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		CsrIndex conceptToRelations;
+		CsrIndex dataSourceToConcepts;
+		CsrIndex conceptClassToConcepts;
+		CsrIndex attributeNameToConcepts;
+		CsrIndex evidenceTypeToConcepts;
+		CsrIndex dataSourceToRelations;
+		CsrIndex conceptClassToRelations;
+		CsrIndex relationTypeToRelations;
+		CsrIndex attributeNameToRelations;
+		CsrIndex evidenceTypeToRelations;
+		CsrIndex tagToConcepts;
+		CsrIndex tagToRelations;
+		int[] tagIds;
+	}
+
 	/**
 	 * Constructor which sets the name of the graph to the given name.
 	 * 
@@ -115,7 +178,15 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	 */
 	public MemoryONDEXGraph ( String name, ONDEXListener l )
 	{
-		super ( name, new MemoryONDEXGraphMetaData () );
+		this ( name, l, new MemoryONDEXGraphMetaData () );
+	}
+
+	/**
+	 * Allows extensions to use their own metadata implementation.
+	 */
+	protected MemoryONDEXGraph ( String name, ONDEXListener l, MemoryONDEXGraphMetaData metaData )
+	{
+		super ( name, metaData );
 		if ( l != null )
 			ONDEXEventHandler.getEventHandlerForSID ( getSID () ).addONDEXONDEXListener ( l );
 		
@@ -125,34 +196,536 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	/**
 	 * Having it here eases extensions, eg, allows for using 
 	 * collections other than the Java defaults. 
+	 * 
+	 * The id indexes are {@link EntityIdIndex}, which don't need boxed keys nor a 
+	 * reverse map, since the entity =&gt; id direction is given by the entities.
 	 */
 	protected void initInternalData ()
 	{
-		this.keyToRelation = new HashMap<>(); 
-		this.idToRelation = new DualHashBidiMap<> ( new HashMap<>() );
-		this.idToConcept = new DualHashBidiMap<> ( new HashMap<>() );
-		this.dataSourceToConcepts = new HashMap<>();
-		this.conceptClassToConcepts = new HashMap<> ();
-		this.attributeNameToConcepts = new HashMap<> ();
-		this.evidenceTypeToConcepts = new HashMap<> ();
-		this.conceptToRelations = new HashMap<> ();
-		this.dataSourceToRelations = new HashMap<> ();
-		this.conceptClassToRelations = new HashMap<> ();
-		this.relationTypeToRelations = new HashMap<> ();
-		this.attributeNameToRelations = new HashMap<> ();
-		this.evidenceTypeToRelations = new HashMap<> ();
-		this.tagToConcepts = new HashMap<> ();
-		this.tagToRelations = new HashMap<> ();
-		this.conceptToTags = new HashMap<> ();
-		this.relationToTags = new HashMap<> ();
-		this.conceptToEvidence = new HashMap<> ();
-		this.relationToEvidence = new HashMap<> ();
+		this.keyToRelation = newRelationKeyIndex ();
+		this.idToRelation = newEntityIdIndex ();
+		this.idToConcept = newEntityIdIndex ();
+		this.dataSourceToConcepts = newIndexMap ();
+		this.conceptClassToConcepts = newIndexMap ();
+		this.attributeNameToConcepts = newIndexMap ();
+		this.evidenceTypeToConcepts = newIndexMap ();
+		this.conceptToRelations = newIndexMap ();
+		this.dataSourceToRelations = newIndexMap ();
+		this.conceptClassToRelations = newIndexMap ();
+		this.relationTypeToRelations = newIndexMap ();
+		this.attributeNameToRelations = newIndexMap ();
+		this.evidenceTypeToRelations = newIndexMap ();
+		this.tagToConcepts = newIndexMap ();
+		this.tagToRelations = newIndexMap ();
+		this.conceptToTags = newIndexMap ();
+		this.relationToTags = newIndexMap ();
+		this.conceptToEvidence = newIndexMap ();
+		this.relationToEvidence = newIndexMap ();
+	}
+	
+	/**
+	 * Used by {@link #initInternalData()} for all the indexes based on maps, {@link HashMap} by default.
+	 */
+	protected <K, V> Map<K, V> newIndexMap ()
+	{
+		return new HashMap<> ();
+	}
+
+	/**
+	 * Used for the values of the set-based indexes that aren't covered by {@link #newConceptIndexSet()} or
+	 * {@link #newRelationIndexSet()}, eg, concept =&gt; relations, including those updated by the graph entities.
+	 * {@link HashSet} by default.
+	 */
+	protected <E> Set<E> newIndexSet ()
+	{
+		return new HashSet<> ();
+	}
+	
+	/**
+	 * Used for the values of the indexes from metadata or tags to concepts, eg, concept class =&gt; concepts,
+	 * tag =&gt; concepts. By default, this is an {@link EntityBitmapSet}, which is compact and makes
+	 * {@link BitSetFunctions#and(Set, Set)} and alike much faster on the sets returned by the graph.
+	 */
+	protected Set<ONDEXConcept> newConceptIndexSet ()
+	{
+		return new EntityBitmapSet<> ( ONDEXConcept.class, getSID (), this::retrieveConcept );
+	}
+
+	/**
+	 * Like {@link #newConceptIndexSet()}, for the indexes to relations, eg, relation type =&gt; relations.
+	 */
+	protected Set<ONDEXRelation> newRelationIndexSet ()
+	{
+		return new EntityBitmapSet<> ( ONDEXRelation.class, getSID (), this::retrieveRelation );
+	}
+
+	/**
+	 * Used by {@link #initInternalData()} for the relation key =&gt; relation index.
+	 */
+	protected RelationKeyIndex newRelationKeyIndex ()
+	{
+		return new RelationKeyIndex ();
+	}
+
+	/**
+	 * Used by {@link #initInternalData()} for the id =&gt; concept and id =&gt; relation indexes. By default, 
+	 * this is an {@link ArrayEntityIdIndex}.
+	 */
+	protected <E extends ONDEXEntity> EntityIdIndex<E> newEntityIdIndex ()
+	{
+		return new ArrayEntityIdIndex<> ();
 	}
 	
+	/**
+	 * <p>Compacts a finished graph into a read-only one.</p>
+	 * 
+	 * <p>The concept =&gt; relations adjacency, the metadata indexes (eg, concept class =&gt; concepts, 
+	 * relation type =&gt; relations) and the tag indexes are converted into {@link CsrIndex compressed-sparse-row}
+	 * int arrays, and the corresponding hash-based maps are released. After this, the retrieve methods 
+	 * (eg, {@link #getRelationsOfConcept(ONDEXConcept)}, {@link #getRelationsOfRelationType(RelationType)}) return 
+	 * lightweight {@link IdArraySet views} over such arrays.</p>
+	 * 
+	 * <p>This is useful for graphs that are only read after having been built (eg, for traversals, exports, 
+	 * indexing), since it saves a lot of memory and speeds up the traversals. A frozen graph is 
+	 * {@link #isReadOnly() read-only} and all the write operations fail with {@link UnsupportedOperationException}, 
+	 * there is no way to unfreeze it (but you can clone it). Since a frozen graph is immutable, it's safe to read it 
+	 * from multiple threads.</p>
+	 * 
+	 * <p>Calling this more than once has no effect.</p>
+	 */
+	public synchronized void freeze ()
+	{
+		if ( this.frozen != null ) return;
+		indexPending ();
+		
+		FrozenIndexes fz = new FrozenIndexes ();
+		fz.conceptToRelations = CsrIndex.ofEntityKeys ( conceptToRelations );
+		fz.dataSourceToConcepts = CsrIndex.ofKeys ( dataSourceToConcepts );
+		fz.conceptClassToConcepts = CsrIndex.ofKeys ( conceptClassToConcepts );
+		fz.attributeNameToConcepts = CsrIndex.ofKeys ( attributeNameToConcepts );
+		fz.evidenceTypeToConcepts = CsrIndex.ofKeys ( evidenceTypeToConcepts );
+		fz.dataSourceToRelations = CsrIndex.ofKeys ( dataSourceToRelations );
+		fz.conceptClassToRelations = CsrIndex.ofKeys ( conceptClassToRelations );
+		fz.relationTypeToRelations = CsrIndex.ofKeys ( relationTypeToRelations );
+		fz.attributeNameToRelations = CsrIndex.ofKeys ( attributeNameToRelations );
+		fz.evidenceTypeToRelations = CsrIndex.ofKeys ( evidenceTypeToRelations );
+		fz.tagToConcepts = CsrIndex.ofEntityKeys ( tagToConcepts );
+		fz.tagToRelations = CsrIndex.ofEntityKeys ( tagToRelations );
+		fz.tagIds = retrieveTags ().stream ().mapToInt ( ONDEXConcept::getId ).sorted ().toArray ();
+		
+		this.frozen = fz;
+		this.readOnly = true;
+		
+		// Release what was replaced
+		this.conceptToRelations = null;
+		this.dataSourceToConcepts = null;
+		this.conceptClassToConcepts = null;
+		this.attributeNameToConcepts = null;
+		this.evidenceTypeToConcepts = null;
+		this.dataSourceToRelations = null;
+		this.conceptClassToRelations = null;
+		this.relationTypeToRelations = null;
+		this.attributeNameToRelations = null;
+		this.evidenceTypeToRelations = null;
+		this.tagToConcepts = null;
+		this.tagToRelations = null;
+	}
+	
+	/**
+	 * @see #freeze()
+	 */
+	public boolean isFrozen ()
+	{
+		return this.frozen != null;
+	}
+
+	/**
+	 * <p>Stores the values of a numeric attribute in primitive columns indexed by entity id (one for concepts, one
+	 * for relations), rather than in {@link Attribute} objects held by each entity. This saves most of the memory
+	 * taken by the attribute, and allows for fast processing of its values, via
+	 * {@link #getConceptAttributeColumn(AttributeName)} and {@link #getRelationAttributeColumn(AttributeName)}.</p>
+	 *
+	 * <p>The attributes are still available as usually, eg, via {@link ONDEXConcept#getAttribute(AttributeName)}, but
+	 * they are lightweight views that are created when requested. The existing values of the attribute are moved to
+	 * the columns.</p>
+	 *
+	 * <p>This is supported for the attribute names having type {@link Double}, {@link Float}, {@link Long},
+	 * {@link Integer}, {@link Short} or {@link Byte}. If {@link #COLUMNAR_ATTRIBUTES_PROP} is set, this is
+	 * done automatically for all such attribute names. Calling this more than once has no effect.</p>
+	 *
+	 * @throws IllegalArgumentException if the attribute name hasn't one of the types above.
+	 * @throws UnsupportedOperationException if the graph is {@link #freeze() frozen} or it doesn't
+	 * {@link #isColumnarStorageSupported() support} columns.
+	 */
+	public synchronized void setColumnarStorage ( AttributeName attributeName )
+	{
+		checkNotFrozen ();
+		if ( !isColumnarStorageSupported () ) throw new UnsupportedOperationException (
+			"The ONDEX graph \"" + getName () + "\" doesn't support columnar storage of attributes"
+		);
+		if ( conceptColumns != null && conceptColumns.containsKey ( attributeName ) ) return;
+
+		NumericColumn conceptColumn = new NumericColumn ( sid, attributeName, ONDEXConcept.class );
+		NumericColumn relationColumn = new NumericColumn ( sid, attributeName, ONDEXRelation.class );
+
+		// The attribute name index must be up to date, to find the existing values 
+		indexPending ();
+		Set<ONDEXConcept> concepts = attributeNameToConcepts.get ( attributeName );
+		if ( concepts != null )
+			for ( ONDEXConcept c: concepts ) ( (MemoryONDEXConcept) c ).moveAttributeToColumn ( conceptColumn );
+		Set<ONDEXRelation> relations = attributeNameToRelations.get ( attributeName );
+		if ( relations != null )
+			for ( ONDEXRelation r: relations ) ( (MemoryONDEXRelation) r ).moveAttributeToColumn ( relationColumn );
+
+		if ( conceptColumns == null )
+		{
+			conceptColumns = new HashMap<> ();
+			relationColumns = new HashMap<> ();
+		}
+		conceptColumns.put ( attributeName, conceptColumn );
+		relationColumns.put ( attributeName, relationColumn );
+	}
+
+	/**
+	 * @see #setColumnarStorage(AttributeName)
+	 */
+	public boolean isColumnarStorage ( AttributeName attributeName )
+	{
+		return conceptColumns != null && conceptColumns.containsKey ( attributeName );
+	}
+
+	/**
+	 * Used by {@link #setColumnarStorage(AttributeName)}, the default returns true. 
+	 */
+	protected boolean isColumnarStorageSupported ()
+	{
+		return true;
+	}
+
+	@Override
+	public AttributeColumn getConceptAttributeColumn ( AttributeName attributeName )
+	{
+		return conceptColumns == null ? null : conceptColumns.get ( attributeName );
+	}
+
+	@Override
+	public AttributeColumn getRelationAttributeColumn ( AttributeName attributeName )
+	{
+		return relationColumns == null ? null : relationColumns.get ( attributeName );
+	}
+
+	/**
+	 * Used by the entities. If create is set and {@link #COLUMNAR_ATTRIBUTES_PROP} is on, creates the columns for 
+	 * a new numeric attribute name. 
+	 */
+	NumericColumn getColumn ( AttributeName attributeName, boolean isConcept, boolean create )
+	{
+		if ( create && isAutoColumnar && !isColumnarStorage ( attributeName ) 
+				 && isColumnarStorageSupported () && NumericColumn.Kind.of ( attributeName.getDataType () ) != null )
+			setColumnarStorage ( attributeName );
+
+		Map<AttributeName, NumericColumn> columns = isConcept ? conceptColumns : relationColumns;
+		return columns == null ? null : columns.get ( attributeName );
+	}
+
+	/**
+	 * Used by the entities, true if there is some attribute stored in columns.
+	 */
+	boolean hasColumns ()
+	{
+		return conceptColumns != null;
+	}
+
+	/**
+	 * All the columns, used by the entities to collect their attributes.
+	 */
+	Collection<NumericColumn> getColumns ( boolean isConcept )
+	{
+		return ( isConcept ? conceptColumns : relationColumns ).values ();
+	}
+
+	private static void removeFromColumns ( Map<AttributeName, NumericColumn> columns, int id )
+	{
+		if ( columns == null ) return;
+		for ( NumericColumn column: columns.values () ) column.remove ( id );
+	}
+
+	/**
+	 * Column attributes are views, their values are reported with the columns, by 
+	 * {@link #addIndexFootprints(GraphFootprint)}.
+	 */
+	@Override
+	protected long estimateBytes ( Attribute attribute )
+	{
+		if ( attribute instanceof ColumnAttribute ) return 0;
+		return super.estimateBytes ( attribute );
+	}
+
+	/**
+	 * Reports all the internal indexes, including the {@link #freeze() frozen} ones. Set-based indexes are
+	 * estimated from their set types and sizes, without visiting the elements.
+	 */
+	@Override
+	protected synchronized void addIndexFootprints ( GraphFootprint footprint )
+	{
+		footprint.addIndex ( "idToConcept", idToConcept.size (), idToConcept.estimateBytes () );
+		footprint.addIndex ( "idToRelation", idToRelation.size (), idToRelation.estimateBytes () );
+		footprint.addIndex (
+			"keyToRelation", keyToRelation.size (), keyToRelation.estimateBytes ()
+		);
+
+		if ( frozen != null )
+		{
+			addCsrIndex ( footprint, "conceptToRelations", frozen.conceptToRelations );
+			addCsrIndex ( footprint, "dataSourceToConcepts", frozen.dataSourceToConcepts );
+			addCsrIndex ( footprint, "conceptClassToConcepts", frozen.conceptClassToConcepts );
+			addCsrIndex ( footprint, "attributeNameToConcepts", frozen.attributeNameToConcepts );
+			addCsrIndex ( footprint, "evidenceTypeToConcepts", frozen.evidenceTypeToConcepts );
+			addCsrIndex ( footprint, "dataSourceToRelations", frozen.dataSourceToRelations );
+			addCsrIndex ( footprint, "conceptClassToRelations", frozen.conceptClassToRelations );
+			addCsrIndex ( footprint, "relationTypeToRelations", frozen.relationTypeToRelations );
+			addCsrIndex ( footprint, "attributeNameToRelations", frozen.attributeNameToRelations );
+			addCsrIndex ( footprint, "evidenceTypeToRelations", frozen.evidenceTypeToRelations );
+			addCsrIndex ( footprint, "tagToConcepts", frozen.tagToConcepts );
+			addCsrIndex ( footprint, "tagToRelations", frozen.tagToRelations );
+		}
+		else
+		{
+			addSetIndex ( footprint, "conceptToRelations", conceptToRelations );
+			addSetIndex ( footprint, "dataSourceToConcepts", dataSourceToConcepts );
+			addSetIndex ( footprint, "conceptClassToConcepts", conceptClassToConcepts );
+			addSetIndex ( footprint, "attributeNameToConcepts", attributeNameToConcepts );
+			addSetIndex ( footprint, "evidenceTypeToConcepts", evidenceTypeToConcepts );
+			addSetIndex ( footprint, "dataSourceToRelations", dataSourceToRelations );
+			addSetIndex ( footprint, "conceptClassToRelations", conceptClassToRelations );
+			addSetIndex ( footprint, "relationTypeToRelations", relationTypeToRelations );
+			addSetIndex ( footprint, "attributeNameToRelations", attributeNameToRelations );
+			addSetIndex ( footprint, "evidenceTypeToRelations", evidenceTypeToRelations );
+			addSetIndex ( footprint, "tagToConcepts", tagToConcepts );
+			addSetIndex ( footprint, "tagToRelations", tagToRelations );
+		}
+
+		addSetIndex ( footprint, "conceptToTags", conceptToTags );
+		addSetIndex ( footprint, "relationToTags", relationToTags );
+		addSetIndex ( footprint, "conceptToEvidence", conceptToEvidence );
+		addSetIndex ( footprint, "relationToEvidence", relationToEvidence );
+
+		if ( conceptColumns == null ) return;
+		for ( NumericColumn column: conceptColumns.values () )
+			footprint.addIndex ( "conceptColumn:" + column.getAttributeName ().getId (), column.size (), column.estimateBytes () );
+		for ( NumericColumn column: relationColumns.values () )
+			footprint.addIndex ( "relationColumn:" + column.getAttributeName ().getId (), column.size (), column.estimateBytes () );
+	}
+
+	private static void addSetIndex ( GraphFootprint footprint, String name, Map<?, ? extends Set<?>> index )
+	{
+		long entries = 0;
+		long bytes = HeapEstimates.ofHashMap ( index.size () );
+		for ( Set<?> set: index.values () )
+		{
+			int size = set.size ();
+			entries += size;
+			bytes += set instanceof EntityBitmapSet
+				? ( (EntityBitmapSet<?>) set ).estimateBytes ()
+				: HeapEstimates.ofHashSet ( size );
+		}
+		footprint.addIndex ( name, entries, bytes );
+	}
+
+	private static void addCsrIndex ( GraphFootprint footprint, String name, CsrIndex index )
+	{
+		footprint.addIndex ( name, index.size (), index.estimateBytes () );
+	}
+	
+	/**
+	 * Used by the write operations, including those in the graph entities. 
+	 * 
+	 * @throws UnsupportedOperationException if the graph is {@link #freeze() frozen}.
+	 */
+	protected void checkNotFrozen () throws UnsupportedOperationException
+	{
+		if ( this.frozen != null ) throw new UnsupportedOperationException ( 
+			"Can't change the frozen ONDEX graph \"" + getName () + "\""
+		);
+	}
+
+	/**
+	 * <p>During a bulk-loading session, new concepts and relations are only added to the id indexes, the relation
+	 * keys and the per-entity maps (evidence, tags), while the secondary indexes (data source, concept class,
+	 * relation type, attribute name, evidence type, tag =&gt; entities and concept =&gt; relations) are built by
+	 * {@link #indexPending()}, when the session is closed. Each index is built by a separate task, in parallel.</p>
+	 *
+	 * <p>If a secondary index is queried while the session is open, the pending entities are indexed first, so
+	 * the graph is always consistent.</p>
+	 *
+	 * <p>The deferral only happens if {@link #isIndexDeferralWorthwhile()}, else the session has no effect.</p>
+	 */
+	@Override
+	public synchronized BulkLoadSession beginBulkLoad ()
+	{
+		checkNotFrozen ();
+		if ( bulkLoadDepth++ == 0 && isIndexDeferralWorthwhile () )
+		{
+			pendingConcepts = new IdBitmap ();
+			pendingRelations = new IdBitmap ();
+		}
+
+		return new BulkLoadSession ()
+		{
+			private boolean isClosed = false;
+
+			@Override
+			public void close ()
+			{
+				synchronized ( MemoryONDEXGraph.this )
+				{
+					if ( isClosed ) return;
+					isClosed = true;
+					if ( --bulkLoadDepth > 0 ) return;
+
+					indexPending ();
+					pendingConcepts = pendingRelations = null;
+				}
+			}
+		};
+	}
+
+	@Override
+	public boolean isBulkLoading ()
+	{
+		return bulkLoadDepth > 0;
+	}
+
+	/**
+	 * <p>Used by {@link #beginBulkLoad()}. The default is false, unless the {@link #DEFER_INDEXES_PROP} system
+	 * property is true.</p>
+	 *
+	 * <p>Building the indexes in a separate pass means reading all the new entities again, when they're no longer
+	 * in the CPU caches, so this can pay off only if the indexes are built in parallel. On a single CPU, loading
+	 * 1M concepts with the deferral was slower (2.5s vs 1.8s) and it hasn't been measured on multiple CPUs yet, so
+	 * it's disabled until a benefit is shown.</p>
+	 */
+	protected boolean isIndexDeferralWorthwhile ()
+	{
+		return Boolean.getBoolean ( DEFER_INDEXES_PROP );
+	}
+
+	/**
+	 * True if the concept was created during a {@link #beginBulkLoad() bulk-loading session} and it isn't in the
+	 * secondary indexes yet. This is used by the entities, to skip the index updates.
+	 */
+	protected boolean isIndexPending ( ONDEXConcept concept )
+	{
+		IdBitmap pending = pendingConcepts;
+		return pending != null && pending.contains ( concept.getId () );
+	}
+
+	/**
+	 * @see #isIndexPending(ONDEXConcept)
+	 */
+	protected boolean isIndexPending ( ONDEXRelation relation )
+	{
+		IdBitmap pending = pendingRelations;
+		return pending != null && pending.contains ( relation.getId () );
+	}
+
+	/**
+	 * <p>Adds the entities created during a {@link #beginBulkLoad() bulk-loading session} to the secondary indexes.
+	 * Does nothing if there isn't any pending entity.</p>
+	 *
+	 * <p>This is called by the read methods too, so it's synchronised on the same monitor as
+	 * {@link #beginBulkLoad()} and the session closing, which replace the pending sets. Outside of a session, it
+	 * returns without locking.</p>
+	 */
+	protected void indexPending ()
+	{
+		if ( pendingConcepts == null ) return;
+		synchronized ( this )
+		{
+			indexPendingLocked ();
+		}
+	}
+
+	private void indexPendingLocked ()
+	{
+		IdBitmap pendingConcepts = this.pendingConcepts, pendingRelations = this.pendingRelations;
+		if ( pendingConcepts == null || pendingConcepts.isEmpty () && pendingRelations.isEmpty () ) return;
+
+		List<ONDEXConcept> concepts = new ArrayList<> ( pendingConcepts.cardinality () );
+		for ( PrimitiveIterator.OfInt itr = pendingConcepts.iterator (); itr.hasNext (); )
+			concepts.add ( idToConcept.get ( itr.nextInt () ) );
+
+		List<ONDEXRelation> relations = new ArrayList<> ( pendingRelations.cardinality () );
+		for ( PrimitiveIterator.OfInt itr = pendingRelations.iterator (); itr.hasNext (); )
+			relations.add ( idToRelation.get ( itr.nextInt () ) );
+
+		// One indexer per index map, the entities and their evidence/tag maps are only read
+		List<Consumer<ONDEXConcept>> conceptIndexers = List.of (
+			c -> dataSourceToConcepts.computeIfAbsent ( c.getElementOf (), _ds -> newConceptIndexSet () ).add ( c ),
+			c -> conceptClassToConcepts.computeIfAbsent ( c.getOfType (), _cc -> newConceptIndexSet () ).add ( c ),
+			c -> {
+				for ( Attribute attribute: c.getAttributes () )
+					attributeNameToConcepts.computeIfAbsent ( attribute.getOfType (), _an -> newConceptIndexSet () ).add ( c );
+			},
+			c -> {
+				for ( EvidenceType et: conceptToEvidence.get ( c ) )
+					evidenceTypeToConcepts.computeIfAbsent ( et, _et -> newConceptIndexSet () ).add ( c );
+			},
+			c -> {
+				Set<ONDEXConcept> tags = conceptToTags.get ( c );
+				if ( tags == null ) return;
+				for ( ONDEXConcept tag: tags )
+					tagToConcepts.computeIfAbsent ( tag, _t -> newConceptIndexSet () ).add ( c );
+			}
+		);
+
+		List<Consumer<ONDEXRelation>> relationIndexers = List.of (
+			r -> relationTypeToRelations.computeIfAbsent ( r.getOfType (), _rt -> newRelationIndexSet () ).add ( r ),
+			r -> {
+				conceptToRelations.computeIfAbsent ( r.getFromConcept (), _c -> newIndexSet () ).add ( r );
+				conceptToRelations.computeIfAbsent ( r.getToConcept (), _c -> newIndexSet () ).add ( r );
+			},
+			r -> {
+				dataSourceToRelations.computeIfAbsent ( r.getFromConcept ().getElementOf (), _ds -> newRelationIndexSet () ).add ( r );
+				dataSourceToRelations.computeIfAbsent ( r.getToConcept ().getElementOf (), _ds -> newRelationIndexSet () ).add ( r );
+			},
+			r -> {
+				conceptClassToRelations.computeIfAbsent ( r.getFromConcept ().getOfType (), _cc -> newRelationIndexSet () ).add ( r );
+				conceptClassToRelations.computeIfAbsent ( r.getToConcept ().getOfType (), _cc -> newRelationIndexSet () ).add ( r );
+			},
+			r -> {
+				for ( Attribute attribute: r.getAttributes () )
+					attributeNameToRelations.computeIfAbsent ( attribute.getOfType (), _an -> newRelationIndexSet () ).add ( r );
+			},
+			r -> {
+				for ( EvidenceType et: relationToEvidence.get ( r ) )
+					evidenceTypeToRelations.computeIfAbsent ( et, _et -> newRelationIndexSet () ).add ( r );
+			},
+			r -> {
+				Set<ONDEXConcept> tags = relationToTags.get ( r );
+				if ( tags == null ) return;
+				for ( ONDEXConcept tag: tags )
+					tagToRelations.computeIfAbsent ( tag, _t -> newRelationIndexSet () ).add ( r );
+			}
+		);
+
+		// One task per index, so that no map is written by multiple threads
+		List<Runnable> tasks = new ArrayList<> ();
+		conceptIndexers.forEach ( ix -> tasks.add ( () -> concepts.forEach ( ix ) ) );
+		relationIndexers.forEach ( ix -> tasks.add ( () -> relations.forEach ( ix ) ) );
+		tasks.parallelStream ().forEach ( Runnable::run );
+
+		pendingConcepts.clear ();
+		pendingRelations.clear ();
+	}
+
 	
 	@Override
 	protected ONDEXConcept removeConcept ( int id )
 	{
+		checkNotFrozen ();
+		indexPending ();
+		
 		ONDEXConcept c = idToConcept.remove ( id );
 		assert c.getId () == id : "Concept appears to be registered under the wrong id";
 
@@ -180,6 +753,7 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 		tagToConcepts.remove ( c );
 		conceptToTags.remove ( c );
 		conceptToEvidence.remove ( c );
+		removeFromColumns ( conceptColumns, id );
 
 		return c;
 	}
@@ -187,6 +761,9 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	@Override
 	protected boolean removeRelation ( int id )
 	{
+		checkNotFrozen ();
+		indexPending ();
+		
 		ONDEXRelation r = idToRelation.get ( id );
 		if ( r != null )
 		{
@@ -205,8 +782,10 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	@Override
 	protected boolean removeRelation ( ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType )
 	{
-		RelationKey id = new RelationKeyImpl ( sid, fromConcept.getId (), toConcept.getId (), ofType.getId () );
-		ONDEXRelation r = keyToRelation.remove ( id );
+		checkNotFrozen ();
+		indexPending ();
+		
+		ONDEXRelation r = keyToRelation.remove ( fromConcept.getId (), toConcept.getId (), ofType.getId () );
 		if ( r != null )
 		{
 
@@ -244,6 +823,7 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 			}
 			relationToTags.remove ( r );
 			relationToEvidence.remove ( r );
+			removeFromColumns ( relationColumns, r.getId () );
 
 			return true;
 		} else
@@ -267,30 +847,40 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	@Override
 	protected Set<ONDEXConcept> retrieveConceptAllAttributeName ( AttributeName attributeName )
 	{
+		if ( frozen != null ) return frozen.attributeNameToConcepts.get ( attributeName, this::retrieveConcept );
+		indexPending ();
 		return attributeNameToConcepts.get ( attributeName );
 	}
 
 	@Override
 	protected Set<ONDEXConcept> retrieveConceptAllConceptClass ( ConceptClass conceptClass )
 	{
+		if ( frozen != null ) return frozen.conceptClassToConcepts.get ( conceptClass, this::retrieveConcept );
+		indexPending ();
 		return conceptClassToConcepts.get ( conceptClass );
 	}
 
 	@Override
 	protected Set<ONDEXConcept> retrieveConceptAllDataSource ( DataSource dataSource )
 	{
+		if ( frozen != null ) return frozen.dataSourceToConcepts.get ( dataSource, this::retrieveConcept );
+		indexPending ();
 		return dataSourceToConcepts.get ( dataSource );
 	}
 
 	@Override
 	protected Set<ONDEXConcept> retrieveConceptAllEvidenceType ( EvidenceType evidenceType )
 	{
+		if ( frozen != null ) return frozen.evidenceTypeToConcepts.get ( evidenceType, this::retrieveConcept );
+		indexPending ();
 		return evidenceTypeToConcepts.get ( evidenceType );
 	}
 
 	@Override
 	protected Set<ONDEXConcept> retrieveConceptAllTag ( ONDEXConcept concept )
 	{
+		if ( frozen != null ) return frozen.tagToConcepts.get ( concept, this::retrieveConcept );
+		indexPending ();
 		return tagToConcepts.get ( concept );
 	}
 
@@ -303,8 +893,19 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	@Override
 	protected ONDEXRelation retrieveRelation ( ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType )
 	{
-		RelationKey key = new RelationKeyImpl ( sid, fromConcept.getId (), toConcept.getId (), ofType.getId () );
-		return keyToRelation.get ( key );
+		return keyToRelation.get ( fromConcept.getId (), toConcept.getId (), ofType.getId () );
+	}
+
+	/**
+	 * Looks up {@link #keyToRelation} directly, without any allocation or fetching of the concepts.
+	 */
+	@Override
+	public ONDEXRelation getRelation ( int fromId, int toId, RelationType ofType ) throws NullValueException
+	{
+		if ( ofType == null ) throw new NullValueException (
+			Config.properties.getProperty ( "AbstractONDEXGraph.AbstractRelationOfTypeNull" )
+		);
+		return keyToRelation.get ( fromId, toId, ofType.getId () );
 	}
 
 	@Override
@@ -316,48 +917,65 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	@Override
 	protected Set<ONDEXRelation> retrieveRelationAllAttributeName ( AttributeName attributeName )
 	{
+		if ( frozen != null ) return frozen.attributeNameToRelations.get ( attributeName, this::retrieveRelation );
+		indexPending ();
 		return attributeNameToRelations.get ( attributeName );
 	}
 
 	@Override
 	protected Set<ONDEXRelation> retrieveRelationAllConcept ( ONDEXConcept concept )
 	{
+		if ( frozen != null ) return frozen.conceptToRelations.get ( concept, this::retrieveRelation );
+		indexPending ();
 		return conceptToRelations.get ( concept );
 	}
 
 	@Override
 	protected Set<ONDEXRelation> retrieveRelationAllConceptClass ( ConceptClass conceptClass )
 	{
+		if ( frozen != null ) return frozen.conceptClassToRelations.get ( conceptClass, this::retrieveRelation );
+		indexPending ();
 		return conceptClassToRelations.get ( conceptClass );
 	}
 
 	@Override
 	protected Set<ONDEXRelation> retrieveRelationAllDataSource ( DataSource dataSource )
 	{
+		if ( frozen != null ) return frozen.dataSourceToRelations.get ( dataSource, this::retrieveRelation );
+		indexPending ();
 		return dataSourceToRelations.get ( dataSource );
 	}
 
 	@Override
 	protected Set<ONDEXRelation> retrieveRelationAllEvidenceType ( EvidenceType evidenceType )
 	{
+		if ( frozen != null ) return frozen.evidenceTypeToRelations.get ( evidenceType, this::retrieveRelation );
+		indexPending ();
 		return evidenceTypeToRelations.get ( evidenceType );
 	}
 
 	@Override
 	protected Set<ONDEXRelation> retrieveRelationAllRelationType ( RelationType relationType )
 	{
+		if ( frozen != null ) return frozen.relationTypeToRelations.get ( relationType, this::retrieveRelation );
+		indexPending ();
 		return relationTypeToRelations.get ( relationType );
 	}
 
 	@Override
 	protected Set<ONDEXRelation> retrieveRelationAllTag ( ONDEXConcept concept )
 	{
+		if ( frozen != null ) return frozen.tagToRelations.get ( concept, this::retrieveRelation );
+		indexPending ();
 		return tagToRelations.get ( concept );
 	}
 
 	@Override
 	protected Set<ONDEXConcept> retrieveTags ()
 	{
+		if ( frozen != null ) return new IdArraySet<> ( frozen.tagIds, this::retrieveConcept );
+		indexPending ();
+		
 		// create union of concepts used as tags
 		// TODO: Should we abstract from HashSet?
 		Set<ONDEXConcept> allTags = new HashSet<> ( tagToConcepts.keySet () );
@@ -380,12 +998,13 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	protected ONDEXConcept storeConcept ( long sid, int id, String pid, String annotation, String description,
 			DataSource elementOf, ConceptClass ofType, Collection<EvidenceType> evidence )
 	{
+		checkNotFrozen ();
 
 		// check for existing concepts
 		ONDEXConcept existingConcept = idToConcept.get ( id );
 		if ( existingConcept != null )
 		{
-			fireEventOccurred ( new DuplicatedEntryEvent (
+			fireEventOccurred ( DuplicatedEntryEvent.class, () -> new DuplicatedEntryEvent (
 					Config.properties.getProperty ( "memory.ONDEXGraph.DuplicatedConcept" ) + id + " pid= " + pid,
 					"[MemoryONDEXGraph - storeConcept]" ) );
 
@@ -398,23 +1017,27 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 			// create a new concept
 			ONDEXConcept c = newConcept ( sid, id, pid, annotation, description, elementOf, ofType );
 
+			// during bulk loading, the secondary indexes are built later, see indexPending()
+			boolean isPending = pendingConcepts != null && pendingConcepts.add ( id );
+
 			// add all evidence to concept
-			conceptToEvidence.computeIfAbsent ( c, _c -> new HashSet<> () );
+			conceptToEvidence.computeIfAbsent ( c, _c -> newIndexSet () );
 			for ( EvidenceType anEvidence : evidence )
 			{
 				c.addEvidenceType ( anEvidence );
 			}
 
 			// put concept to global list
-			idToConcept.put ( c.getId (), c );
+			idToConcept.put ( c );
+			if ( isPending ) return c;
 
 			// index by data source
-			this.dataSourceToConcepts.computeIfAbsent ( elementOf, _ds -> new HashSet<> () )
+			this.dataSourceToConcepts.computeIfAbsent ( elementOf, _ds -> newConceptIndexSet () )
 			.add ( c );
 			
 
 			// index by concept class
-			this.conceptClassToConcepts.computeIfAbsent ( ofType, _cc -> new HashSet<> () )
+			this.conceptClassToConcepts.computeIfAbsent ( ofType, _cc -> newConceptIndexSet () )
 			.add ( c );
 
 			// return new concept
@@ -437,16 +1060,14 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	protected ONDEXRelation storeRelation ( long sid, int id, ONDEXConcept fromConcept, ONDEXConcept toConcept,
 			RelationType ofType, Collection<EvidenceType> evidence )
 	{
-
-		// construct corresponding relation key
-		RelationKey relkey = new RelationKeyImpl ( sid, fromConcept.getId (), toConcept.getId (), ofType.getId () );
+		checkNotFrozen ();
 
 		// check for existing relation
-		ONDEXRelation existingRelation = keyToRelation.get ( relkey );
+		ONDEXRelation existingRelation = keyToRelation.get ( fromConcept.getId (), toConcept.getId (), ofType.getId () );
 		if ( existingRelation != null )
 		{
-			fireEventOccurred ( new DuplicatedEntryEvent (
-					Config.properties.getProperty ( "memory.ONDEXGraph.DuplicatedRelation" ) + relkey + " pid from "
+			fireEventOccurred ( DuplicatedEntryEvent.class, () -> new DuplicatedEntryEvent (
+					Config.properties.getProperty ( "memory.ONDEXGraph.DuplicatedRelation" ) + existingRelation.getKey () + " pid from "
 							+ fromConcept.getPID () + "pid to " + toConcept.getPID (),
 					"[MemoryONDEXGraph - storeRelation]" ) );
 
@@ -458,46 +1079,50 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 			// create a new relation
 			ONDEXRelation r = newRelation ( sid, id, fromConcept, toConcept, ofType );
 
+			// during bulk loading, the secondary indexes are built later, see indexPending()
+			boolean isPending = pendingRelations != null && pendingRelations.add ( id );
+
 			// add all evidence to relation
-			this.relationToEvidence.computeIfAbsent ( r, _r -> new HashSet<> () );
+			this.relationToEvidence.computeIfAbsent ( r, _r -> newIndexSet () );
 			for ( EvidenceType anEvidence : evidence )
 			{
 				r.addEvidenceType ( anEvidence );
 			}
 
 			// put relation to global lists
-			keyToRelation.put ( r.getKey (), r );
-			idToRelation.put ( r.getId (), r );
+			keyToRelation.put ( r );
+			idToRelation.put ( r );
+			if ( isPending ) return r;
 
 			// set references for relation type
-			this.relationTypeToRelations.computeIfAbsent ( ofType, _rt -> new HashSet<> () )
+			this.relationTypeToRelations.computeIfAbsent ( ofType, _rt -> newRelationIndexSet () )
 			.add ( r );
 
 			
 			// set references for fromConcept
-			this.conceptToRelations.computeIfAbsent ( fromConcept, _c -> new HashSet<> () )
+			this.conceptToRelations.computeIfAbsent ( fromConcept, _c -> newIndexSet () )
 			.add ( r );
 			
 			
 			// index from properties
-			this.dataSourceToRelations.computeIfAbsent ( fromConcept.getElementOf (), _ds -> new HashSet<> () )
+			this.dataSourceToRelations.computeIfAbsent ( fromConcept.getElementOf (), _ds -> newRelationIndexSet () )
 			.add ( r );
 						
 			// from type index
-			this.conceptClassToRelations.computeIfAbsent ( fromConcept.getOfType (), _cc -> new HashSet<> () )
+			this.conceptClassToRelations.computeIfAbsent ( fromConcept.getOfType (), _cc -> newRelationIndexSet () )
 			.add ( r );
 
 			// to concept index
-			this.conceptToRelations.computeIfAbsent ( toConcept, _c -> new HashSet<> () )
+			this.conceptToRelations.computeIfAbsent ( toConcept, _c -> newIndexSet () )
 			.add ( r );
 						
 
 			// index to properties
-			this.dataSourceToRelations.computeIfAbsent ( toConcept.getElementOf (), _ds -> new HashSet<> () )
+			this.dataSourceToRelations.computeIfAbsent ( toConcept.getElementOf (), _ds -> newRelationIndexSet () )
 			.add ( r );
 						
 			// to type index
-			this.conceptClassToRelations.computeIfAbsent ( toConcept.getOfType (), __cc -> new HashSet<> () )
+			this.conceptClassToRelations.computeIfAbsent ( toConcept.getOfType (), __cc -> newRelationIndexSet () )
 			.add ( r );
 			
 			// return new relation
@@ -513,6 +1138,21 @@ public class MemoryONDEXGraph extends AbstractONDEXGraph
 	 */
 	protected void fireEventOccurred ( EventType e )
 	{
-		ONDEXEventHandler.getEventHandlerForSID ( getSID () ).fireEventOccurred ( e );
+		getEventHandler ().fireEventOccurred ( e );
+	}
+
+	/**
+	 * Creates and propagates the event only if some listener wants it, see 
+	 * {@link ONDEXEventHandler#fireEventOccurred(Class, Supplier)}.
+	 */
+	protected <E extends EventType> void fireEventOccurred ( Class<E> type, Supplier<? extends E> eventSupplier )
+	{
+		getEventHandler ().fireEventOccurred ( type, eventSupplier );
+	}
+
+	private ONDEXEventHandler getEventHandler ()
+	{
+		if ( eventHandler == null ) eventHandler = ONDEXEventHandler.getEventHandlerForSID ( getSID () );
+		return eventHandler;
 	}
 }
\ No newline at end of file
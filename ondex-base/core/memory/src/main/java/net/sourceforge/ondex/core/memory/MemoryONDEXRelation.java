@@ -1,11 +1,7 @@
 package net.sourceforge.ondex.core.memory;
 
-import java.util.HashSet;
 import java.util.Set;
 
-import org.apache.commons.collections15.BidiMap;
-import org.apache.commons.collections15.bidimap.DualHashBidiMap;
-
 import net.sourceforge.ondex.config.Config;
 import net.sourceforge.ondex.core.Attribute;
 import net.sourceforge.ondex.core.AttributeName;
@@ -30,7 +26,7 @@ public class MemoryONDEXRelation extends AbstractRelation implements
 	private static final long serialVersionUID = 1L;
 
 	// relation attribute associated with this relation
-	private final BidiMap<AttributeName, Attribute> attributes;
+	private final CompactAttributeSet attributes;
 
 	/**
 	 * parent graph
@@ -58,9 +54,10 @@ public class MemoryONDEXRelation extends AbstractRelation implements
 			RelationType ofType) {
 		super(sid, id, fromConcept, toConcept, ofType);
 		this.graph = graph;
+		setParentGraph(graph);
 
 		// initialise new relation specific data structures
-		attributes = new DualHashBidiMap<AttributeName, Attribute>();
+		attributes = new CompactAttributeSet();
 	}
 
 	@Override
@@ -70,6 +67,9 @@ public class MemoryONDEXRelation extends AbstractRelation implements
 
 	@Override
 	protected boolean dropEvidenceType(EvidenceType evidenceType) {
+		graph.checkNotFrozen();
+		// the indexes below must be up to date, see MemoryONDEXGraph.beginBulkLoad()
+		graph.indexPending();
 		// evidence types are held centrally by the graph
 		graph.relationToEvidence.get(this).remove(evidenceType);
 		Set<ONDEXRelation> set = graph.evidenceTypeToRelations
@@ -83,17 +83,26 @@ public class MemoryONDEXRelation extends AbstractRelation implements
 
 	@Override
 	protected boolean dropTag(ONDEXConcept concept) {
+		graph.checkNotFrozen();
+		// the indexes below must be up to date, see MemoryONDEXGraph.beginBulkLoad()
+		graph.indexPending();
 		return graph.relationToTags.get(this).remove(concept)
 				&& graph.tagToRelations.get(concept).remove(this);
 	}
 
 	@Override
 	protected boolean removeRelationAttribute(AttributeName attributeName) {
+		graph.checkNotFrozen();
+		// the indexes below must be up to date, see MemoryONDEXGraph.beginBulkLoad()
+		graph.indexPending();
 		Set<ONDEXRelation> existingAttribute = graph.attributeNameToRelations
 				.get(attributeName);
 		if (existingAttribute != null) {
 			existingAttribute.remove(this);
 		}
+		NumericColumn column = graph.getColumn(attributeName, false, false);
+		if (column != null)
+			return column.remove(getId());
 		return attributes.remove(attributeName) != null;
 	}
 
@@ -105,13 +114,28 @@ public class MemoryONDEXRelation extends AbstractRelation implements
 
 	@Override
 	protected Attribute retrieveRelationAttribute(AttributeName attributeName) {
+		NumericColumn column = graph.getColumn(attributeName, false, false);
+		if (column != null)
+			return column.getAttribute(getId());
 		return attributes.get(attributeName);
 	}
 
 	@Override
 	protected Set<Attribute> retrieveRelationAttributeAll() {
 		// will be wrapped as UnmodifiableSet in base
-		return attributes.values();
+		if (!graph.hasColumns())
+			return attributes;
+
+		// a copy with the attributes stored in the graph columns too
+		CompactAttributeSet result = new CompactAttributeSet();
+		for (Attribute attribute : attributes)
+			result.put(attribute);
+		for (NumericColumn column : graph.getColumns(false)) {
+			Attribute attribute = column.getAttribute(getId());
+			if (attribute != null)
+				result.put(attribute);
+		}
+		return result;
 	}
 
 	@Override
@@ -123,9 +147,11 @@ public class MemoryONDEXRelation extends AbstractRelation implements
 	@Override
 	protected void saveEvidenceType(EvidenceType evidenceType) 
 	{
-		graph.evidenceTypeToRelations
-		.computeIfAbsent ( evidenceType, et -> new HashSet<> () )
-		.add ( this );
+		graph.checkNotFrozen();
+		if ( !graph.isIndexPending ( this ) )
+			graph.evidenceTypeToRelations
+			.computeIfAbsent ( evidenceType, et -> graph.newRelationIndexSet () )
+			.add ( this );
 		
 		graph.relationToEvidence.get(this).add(evidenceType);
 	}
@@ -133,38 +159,55 @@ public class MemoryONDEXRelation extends AbstractRelation implements
 	@Override
 	protected void saveTag(ONDEXConcept tag) 
 	{
+		graph.checkNotFrozen();
 		// associate tag with this relation
-		graph.tagToRelations
-		.computeIfAbsent ( tag, tg -> new HashSet<> () )
-		.add ( this );
+		if ( !graph.isIndexPending ( this ) )
+			graph.tagToRelations
+			.computeIfAbsent ( tag, tg -> graph.newRelationIndexSet () )
+			.add ( this );
 		
 		// associate this relation with tag
 		graph.relationToTags
-		.computeIfAbsent ( this, r -> new HashSet<> () )
+		.computeIfAbsent ( this, r -> graph.newIndexSet () )
 		.add ( tag );
 	}
 
 	@Override
 	protected Attribute storeRelationAttribute(Attribute attribute) {
+		graph.checkNotFrozen();
 		AttributeName an = attribute.getOfType();
 
-		// check if attribute already exists
-		Attribute existing = attributes.put(an, attribute);
+		// check if attribute already exists, numeric attributes might go to a graph column
+		NumericColumn column = graph.getColumn(an, false, true);
+		boolean isDuplicate = column == null
+				? attributes.put(attribute) != null
+				: column.set(getId(), (Number) attribute.getValue(), attribute.isDoIndex());
 
 		// complain about duplicates
-		if (existing != null) {
-			graph.fireEventOccurred(new DuplicatedEntryEvent(Config.properties
+		if (isDuplicate) {
+			graph.fireEventOccurred(DuplicatedEntryEvent.class, () -> new DuplicatedEntryEvent(Config.properties
 					.getProperty("memory.Relation.DuplicatedRelationAttribute")
-					+ attribute.getOfType().getId(),
+					+ an.getId(),
 					"[Relation - storeRelationAttribute]"));
 		}
 
 		// store it in central index
-		graph.attributeNameToRelations
-		.computeIfAbsent ( an, _an -> new HashSet<> () )
-		.add ( this );
+		if ( !graph.isIndexPending ( this ) )
+			graph.attributeNameToRelations
+			.computeIfAbsent ( an, _an -> graph.newRelationIndexSet () )
+			.add ( this );
 		
-		return attribute;
+		return column == null ? attribute : column.getAttribute(getId());
+	}
+
+	/**
+	 * Used by {@link MemoryONDEXGraph#setColumnarStorage(AttributeName)}, moves the attribute of the column type
+	 * from this entity to the column.
+	 */
+	void moveAttributeToColumn(NumericColumn column) {
+		Attribute attribute = attributes.remove(column.getAttributeName());
+		if (attribute != null)
+			column.set(getId(), (Number) attribute.getValue(), attribute.isDoIndex());
 	}
 
 }
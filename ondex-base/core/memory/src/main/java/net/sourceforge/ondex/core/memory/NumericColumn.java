@@ -0,0 +1,331 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeColumn;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+
+/**
+ * <p>The columnar storage of a numeric attribute, used by {@link MemoryONDEXGraph#setColumnarStorage(AttributeName)}.
+ * </p>
+ *
+ * <p>The values are kept in a primitive array indexed by entity id: {@code double[]} for doubles and floats,
+ * {@code long[]} for longs, {@code int[]} for the other integer types. This costs 4-8 bytes per entity, against the
+ * 50-70 bytes of an attribute object and its boxed value. {@link Attribute} objects are created on demand, as
+ * {@link ColumnAttribute} views, which aren't stored anywhere.</p>
+ *
+ * <p>As in {@link ArrayEntityIdIndex}, ids that would make the array too sparse go to an overflow map. This class
+ * isn't thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+final class NumericColumn implements AttributeColumn, Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final int MAX_SPARSENESS = 4;
+	private static final int MIN_CAPACITY = 1024;
+
+	/**
+	 * The data types that can be stored in a column, and how.
+	 */
+	enum Kind
+	{
+		DOUBLE ( Double.class ), FLOAT ( Float.class ), LONG ( Long.class ),
+		INT ( Integer.class ), SHORT ( Short.class ), BYTE ( Byte.class );
+
+		private final Class<?> dataType;
+
+		Kind ( Class<?> dataType ) {
+			this.dataType = dataType;
+		}
+
+		/**
+		 * The kind for an attribute data type, or null if it can't be stored in a column.
+		 */
+		static Kind of ( Class<?> dataType )
+		{
+			for ( Kind k: values () )
+				if ( k.dataType.equals ( dataType ) ) return k;
+			return null;
+		}
+
+		Number box ( double d, long l )
+		{
+			switch ( this )
+			{
+				case DOUBLE: return d;
+				case FLOAT: return (float) d;
+				case LONG: return l;
+				case INT: return (int) l;
+				case SHORT: return (short) l;
+				default: return (byte) l;
+			}
+		}
+	}
+
+	private final long sid;
+	private final AttributeName attributeName;
+	private final Class<? extends ONDEXEntity> entityType;
+	private final Kind kind;
+
+	// Only one is used, depending on the kind
+	private double[] doubles;
+	private long[] longs;
+	private int[] ints;
+
+	private final BitSet present = new BitSet ();
+
+	/**
+	 * The entities having {@link Attribute#isDoIndex()} false, usually none.
+	 */
+	private final BitSet noIndex = new BitSet ();
+
+	private int size = 0;
+
+	/**
+	 * Lazily created, for the ids out of the arrays.
+	 */
+	private Map<Integer, Number> overflow = null;
+	private Set<Integer> overflowNoIndex = null;
+
+	NumericColumn ( long sid, AttributeName attributeName, Class<? extends ONDEXEntity> entityType )
+	{
+		this.sid = sid;
+		this.attributeName = attributeName;
+		this.entityType = entityType;
+		this.kind = Kind.of ( attributeName.getDataType () );
+		if ( kind == null ) throw new IllegalArgumentException (
+			"Can't store the attribute \"" + attributeName.getId () + "\" in a column, its type \""
+			+ attributeName.getDataType ().getName () + "\" isn't a supported number type"
+		);
+		allocate ( 16 );
+	}
+
+	@Override
+	public AttributeName getAttributeName () {
+		return attributeName;
+	}
+
+	@Override
+	public Class<? extends ONDEXEntity> getEntityType () {
+		return entityType;
+	}
+
+	long getSID () {
+		return sid;
+	}
+
+	boolean isConceptColumn () {
+		return ONDEXConcept.class.equals ( entityType );
+	}
+
+	@Override
+	public int size () {
+		return size;
+	}
+
+	@Override
+	public boolean contains ( int entityId )
+	{
+		if ( entityId >= 0 && present.get ( entityId ) ) return true;
+		return overflow != null && overflow.containsKey ( entityId );
+	}
+
+	/**
+	 * The boxed value, of the attribute data type, or null.
+	 */
+	Number get ( int entityId )
+	{
+		if ( entityId >= 0 && present.get ( entityId ) )
+			return kind.box ( doubles == null ? 0 : doubles [ entityId ], doubles == null ? rawLong ( entityId ) : 0 );
+		return overflow == null ? null : overflow.get ( entityId );
+	}
+
+	@Override
+	public double getDouble ( int entityId )
+	{
+		if ( entityId >= 0 && present.get ( entityId ) )
+			return doubles != null ? doubles [ entityId ] : rawLong ( entityId );
+
+		Number result = overflow == null ? null : overflow.get ( entityId );
+		if ( result == null ) throw new IllegalArgumentException (
+			"The entity #" + entityId + " has no value for the attribute \"" + attributeName.getId () + "\""
+		);
+		return result.doubleValue ();
+	}
+
+	/**
+	 * A view of the value for the entity, or null if it has no value.
+	 */
+	Attribute getAttribute ( int entityId )
+	{
+		return contains ( entityId ) ? new ColumnAttribute ( this, entityId ) : null;
+	}
+
+	boolean isDoIndex ( int entityId )
+	{
+		if ( entityId >= 0 && present.get ( entityId ) ) return !noIndex.get ( entityId );
+		return overflowNoIndex == null || !overflowNoIndex.contains ( entityId );
+	}
+
+	void setDoIndex ( int entityId, boolean doIndex )
+	{
+		if ( entityId >= 0 && present.get ( entityId ) ) noIndex.set ( entityId, !doIndex );
+		else if ( overflow != null && overflow.containsKey ( entityId ) ) setOverflowNoIndex ( entityId, !doIndex );
+	}
+
+	/**
+	 * @return true if the entity already had a value, which is replaced.
+	 */
+	boolean set ( int entityId, Number value, boolean doIndex )
+	{
+		if ( entityId >= 0 && ( entityId < capacity () || ensureCapacity ( entityId ) ) )
+		{
+			boolean existed = present.get ( entityId );
+			if ( !existed && overflow != null && overflow.remove ( entityId ) != null )
+			{
+				// The array was grown to reach an id that was in the overflow
+				setOverflowNoIndex ( entityId, false );
+				existed = true;
+			}
+			if ( doubles != null ) doubles [ entityId ] = value.doubleValue ();
+			else if ( longs != null ) longs [ entityId ] = value.longValue ();
+			else ints [ entityId ] = value.intValue ();
+			present.set ( entityId );
+			noIndex.set ( entityId, !doIndex );
+			if ( !existed ) size++;
+			return existed;
+		}
+
+		if ( overflow == null ) overflow = new HashMap<> ();
+		boolean existed = overflow.put ( entityId, value ) != null;
+		setOverflowNoIndex ( entityId, !doIndex );
+		if ( !existed ) size++;
+		return existed;
+	}
+
+	/**
+	 * @return true if the entity had a value.
+	 */
+	boolean remove ( int entityId )
+	{
+		if ( entityId >= 0 && present.get ( entityId ) )
+		{
+			present.clear ( entityId );
+			noIndex.clear ( entityId );
+			size--;
+			return true;
+		}
+		if ( overflow == null || overflow.remove ( entityId ) == null ) return false;
+		setOverflowNoIndex ( entityId, false );
+		size--;
+		return true;
+	}
+
+	/**
+	 * A tight loop over the primitive array, which doesn't need to touch any entity or boxed value.
+	 */
+	@Override
+	public BitSet scan ( DoublePredicate predicate )
+	{
+		BitSet result = new BitSet ();
+		if ( doubles != null )
+		{
+			double[] vals = doubles;
+			for ( int i = present.nextSetBit ( 0 ); i >= 0; i = present.nextSetBit ( i + 1 ) )
+				if ( predicate.test ( vals [ i ] ) ) result.set ( i );
+		}
+		else if ( longs != null )
+		{
+			long[] vals = longs;
+			for ( int i = present.nextSetBit ( 0 ); i >= 0; i = present.nextSetBit ( i + 1 ) )
+				if ( predicate.test ( vals [ i ] ) ) result.set ( i );
+		}
+		else
+		{
+			int[] vals = ints;
+			for ( int i = present.nextSetBit ( 0 ); i >= 0; i = present.nextSetBit ( i + 1 ) )
+				if ( predicate.test ( vals [ i ] ) ) result.set ( i );
+		}
+
+		// Negative ids can't go in a BitSet, but the graph never assigns them
+		if ( overflow != null ) overflow.forEach ( ( id, v ) -> {
+			if ( id >= 0 && predicate.test ( v.doubleValue () ) ) result.set ( id );
+		});
+		return result;
+	}
+
+	/**
+	 * The approximate heap taken by this column, see {@link HeapEstimates}.
+	 */
+	long estimateBytes ()
+	{
+		long result = HeapEstimates.ofObject ( 48 )
+			+ 2 * ( HeapEstimates.ofObject ( 12 ) + HeapEstimates.ofArray ( ( capacity () + 63 ) / 64, 8 ) );
+		if ( doubles != null ) result += HeapEstimates.ofArray ( doubles.length, 8 );
+		else if ( longs != null ) result += HeapEstimates.ofArray ( longs.length, 8 );
+		else result += HeapEstimates.ofArray ( ints.length, 4 );
+		if ( overflow != null ) result += HeapEstimates.ofHashMap ( overflow.size () ) + overflow.size () * 2L * HeapEstimates.ofObject ( 8 );
+		return result;
+	}
+
+	private long rawLong ( int entityId ) {
+		return longs != null ? longs [ entityId ] : ints [ entityId ];
+	}
+
+	private int capacity ()
+	{
+		return doubles != null ? doubles.length : longs != null ? longs.length : ints.length;
+	}
+
+	private void allocate ( int capacity )
+	{
+		switch ( kind )
+		{
+			case DOUBLE: case FLOAT:
+				doubles = doubles == null ? new double [ capacity ] : Arrays.copyOf ( doubles, capacity ); break;
+			case LONG:
+				longs = longs == null ? new long [ capacity ] : Arrays.copyOf ( longs, capacity ); break;
+			default:
+				ints = ints == null ? new int [ capacity ] : Arrays.copyOf ( ints, capacity );
+		}
+	}
+
+	/**
+	 * Same policy as in {@link ArrayEntityIdIndex}.
+	 */
+	private boolean ensureCapacity ( int id )
+	{
+		if ( id >= MIN_CAPACITY && id > MAX_SPARSENESS * ( size + 1L ) ) return false;
+
+		int length = capacity ();
+		int newCapacity = (int) Math.min ( Math.max ( id + 1L, length + ( length >> 1 ) ), Integer.MAX_VALUE - 8 );
+		if ( newCapacity <= id ) return false;
+		allocate ( newCapacity );
+		return true;
+	}
+
+	private void setOverflowNoIndex ( int entityId, boolean isNoIndex )
+	{
+		if ( isNoIndex )
+		{
+			if ( overflowNoIndex == null ) overflowNoIndex = new HashSet<> ();
+			overflowNoIndex.add ( entityId );
+		}
+		else if ( overflowNoIndex != null ) overflowNoIndex.remove ( entityId );
+	}
+}
@@ -0,0 +1,243 @@
+package net.sourceforge.ondex.core.memory;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationKey;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+
+/**
+ * <p>The relation key =&gt; relation index used by {@link MemoryONDEXGraph}, ie, the one behind
+ * {@link MemoryONDEXGraph#getRelation(int, int, net.sourceforge.ondex.core.RelationType)}.</p>
+ *
+ * <p>This replaces the {@code HashMap<RelationKey, ONDEXRelation>} we used in the past, which required a new
+ * {@code RelationKeyImpl} for every lookup, an operation that mapping plugins run millions of times, and took
+ * about 40 bytes per relation. Here, keys are kept in primitive arrays of an open-addressing hash table: the
+ * concept ids are packed into a long and the relation type is turned into a small int index, so that a lookup
+ * doesn't allocate anything and compares keys without touching the relation objects. A slot takes 16 bytes,
+ * about 20-30 bytes per relation with the table load factor.</p>
+ *
+ * <p>This class isn't thread-safe, like the rest of {@link MemoryONDEXGraph}.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class RelationKeyIndex implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final float MAX_LOAD = 0.7f;
+
+	/**
+	 * fromId &lt;&lt; 32 | toId
+	 */
+	private long[] conceptIds;
+	private int[] typeIndexes;
+
+	/**
+	 * null for empty slots, the table is probed linearly.
+	 */
+	private ONDEXRelation[] relations;
+
+	private int size = 0;
+	private int resizeThreshold;
+
+	/**
+	 * relation type id =&gt; type index used in the table. This only grows, relation types are few.
+	 */
+	private final Map<String, Integer> relationTypes = new HashMap<> ();
+
+	public RelationKeyIndex ()
+	{
+		this ( 16 );
+	}
+
+	public RelationKeyIndex ( int expectedSize )
+	{
+		allocate ( tableSize ( expectedSize ) );
+	}
+
+
+	/**
+	 * @return the relation having this key, or null.
+	 */
+	public ONDEXRelation get ( int fromId, int toId, String relationTypeId )
+	{
+		Integer typeIndex = relationTypes.get ( relationTypeId );
+		if ( typeIndex == null ) return null;
+
+		int slot = find ( pack ( fromId, toId ), typeIndex );
+		return slot < 0 ? null : relations [ slot ];
+	}
+
+	public ONDEXRelation get ( RelationKey key )
+	{
+		return get ( key.getFromID (), key.getToID (), key.getRtId () );
+	}
+
+	/**
+	 * Stores the relation, using {@link ONDEXRelation#getKey() its key}.
+	 *
+	 * @return the relation previously stored with the same key, or null.
+	 */
+	public ONDEXRelation put ( ONDEXRelation relation )
+	{
+		RelationKey key = relation.getKey ();
+		long ids = pack ( key.getFromID (), key.getToID () );
+		int typeIndex = relationTypes.computeIfAbsent ( key.getRtId (), rt -> relationTypes.size () );
+
+		int slot = find ( ids, typeIndex );
+		if ( slot >= 0 )
+		{
+			ONDEXRelation old = relations [ slot ];
+			relations [ slot ] = relation;
+			return old;
+		}
+
+		if ( size >= resizeThreshold ) allocate ( relations.length * 2 );
+		insert ( ids, typeIndex, relation );
+		size++;
+		return null;
+	}
+
+	/**
+	 * @return the removed relation, or null if nothing was stored with this key.
+	 */
+	public ONDEXRelation remove ( int fromId, int toId, String relationTypeId )
+	{
+		Integer typeIndex = relationTypes.get ( relationTypeId );
+		if ( typeIndex == null ) return null;
+
+		int slot = find ( pack ( fromId, toId ), typeIndex );
+		if ( slot < 0 ) return null;
+
+		ONDEXRelation old = relations [ slot ];
+		deleteSlot ( slot );
+		size--;
+		return old;
+	}
+
+	public int size ()
+	{
+		return size;
+	}
+
+	public boolean isEmpty ()
+	{
+		return size == 0;
+	}
+
+	public void clear ()
+	{
+		Arrays.fill ( relations, null );
+		size = 0;
+	}
+
+	/**
+	 * The approximate heap taken by this index, excluding the relations, see {@link HeapEstimates}.
+	 */
+	public long estimateBytes ()
+	{
+		int capacity = relations.length;
+		return HeapEstimates.ofObject ( 28 )
+			+ HeapEstimates.ofArray ( capacity, 8 )
+			+ HeapEstimates.ofArray ( capacity, 4 )
+			+ HeapEstimates.ofArray ( capacity, HeapEstimates.REFERENCE )
+			+ HeapEstimates.ofHashMap ( relationTypes.size () );
+	}
+
+	/**
+	 * The no. of table slots. Mainly useful for memory-related reports.
+	 */
+	public int getCapacity ()
+	{
+		return relations.length;
+	}
+
+	/**
+	 * @return the slot having the key, or -1.
+	 */
+	private int find ( long ids, int typeIndex )
+	{
+		int mask = relations.length - 1;
+		for ( int i = hash ( ids, typeIndex ) & mask; relations [ i ] != null; i = ( i + 1 ) & mask )
+			if ( conceptIds [ i ] == ids && typeIndexes [ i ] == typeIndex ) return i;
+		return -1;
+	}
+
+	/**
+	 * Puts a key that isn't in the table yet in the first free slot.
+	 */
+	private void insert ( long ids, int typeIndex, ONDEXRelation relation )
+	{
+		int mask = relations.length - 1;
+		int i = hash ( ids, typeIndex ) & mask;
+		while ( relations [ i ] != null ) i = ( i + 1 ) & mask;
+		conceptIds [ i ] = ids;
+		typeIndexes [ i ] = typeIndex;
+		relations [ i ] = relation;
+	}
+
+	/**
+	 * Backward-shift deletion, which keeps the probe sequences intact without tombstones: the entries after the
+	 * freed slot are moved back, unless that would put them before their home slot.
+	 */
+	private void deleteSlot ( int slot )
+	{
+		int mask = relations.length - 1;
+		int free = slot;
+		for ( int i = ( free + 1 ) & mask; relations [ i ] != null; i = ( i + 1 ) & mask )
+		{
+			int home = hash ( conceptIds [ i ], typeIndexes [ i ] ) & mask;
+			if ( ( ( i - home ) & mask ) < ( ( i - free ) & mask ) ) continue;
+
+			conceptIds [ free ] = conceptIds [ i ];
+			typeIndexes [ free ] = typeIndexes [ i ];
+			relations [ free ] = relations [ i ];
+			free = i;
+		}
+		relations [ free ] = null;
+	}
+
+	private void allocate ( int capacity )
+	{
+		long[] oldIds = conceptIds;
+		int[] oldTypes = typeIndexes;
+		ONDEXRelation[] oldRelations = relations;
+
+		conceptIds = new long [ capacity ];
+		typeIndexes = new int [ capacity ];
+		relations = new ONDEXRelation [ capacity ];
+		resizeThreshold = (int) ( capacity * MAX_LOAD );
+
+		if ( oldRelations == null ) return;
+		for ( int i = 0; i < oldRelations.length; i++ )
+			if ( oldRelations [ i ] != null ) insert ( oldIds [ i ], oldTypes [ i ], oldRelations [ i ] );
+	}
+
+	private static int tableSize ( int expectedSize )
+	{
+		long n = Math.max ( 16, (long) Math.ceil ( expectedSize / MAX_LOAD ) );
+		return (int) Math.min ( Long.highestOneBit ( n - 1 ) << 1, 1 << 30 );
+	}
+
+	private static long pack ( int fromId, int toId )
+	{
+		return (long) fromId << 32 | toId & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * A 64-bit mixer (from SplitMix64), since the ids are sequential and the low bits alone would cluster.
+	 */
+	private static int hash ( long ids, int typeIndex )
+	{
+		long h = ids * 0x9E3779B97F4A7C15L + typeIndex;
+		h = ( h ^ ( h >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+		h = ( h ^ ( h >>> 27 ) ) * 0x94D049BB133111EBL;
+		return (int) ( h ^ ( h >>> 31 ) );
+	}
+}
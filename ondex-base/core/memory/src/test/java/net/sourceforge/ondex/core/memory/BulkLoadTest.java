@@ -0,0 +1,324 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.BulkLoadSession;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.MetaData;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+
+/**
+ * Tests {@link MemoryONDEXGraph#beginBulkLoad()}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class BulkLoadTest
+{
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	@Test
+	public void testSameIndexes ()
+	{
+		MemoryONDEXGraph plain = new MemoryONDEXGraph ( "plain" );
+		populate ( plain, 3000, 3 );
+
+		MemoryONDEXGraph bulk = newDeferringGraph ( "bulk" );
+		BulkLoadSession session = bulk.beginBulkLoad ();
+		try
+		{
+			assertTrue ( "isBulkLoading() is false during the session!", bulk.isBulkLoading () );
+			populate ( bulk, 3000, 3 );
+		}
+		finally {
+			session.close ();
+		}
+		assertFalse ( "isBulkLoading() is true after the session!", bulk.isBulkLoading () );
+
+		assertSameIndexes ( plain, bulk );
+	}
+
+	@Test
+	public void testReadsDuringSession ()
+	{
+		MemoryONDEXGraph graph = newDeferringGraph ( "test" );
+		BulkLoadSession session = graph.beginBulkLoad ();
+		try
+		{
+			populate ( graph, 500, 2 );
+			ConceptClass cc = graph.getMetaData ().getConceptClass ( "cc0" );
+			Set<ONDEXConcept> ccConcepts = graph.getConceptsOfConceptClass ( cc );
+			assertEquals ( "Wrong index read during the session!",
+				graph.getConcepts ().stream ().filter ( c -> c.getOfType ().equals ( cc ) ).count (), ccConcepts.size ()
+			);
+
+			// More entities after a read, plus changes and deletions on the pending ones
+			populate ( graph, 500, 2 );
+			ONDEXConcept c = graph.getConcept ( 600 );
+			AttributeName att = graph.getMetaData ().getAttributeName ( "att" );
+			c.createAttribute ( att, 42, false );
+			c.deleteAttribute ( att );
+			c.removeEvidenceType ( c.getEvidence ().iterator ().next () );
+			graph.deleteConcept ( graph.getConcept ( 700 ).getId () );
+			graph.deleteRelation ( graph.getRelations ().iterator ().next ().getId () );
+		}
+		finally {
+			session.close ();
+		}
+
+		// Rebuild the same in a plain graph
+		MemoryONDEXGraph plain = new MemoryONDEXGraph ( "plain" );
+		populate ( plain, 500, 2 );
+		populate ( plain, 500, 2 );
+		ONDEXConcept c = plain.getConcept ( 600 );
+		AttributeName att = plain.getMetaData ().getAttributeName ( "att" );
+		c.createAttribute ( att, 42, false );
+		c.deleteAttribute ( att );
+		c.removeEvidenceType ( c.getEvidence ().iterator ().next () );
+		plain.deleteConcept ( plain.getConcept ( 700 ).getId () );
+		plain.deleteRelation ( plain.getRelations ().iterator ().next ().getId () );
+
+		assertSameIndexes ( plain, graph );
+	}
+
+	@Test
+	public void testNestedSessions ()
+	{
+		MemoryONDEXGraph graph = newDeferringGraph ( "test" );
+		BulkLoadSession outer = graph.beginBulkLoad ();
+		BulkLoadSession inner = graph.beginBulkLoad ();
+		try {
+			populate ( graph, 100, 1 );
+		}
+		finally {
+			inner.close ();
+		}
+		assertTrue ( "Inner session closed the outer one!", graph.isBulkLoading () );
+
+		// Closing twice has no effect
+		outer.close ();
+		outer.close ();
+		assertFalse ( "Session not closed!", graph.isBulkLoading () );
+
+		ConceptClass cc = graph.getMetaData ().getConceptClass ( "cc0" );
+		for ( ONDEXConcept c: graph.getConcepts () )
+			assertEquals ( "Wrong concept class index after nested sessions!",
+				c.getOfType ().equals ( cc ), graph.getConceptsOfConceptClass ( cc ).contains ( c )
+			);
+	}
+
+	@Test
+	public void testFreezeDuringSession ()
+	{
+		MemoryONDEXGraph graph = newDeferringGraph ( "test" );
+		BulkLoadSession session = graph.beginBulkLoad ();
+		try
+		{
+			populate ( graph, 200, 2 );
+			graph.freeze ();
+		}
+		finally {
+			session.close ();
+		}
+
+		MemoryONDEXGraph plain = new MemoryONDEXGraph ( "plain" );
+		populate ( plain, 200, 2 );
+		assertSameIndexes ( plain, graph );
+	}
+
+	@Test
+	public void testNoDeferralByDefault ()
+	{
+		MemoryONDEXGraph graph = new MemoryONDEXGraph ( "test" );
+		BulkLoadSession session = graph.beginBulkLoad ();
+		try
+		{
+			populate ( graph, 10, 1 );
+			for ( ONDEXConcept c: graph.getConcepts () )
+				assertFalse ( "Concept index deferred by default!", graph.isIndexPending ( c ) );
+		}
+		finally {
+			session.close ();
+		}
+	}
+
+	/**
+	 * Compares the load time with and without a deferred index build, which is disabled by default, see
+	 * {@link MemoryONDEXGraph#isIndexDeferralWorthwhile()}. Use {@code -DbulkLoadTest.size=...} to change the no. of
+	 * concepts.
+	 */
+	@Test @Ignore ( "Not a real unit test, time consuming" )
+	public void testLoadBenchmark ()
+	{
+		int size = Integer.getInteger ( "bulkLoadTest.size", 1_000_000 );
+
+		long plainTime = Long.MAX_VALUE, bulkTime = Long.MAX_VALUE;
+		for ( int iteration = 0; iteration < 3; iteration++ )
+		{
+			System.gc ();
+			long start = System.currentTimeMillis ();
+			populate ( new MemoryONDEXGraph ( "plain" ), size, 2 );
+			plainTime = Math.min ( plainTime, System.currentTimeMillis () - start );
+
+			System.gc ();
+			start = System.currentTimeMillis ();
+			MemoryONDEXGraph graph = newDeferringGraph ( "bulk" );
+			BulkLoadSession session = graph.beginBulkLoad ();
+			try {
+				populate ( graph, size, 2 );
+			}
+			finally {
+				session.close ();
+			}
+			bulkTime = Math.min ( bulkTime, System.currentTimeMillis () - start );
+		}
+
+		log.info ( "{} concepts, {} relations/concept, {} CPUs, load time without bulk loading: {} ms, with it: {} ms",
+			size, 2, Runtime.getRuntime ().availableProcessors (), plainTime, bulkTime
+		);
+	}
+
+
+	/**
+	 * A graph that always defers the index build, so that this is tested regardless of the default.
+	 */
+	private static MemoryONDEXGraph newDeferringGraph ( String name )
+	{
+		return new MemoryONDEXGraph ( name )
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean isIndexDeferralWorthwhile () {
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Populates a graph deterministically, so that two graphs populated the same way are equal.
+	 */
+	private static void populate ( ONDEXGraph graph, int nconcepts, int relsPerConcept )
+	{
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+		EvidenceType ev1 = meta.getFactory ().createEvidenceType ( "ev1" );
+		AttributeName att = meta.getFactory ().createAttributeName ( "att", Integer.class );
+		DataSource[] dataSources = new DataSource [ 4 ];
+		for ( int i = 0; i < dataSources.length; i++ ) dataSources [ i ] = meta.getFactory ().createDataSource ( "ds" + i );
+		ConceptClass[] conceptClasses = new ConceptClass [ 8 ];
+		for ( int i = 0; i < conceptClasses.length; i++ )
+			conceptClasses [ i ] = meta.getFactory ().createConceptClass ( "cc" + i );
+		RelationType[] relationTypes = new RelationType [ 4 ];
+		for ( int i = 0; i < relationTypes.length; i++ )
+			relationTypes [ i ] = meta.getFactory ().createRelationType ( "rt" + i );
+
+		Random rnd = new Random ( 42 );
+		int base = graph.getConcepts ().size ();
+		for ( int i = 0; i < nconcepts; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept ( "c" + i,
+				dataSources [ rnd.nextInt ( dataSources.length ) ], conceptClasses [ rnd.nextInt ( conceptClasses.length ) ], ev
+			);
+			if ( rnd.nextInt ( 4 ) == 0 ) c.createAttribute ( att, i, false );
+			if ( rnd.nextInt ( 4 ) == 0 ) c.addEvidenceType ( ev1 );
+			if ( i > 0 && rnd.nextInt ( 10 ) == 0 ) c.addTag ( graph.getConcept ( base + 1 ) );
+		}
+		int nall = graph.getConcepts ().size ();
+		for ( int i = base + 1; i <= nall; i++ )
+			for ( int j = 0; j < relsPerConcept; j++ )
+			{
+				ONDEXRelation r = graph.getFactory ().createRelation (
+					graph.getConcept ( i ), graph.getConcept ( base + 1 + rnd.nextInt ( nconcepts ) ),
+					relationTypes [ j % relationTypes.length ], ev
+				);
+				if ( rnd.nextInt ( 4 ) == 0 ) r.createAttribute ( att, i, false );
+				if ( rnd.nextInt ( 10 ) == 0 ) r.addTag ( graph.getConcept ( base + 1 ) );
+			}
+	}
+
+	private static void assertSameIndexes ( ONDEXGraph expected, ONDEXGraph actual )
+	{
+		assertEquals ( "Wrong concepts!", ids ( expected.getConcepts () ), ids ( actual.getConcepts () ) );
+		assertEquals ( "Wrong relations!", ids ( expected.getRelations () ), ids ( actual.getRelations () ) );
+
+		ONDEXGraphMetaData em = expected.getMetaData (), am = actual.getMetaData ();
+		for ( DataSource ds: em.getDataSources () )
+		{
+			assertSameIndex ( "data source => concepts", ds, em::getDataSource, expected::getConceptsOfDataSource, am::getDataSource, actual::getConceptsOfDataSource );
+			assertSameIndex ( "data source => relations", ds, em::getDataSource, expected::getRelationsOfDataSource, am::getDataSource, actual::getRelationsOfDataSource );
+		}
+		for ( ConceptClass cc: em.getConceptClasses () )
+		{
+			assertSameIndex ( "concept class => concepts", cc, em::getConceptClass, expected::getConceptsOfConceptClass, am::getConceptClass, actual::getConceptsOfConceptClass );
+			assertSameIndex ( "concept class => relations", cc, em::getConceptClass, expected::getRelationsOfConceptClass, am::getConceptClass, actual::getRelationsOfConceptClass );
+		}
+		for ( RelationType rt: em.getRelationTypes () )
+			assertSameIndex ( "relation type => relations", rt, em::getRelationType, expected::getRelationsOfRelationType, am::getRelationType, actual::getRelationsOfRelationType );
+		for ( AttributeName an: em.getAttributeNames () )
+		{
+			assertSameIndex ( "attribute => concepts", an, em::getAttributeName, expected::getConceptsOfAttributeName, am::getAttributeName, actual::getConceptsOfAttributeName );
+			assertSameIndex ( "attribute => relations", an, em::getAttributeName, expected::getRelationsOfAttributeName, am::getAttributeName, actual::getRelationsOfAttributeName );
+		}
+		for ( EvidenceType et: em.getEvidenceTypes () )
+		{
+			assertSameIndex ( "evidence => concepts", et, em::getEvidenceType, expected::getConceptsOfEvidenceType, am::getEvidenceType, actual::getConceptsOfEvidenceType );
+			assertSameIndex ( "evidence => relations", et, em::getEvidenceType, expected::getRelationsOfEvidenceType, am::getEvidenceType, actual::getRelationsOfEvidenceType );
+		}
+
+		assertEquals ( "Wrong tags!", ids ( expected.getAllTags () ), ids ( actual.getAllTags () ) );
+		for ( ONDEXConcept tag: expected.getAllTags () )
+		{
+			ONDEXConcept atag = actual.getConcept ( tag.getId () );
+			assertEquals ( "Wrong tag => concepts!", ids ( expected.getConceptsOfTag ( tag ) ), ids ( actual.getConceptsOfTag ( atag ) ) );
+			assertEquals ( "Wrong tag => relations!", ids ( expected.getRelationsOfTag ( tag ) ), ids ( actual.getRelationsOfTag ( atag ) ) );
+		}
+		for ( ONDEXConcept c: expected.getConcepts () )
+			assertEquals ( "Wrong concept => relations!",
+				ids ( expected.getRelationsOfConcept ( c ) ), ids ( actual.getRelationsOfConcept ( actual.getConcept ( c.getId () ) ) )
+			);
+	}
+
+	/**
+	 * Compares the index values for the same metadata key, which is fetched from its id in both the graphs.
+	 */
+	private static <M extends MetaData> void assertSameIndex (
+		String indexName, M key,
+		Function<String, M> expectedMeta, Function<M, Set<? extends ONDEXEntity>> expectedIdx,
+		Function<String, M> actualMeta, Function<M, Set<? extends ONDEXEntity>> actualIdx
+	)
+	{
+		assertEquals ( "Wrong " + indexName + " for " + key.getId () + "!",
+			ids ( expectedIdx.apply ( expectedMeta.apply ( key.getId () ) ) ),
+			ids ( actualIdx.apply ( actualMeta.apply ( key.getId () ) ) )
+		);
+	}
+
+	private static Set<Integer> ids ( Set<? extends ONDEXEntity> entities )
+	{
+		Set<Integer> result = new HashSet<> ();
+		for ( ONDEXEntity e: entities ) result.add ( e.getId () );
+		return result;
+	}
+}
@@ -0,0 +1,243 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeColumn;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+
+/**
+ * Tests {@link MemoryONDEXGraph#setColumnarStorage(AttributeName)}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ColumnarAttributeTest
+{
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	private MemoryONDEXGraph graph;
+	private DataSource ds;
+	private ConceptClass cc;
+	private EvidenceType ev;
+	private AttributeName scoreAtt, countAtt, nameAtt;
+
+	@Before
+	public void initGraph ()
+	{
+		graph = new MemoryONDEXGraph ( "test" );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		ds = meta.getFactory ().createDataSource ( "ds" );
+		cc = meta.getFactory ().createConceptClass ( "cc" );
+		ev = meta.getFactory ().createEvidenceType ( "ev" );
+		scoreAtt = meta.getFactory ().createAttributeName ( "score", Double.class );
+		countAtt = meta.getFactory ().createAttributeName ( "count", Integer.class );
+		nameAtt = meta.getFactory ().createAttributeName ( "name", String.class );
+	}
+
+
+	@Test
+	public void testRoundTrip ()
+	{
+		graph.setColumnarStorage ( scoreAtt );
+		graph.setColumnarStorage ( countAtt );
+
+		ONDEXConcept c = graph.getFactory ().createConcept ( "c", ds, cc, ev );
+		Attribute score = c.createAttribute ( scoreAtt, 2.5, false );
+		c.createAttribute ( countAtt, 42, true );
+		c.createAttribute ( nameAtt, "foo", false );
+
+		assertEquals ( "Wrong returned value!", 2.5, score.getValue () );
+		assertEquals ( "Wrong double value!", 2.5, c.getAttribute ( scoreAtt ).getValue () );
+		assertEquals ( "Wrong int value or type!", 42, c.getAttribute ( countAtt ).getValue () );
+		assertFalse ( "Wrong doIndex!", c.getAttribute ( scoreAtt ).isDoIndex () );
+		assertTrue ( "Wrong doIndex!", c.getAttribute ( countAtt ).isDoIndex () );
+		assertEquals ( "Wrong no. of attributes!", 3, c.getAttributes ().size () );
+		assertTrue ( "Attribute not in getAttributes()!", c.getAttributes ().contains ( score ) );
+		assertEquals ( "Wrong owner!", c.getId (), score.getOwnerId () );
+
+		score.setValue ( 3.0 );
+		assertEquals ( "setValue() didn't change the column!", 3.0, c.getAttribute ( scoreAtt ).getValue () );
+		assertEquals ( "Column not updated!", 3.0, graph.getConceptAttributeColumn ( scoreAtt ).getDouble ( c.getId () ), 0d );
+
+		assertTrue ( "Concept not indexed by attribute name!", graph.getConceptsOfAttributeName ( scoreAtt ).contains ( c ) );
+
+		assertTrue ( "deleteAttribute() failed!", c.deleteAttribute ( scoreAtt ) );
+		assertNull ( "Attribute not deleted!", c.getAttribute ( scoreAtt ) );
+		assertFalse ( "Deleted attribute still indexed!", graph.getConceptsOfAttributeName ( scoreAtt ).contains ( c ) );
+		assertEquals ( "Wrong no. of attributes after delete!", 2, c.getAttributes ().size () );
+	}
+
+	@Test
+	public void testMigration ()
+	{
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		ONDEXConcept c2 = graph.getFactory ().createConcept ( "c2", ds, cc, ev );
+		RelationType rt = graph.getMetaData ().getFactory ().createRelationType ( "rt" );
+		ONDEXRelation r = graph.getFactory ().createRelation ( c1, c2, rt, ev );
+		c1.createAttribute ( scoreAtt, 1.0, false );
+		r.createAttribute ( scoreAtt, -7.0, false );
+
+		assertNull ( "Column exists before setting it!", graph.getConceptAttributeColumn ( scoreAtt ) );
+		graph.setColumnarStorage ( scoreAtt );
+
+		AttributeColumn ccol = graph.getConceptAttributeColumn ( scoreAtt );
+		AttributeColumn rcol = graph.getRelationAttributeColumn ( scoreAtt );
+		assertEquals ( "Wrong concept column size!", 1, ccol.size () );
+		assertEquals ( "Wrong relation column size!", 1, rcol.size () );
+		assertEquals ( "Wrong migrated relation value!", -7.0, r.getAttribute ( scoreAtt ).getValue () );
+		assertEquals ( "Attribute duplicated by the migration!", 1, c1.getAttributes ().size () );
+
+		graph.deleteConcept ( c1.getId () );
+		assertEquals ( "Concept column not cleaned!", 0, ccol.size () );
+		assertEquals ( "Relation column not cleaned!", 0, rcol.size () );
+	}
+
+	@Test
+	public void testScan ()
+	{
+		graph.setColumnarStorage ( scoreAtt );
+		BitSet expected = new BitSet ();
+		for ( int i = 0; i < 5000; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept ( "c" + i, ds, cc, ev );
+			// Some concepts have no value
+			if ( i % 3 == 0 ) continue;
+			double v = i / 10d;
+			c.createAttribute ( scoreAtt, v, false );
+			if ( v > 100 ) expected.set ( c.getId () );
+		}
+
+		AttributeColumn column = graph.getConceptAttributeColumn ( scoreAtt );
+		assertEquals ( "Wrong scan result!", expected, column.scan ( v -> v > 100 ) );
+		assertEquals (
+			"Column and attribute name index differ!",
+			graph.getConceptsOfAttributeName ( scoreAtt ).size (), column.size ()
+		);
+	}
+
+	@Test ( expected = IllegalArgumentException.class )
+	public void testNonNumeric ()
+	{
+		graph.setColumnarStorage ( nameAtt );
+	}
+
+	@Test ( expected = UnsupportedOperationException.class )
+	public void testFrozen ()
+	{
+		graph.setColumnarStorage ( scoreAtt );
+		ONDEXConcept c = graph.getFactory ().createConcept ( "c", ds, cc, ev );
+		Attribute score = c.createAttribute ( scoreAtt, 1.0, false );
+		graph.freeze ();
+
+		assertNotNull ( "Attribute not available after freeze!", c.getAttribute ( scoreAtt ) );
+		score.setValue ( 2.0 );
+	}
+
+	/**
+	 * An id first stored in the overflow map, then moved to the array when it grows.
+	 */
+	@Test
+	public void testOverflowToArray ()
+	{
+		NumericColumn column = new NumericColumn ( graph.getSID (), countAtt, ONDEXConcept.class );
+		int farId = 5000;
+
+		assertFalse ( "Wrong result for a new value!", column.set ( farId, 1, true ) );
+		assertEquals ( "Wrong size after the 1st value!", 1, column.size () );
+
+		// Enough dense values to make the array reach the far id
+		for ( int id = 0; id < 2000; id++ ) column.set ( id, id, true );
+		assertEquals ( "Wrong size after the dense values!", 2001, column.size () );
+
+		assertTrue ( "Wrong result for a replaced value!", column.set ( farId, 2, true ) );
+		assertEquals ( "Wrong size after replacing the overflow value!", 2001, column.size () );
+		assertEquals ( "Wrong replaced value!", 2, column.get ( farId ) );
+
+		assertTrue ( "Value not removed!", column.remove ( farId ) );
+		assertEquals ( "Wrong size after removal!", 2000, column.size () );
+		assertFalse ( "Removed value still there!", column.contains ( farId ) );
+	}
+
+	@Test
+	public void testAutoColumnar ()
+	{
+		System.setProperty ( MemoryONDEXGraph.COLUMNAR_ATTRIBUTES_PROP, "true" );
+		try
+		{
+			initGraph ();
+			ONDEXConcept c = graph.getFactory ().createConcept ( "c", ds, cc, ev );
+			c.createAttribute ( countAtt, 1, false );
+			c.createAttribute ( nameAtt, "foo", false );
+
+			assertNotNull ( "Numeric column not created!", graph.getConceptAttributeColumn ( countAtt ) );
+			assertNull ( "Column created for non-numeric attribute!", graph.getConceptAttributeColumn ( nameAtt ) );
+			assertEquals ( "Wrong value!", 1, c.getAttribute ( countAtt ).getValue () );
+		}
+		finally {
+			System.clearProperty ( MemoryONDEXGraph.COLUMNAR_ATTRIBUTES_PROP );
+		}
+	}
+
+	/**
+	 * Compares a range selection via attribute objects and via a column scan.
+	 */
+	@Test
+	@Ignore ( "Not a real unit test, time consuming" )
+	public void testScanBenchmark ()
+	{
+		int nconcepts = 1_000_000;
+		graph.setColumnarStorage ( scoreAtt );
+		MemoryONDEXGraph objGraph = new MemoryONDEXGraph ( "objects" );
+		ONDEXGraphMetaData meta = objGraph.getMetaData ();
+		DataSource ods = meta.getFactory ().createDataSource ( "ds" );
+		ConceptClass occ = meta.getFactory ().createConceptClass ( "cc" );
+		EvidenceType oev = meta.getFactory ().createEvidenceType ( "ev" );
+		AttributeName oscoreAtt = meta.getFactory ().createAttributeName ( "score", Double.class );
+
+		for ( int i = 0; i < nconcepts; i++ )
+		{
+			double v = Math.random ();
+			graph.getFactory ().createConcept ( "c" + i, ds, cc, ev ).createAttribute ( scoreAtt, v, false );
+			objGraph.getFactory ().createConcept ( "c" + i, ods, occ, oev ).createAttribute ( oscoreAtt, v, false );
+		}
+
+		for ( int round = 0; round < 5; round++ )
+		{
+			long start = System.nanoTime ();
+			BitSet objResult = new BitSet ();
+			for ( ONDEXConcept c: objGraph.getConceptsOfAttributeName ( oscoreAtt ) )
+				if ( (Double) c.getAttribute ( oscoreAtt ).getValue () > 0.5 ) objResult.set ( c.getId () );
+			long objTime = System.nanoTime () - start;
+
+			start = System.nanoTime ();
+			BitSet colResult = graph.getConceptAttributeColumn ( scoreAtt ).scan ( v -> v > 0.5 );
+			long colTime = System.nanoTime () - start;
+
+			assertEquals ( "Different results!", objResult, colResult );
+			log.info ( "Objects: {} ms, column scan: {} ms", objTime / 1_000_000, colTime / 1_000_000 );
+		}
+		log.info ( "Footprint with columns:\n{}", graph.getFootprint ().getSummary () );
+		log.info ( "Footprint with objects:\n{}", objGraph.getFootprint ().getSummary () );
+	}
+}
@@ -0,0 +1,212 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.collections15.BidiMap;
+import org.apache.commons.collections15.bidimap.DualHashBidiMap;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptAccession;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+
+/**
+ * Tests for {@link CompactSet} and {@link CompactAttributeSet}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class CompactSetTest
+{
+	private ONDEXGraph graph;
+	private DataSource ds;
+	private ConceptClass cc;
+	private EvidenceType ev;
+
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	@Before
+	public void init ()
+	{
+		graph = new MemoryONDEXGraph ( "test" );
+		ds = graph.getMetaData ().getFactory ().createDataSource ( "ds" );
+		cc = graph.getMetaData ().getFactory ().createConceptClass ( "cc" );
+		ev = graph.getMetaData ().getFactory ().createEvidenceType ( "ev" );
+	}
+
+	@Test
+	public void testSet ()
+	{
+		// Goes across the promotion threshold
+		int n = 3 * CompactSet.THRESHOLD;
+		Set<String> set = new CompactSet<> ();
+		Set<String> ref = new HashSet<> ();
+
+		for ( int i = 0; i < n; i++ )
+		{
+			assertTrue ( "add() of a new element returns false!", set.add ( "e" + i ) );
+			assertFalse ( "add() of an existing element returns true!", set.add ( "e" + i ) );
+			ref.add ( "e" + i );
+			assertEquals ( "Wrong size after " + ( i + 1 ) + " elements!", ref.size (), set.size () );
+			assertEquals ( "Wrong contents after " + ( i + 1 ) + " elements!", ref, set );
+		}
+
+		assertTrue ( "remove() doesn't work!", set.remove ( "e5" ) );
+		assertFalse ( "remove() of a missing element returns true!", set.remove ( "e5" ) );
+		assertFalse ( "contains() is wrong after remove()!", set.contains ( "e5" ) );
+		assertEquals ( "Wrong size after remove()!", n - 1, set.size () );
+	}
+
+	@Test
+	public void testSmallSetIterator ()
+	{
+		Set<String> set = new CompactSet<> ();
+		for ( int i = 0; i < 5; i++ ) set.add ( "e" + i );
+
+		for ( Iterator<String> itr = set.iterator (); itr.hasNext (); )
+		{
+			String e = itr.next ();
+			if ( e.equals ( "e1" ) || e.equals ( "e3" ) ) itr.remove ();
+		}
+
+		assertEquals ( "Wrong contents after removals via iterator!", Set.of ( "e0", "e2", "e4" ), set );
+
+		set.clear ();
+		assertTrue ( "clear() doesn't work!", set.isEmpty () );
+		assertFalse ( "Iterator of an empty set has elements!", set.iterator ().hasNext () );
+	}
+
+	@Test
+	public void testAttributes ()
+	{
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		ONDEXConcept c = graph.getFactory ().createConcept ( "c", ds, cc, ev );
+
+		int n = 3 * CompactSet.THRESHOLD;
+		List<AttributeName> names = new ArrayList<> ();
+		CompactAttributeSet attrs = new CompactAttributeSet ();
+		for ( int i = 0; i < n; i++ )
+		{
+			AttributeName an = meta.getFactory ().createAttributeName ( "att" + i, Integer.class );
+			names.add ( an );
+			Attribute attr = c.createAttribute ( an, i, false );
+			assertNull ( "put() of a new attribute returns something!", attrs.put ( attr ) );
+			assertSame ( "get() doesn't work after " + ( i + 1 ) + " attributes!", attr, attrs.get ( an ) );
+			assertTrue ( "contains() doesn't work!", attrs.contains ( attr ) );
+			assertEquals ( "Wrong size!", i + 1, attrs.size () );
+		}
+
+		Set<Attribute> ref = new HashSet<> ( c.getAttributes () );
+		assertEquals ( "Wrong contents!", ref, attrs );
+
+		AttributeName an5 = names.get ( 5 );
+		Attribute old = attrs.get ( an5 );
+		Attribute attr5 = c.createAttribute ( an5, 500, false );
+		assertSame ( "put() doesn't return the replaced attribute!", old, attrs.put ( attr5 ) );
+		assertEquals ( "Replacing changed the size!", n, attrs.size () );
+
+		assertSame ( "remove() doesn't work!", attr5, attrs.remove ( an5 ) );
+		assertNull ( "remove() of a missing attribute returns something!", attrs.remove ( an5 ) );
+		assertNull ( "get() is wrong after remove()!", attrs.get ( an5 ) );
+		assertEquals ( "Wrong size after remove()!", n - 1, attrs.size () );
+	}
+
+	/**
+	 * Reports the heap taken by the names, accessions and attributes of the concepts in a synthetic gene/protein
+	 * graph, comparing the compact structures used by {@link MemoryONDEXConcept} with the {@link HashSet}s and
+	 * {@link DualHashBidiMap} it used in the past. Use {@code -DcompactSetTest.size=...} to change the no. of concepts.
+	 */
+	@Test @Ignore ( "Not a real unit test, time consuming" )
+	public void testHeapSaving ()
+	{
+		int size = Integer.getInteger ( "compactSetTest.size", 500_000 );
+
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		DataSource uniprot = meta.getFactory ().createDataSource ( "UNIPROTKB" );
+		DataSource ensembl = meta.getFactory ().createDataSource ( "ENSEMBL" );
+		AttributeName taxId = meta.getFactory ().createAttributeName ( "TAXID", String.class );
+		AttributeName seq = meta.getFactory ().createAttributeName ( "AA", String.class );
+		AttributeName len = meta.getFactory ().createAttributeName ( "LENGTH", Integer.class );
+
+		long base = usedHeap ();
+		ONDEXConcept[] concepts = new ONDEXConcept [ size ];
+		for ( int i = 0; i < size; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept ( "P" + i, uniprot, cc, ev );
+			c.createConceptName ( "PROT" + i, true );
+			c.createConceptName ( "Protein " + i, false );
+			c.createConceptName ( "prt-" + i, false );
+			c.createConceptAccession ( "P" + i, uniprot, false );
+			c.createConceptAccession ( "ENSG" + i, ensembl, true );
+			c.createAttribute ( taxId, "3702", false );
+			c.createAttribute ( seq, "MKV", false );
+			c.createAttribute ( len, 3, false );
+			concepts [ i ] = c;
+		}
+		long graphHeap = usedHeap () - base;
+
+		base = usedHeap ();
+		List<Object[]> hashed = new ArrayList<> ( size );
+		for ( ONDEXConcept c: concepts )
+		{
+			Set<ConceptName> names = new HashSet<> ( c.getConceptNames () );
+			Set<ConceptAccession> accessions = new HashSet<> ( c.getConceptAccessions () );
+			BidiMap<AttributeName, Attribute> attrs = new DualHashBidiMap<> ();
+			for ( Attribute attr: c.getAttributes () ) attrs.put ( attr.getOfType (), attr );
+			hashed.add ( new Object[] { names, accessions, attrs } );
+		}
+		long hashedHeap = usedHeap () - base;
+		hashed = null;
+
+		base = usedHeap ();
+		List<Object[]> compact = new ArrayList<> ( size );
+		for ( ONDEXConcept c: concepts )
+		{
+			Set<ConceptName> names = new CompactSet<> ();
+			names.addAll ( c.getConceptNames () );
+			Set<ConceptAccession> accessions = new CompactSet<> ();
+			accessions.addAll ( c.getConceptAccessions () );
+			CompactAttributeSet attrs = new CompactAttributeSet ();
+			for ( Attribute attr: c.getAttributes () ) attrs.put ( attr );
+			compact.add ( new Object[] { names, accessions, attrs } );
+		}
+		long compactHeap = usedHeap () - base;
+		assertEquals ( size, compact.size () );
+
+		log.info (
+			"{} concepts, whole graph: {} bytes per concept, per-concept containers with hash structures: {} bytes, "
+				+ "compact: {} bytes",
+			size, graphHeap / size, hashedHeap / size, compactHeap / size
+		);
+		assertTrue ( "Compact sets don't save memory!", compactHeap < hashedHeap );
+	}
+
+	private static long usedHeap ()
+	{
+		Runtime rt = Runtime.getRuntime ();
+		for ( int i = 0; i < 3; i++ ) rt.gc ();
+		return rt.totalMemory () - rt.freeMemory ();
+	}
+}
@@ -0,0 +1,288 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.junit.Test;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.test.AbstractONDEXGraphTest;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Changes;
+import net.sourceforge.ondex.logging.ONDEXLogger;
+
+/**
+ * Runs the common graph tests against {@link ConcurrentMemoryONDEXGraph}, plus a multi-thread stress test.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class ConcurrentMemoryONDEXGraphTest extends AbstractONDEXGraphTest
+{
+	@Override
+	protected ONDEXGraph initialize ( String name ) throws IOException
+	{
+		return new ConcurrentMemoryONDEXGraph ( name, new ONDEXLogger () );
+	}
+
+
+	/**
+	 * Several threads write concepts, relations, attributes, tags and metadata in parallel, then we check
+	 * that the indexes are consistent. Use {@code -DconcurrentGraphTest.threads} and
+	 * {@code -DconcurrentGraphTest.concepts} (per thread) for a bigger test.
+	 */
+	@Test
+	public void testConcurrentWrites () throws Exception
+	{
+		int nthreads = Integer.getInteger ( "concurrentGraphTest.threads", 8 );
+		int nconcepts = Integer.getInteger ( "concurrentGraphTest.concepts", 5000 );
+
+		ONDEXGraph graph = new ConcurrentMemoryONDEXGraph ( "stressTest" );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+
+		// All threads create the same relations among these, only one copy of each must survive
+		DataSource sharedDs = meta.getFactory ().createDataSource ( "sharedDS" );
+		ConceptClass sharedCc = meta.getFactory ().createConceptClass ( "sharedCC" );
+		EvidenceType sharedEv = meta.getFactory ().createEvidenceType ( "sharedEV" );
+		RelationType sharedRt = meta.getFactory ().createRelationType ( "sharedRT" );
+		List<ONDEXConcept> hubs = new ArrayList<> ();
+		for ( int i = 0; i < 10; i++ )
+			hubs.add ( graph.getFactory ().createConcept ( "hub" + i, sharedDs, sharedCc, sharedEv ) );
+
+		ExecutorService executor = Executors.newFixedThreadPool ( nthreads );
+		List<Future<?>> results = new ArrayList<> ();
+		for ( int t = 0; t < nthreads; t++ )
+		{
+			final int threadIdx = t;
+			results.add ( executor.submit ( () -> {
+				ThreadLocalRandom rnd = ThreadLocalRandom.current ();
+				List<ONDEXConcept> mine = new ArrayList<> ();
+				for ( int i = 0; i < nconcepts; i++ )
+				{
+					// The usual get-or-create pattern in parsers, metadata are shared by all threads
+					DataSource ds = getOrCreateDataSource ( meta, "ds" + ( i % 3 ) );
+					ConceptClass cc = getOrCreateConceptClass ( meta, "cc" + ( i % 5 ) );
+					EvidenceType ev = getOrCreateEvidenceType ( meta, "ev" + ( i % 2 ) );
+					RelationType rt = getOrCreateRelationType ( meta, "rt" + ( i % 4 ) );
+					AttributeName att = getOrCreateAttributeName ( meta, "att" + ( i % 3 ) );
+
+					ONDEXConcept c = graph.getFactory ().createConcept ( "t" + threadIdx + "c" + i, ds, cc, ev );
+					c.createConceptName ( "name" + i, true );
+					c.createConceptName ( "synonym" + i, false );
+					c.createConceptAccession ( "acc" + i, ds, false );
+					c.createAttribute ( att, i, false );
+
+					// Tags and relations from shared concepts
+					ONDEXConcept hub = hubs.get ( rnd.nextInt ( hubs.size () ) );
+					c.addTag ( hub );
+					hub.createConceptName ( "hubName" + threadIdx + "_" + i, false );
+
+					mine.add ( c );
+					if ( mine.size () > 1 )
+					{
+						ONDEXConcept to = mine.get ( rnd.nextInt ( mine.size () - 1 ) );
+						ONDEXRelation r = graph.getFactory ().createRelation ( c, to, rt, ev );
+						r.createAttribute ( att, i, false );
+						r.addTag ( hub );
+					}
+					graph.getFactory ().createRelation ( c, hub, sharedRt, sharedEv );
+
+					// Contested creation
+					ONDEXConcept from = hubs.get ( i % hubs.size () ), to = hubs.get ( ( i + 1 ) % hubs.size () );
+					graph.getFactory ().createRelation ( from, to, sharedRt, sharedEv );
+				}
+				return null;
+			}));
+		}
+		executor.shutdown ();
+		for ( Future<?> result: results ) result.get (); // Re-throws workers exceptions
+		assertTrue ( "Writers didn't finish!", executor.awaitTermination ( 1, TimeUnit.MINUTES ) );
+
+		// Check metadata
+		assertEquals ( "Wrong no. of concept classes!", 6, meta.getConceptClasses ().size () );
+		assertEquals ( "Wrong no. of relation types!", 5, meta.getRelationTypes ().size () );
+
+		// Check concepts
+		int expectedConcepts = nthreads * nconcepts + hubs.size ();
+		Set<ONDEXConcept> concepts = graph.getConcepts ();
+		assertEquals ( "Wrong no. of concepts!", expectedConcepts, concepts.size () );
+		Set<Integer> conceptIds = new HashSet<> ();
+		for ( ONDEXConcept c: concepts ) conceptIds.add ( c.getId () );
+		assertEquals ( "Duplicated concept IDs!", expectedConcepts, conceptIds.size () );
+		for ( ONDEXConcept c: concepts )
+			assertEquals ( "getConcept() doesn't match!", c, graph.getConcept ( c.getId () ) );
+
+		int conceptsInCCs = 0;
+		for ( ConceptClass cc: meta.getConceptClasses () )
+		{
+			Set<ONDEXConcept> ccConcepts = graph.getConceptsOfConceptClass ( cc );
+			for ( ONDEXConcept c: ccConcepts ) assertEquals ( "Wrong concept class index!", cc, c.getOfType () );
+			conceptsInCCs += ccConcepts.size ();
+		}
+		assertEquals ( "Concept class index incomplete!", expectedConcepts, conceptsInCCs );
+
+		for ( ONDEXConcept c: concepts )
+		{
+			if ( hubs.contains ( c ) ) continue;
+			assertEquals ( "Wrong no. of names!", 2, c.getConceptNames ().size () );
+			assertNotNull ( "Preferred name is missing!", c.getConceptName () );
+			assertEquals ( "Wrong no. of accessions!", 1, c.getConceptAccessions ().size () );
+			assertEquals ( "Wrong no. of attributes!", 1, c.getAttributes ().size () );
+			AttributeName att = c.getAttributes ().iterator ().next ().getOfType ();
+			assertTrue ( "Attribute index is wrong!", graph.getConceptsOfAttributeName ( att ).contains ( c ) );
+			assertEquals ( "Wrong no. of tags!", 1, c.getTags ().size () );
+			ONDEXConcept tag = c.getTags ().iterator ().next ();
+			assertTrue ( "Tag index is wrong!", graph.getConceptsOfTag ( tag ).contains ( c ) );
+		}
+		int hubNames = 0;
+		for ( ONDEXConcept hub: hubs ) hubNames += hub.getConceptNames ().size ();
+		assertEquals ( "Lost names in concurrently updated concepts!", nthreads * nconcepts, hubNames );
+
+		// Check relations
+		int expectedRelations = nthreads * ( nconcepts - 1 ) + nthreads * nconcepts + hubs.size ();
+		Set<ONDEXRelation> relations = graph.getRelations ();
+		assertEquals ( "Wrong no. of relations!", expectedRelations, relations.size () );
+		Set<Integer> relationIds = new HashSet<> ();
+		for ( ONDEXRelation r: relations ) relationIds.add ( r.getId () );
+		assertEquals ( "Duplicated relation IDs!", expectedRelations, relationIds.size () );
+
+		assertEquals (
+			"Wrong no. of contested relations!", hubs.size (), graph.getRelationsOfRelationType ( sharedRt ).stream ()
+				.filter ( r -> hubs.contains ( r.getFromConcept () ) )
+				.count ()
+		);
+
+		int relationsInRTs = 0;
+		for ( RelationType rt: meta.getRelationTypes () )
+			relationsInRTs += graph.getRelationsOfRelationType ( rt ).size ();
+		assertEquals ( "Relation type index incomplete!", expectedRelations, relationsInRTs );
+
+		long adjacencyEntries = 0;
+		for ( ONDEXConcept c: concepts )
+			for ( ONDEXRelation r: graph.getRelationsOfConcept ( c ) )
+			{
+				assertTrue ( "Wrong concept => relations index!", c.equals ( r.getFromConcept () ) || c.equals ( r.getToConcept () ) );
+				adjacencyEntries++;
+			}
+		assertEquals ( "Concept => relations index incomplete!", 2L * expectedRelations, adjacencyEntries );
+
+		for ( ONDEXRelation r: relations )
+		{
+			assertEquals ( "getRelation() doesn't match!", r, graph.getRelation ( r.getId () ) );
+			assertEquals (
+				"getRelation() by key doesn't match!",
+				r, graph.getRelation ( r.getFromConcept (), r.getToConcept (), r.getOfType () )
+			);
+			for ( ONDEXConcept tag: r.getTags () )
+				assertTrue ( "Relation tag index is wrong!", graph.getRelationsOfTag ( tag ).contains ( r ) );
+		}
+	}
+
+	/**
+	 * Several threads create the same concepts (in loading mode) and relations, while a consumer follows the
+	 * change log. Every entity must be reported as created once, and never as modified, since the later
+	 * creations of the same entity only return the existing one.
+	 */
+	@Test
+	public void testConcurrentChangeLog () throws Exception
+	{
+		int nthreads = Integer.getInteger ( "concurrentGraphTest.threads", 8 );
+		int nconcepts = Integer.getInteger ( "concurrentGraphTest.concepts", 5000 );
+
+		ConcurrentMemoryONDEXGraph graph = new ConcurrentMemoryONDEXGraph ( "changeLogTest" );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		DataSource ds = meta.getFactory ().createDataSource ( "ds" );
+		ConceptClass cc = meta.getFactory ().createConceptClass ( "cc" );
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+		RelationType rt = meta.getFactory ().createRelationType ( "rt" );
+		graph.setLoadingMode ( true );
+		GraphChangeLog log = graph.startChangeLog ();
+
+		ExecutorService executor = Executors.newFixedThreadPool ( nthreads );
+		List<Future<?>> results = new ArrayList<> ();
+		for ( int t = 0; t < nthreads; t++ )
+			results.add ( executor.submit ( () -> {
+				for ( int i = 1; i <= nconcepts; i++ )
+				{
+					ONDEXConcept c = graph.createConcept ( i, "c" + i, "", "", ds, cc, List.of ( ev ) );
+					if ( i > 1 ) graph.createRelation ( c, graph.getConcept ( i - 1 ), rt, List.of ( ev ) );
+				}
+				return null;
+			}));
+		executor.shutdown ();
+
+		// The consumer closes epochs while the writers are running
+		Set<Integer> created = new HashSet<> ();
+		int epoch = log.getEpoch ();
+		for ( boolean isLast = false; !isLast; )
+		{
+			isLast = executor.isTerminated ();
+			int newEpoch = log.nextEpoch ();
+			log.getChangesSince ( epoch ).getConcepts ().getCreated ().iterator ()
+				.forEachRemaining ( (IntConsumer) created::add );
+			epoch = newEpoch;
+		}
+		for ( Future<?> result: results ) result.get (); // Re-throws workers exceptions
+
+		assertEquals ( "Wrong no. of concepts!", nconcepts, graph.getConcepts ().size () );
+		assertEquals ( "Wrong no. of created concepts seen by the consumer!", nconcepts, created.size () );
+
+		Changes all = log.getChangesSince ( 0 );
+		assertEquals ( "Wrong no. of created concepts!", nconcepts, all.getConcepts ().getCreated ().cardinality () );
+		assertEquals ( "Wrong no. of created relations!", nconcepts - 1, all.getRelations ().getCreated ().cardinality () );
+		assertTrue ( "Concepts reported as modified!", all.getConcepts ().getModified ().isEmpty () );
+		assertTrue ( "Relations reported as modified!", all.getRelations ().getModified ().isEmpty () );
+	}
+
+	private static DataSource getOrCreateDataSource ( ONDEXGraphMetaData meta, String id )
+	{
+		DataSource result = meta.getDataSource ( id );
+		return result != null ? result : meta.getFactory ().createDataSource ( id );
+	}
+
+	private static ConceptClass getOrCreateConceptClass ( ONDEXGraphMetaData meta, String id )
+	{
+		ConceptClass result = meta.getConceptClass ( id );
+		return result != null ? result : meta.getFactory ().createConceptClass ( id );
+	}
+
+	private static EvidenceType getOrCreateEvidenceType ( ONDEXGraphMetaData meta, String id )
+	{
+		EvidenceType result = meta.getEvidenceType ( id );
+		return result != null ? result : meta.getFactory ().createEvidenceType ( id );
+	}
+
+	private static RelationType getOrCreateRelationType ( ONDEXGraphMetaData meta, String id )
+	{
+		RelationType result = meta.getRelationType ( id );
+		return result != null ? result : meta.getFactory ().createRelationType ( id );
+	}
+
+	private static AttributeName getOrCreateAttributeName ( ONDEXGraphMetaData meta, String id )
+	{
+		AttributeName result = meta.getAttributeName ( id );
+		return result != null ? result : meta.getFactory ().createAttributeName ( id, Integer.class );
+	}
+}
@@ -0,0 +1,241 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.util.BitSetFunctions;
+import net.sourceforge.ondex.core.util.EntityBitmapSet;
+
+/**
+ * Tests {@link EntityBitmapSet} as it is used by {@link MemoryONDEXGraph}, and the bitmap-level operations of
+ * {@link BitSetFunctions}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class EntityBitmapSetTest
+{
+	private MemoryONDEXGraph graph;
+	private DataSource[] dataSources;
+	private ConceptClass[] conceptClasses;
+	private RelationType[] relationTypes;
+	private EvidenceType ev;
+	private AttributeName att;
+
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	@Before
+	public void init ()
+	{
+		graph = new MemoryONDEXGraph ( "test" );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		ev = meta.getFactory ().createEvidenceType ( "ev" );
+		att = meta.getFactory ().createAttributeName ( "att", Integer.class );
+
+		dataSources = new DataSource [ 4 ];
+		for ( int i = 0; i < dataSources.length; i++ ) dataSources [ i ] = meta.getFactory ().createDataSource ( "ds" + i );
+		conceptClasses = new ConceptClass [ 8 ];
+		for ( int i = 0; i < conceptClasses.length; i++ )
+			conceptClasses [ i ] = meta.getFactory ().createConceptClass ( "cc" + i );
+		relationTypes = new RelationType [ 4 ];
+		for ( int i = 0; i < relationTypes.length; i++ )
+			relationTypes [ i ] = meta.getFactory ().createRelationType ( "rt" + i );
+	}
+
+	@Test
+	public void testGraphIndexes ()
+	{
+		populate ( 2000, 3 );
+
+		Set<ONDEXConcept> ccConcepts = graph.getConceptsOfConceptClass ( conceptClasses [ 0 ] );
+		assertTrue ( "Concept class index isn't a bitmap set!", ccConcepts instanceof EntityBitmapSet );
+		assertTrue ( "Relation type index isn't a bitmap set!",
+			graph.getRelationsOfRelationType ( relationTypes [ 0 ] ) instanceof EntityBitmapSet
+		);
+
+		for ( ONDEXConcept c: graph.getConcepts () )
+			assertEquals ( "Wrong contains() for " + c + "!",
+				c.getOfType ().equals ( conceptClasses [ 0 ] ), ccConcepts.contains ( c )
+			);
+
+		try {
+			ccConcepts.add ( graph.getConcept ( 1 ) );
+			throw new AssertionError ( "The sets returned by the graph can be changed!" );
+		}
+		catch ( UnsupportedOperationException ex ) {
+			// Expected
+		}
+
+		// Removals are reflected by the views
+		ONDEXConcept c = ccConcepts.iterator ().next ();
+		int size = ccConcepts.size ();
+		graph.deleteConcept ( c.getId () );
+		assertFalse ( "Deleted concept still in the index!", ccConcepts.contains ( c ) );
+		assertEquals ( "Wrong index size after deletion!", size - 1, ccConcepts.size () );
+	}
+
+	@Test
+	public void testSetOperations ()
+	{
+		populate ( 5000, 3 );
+
+		for ( int i = 0; i < conceptClasses.length; i++ )
+			for ( DataSource ds: dataSources )
+			{
+				Set<ONDEXConcept> s1 = graph.getConceptsOfConceptClass ( conceptClasses [ i ] );
+				Set<ONDEXConcept> s2 = graph.getConceptsOfDataSource ( ds );
+				Set<ONDEXConcept> h1 = new HashSet<> ( s1 ), h2 = new HashSet<> ( s2 );
+
+				Set<ONDEXConcept> and = BitSetFunctions.and ( s1, s2 );
+				assertTrue ( "and() doesn't give a bitmap set!", and instanceof EntityBitmapSet );
+				assertEquals ( "Wrong and()!", BitSetFunctions.and ( h1, h2 ), and );
+				assertEquals ( "Wrong or()!", BitSetFunctions.or ( h1, h2 ), BitSetFunctions.or ( s1, s2 ) );
+				assertEquals ( "Wrong andNot()!", BitSetFunctions.andNot ( h1, h2 ), BitSetFunctions.andNot ( s1, s2 ) );
+
+				// Mixed operands
+				assertEquals ( "Wrong and() with a hash set!", BitSetFunctions.and ( h1, h2 ), BitSetFunctions.and ( h1, s2 ) );
+				assertEquals ( "Wrong andNot() with a hash set!",
+					BitSetFunctions.andNot ( h1, h2 ), BitSetFunctions.andNot ( s1, h2 )
+				);
+			}
+
+		// Concepts and relations have overlapping ids, but they're not mixed
+		Set<ONDEXRelation> rels = graph.getRelationsOfRelationType ( relationTypes [ 0 ] );
+		ONDEXConcept c = graph.getConcept ( rels.iterator ().next ().getId () );
+		assertFalse ( "A concept is found in a relation set!", rels.contains ( c ) );
+	}
+
+	@Test
+	public void testSetsFromDifferentGraphs ()
+	{
+		populate ( 1000, 1 );
+
+		MemoryONDEXGraph graph2 = new MemoryONDEXGraph ( "test2" );
+		ONDEXGraphMetaData meta2 = graph2.getMetaData ();
+		ConceptClass cc2 = meta2.getFactory ().createConceptClass ( "cc0" );
+		DataSource ds2 = meta2.getFactory ().createDataSource ( "ds0" );
+		EvidenceType ev2 = meta2.getFactory ().createEvidenceType ( "ev" );
+		// More than in the first graph, so that some ids aren't there
+		for ( int i = 0; i < 1500; i++ ) graph2.getFactory ().createConcept ( "c" + i, ds2, cc2, ev2 );
+
+		Set<ONDEXConcept> s1 = graph.getConceptsOfConceptClass ( conceptClasses [ 0 ] );
+		Set<ONDEXConcept> s2 = graph2.getConceptsOfConceptClass ( cc2 );
+		Set<ONDEXConcept> h1 = new HashSet<> ( s1 ), h2 = new HashSet<> ( s2 );
+
+		Set<ONDEXConcept> or = BitSetFunctions.or ( s1, s2 );
+		assertEquals ( "Wrong or() between graphs!", BitSetFunctions.or ( h1, h2 ), or );
+		for ( ONDEXConcept c: or ) 
+			assertNotNull ( "or() between graphs resolves the ids via the wrong graph!", c );
+
+		assertEquals ( "Wrong and() between graphs!", BitSetFunctions.and ( h1, h2 ), BitSetFunctions.and ( s1, s2 ) );
+		assertEquals ( 
+			"Wrong andNot() between graphs!", BitSetFunctions.andNot ( h2, h1 ), BitSetFunctions.andNot ( s2, s1 ) 
+		);
+		assertTrue ( "Wrong containsAll() between graphs!", s2.containsAll ( s1 ) );
+		assertFalse ( "Wrong equals() between graphs!", s1.equals ( s2 ) );
+
+		EntityBitmapSet<ONDEXConcept> copy = ( (EntityBitmapSet<ONDEXConcept>) s1 ).copy ();
+		copy.retainAll ( s2 );
+		assertEquals ( "Wrong retainAll() between graphs!", BitSetFunctions.and ( h1, h2 ), copy );
+	}
+
+	/**
+	 * A filter-like workload: intersections, differences and unions of the graph indexes, as done by many filters
+	 * and by graph traversals. It compares {@link EntityBitmapSet} to the hash sets that were used before.
+	 * Use {@code -DentityBitmapSetTest.size=...} to change the no. of concepts.
+	 */
+	@Test @Ignore ( "Not a real unit test, time consuming" )
+	public void testFilterBenchmark ()
+	{
+		int size = Integer.getInteger ( "entityBitmapSetTest.size", 1_000_000 );
+		populate ( size, 2 );
+
+		long bitmapTime = runFilterWorkload ( false );
+		long hashTime = runFilterWorkload ( true );
+
+		log.info (
+			"{} concepts, {} relations, filter workload with bitmap sets: {} ms, with hash sets: {} ms",
+			size, graph.getRelations ().size (), bitmapTime, hashTime
+		);
+	}
+
+	private long runFilterWorkload ( boolean useHashSets )
+	{
+		// The hash-based indexes that the graph used to have
+		Map<Object, Set<ONDEXConcept>> conceptIdx = new HashMap<> ();
+		Map<Object, Set<ONDEXRelation>> relationIdx = new HashMap<> ();
+		for ( ConceptClass cc: conceptClasses ) conceptIdx.put ( cc, indexSet ( graph.getConceptsOfConceptClass ( cc ), useHashSets ) );
+		for ( DataSource ds: dataSources ) conceptIdx.put ( ds, indexSet ( graph.getConceptsOfDataSource ( ds ), useHashSets ) );
+		conceptIdx.put ( att, indexSet ( graph.getConceptsOfAttributeName ( att ), useHashSets ) );
+		for ( RelationType rt: relationTypes ) relationIdx.put ( rt, indexSet ( graph.getRelationsOfRelationType ( rt ), useHashSets ) );
+		relationIdx.put ( conceptClasses [ 0 ], indexSet ( graph.getRelationsOfConceptClass ( conceptClasses [ 0 ] ), useHashSets ) );
+
+		long result = Long.MAX_VALUE;
+		for ( int iteration = 0; iteration < 5; iteration++ )
+		{
+			long start = System.currentTimeMillis ();
+			long checksum = 0;
+			for ( ConceptClass cc: conceptClasses )
+				for ( DataSource ds: dataSources )
+				{
+					Set<ONDEXConcept> atts = conceptIdx.get ( att );
+					Set<ONDEXConcept> visible = BitSetFunctions.and ( conceptIdx.get ( cc ), conceptIdx.get ( ds ) );
+					visible = BitSetFunctions.andNot ( visible, atts );
+					visible = BitSetFunctions.or ( visible, atts );
+					checksum += visible.size ();
+				}
+			for ( RelationType rt: relationTypes )
+				checksum += BitSetFunctions.and ( relationIdx.get ( rt ), relationIdx.get ( conceptClasses [ 0 ] ) ).size ();
+
+			assertTrue ( checksum > 0 );
+			result = Math.min ( result, System.currentTimeMillis () - start );
+		}
+		return result;
+	}
+
+	private static <E> Set<E> indexSet ( Set<E> graphSet, boolean useHashSets )
+	{
+		return useHashSets ? BitSetFunctions.unmodifiableSet ( new HashSet<> ( graphSet ) ) : graphSet;
+	}
+
+	private void populate ( int nconcepts, int relsPerConcept )
+	{
+		Random rnd = new Random ( 42 );
+		for ( int i = 0; i < nconcepts; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept ( "c" + i,
+				dataSources [ rnd.nextInt ( dataSources.length ) ], conceptClasses [ rnd.nextInt ( conceptClasses.length ) ], ev
+			);
+			if ( rnd.nextInt ( 4 ) == 0 ) c.createAttribute ( att, i, false );
+		}
+		for ( int i = 1; i <= nconcepts; i++ )
+			for ( int j = 0; j < relsPerConcept; j++ )
+				graph.getFactory ().createRelation (
+					graph.getConcept ( i ), graph.getConcept ( 1 + rnd.nextInt ( nconcepts ) ),
+					relationTypes [ j % relationTypes.length ], ev
+				);
+	}
+}
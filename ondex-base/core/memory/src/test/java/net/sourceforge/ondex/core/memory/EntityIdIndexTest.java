@@ -0,0 +1,193 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.collections15.BidiMap;
+import org.apache.commons.collections15.bidimap.DualHashBidiMap;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraph;
+
+/**
+ * Tests for {@link EntityIdIndex}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class EntityIdIndexTest
+{
+	private ONDEXGraph graph;
+	private DataSource ds;
+	private ConceptClass cc;
+	private EvidenceType ev;
+
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	@Before
+	public void init ()
+	{
+		graph = new MemoryONDEXGraph ( "test" );
+		ds = graph.getMetaData ().getFactory ().createDataSource ( "ds" );
+		cc = graph.getMetaData ().getFactory ().createConceptClass ( "cc" );
+		ev = graph.getMetaData ().getFactory ().createEvidenceType ( "ev" );
+	}
+
+	@Test
+	public void testBasics ()
+	{
+		EntityIdIndex<ONDEXConcept> idx = new ArrayEntityIdIndex<> ( 2 );
+		Set<ONDEXConcept> concepts = new HashSet<> ();
+		for ( int i = 0; i < 100; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept ( "c" + i, ds, cc, ev );
+			assertNull ( "put() returns something for a new concept!", idx.put ( c ) );
+			concepts.add ( c );
+		}
+
+		assertEquals ( "Wrong size!", 100, idx.size () );
+		assertEquals ( "Wrong values()!", concepts, new HashSet<> ( idx.values () ) );
+
+		ONDEXConcept c10 = graph.getConcept ( 10 );
+		assertSame ( "get() doesn't work!", c10, idx.get ( 10 ) );
+		assertTrue ( "contains() doesn't work!", idx.values ().contains ( c10 ) );
+
+		assertSame ( "remove() doesn't work!", c10, idx.remove ( 10 ) );
+		assertNull ( "remove() didn't remove!", idx.get ( 10 ) );
+		assertFalse ( "contains() is wrong after remove()!", idx.values ().contains ( c10 ) );
+		assertEquals ( "Wrong size after remove()!", 99, idx.size () );
+		assertEquals ( "Wrong values() size after remove()!", 99, idx.values ().stream ().count () );
+		assertNull ( "remove() of a non-existing id returns something!", idx.remove ( 10 ) );
+	}
+
+
+	@Test
+	public void testSparseIds ()
+	{
+		graph.setLoadingMode ( true );
+
+		EntityIdIndex<ONDEXConcept> idx = new ArrayEntityIdIndex<> ();
+		int[] ids = new int[] { 1, 2, 3, 10_000_000, -5, 5000 };
+		for ( int id: ids )
+			idx.put ( graph.createConcept ( id, "c" + id, "", "", ds, cc, Set.of ( ev ) ) );
+
+		assertTrue ( "Sparse ids allocated too much memory!", idx.getCapacity () < 10_000 );
+		assertEquals ( "Wrong size!", ids.length, idx.size () );
+		for ( int id: ids )
+			assertEquals ( "Wrong get() for id " + id + "!", id, idx.get ( id ).getId () );
+
+		// Now these should go to the array, the sparse ids should still be reachable
+		for ( int id = 4; id < 5000; id++ )
+			idx.put ( graph.createConcept ( id, "c" + id, "", "", ds, cc, Set.of ( ev ) ) );
+
+		assertEquals ( "Wrong size after adding more ids!", 5002, idx.size () );
+		assertEquals ( "Wrong values() size after adding more ids!", 5002, idx.values ().stream ().count () );
+		for ( int id: ids )
+			assertEquals ( "Wrong get() for id " + id + "!", id, idx.get ( id ).getId () );
+
+		assertEquals ( "Wrong remove() for sparse id!", 10_000_000, idx.remove ( 10_000_000 ).getId () );
+		assertEquals ( "Wrong size after sparse removal!", 5001, idx.size () );
+	}
+
+
+	/**
+	 * {@link MemoryONDEXGraph} serialisation relies on this, for both the implementations.
+	 */
+	@Test
+	@SuppressWarnings ( "unchecked" )
+	public void testSerialization () throws Exception
+	{
+		graph.setLoadingMode ( true );
+
+		List<EntityIdIndex<ONDEXConcept>> indexes = List.of ( new ArrayEntityIdIndex<> (), new ConcurrentEntityIdIndex<> () );
+		for ( EntityIdIndex<ONDEXConcept> idx: indexes )
+		{
+			int[] ids = new int[] { 1, 2, 3, 10_000_000, -5 };
+			for ( int id: ids )
+				idx.put ( graph.createConcept ( id, "c" + id, "", "", ds, cc, Set.of ( ev ) ) );
+			// The view must not break the serialisation
+			idx.values ();
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream ();
+			try ( ObjectOutputStream out = new ObjectOutputStream ( bytes ) ) {
+				out.writeObject ( idx );
+			}
+			EntityIdIndex<ONDEXConcept> idx1;
+			try ( ObjectInputStream in = new ObjectInputStream ( new ByteArrayInputStream ( bytes.toByteArray () ) ) ) {
+				idx1 = (EntityIdIndex<ONDEXConcept>) in.readObject ();
+			}
+
+			String idxType = idx.getClass ().getSimpleName ();
+			assertSame ( "Wrong deserialised class!", idx.getClass (), idx1.getClass () );
+			assertEquals ( "Wrong size after deserialisation for " + idxType + "!", ids.length, idx1.size () );
+			assertEquals (
+				"Wrong values() after deserialisation for " + idxType + "!", ids.length, idx1.values ().stream ().count ()
+			);
+			for ( int id: ids )
+				assertEquals ( "Wrong get() after deserialisation for " + idxType + "!", id, idx1.get ( id ).getId () );
+		}
+	}
+
+
+	/**
+	 * Reports the heap saved by {@link ArrayEntityIdIndex} compared to the {@link DualHashBidiMap} that
+	 * {@link MemoryONDEXGraph} used in the past. Use {@code -DentityIdIndexTest.size=8000000} (and a suitable -Xmx)
+	 * to test with a graph as big as the largest knowledge networks.
+	 */
+	@Test @Ignore ( "Not a real unit test, time consuming" )
+	public void testHeapSaving ()
+	{
+		int size = Integer.getInteger ( "entityIdIndexTest.size", 1_000_000 );
+
+		ONDEXConcept[] concepts = new ONDEXConcept [ size ];
+		for ( int i = 0; i < size; i++ )
+			concepts [ i ] = graph.getFactory ().createConcept ( "c" + i, ds, cc, ev );
+
+		long base = usedHeap ();
+		BidiMap<Integer, ONDEXConcept> bidiMap = new DualHashBidiMap<> ( new HashMap<> () );
+		for ( ONDEXConcept c: concepts ) bidiMap.put ( c.getId (), c );
+		long bidiHeap = usedHeap () - base;
+		assertEquals ( size, bidiMap.size () );
+		bidiMap = null;
+
+		base = usedHeap ();
+		EntityIdIndex<ONDEXConcept> idx = new ArrayEntityIdIndex<> ();
+		for ( ONDEXConcept c: concepts ) idx.put ( c );
+		long idxHeap = usedHeap () - base;
+		assertEquals ( size, idx.size () );
+
+		log.info (
+			"{} entities, DualHashBidiMap: {} bytes ({} per entity), ArrayEntityIdIndex: {} bytes ({} per entity)",
+			size, bidiHeap, bidiHeap / size, idxHeap, idxHeap / size
+		);
+		assertTrue ( "ArrayEntityIdIndex doesn't save memory!", idxHeap < bidiHeap );
+	}
+
+	private static long usedHeap ()
+	{
+		Runtime rt = Runtime.getRuntime ();
+		for ( int i = 0; i < 3; i++ ) rt.gc ();
+		return rt.totalMemory () - rt.freeMemory ();
+	}
+}
@@ -0,0 +1,272 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.event.ONDEXEvent;
+import net.sourceforge.ondex.event.ONDEXEventHandler;
+import net.sourceforge.ondex.event.ONDEXListener;
+import net.sourceforge.ondex.event.type.CoalescedEvents;
+import net.sourceforge.ondex.event.type.DuplicatedEntryEvent;
+import net.sourceforge.ondex.event.type.EventType;
+import net.sourceforge.ondex.event.type.GeneralOutputEvent;
+import net.sourceforge.ondex.logging.ONDEXLogger;
+
+/**
+ * Tests the dispatch modes of {@link ONDEXEventHandler}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class EventDispatchTest
+{
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	/**
+	 * Collects the events, optionally only those of a type.
+	 */
+	private static class CollectingListener implements ONDEXListener
+	{
+		final List<EventType> events = new CopyOnWriteArrayList<> ();
+		final List<Thread> threads = new CopyOnWriteArrayList<> ();
+		final Class<? extends EventType> acceptedType;
+
+		CollectingListener ( Class<? extends EventType> acceptedType ) {
+			this.acceptedType = acceptedType;
+		}
+
+		@Override
+		public void eventOccurred ( ONDEXEvent e )
+		{
+			events.add ( e.getEventType () );
+			threads.add ( Thread.currentThread () );
+		}
+
+		@Override
+		public boolean isListening ( Class<? extends EventType> eventType ) {
+			return acceptedType == null || acceptedType.isAssignableFrom ( eventType );
+		}
+	}
+
+	/**
+	 * Simulates a logger that formats and writes every event.
+	 */
+	private static class HeavyListener implements ONDEXListener
+	{
+		final StringBuilder sink = new StringBuilder ();
+		long count = 0;
+
+		@Override
+		public void eventOccurred ( ONDEXEvent e )
+		{
+			EventType et = e.getEventType ();
+			String msg = String.format ( "%tT [%s] %s %s", System.currentTimeMillis (), et.getLog4jLevel (),
+				et.getDescription (), et.getCompleteMessage () );
+			sink.append ( msg ).append ( '\n' );
+			if ( sink.length () > 1 << 20 ) sink.setLength ( 0 );
+			count++;
+		}
+	}
+
+
+	@Test
+	public void testTypeFiltering ()
+	{
+		ONDEXEventHandler handler = newHandler ();
+		CollectingListener dupListener = new CollectingListener ( DuplicatedEntryEvent.class );
+		handler.addONDEXONDEXListener ( dupListener );
+
+		handler.fireEventOccurred ( new DuplicatedEntryEvent ( "dup", "" ) );
+		handler.fireEventOccurred ( new GeneralOutputEvent ( "out", "" ) );
+		assertEquals ( "Wrong no. of events received!", 1, dupListener.events.size () );
+
+		AtomicInteger created = new AtomicInteger ();
+		handler.fireEventOccurred ( GeneralOutputEvent.class, () -> {
+			created.incrementAndGet ();
+			return new GeneralOutputEvent ( "out", "" );
+		});
+		assertEquals ( "Event created for no listener!", 0, created.get () );
+		assertFalse ( "isListened() is wrong!", handler.isListened ( GeneralOutputEvent.class ) );
+
+		// A new listener changes what is listened
+		CollectingListener allListener = new CollectingListener ( null );
+		handler.addONDEXONDEXListener ( allListener );
+		assertTrue ( "isListened() is wrong after adding a listener!", handler.isListened ( GeneralOutputEvent.class ) );
+		handler.fireEventOccurred ( GeneralOutputEvent.class, () -> new GeneralOutputEvent ( "out", "" ) );
+		assertEquals ( "Wrong no. of events received by the new listener!", 1, allListener.events.size () );
+
+		handler.removeONDEXONDEXListener ( allListener );
+		assertFalse ( "isListened() is wrong after removing a listener!", handler.isListened ( GeneralOutputEvent.class ) );
+		assertEquals ( "Wrong listeners after removal!", 1, handler.getONDEXONDEXListeners ().length );
+	}
+
+	@Test
+	public void testAsyncDispatch ()
+	{
+		ONDEXEventHandler handler = newHandler ();
+		handler.setCoalesceThreshold ( 0 );
+		CollectingListener listener = new CollectingListener ( null );
+		handler.addONDEXONDEXListener ( listener );
+		handler.setAsyncDispatch ( true );
+
+		int nevents = ONDEXEventHandler.QUEUE_CAPACITY + 1000;
+		for ( int i = 0; i < nevents; i++ )
+			handler.fireEventOccurred ( new GeneralOutputEvent ( "Event " + i, "" ) );
+		handler.flush ();
+
+		assertEquals ( "Wrong no. of async events!", nevents, listener.events.size () );
+		assertEquals ( "Wrong event order!", "Event 42", listener.events.get ( 42 ).getMessage () );
+		assertNotEquals ( "Events delivered by the firing thread!", Thread.currentThread (), listener.threads.get ( 0 ) );
+
+		// Switching back delivers what's pending
+		for ( int i = 0; i < 100; i++ )
+			handler.fireEventOccurred ( new GeneralOutputEvent ( "Late event " + i, "" ) );
+		handler.setAsyncDispatch ( false );
+		assertEquals ( "Wrong no. of events after stopping async!", nevents + 100, listener.events.size () );
+
+		handler.fireEventOccurred ( new GeneralOutputEvent ( "Sync event", "" ) );
+		assertEquals ( "Sync event not delivered immediately!", nevents + 101, listener.events.size () );
+	}
+
+	@Test
+	public void testCoalescing ()
+	{
+		ONDEXEventHandler handler = newHandler ();
+		handler.setCoalesceThreshold ( 10 );
+		CollectingListener listener = new CollectingListener ( null );
+		handler.addONDEXONDEXListener ( listener );
+		handler.setAsyncDispatch ( true );
+
+		int nevents = 5000;
+		for ( int i = 0; i < nevents; i++ )
+			handler.fireEventOccurred ( new DuplicatedEntryEvent ( "dup " + i, "" ) );
+		handler.flush ();
+		handler.setAsyncDispatch ( false );
+
+		long delivered = listener.events.stream ().filter ( e -> e instanceof DuplicatedEntryEvent ).count ();
+		long coalesced = listener.events.stream ()
+			.filter ( e -> e instanceof CoalescedEvents )
+			.mapToLong ( e -> ( (CoalescedEvents) e ).getCount () )
+			.sum ();
+
+		assertTrue ( "Events not coalesced!", delivered < nevents );
+		assertEquals ( "Coalesced events don't add up!", nevents, delivered + coalesced );
+	}
+
+	@Test
+	public void testGraphEvents ()
+	{
+		MemoryONDEXGraph graph = new MemoryONDEXGraph ( "test" );
+		CollectingListener listener = new CollectingListener ( DuplicatedEntryEvent.class );
+		ONDEXEventHandler.getEventHandlerForSID ( graph.getSID () ).addONDEXONDEXListener ( listener );
+
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		AttributeName att = meta.getFactory ().createAttributeName ( "att", Integer.class );
+		ONDEXConcept c = graph.getFactory ().createConcept (
+			"c", meta.getFactory ().createDataSource ( "ds" ), meta.getFactory ().createConceptClass ( "cc" ),
+			meta.getFactory ().createEvidenceType ( "ev" )
+		);
+		c.createAttribute ( att, 1, false );
+		c.createAttribute ( att, 2, false );
+		assertEquals ( "Duplicate event not received!", 1, listener.events.size () );
+	}
+
+	@Test
+	public void testRelease ()
+	{
+		MemoryONDEXGraph graph = new MemoryONDEXGraph ( "test" );
+		ONDEXEventHandler handler = ONDEXEventHandler.getEventHandlerForSID ( graph.getSID () );
+		CollectingListener listener = new CollectingListener ( null );
+		handler.addONDEXONDEXListener ( listener );
+		handler.setAsyncDispatch ( true );
+		handler.fireEventOccurred ( new GeneralOutputEvent ( "out", "" ) );
+
+		ONDEXEventHandler.releaseEventHandlerForSID ( graph.getSID () );
+		assertEquals ( "Pending event not delivered!", 1, listener.events.size () );
+		assertFalse ( "Dispatcher not stopped!", handler.isAsyncDispatch () );
+		assertEquals ( "Listeners not removed!", 0, handler.getONDEXONDEXListeners ().length );
+		assertNotSame ( "Handler not released!", handler, ONDEXEventHandler.getEventHandlerForSID ( graph.getSID () ) );
+	}
+
+	@Test
+	public void testLoggerIgnoredTypes ()
+	{
+		ONDEXEventHandler handler = newHandler ();
+		handler.addONDEXONDEXListener ( new ONDEXLogger ( Set.of ( DuplicatedEntryEvent.class ) ) );
+		assertFalse ( "Ignored event type is listened!", handler.isListened ( DuplicatedEntryEvent.class ) );
+		assertTrue ( "Event type not listened!", handler.isListened ( GeneralOutputEvent.class ) );
+	}
+
+	/**
+	 * Simulates a parser that creates concepts with attributes, many of which are duplicated, and so it fires many
+	 * events.
+	 */
+	@Test
+	@Ignore ( "Not a real unit test, time consuming" )
+	public void testLoadingBenchmark ()
+	{
+		int nconcepts = 200_000;
+		for ( int round = 0; round < 2; round++ )
+		{
+			log.info ( "---- Round {}", round );
+			log.info ( "No listener: {} ms", loadGraph ( nconcepts, null, false ) );
+			log.info ( "Heavy sync listener: {} ms", loadGraph ( nconcepts, new HeavyListener (), false ) );
+			log.info ( "Heavy async listener: {} ms", loadGraph ( nconcepts, new HeavyListener (), true ) );
+		}
+	}
+
+	private long loadGraph ( int nconcepts, HeavyListener listener, boolean isAsync )
+	{
+		MemoryONDEXGraph graph = new MemoryONDEXGraph ( "bench" );
+		ONDEXEventHandler handler = ONDEXEventHandler.getEventHandlerForSID ( graph.getSID () );
+		if ( listener != null ) handler.addONDEXONDEXListener ( listener );
+		handler.setAsyncDispatch ( isAsync );
+
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		DataSource ds = meta.getFactory ().createDataSource ( "ds" );
+		ConceptClass cc = meta.getFactory ().createConceptClass ( "cc" );
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+		AttributeName att = meta.getFactory ().createAttributeName ( "att", Integer.class );
+
+		long start = System.currentTimeMillis ();
+		for ( int i = 0; i < nconcepts; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept ( "c" + i, ds, cc, ev );
+			c.createConceptName ( "Concept " + i, true );
+			// Re-stating the same attribute, as some parsers do, fires duplicate events
+			for ( int j = 0; j < 5; j++ )
+				c.createAttribute ( att, j, false );
+		}
+		handler.flush ();
+		long result = System.currentTimeMillis () - start;
+
+		handler.setAsyncDispatch ( false );
+		if ( listener != null ) log.info ( "  events received: {}", listener.count );
+		return result;
+	}
+
+	private static ONDEXEventHandler newHandler ()
+	{
+		return ONDEXEventHandler.getEventHandlerForSID ( System.nanoTime () );
+	}
+}
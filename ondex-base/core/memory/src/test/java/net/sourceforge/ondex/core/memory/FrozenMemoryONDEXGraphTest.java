@@ -0,0 +1,247 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+
+/**
+ * Tests for {@link MemoryONDEXGraph#freeze()}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class FrozenMemoryONDEXGraphTest
+{
+	private MemoryONDEXGraph graph;
+	private DataSource ds1, ds2;
+	private ConceptClass cc1, cc2;
+	private RelationType rt1, rt2;
+	private EvidenceType ev1, ev2;
+	private AttributeName att;
+
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	@Before
+	public void init ()
+	{
+		graph = new MemoryONDEXGraph ( "test" );
+		var mf = graph.getMetaData ().getFactory ();
+		ds1 = mf.createDataSource ( "ds1" );
+		ds2 = mf.createDataSource ( "ds2" );
+		cc1 = mf.createConceptClass ( "cc1" );
+		cc2 = mf.createConceptClass ( "cc2" );
+		rt1 = mf.createRelationType ( "rt1" );
+		rt2 = mf.createRelationType ( "rt2" );
+		ev1 = mf.createEvidenceType ( "ev1" );
+		ev2 = mf.createEvidenceType ( "ev2" );
+		att = mf.createAttributeName ( "att", Integer.class );
+	}
+
+
+	@Test
+	public void testRetrievals ()
+	{
+		populate ( 500, 2000 );
+
+		// Snapshot everything before freezing
+		var concepts = new HashSet<> ( graph.getConcepts () );
+		var relations = new HashSet<> ( graph.getRelations () );
+		Function<ONDEXConcept, Set<ONDEXRelation>> relsOfConcept = c -> new HashSet<> ( graph.getRelationsOfConcept ( c ) );
+		var conceptRels = concepts.stream ().map ( relsOfConcept ).toList ();
+		var tags = new HashSet<> ( graph.getAllTags () );
+		var conceptsOfTag = tags.stream ().map ( t -> new HashSet<> ( graph.getConceptsOfTag ( t ) ) ).toList ();
+		var relationsOfTag = tags.stream ().map ( t -> new HashSet<> ( graph.getRelationsOfTag ( t ) ) ).toList ();
+
+		var cc1Concepts = new HashSet<> ( graph.getConceptsOfConceptClass ( cc1 ) );
+		var ds2Concepts = new HashSet<> ( graph.getConceptsOfDataSource ( ds2 ) );
+		var ev2Concepts = new HashSet<> ( graph.getConceptsOfEvidenceType ( ev2 ) );
+		var attConcepts = new HashSet<> ( graph.getConceptsOfAttributeName ( att ) );
+		var rt2Relations = new HashSet<> ( graph.getRelationsOfRelationType ( rt2 ) );
+		var cc2Relations = new HashSet<> ( graph.getRelationsOfConceptClass ( cc2 ) );
+		var ds1Relations = new HashSet<> ( graph.getRelationsOfDataSource ( ds1 ) );
+		var ev1Relations = new HashSet<> ( graph.getRelationsOfEvidenceType ( ev1 ) );
+		var attRelations = new HashSet<> ( graph.getRelationsOfAttributeName ( att ) );
+
+		graph.freeze ();
+		assertTrue ( "isFrozen() is wrong!", graph.isFrozen () );
+		assertTrue ( "Frozen graph isn't read-only!", graph.isReadOnly () );
+
+		assertEquals ( "getConcepts() is wrong!", concepts, graph.getConcepts () );
+		assertEquals ( "getRelations() is wrong!", relations, graph.getRelations () );
+		assertEquals (
+			"getRelationsOfConcept() is wrong!", conceptRels, concepts.stream ().map ( relsOfConcept ).toList ()
+		);
+		assertEquals ( "getAllTags() is wrong!", tags, graph.getAllTags () );
+		assertEquals (
+			"getConceptsOfTag() is wrong!",
+			conceptsOfTag, tags.stream ().map ( t -> new HashSet<> ( graph.getConceptsOfTag ( t ) ) ).toList ()
+		);
+		assertEquals (
+			"getRelationsOfTag() is wrong!",
+			relationsOfTag, tags.stream ().map ( t -> new HashSet<> ( graph.getRelationsOfTag ( t ) ) ).toList ()
+		);
+
+		assertEquals ( "getConceptsOfConceptClass() is wrong!", cc1Concepts, graph.getConceptsOfConceptClass ( cc1 ) );
+		assertEquals ( "getConceptsOfDataSource() is wrong!", ds2Concepts, graph.getConceptsOfDataSource ( ds2 ) );
+		assertEquals ( "getConceptsOfEvidenceType() is wrong!", ev2Concepts, graph.getConceptsOfEvidenceType ( ev2 ) );
+		assertEquals ( "getConceptsOfAttributeName() is wrong!", attConcepts, graph.getConceptsOfAttributeName ( att ) );
+		assertEquals ( "getRelationsOfRelationType() is wrong!", rt2Relations, graph.getRelationsOfRelationType ( rt2 ) );
+		assertEquals ( "getRelationsOfConceptClass() is wrong!", cc2Relations, graph.getRelationsOfConceptClass ( cc2 ) );
+		assertEquals ( "getRelationsOfDataSource() is wrong!", ds1Relations, graph.getRelationsOfDataSource ( ds1 ) );
+		assertEquals ( "getRelationsOfEvidenceType() is wrong!", ev1Relations, graph.getRelationsOfEvidenceType ( ev1 ) );
+		assertEquals ( "getRelationsOfAttributeName() is wrong!", attRelations, graph.getRelationsOfAttributeName ( att ) );
+
+		// Concept lookups must not confuse concept and relation ids
+		ONDEXRelation r = relations.iterator ().next ();
+		assertFalse (
+			"contains() matches a relation with a concept!",
+			graph.getRelationsOfConcept ( r.getFromConcept () ).contains ( graph.getConcept ( r.getId () ) )
+		);
+	}
+
+
+	@Test
+	public void testEmptyGraph ()
+	{
+		graph.freeze ();
+		assertTrue ( "Frozen empty graph has concepts!", graph.getConcepts ().isEmpty () );
+		assertTrue ( "Frozen empty graph has tags!", graph.getAllTags ().isEmpty () );
+		assertTrue ( "Frozen empty graph has relations!", graph.getRelationsOfRelationType ( rt1 ).isEmpty () );
+	}
+
+
+	@Test ( expected = UnsupportedOperationException.class )
+	public void testCreateConcept ()
+	{
+		graph.freeze ();
+		graph.getFactory ().createConcept ( "c", ds1, cc1, ev1 );
+	}
+
+	@Test ( expected = UnsupportedOperationException.class )
+	public void testDeleteRelation ()
+	{
+		populate ( 10, 10 );
+		graph.freeze ();
+		graph.deleteRelation ( graph.getRelations ().iterator ().next ().getId () );
+	}
+
+	@Test ( expected = UnsupportedOperationException.class )
+	public void testAddTag ()
+	{
+		populate ( 10, 10 );
+		graph.freeze ();
+		ONDEXConcept c = graph.getConcepts ().iterator ().next ();
+		graph.getRelations ().iterator ().next ().addTag ( c );
+	}
+
+	@Test ( expected = UnsupportedOperationException.class )
+	public void testRemoveEvidence ()
+	{
+		populate ( 10, 10 );
+		graph.freeze ();
+		graph.getConcepts ().iterator ().next ().removeEvidenceType ( ev1 );
+	}
+
+
+	/**
+	 * Reports the heap and the traversal time saved by freezing. Use {@code -DfrozenGraphTest.size=1000000}
+	 * for a test with more concepts (relations are 5 times the concepts).
+	 */
+	@Test @Ignore ( "Not a real unit test, time consuming" )
+	public void testFreezeBenchmark ()
+	{
+		int size = Integer.getInteger ( "frozenGraphTest.size", 200_000 );
+		populate ( size, 5 * size );
+
+		long heapBefore = usedHeap ();
+		long timeBefore = traverse ();
+
+		graph.freeze ();
+
+		long heapAfter = usedHeap ();
+		long timeAfter = traverse ();
+
+		log.info (
+			"{} concepts, {} relations, heap before freezing: {} MB, after: {} MB, traversal time before: {} ms, after: {} ms",
+			size, 5 * size, heapBefore >> 20, heapAfter >> 20, timeBefore, timeAfter
+		);
+		assertTrue ( "Freezing doesn't save memory!", heapAfter < heapBefore );
+	}
+
+	/**
+	 * Visits the neighbours of all the concepts a few times, returns the best time.
+	 */
+	private long traverse ()
+	{
+		long best = Long.MAX_VALUE;
+		for ( int i = 0; i < 5; i++ )
+		{
+			long start = System.currentTimeMillis ();
+			long visits = 0;
+			for ( ONDEXConcept c: graph.getConcepts () )
+				for ( ONDEXRelation r: graph.getRelationsOfConcept ( c ) )
+					visits += r.getToConcept ().getId ();
+			best = Math.min ( best, System.currentTimeMillis () - start );
+			assertTrue ( visits > 0 );
+		}
+		return best;
+	}
+
+	/**
+	 * A random graph, where concepts and relations get distributed over the metadata.
+	 */
+	private void populate ( int nconcepts, int nrelations )
+	{
+		Random rnd = new Random ( 1 );
+		ONDEXGraph g = graph;
+		ONDEXConcept[] concepts = new ONDEXConcept [ nconcepts ];
+		for ( int i = 0; i < nconcepts; i++ )
+		{
+			ONDEXConcept c = g.getFactory ().createConcept (
+				"c" + i, i % 2 == 0 ? ds1 : ds2, i % 3 == 0 ? cc1 : cc2, i % 5 == 0 ? ev1 : ev2
+			);
+			if ( i % 7 == 0 ) c.createAttribute ( att, i, false );
+			if ( i > 0 && i % 11 == 0 ) c.addTag ( concepts [ rnd.nextInt ( 10 ) ] );
+			concepts [ i ] = c;
+		}
+
+		for ( int i = 0; i < nrelations; i++ )
+		{
+			ONDEXConcept from = concepts [ rnd.nextInt ( nconcepts ) ];
+			ONDEXConcept to = concepts [ rnd.nextInt ( nconcepts ) ];
+			RelationType rt = i % 2 == 0 ? rt1 : rt2;
+			if ( g.getRelation ( from, to, rt ) != null ) continue;
+			ONDEXRelation r = g.getFactory ().createRelation ( from, to, rt, i % 3 == 0 ? ev1 : ev2 );
+			if ( i % 4 == 0 ) r.createAttribute ( att, i, false );
+			if ( i % 13 == 0 ) r.addTag ( concepts [ rnd.nextInt ( 10 ) ] );
+		}
+	}
+
+	private static long usedHeap ()
+	{
+		Runtime rt = Runtime.getRuntime ();
+		for ( int i = 0; i < 3; i++ ) rt.gc ();
+		return rt.totalMemory () - rt.freeMemory ();
+	}
+}
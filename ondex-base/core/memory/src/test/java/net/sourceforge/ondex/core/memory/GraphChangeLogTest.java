@@ -0,0 +1,243 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Changes;
+import net.sourceforge.ondex.core.util.GraphChangeLog.EntityChanges;
+import net.sourceforge.ondex.core.util.GraphMemIndex;
+import net.sourceforge.ondex.core.util.GraphMemIndex.IndexField;
+
+/**
+ * Tests {@link GraphChangeLog} on a {@link MemoryONDEXGraph}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class GraphChangeLogTest
+{
+	private MemoryONDEXGraph graph;
+	private GraphChangeLog log;
+	private DataSource ds;
+	private ConceptClass cc;
+	private EvidenceType ev;
+	private RelationType rt;
+	private AttributeName att;
+
+	@Before
+	public void initGraph ()
+	{
+		graph = new MemoryONDEXGraph ( "test" );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		ds = meta.getFactory ().createDataSource ( "ds" );
+		cc = meta.getFactory ().createConceptClass ( "cc" );
+		ev = meta.getFactory ().createEvidenceType ( "ev" );
+		rt = meta.getFactory ().createRelationType ( "rt" );
+		att = meta.getFactory ().createAttributeName ( "att", String.class );
+		log = graph.startChangeLog ();
+	}
+
+	@After
+	public void stopLog ()
+	{
+		graph.stopChangeLog ();
+	}
+
+
+	@Test
+	public void testChangesSinceEpoch ()
+	{
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		ONDEXConcept c2 = graph.getFactory ().createConcept ( "c2", ds, cc, ev );
+		ONDEXConcept c3 = graph.getFactory ().createConcept ( "c3", ds, cc, ev );
+		ONDEXRelation r12 = graph.getFactory ().createRelation ( c1, c2, rt, ev );
+		ONDEXRelation r13 = graph.getFactory ().createRelation ( c1, c3, rt, ev );
+		c1.createConceptName ( "Concept 1", true );
+
+		Changes changes = log.getChangesSince ( 0 );
+		assertEquals ( "Wrong created concepts!", 3, changes.getConcepts ().getCreated ().cardinality () );
+		assertEquals ( "Wrong created relations!", 2, changes.getRelations ().getCreated ().cardinality () );
+		assertTrue ( "New concepts reported as modified!", changes.getConcepts ().getModified ().isEmpty () );
+
+		int epoch = log.nextEpoch ();
+		assertTrue ( "New epoch isn't empty!", log.getChangesSince ( epoch ).isEmpty () );
+
+		c1.createConceptName ( "Concept One", false );
+		c1.getConceptName ( "Concept 1" ).setPreferred ( false );
+		r12.createAttribute ( att, "foo", false );
+		c3.setAnnotation ( "changed" );
+		graph.deleteConcept ( c2.getId () );
+		ONDEXConcept c4 = graph.getFactory ().createConcept ( "c4", ds, cc, ev );
+		c4.createConceptAccession ( "ACC4", ds, false );
+		ONDEXConcept c5 = graph.getFactory ().createConcept ( "c5", ds, cc, ev );
+		graph.deleteConcept ( c5.getId () );
+
+		changes = log.getChangesSince ( epoch );
+		EntityChanges concepts = changes.getConcepts ();
+		EntityChanges relations = changes.getRelations ();
+
+		assertEquals ( "Wrong created concepts!", 1, concepts.getCreated ().cardinality () );
+		assertTrue ( "Wrong created concept!", concepts.getCreated ().contains ( c4.getId () ) );
+		assertEquals ( "Wrong deleted concepts!", 1, concepts.getDeleted ().cardinality () );
+		assertTrue ( "Wrong deleted concept!", concepts.getDeleted ().contains ( c2.getId () ) );
+		assertFalse ( "Created+deleted concept reported!", concepts.getDeleted ().contains ( c5.getId () ) );
+
+		assertTrue ( "Name change not reported!", concepts.getModified ( Aspect.NAMES ).contains ( c1.getId () ) );
+		assertEquals ( "Wrong name changes!", 1, concepts.getModified ( Aspect.NAMES ).cardinality () );
+		assertTrue ( "Property change not reported!", concepts.getModified ( Aspect.PROPERTIES ).contains ( c3.getId () ) );
+		assertTrue ( "Accession of new concept reported!", concepts.getModified ( Aspect.ACCESSIONS ).isEmpty () );
+
+		// r12 was modified and then deleted with its concept
+		assertTrue ( "Deleted relation not reported!", relations.getDeleted ().contains ( r12.getId () ) );
+		assertTrue ( "Deleted relation reported as modified!", relations.getModified ().isEmpty () );
+		assertFalse ( "Wrong deleted relation!", relations.getDeleted ().contains ( r13.getId () ) );
+	}
+
+	@Test
+	public void testMergeAndDiscard ()
+	{
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		ONDEXConcept c2 = graph.getFactory ().createConcept ( "c2", ds, cc, ev );
+
+		int e1 = log.nextEpoch ();
+		ONDEXConcept c3 = graph.getFactory ().createConcept ( "c3", ds, cc, ev );
+		c1.createAttribute ( att, "foo", false ).setValue ( "bar" );
+
+		int e2 = log.nextEpoch ();
+		c3.createAttribute ( att, "foo", false );
+		c2.addTag ( c1 );
+		graph.deleteConcept ( c3.getId () );
+
+		Changes changes = log.getChangesSince ( e1 );
+		EntityChanges concepts = changes.getConcepts ();
+		assertTrue ( "Created+deleted concept across epochs reported!", concepts.getCreated ().isEmpty () );
+		assertTrue ( "Created+deleted concept across epochs reported!", concepts.getDeleted ().isEmpty () );
+		assertTrue ( "Attribute change not reported!", concepts.getModified ( Aspect.ATTRIBUTES ).contains ( c1.getId () ) );
+		assertTrue ( "Tag change not reported!", concepts.getModified ( Aspect.TAGS ).contains ( c2.getId () ) );
+		assertEquals ( "Wrong epoch range!", e2, changes.getToEpoch () );
+
+		changes = log.getChangesSince ( e2 );
+		assertTrue ( "Deleted concept not reported!", changes.getConcepts ().getDeleted ().contains ( c3.getId () ) );
+		assertFalse ( "Old change reported!", changes.getConcepts ().getModified ().contains ( c1.getId () ) );
+
+		log.discardBefore ( e2 );
+		assertFalse ( "Epoch not discarded!", log.isAvailable ( e1 ) );
+		try {
+			log.getChangesSince ( e1 );
+			throw new AssertionError ( "No exception for a discarded epoch!" );
+		}
+		catch ( IllegalArgumentException ex ) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testConsumers ()
+	{
+		log.setConsumersOnly ( true );
+		Object consumer1 = new Object (), consumer2 = new Object ();
+		int e1 = log.addConsumer ( consumer1 );
+		int e2 = log.addConsumer ( consumer2 );
+		graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+
+		int e3 = log.nextEpoch ();
+		log.advanceConsumer ( consumer1, e3 );
+		assertTrue ( "Epoch needed by the slowest consumer was discarded!", log.isAvailable ( e2 ) );
+		assertFalse ( "Epoch not needed anymore wasn't discarded!", log.isAvailable ( e1 ) );
+
+		log.advanceConsumer ( consumer2, e3 );
+		assertFalse ( "Processed epoch wasn't discarded!", log.isAvailable ( e2 ) );
+
+		assertFalse ( "Wrong no. of consumers left!", log.removeConsumer ( consumer1 ) );
+		assertTrue ( "Wrong no. of consumers left!", log.removeConsumer ( consumer2 ) );
+		graph.getFactory ().createConcept ( "c2", ds, cc, ev );
+		log.nextEpoch ();
+		log.nextEpoch ();
+		assertFalse ( "Epochs kept without consumers!", log.isAvailable ( e3 ) );
+	}
+
+	@Test
+	public void testUnregisteredReaders ()
+	{
+		// Someone might read it without being a consumer, so nothing is discarded
+		int e0 = log.getEpoch ();
+		Object consumer = new Object ();
+		log.addConsumer ( consumer );
+		graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		log.advanceConsumer ( consumer, log.nextEpoch () );
+		assertTrue ( "Epoch discarded with unregistered readers!", log.isAvailable ( e0 ) );
+
+		log.removeConsumer ( consumer );
+		log.nextEpoch ();
+		assertTrue ( "Epoch discarded with unregistered readers!", log.isAvailable ( e0 ) );
+	}
+
+	@Test
+	public void testMemIndexReleasesLog ()
+	{
+		graph.stopChangeLog ();
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+
+		GraphMemIndex idx = new GraphMemIndex ( graph, List.of ( IndexField.NAMES ) );
+		log = graph.getChangeLog ();
+		assertNotNull ( "Index didn't start the change log!", log );
+
+		int epoch = log.getEpoch ();
+		c1.createConceptName ( "Concept 1", true );
+		assertEquals ( "Name change not indexed!", c1, idx.get ( "name", "Concept 1" ) );
+		assertFalse ( "Synchronised epoch not discarded!", log.isAvailable ( epoch ) );
+
+		c1.createConceptName ( "Concept One", false );
+		assertEquals ( "Name change not indexed!", c1, idx.get ( "name", "Concept One" ) );
+
+		idx.clear ();
+		assertNull ( "Change log not stopped by the last consumer!", graph.getChangeLog () );
+	}
+
+	@Test
+	public void testMemIndexKeepsStartedLog ()
+	{
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		// Else, c1 would be reported as created, not modified
+		int epoch = log.nextEpoch ();
+
+		GraphMemIndex idx = new GraphMemIndex ( graph, List.of ( IndexField.NAMES ) );
+		c1.createConceptName ( "Concept 1", true );
+		assertEquals ( "Name change not indexed!", c1, idx.get ( "name", "Concept 1" ) );
+		assertTrue ( "Epoch of a started log discarded!", log.isAvailable ( epoch ) );
+
+		idx.clear ();
+		assertEquals ( "Started change log stopped by a consumer!", log, graph.getChangeLog () );
+		assertTrue ( "Epoch of a started log discarded!", log.isAvailable ( epoch ) );
+		assertTrue ( "Change lost!", log.getChangesSince ( epoch ).getConcepts ().getModified ().contains ( c1.getId () ) );
+	}
+
+	@Test
+	public void testNoLog ()
+	{
+		graph.stopChangeLog ();
+		assertNull ( "Log not stopped!", graph.getChangeLog () );
+		graph.getFactory ().createConcept ( "c1", ds, cc, ev ).createConceptName ( "foo", true );
+		assertTrue ( "Stopped log was changed!", log.getChangesSince ( 0 ).isEmpty () );
+	}
+}
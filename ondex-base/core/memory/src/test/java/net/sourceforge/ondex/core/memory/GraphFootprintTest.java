@@ -0,0 +1,134 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.util.GraphFootprint;
+import net.sourceforge.ondex.core.util.GraphFootprintMonitor;
+
+/**
+ * Tests {@link MemoryONDEXGraph#getFootprint()} and {@link GraphFootprintMonitor}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class GraphFootprintTest
+{
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	@Test
+	public void testFootprint ()
+	{
+		MemoryONDEXGraph graph = new MemoryONDEXGraph ( "test" );
+		populate ( graph, 1000 );
+
+		GraphFootprint fp = graph.getFootprint ( 16 );
+		log.info ( "{}", fp );
+
+		assertEquals ( "Wrong concept count!", 1000, fp.getConceptCount () );
+		assertEquals ( "Wrong relation count!", 999, fp.getRelationCount () );
+
+		Map<String, GraphFootprint.Entry> ccs = fp.getConceptClasses ();
+		assertEquals ( "Wrong no. of concept classes!", 2, ccs.size () );
+		assertEquals ( "Wrong count for a concept class!", 500, ccs.get ( "ccA" ).getCount () );
+		assertTrue ( "No bytes for a concept class!", ccs.get ( "ccA" ).getBytes () > 0 );
+
+		assertEquals ( "Wrong relation type count!", 999, fp.getRelationTypes ().get ( "rt" ).getCount () );
+
+		GraphFootprint.Entry atn = fp.getAttributeNames ().get ( "name" );
+		assertNotNull ( "No attribute name entry!", atn );
+		assertEquals ( "Wrong attribute count!", 1000, atn.getCount () );
+		assertTrue ( "Attribute bytes are too low!", atn.getBytes () >= 1000 * 16 );
+
+		Map<String, GraphFootprint.Entry> idxs = fp.getIndexes ();
+		assertEquals ( "Wrong idToConcept count!", 1000, idxs.get ( "idToConcept" ).getCount () );
+		assertEquals ( "Wrong conceptClassToConcepts count!", 1000, idxs.get ( "conceptClassToConcepts" ).getCount () );
+		assertEquals ( "Wrong conceptToRelations count!", 999 * 2, idxs.get ( "conceptToRelations" ).getCount () );
+
+		assertEquals ( "Wrong total!", fp.getIndexBytes () + fp.getEntityBytes (), fp.getEstimatedBytes () );
+		assertTrue ( "Indexes bytes are too low!", fp.getIndexBytes () >= 1000 * 4 );
+	}
+
+	@Test
+	public void testFrozenFootprint ()
+	{
+		MemoryONDEXGraph graph = new MemoryONDEXGraph ( "test" );
+		populate ( graph, 1000 );
+		long liveBytes = graph.getFootprint ().getIndexes ().get ( "conceptToRelations" ).getBytes ();
+
+		graph.freeze ();
+		GraphFootprint fp = graph.getFootprint ();
+		log.info ( "{}", fp );
+
+		GraphFootprint.Entry c2r = fp.getIndexes ().get ( "conceptToRelations" );
+		assertEquals ( "Wrong conceptToRelations count!", 999 * 2, c2r.getCount () );
+		assertTrue ( "Frozen index not smaller!", c2r.getBytes () < liveBytes );
+		assertEquals ( "Wrong concept count!", 1000, fp.getConceptCount () );
+	}
+
+	@Test
+	public void testMBean () throws Exception
+	{
+		MemoryONDEXGraph graph = new MemoryONDEXGraph ( "test" );
+		populate ( graph, 100 );
+
+		ObjectName name = GraphFootprintMonitor.register ( graph );
+		assertNotNull ( "MBean not registered!", name );
+		try
+		{
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer ();
+			assertEquals ( "Wrong MBean concept count!", 100L, server.getAttribute ( name, "ConceptCount" ) );
+			assertTrue ( "Wrong MBean bytes!", (Long) server.getAttribute ( name, "EstimatedBytes" ) > 0 );
+			assertTrue (
+				"No MBean report!", ( (String) server.getAttribute ( name, "Report" ) ).contains ( "idToConcept" )
+			);
+		}
+		finally {
+			GraphFootprintMonitor.unregister ( graph );
+		}
+	}
+
+
+	/**
+	 * A chain of concepts, each with a string attribute.
+	 */
+	private void populate ( MemoryONDEXGraph graph, int nconcepts )
+	{
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		ConceptClass ccA = meta.getFactory ().createConceptClass ( "ccA" );
+		ConceptClass ccB = meta.getFactory ().createConceptClass ( "ccB" );
+		DataSource ds = meta.getFactory ().createDataSource ( "ds" );
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+		RelationType rt = meta.getFactory ().createRelationType ( "rt" );
+		AttributeName att = meta.getFactory ().createAttributeName ( "name", String.class );
+
+		ONDEXConcept prev = null;
+		for ( int i = 0; i < nconcepts; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept ( "c" + i, ds, i % 2 == 0 ? ccA : ccB, ev );
+			c.createConceptName ( "Concept " + i, true );
+			c.createAttribute ( att, "Value of the concept " + i, false );
+			if ( prev != null ) graph.getFactory ().createRelation ( prev, c, rt, ev );
+			prev = c;
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationKey;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.base.RelationKeyImpl;
+import net.sourceforge.ondex.core.util.HeapEstimates;
+
+/**
+ * Tests {@link RelationKeyIndex} and the id-based relation lookup in {@link MemoryONDEXGraph}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class RelationKeyIndexTest
+{
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	private MemoryONDEXGraph graph;
+	private DataSource ds;
+	private ConceptClass cc;
+	private EvidenceType ev;
+	private RelationType rt1, rt2;
+
+	@Before
+	public void initGraph ()
+	{
+		graph = new MemoryONDEXGraph ( "test" );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		ds = meta.getFactory ().createDataSource ( "ds" );
+		cc = meta.getFactory ().createConceptClass ( "cc" );
+		ev = meta.getFactory ().createEvidenceType ( "ev" );
+		rt1 = meta.getFactory ().createRelationType ( "rt1" );
+		rt2 = meta.getFactory ().createRelationType ( "rt2" );
+	}
+
+
+	/**
+	 * Compares the index with a hash map, through enough insertions and removals to exercise the growth and the
+	 * backward-shift deletion.
+	 */
+	@Test
+	public void testAgainstHashMap ()
+	{
+		List<ONDEXConcept> concepts = new ArrayList<> ();
+		for ( int i = 0; i < 300; i++ )
+			concepts.add ( graph.getFactory ().createConcept ( "c" + i, ds, cc, ev ) );
+
+		Random rnd = new Random ( 42 );
+		RelationKeyIndex index = new RelationKeyIndex ();
+		Map<RelationKey, ONDEXRelation> expected = new HashMap<> ();
+		List<ONDEXRelation> relations = new ArrayList<> ();
+		for ( int i = 0; i < 20000; i++ )
+		{
+			ONDEXRelation r = graph.getFactory ().createRelation (
+				concepts.get ( rnd.nextInt ( concepts.size () ) ), concepts.get ( rnd.nextInt ( concepts.size () ) ),
+				rnd.nextBoolean () ? rt1 : rt2, ev
+			);
+			if ( expected.put ( r.getKey (), r ) != null ) continue;
+			assertNull ( "New key already indexed!", index.put ( r ) );
+			relations.add ( r );
+		}
+		assertEquals ( "Wrong size!", expected.size (), index.size () );
+
+		Collections.shuffle ( relations, rnd );
+		for ( ONDEXRelation r: relations.subList ( 0, relations.size () / 2 ) )
+		{
+			RelationKey key = r.getKey ();
+			assertSame ( "Wrong removed relation!", r, index.remove ( key.getFromID (), key.getToID (), key.getRtId () ) );
+			expected.remove ( key );
+		}
+		assertEquals ( "Wrong size after removals!", expected.size (), index.size () );
+
+		for ( ONDEXRelation r: relations )
+			assertSame ( "Wrong lookup result!", expected.get ( r.getKey () ), index.get ( r.getKey () ) );
+		assertNull ( "Unknown relation type found!", index.get ( 1, 2, "foo" ) );
+	}
+
+	@Test
+	public void testGraphLookups ()
+	{
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		ONDEXConcept c2 = graph.getFactory ().createConcept ( "c2", ds, cc, ev );
+		ONDEXRelation r = graph.getFactory ().createRelation ( c1, c2, rt1, ev );
+
+		assertSame ( "Relation not found by ids!", r, graph.getRelation ( c1.getId (), c2.getId (), rt1 ) );
+		assertSame ( "Relation not found by concepts!", r, graph.getRelation ( c1, c2, rt1 ) );
+		assertNull ( "Wrong relation type matched!", graph.getRelation ( c1.getId (), c2.getId (), rt2 ) );
+		assertNull ( "Wrong direction matched!", graph.getRelation ( c2.getId (), c1.getId (), rt1 ) );
+		assertSame ( "Duplicated relation!", r, graph.getFactory ().createRelation ( c1, c2, rt1, ev ) );
+
+		graph.deleteRelation ( c1, c2, rt1 );
+		assertNull ( "Deleted relation found!", graph.getRelation ( c1.getId (), c2.getId (), rt1 ) );
+	}
+
+	/**
+	 * {@link MemoryONDEXGraph} serialisation relies on this, for both the implementations.
+	 */
+	@Test
+	public void testSerialization () throws Exception
+	{
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		ONDEXConcept c2 = graph.getFactory ().createConcept ( "c2", ds, cc, ev );
+		ONDEXRelation r12 = graph.getFactory ().createRelation ( c1, c2, rt1, ev );
+		ONDEXRelation r21 = graph.getFactory ().createRelation ( c2, c1, rt2, ev );
+
+		for ( RelationKeyIndex index: List.of ( new RelationKeyIndex (), new ConcurrentRelationKeyIndex () ) )
+		{
+			index.put ( r12 );
+			index.put ( r21 );
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream ();
+			try ( ObjectOutputStream out = new ObjectOutputStream ( bytes ) ) {
+				out.writeObject ( index );
+			}
+			RelationKeyIndex index1;
+			try ( ObjectInputStream in = new ObjectInputStream ( new ByteArrayInputStream ( bytes.toByteArray () ) ) ) {
+				index1 = (RelationKeyIndex) in.readObject ();
+			}
+
+			String idxType = index.getClass ().getSimpleName ();
+			assertSame ( "Wrong deserialised class!", index.getClass (), index1.getClass () );
+			assertEquals ( "Wrong size after deserialisation for " + idxType + "!", 2, index1.size () );
+			assertEquals (
+				"Wrong lookup after deserialisation for " + idxType + "!",
+				r12.getId (), index1.get ( c1.getId (), c2.getId (), rt1.getId () ).getId ()
+			);
+			assertEquals (
+				"Wrong lookup after deserialisation for " + idxType + "!",
+				r21.getId (), index1.get ( c2.getId (), c1.getId (), rt2.getId () ).getId ()
+			);
+			assertNull (
+				"Wrong type matched after deserialisation for " + idxType + "!",
+				index1.get ( c1.getId (), c2.getId (), rt2.getId () )
+			);
+		}
+	}
+
+	/**
+	 * Compares the lookups via a key object and a hash map, as MemoryONDEXGraph did in the past, with the
+	 * lookups via the index, and reports the bytes per relation.
+	 */
+	@Test
+	@Ignore ( "Not a real unit test, time consuming" )
+	public void testLookupBenchmark ()
+	{
+		int nconcepts = 200_000, nrelations = 2_000_000, nlookups = 5_000_000;
+
+		List<ONDEXConcept> concepts = new ArrayList<> ();
+		for ( int i = 0; i < nconcepts; i++ )
+			concepts.add ( graph.getFactory ().createConcept ( "c" + i, ds, cc, ev ) );
+
+		Random rnd = new Random ( 42 );
+		Map<RelationKey, ONDEXRelation> map = new HashMap<> ();
+		for ( int i = 0; i < nrelations; i++ )
+		{
+			ONDEXRelation r = graph.getFactory ().createRelation (
+				concepts.get ( rnd.nextInt ( nconcepts ) ), concepts.get ( rnd.nextInt ( nconcepts ) ), rt1, ev
+			);
+			map.put ( r.getKey (), r );
+		}
+		int nrels = graph.getRelations ().size ();
+
+		// Half hits, half misses, as when a mapping checks for existing relations
+		int[] fromIds = new int [ nlookups ], toIds = new int [ nlookups ];
+		List<ONDEXRelation> relations = new ArrayList<> ( graph.getRelations () );
+		for ( int i = 0; i < nlookups; i++ )
+		{
+			if ( i % 2 == 0 )
+			{
+				ONDEXRelation r = relations.get ( rnd.nextInt ( relations.size () ) );
+				fromIds [ i ] = r.getKey ().getFromID ();
+				toIds [ i ] = r.getKey ().getToID ();
+			}
+			else
+			{
+				fromIds [ i ] = concepts.get ( rnd.nextInt ( nconcepts ) ).getId ();
+				toIds [ i ] = concepts.get ( rnd.nextInt ( nconcepts ) ).getId ();
+			}
+		}
+
+		long sid = graph.getSID ();
+		String rtId = rt1.getId ();
+		for ( int round = 0; round < 5; round++ )
+		{
+			long start = System.nanoTime ();
+			int mapHits = 0;
+			for ( int i = 0; i < nlookups; i++ )
+				if ( map.get ( new RelationKeyImpl ( sid, fromIds [ i ], toIds [ i ], rtId ) ) != null ) mapHits++;
+			long mapTime = System.nanoTime () - start;
+
+			start = System.nanoTime ();
+			int indexHits = 0;
+			for ( int i = 0; i < nlookups; i++ )
+				if ( graph.getRelation ( fromIds [ i ], toIds [ i ], rt1 ) != null ) indexHits++;
+			long indexTime = System.nanoTime () - start;
+
+			assertEquals ( "Different results!", mapHits, indexHits );
+			log.info (
+				"Lookups/s, key objects + hash map: {}, packed index: {}",
+				nlookups * 1_000_000_000L / mapTime, nlookups * 1_000_000_000L / indexTime
+			);
+		}
+
+		log.info (
+			"Bytes/relation, hash map: {}, packed index: {}",
+			HeapEstimates.ofHashMap ( nrels ) / nrels, graph.keyToRelation.estimateBytes () / nrels
+		);
+	}
+}
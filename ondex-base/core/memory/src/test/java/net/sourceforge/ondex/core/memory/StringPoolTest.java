@@ -0,0 +1,99 @@
+package net.sourceforge.ondex.core.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.util.StringPool;
+
+/**
+ * Tests for {@link StringPool} and its use by the graph entities.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class StringPoolTest
+{
+	private MemoryONDEXGraph graph;
+	private DataSource ds;
+	private ConceptClass cc;
+	private EvidenceType ev;
+	private AttributeName att;
+
+	@Before
+	public void init ()
+	{
+		graph = new MemoryONDEXGraph ( "test" );
+		ds = graph.getMetaData ().getFactory ().createDataSource ( "ds" );
+		cc = graph.getMetaData ().getFactory ().createConceptClass ( "cc" );
+		ev = graph.getMetaData ().getFactory ().createEvidenceType ( "ev" );
+		att = graph.getMetaData ().getFactory ().createAttributeName ( "att", String.class );
+	}
+
+	@Test
+	public void testPool ()
+	{
+		StringPool pool = new StringPool ( 20 );
+		String s1 = new String ( "hypothetical" ), s2 = new String ( "hypothetical" );
+		assertNotSame ( "Test strings aren't distinct!", s1, s2 );
+
+		assertSame ( "First canonical() doesn't return the parameter!", s1, pool.canonical ( s1 ) );
+		assertSame ( "canonical() doesn't return the pooled instance!", s1, pool.canonical ( s2 ) );
+		assertEquals ( "Wrong pool size!", 1, pool.size () );
+
+		String long1 = "a string longer than the limit", long2 = new String ( long1 );
+		assertSame ( "Long string is pooled!", long2, pool.canonical ( long2 ) );
+		assertNull ( "null isn't returned as-is!", pool.canonical ( null ) );
+	}
+
+	@Test
+	public void testGraphPooling ()
+	{
+		graph.setStringPool ( new StringPool () );
+		RelationType rt = graph.getMetaData ().getFactory ().createRelationType ( "rt" );
+
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		ONDEXConcept c2 = graph.getFactory ().createConcept ( "c2", ds, cc, ev );
+		for ( ONDEXConcept c: new ONDEXConcept[] { c1, c2 } )
+		{
+			c.createConceptName ( new String ( "hypothetical protein" ), true );
+			c.createConceptAccession ( new String ( "P12345" ), ds, false );
+			c.createAttribute ( att, new String ( "3702" ), false );
+		}
+		ONDEXRelation r = graph.getFactory ().createRelation ( c1, c2, rt, ev );
+		r.createAttribute ( att, new String ( "3702" ), false );
+
+		assertSame ( "Names not pooled!", c1.getConceptName ().getName (), c2.getConceptName ().getName () );
+		assertSame ( "Accessions not pooled!",
+			c1.getConceptAccessions ().iterator ().next ().getAccession (),
+			c2.getConceptAccessions ().iterator ().next ().getAccession ()
+		);
+		assertSame ( "Concept attributes not pooled!", c1.getAttribute ( att ).getValue (), c2.getAttribute ( att ).getValue () );
+		assertSame ( "Relation attributes not pooled!", c1.getAttribute ( att ).getValue (), r.getAttribute ( att ).getValue () );
+	}
+
+	@Test
+	public void testNoPoolByDefault ()
+	{
+		assertNull ( "String pool enabled by default!", graph.getStringPool () );
+
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		ONDEXConcept c2 = graph.getFactory ().createConcept ( "c2", ds, cc, ev );
+		c1.createConceptName ( new String ( "hypothetical protein" ), true );
+		c2.createConceptName ( new String ( "hypothetical protein" ), true );
+
+		assertNotSame ( "Names pooled without a pool!", c1.getConceptName ().getName (), c2.getConceptName ().getName () );
+	}
+}
@@ -0,0 +1,132 @@
+package net.sourceforge.ondex.core.mmap;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import net.sourceforge.ondex.core.ONDEXEntity;
+
+/**
+ * <p>The on-heap cache of the entity objects in {@link MappedONDEXGraph}.</p>
+ *
+ * <p>This has two levels. The hot entities are kept in a bounded LRU map and, when an entity is evicted from
+ * there, it's passed to the eviction handler, which writes it to the mapped store if it has changes.
+ * Additionally, all the entities that are still referenced anywhere are tracked through weak references, so
+ * that the graph never has two objects for the same entity, ie, an entity that is still used by some component
+ * is returned by {@link #get(int)} as the same object.</p>
+ *
+ * <p>This class isn't thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+class EntityCache<E extends ONDEXEntity>
+{
+	private final Map<Integer, E> hot;
+	private final Map<Integer, IdReference<E>> live = new HashMap<> ();
+	private final ReferenceQueue<E> collected = new ReferenceQueue<> ();
+
+	private static class IdReference<E> extends WeakReference<E>
+	{
+		private final int id;
+
+		IdReference ( int id, E referent, ReferenceQueue<E> queue )
+		{
+			super ( referent, queue );
+			this.id = id;
+		}
+	}
+
+
+	/**
+	 * @param capacity the max no. of hot entities
+	 * @param evictionHandler invoked when an entity leaves the hot set.
+	 */
+	EntityCache ( int capacity, Consumer<E> evictionHandler )
+	{
+		if ( capacity < 1 ) throw new IllegalArgumentException ( "The ONDEX entity cache must have a capacity > 0" );
+
+		this.hot = new LinkedHashMap<> ( 16, 0.75f, true )
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry ( Map.Entry<Integer, E> eldest )
+			{
+				if ( size () <= capacity ) return false;
+				evictionHandler.accept ( eldest.getValue () );
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * @return the cached entity or null. A live entity is promoted to the hot set.
+	 */
+	E get ( int id )
+	{
+		E result = hot.get ( id );
+		if ( result != null ) return result;
+
+		expungeCollected ();
+		IdReference<E> ref = live.get ( id );
+		if ( ref == null ) return null;
+		result = ref.get ();
+		if ( result != null ) hot.put ( id, result );
+		return result;
+	}
+
+	/**
+	 * Adds the entity, or moves it to the hot set, if it's already here.
+	 */
+	void put ( E entity )
+	{
+		int id = entity.getId ();
+		hot.put ( id, entity );
+
+		IdReference<E> ref = live.get ( id );
+		if ( ref != null && ref.get () == entity ) return;
+		expungeCollected ();
+		live.put ( id, new IdReference<> ( id, entity, collected ) );
+	}
+
+	void remove ( int id )
+	{
+		hot.remove ( id );
+		live.remove ( id );
+	}
+
+	/**
+	 * Calls the action for all the hot entities.
+	 */
+	void forEachHot ( Consumer<E> action )
+	{
+		List<E> entities = new ArrayList<> ( hot.values () );
+		entities.forEach ( action );
+	}
+
+	void clear ()
+	{
+		hot.clear ();
+		live.clear ();
+	}
+
+	int getHotSize ()
+	{
+		return hot.size ();
+	}
+
+	@SuppressWarnings ( "unchecked" )
+	private void expungeCollected ()
+	{
+		for ( IdReference<E> ref; ( ref = (IdReference<E>) collected.poll () ) != null; )
+			// An entity might have been reloaded in the meantime
+			if ( live.get ( ref.id ) == ref ) live.remove ( ref.id );
+	}
+}
@@ -0,0 +1,355 @@
+package net.sourceforge.ondex.core.mmap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.ondex.config.Config;
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptAccession;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.base.AbstractConcept;
+import net.sourceforge.ondex.core.base.ConceptAccessionImpl;
+import net.sourceforge.ondex.core.base.ConceptAttribute;
+import net.sourceforge.ondex.core.base.ConceptNameImpl;
+import net.sourceforge.ondex.event.type.DuplicatedEntryEvent;
+import net.sourceforge.ondex.exception.type.NullValueException;
+
+/**
+ * <p>The concept of a {@link MappedONDEXGraph}.</p>
+ *
+ * <p>An object of this class holds the whole concept data while the concept is cached by the graph, and it's
+ * written to the graph's mapped store when it leaves the cache. Hence, every change here is notified to the graph,
+ * including in-place changes to the names, accessions and attributes that this concept returns.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class MappedONDEXConcept extends AbstractConcept
+{
+	private static final long serialVersionUID = 1L;
+
+	final Set<ConceptName> names = new LinkedHashSet<> ();
+	final Set<ConceptAccession> accessions = new LinkedHashSet<> ();
+	final Map<AttributeName, Attribute> attributes = new LinkedHashMap<> ();
+	final Set<EvidenceType> evidence = new LinkedHashSet<> ();
+	final Set<Integer> tagIds = new LinkedHashSet<> ();
+
+	protected transient MappedONDEXGraph graph;
+
+	/**
+	 * Set when this concept differs from its copy in the mapped store.
+	 */
+	transient boolean isDirty = false;
+
+
+	/**
+	 * The concept name type used here, which tracks in-place changes.
+	 */
+	static class Name extends ConceptNameImpl
+	{
+		private static final long serialVersionUID = 1L;
+
+		Name ( long sid, int cid, String name, boolean isPreferred ) {
+			super ( sid, cid, name, isPreferred );
+		}
+
+		@Override
+		public void setPreferred ( boolean isPreferred ) throws UnsupportedOperationException
+		{
+			super.setPreferred ( isPreferred );
+			MappedONDEXGraph.get ( getSID () ).conceptPartChanged ( getOwnerId (), this );
+		}
+	}
+
+	/**
+	 * The accession type used here, which tracks in-place changes.
+	 */
+	static class Accession extends ConceptAccessionImpl
+	{
+		private static final long serialVersionUID = 1L;
+
+		Accession ( long sid, int conceptId, String accession, DataSource elementOf, boolean ambiguous ) {
+			super ( sid, conceptId, accession, elementOf, ambiguous );
+		}
+
+		@Override
+		public void setAmbiguous ( boolean ambiguous ) throws UnsupportedOperationException
+		{
+			super.setAmbiguous ( ambiguous );
+			MappedONDEXGraph.get ( getSID () ).conceptPartChanged ( getOwnerId (), this );
+		}
+	}
+
+	/**
+	 * The attribute type used here, which tracks in-place changes.
+	 */
+	static class ConceptAttr extends ConceptAttribute
+	{
+		private static final long serialVersionUID = 1L;
+
+		// False while the super constructor calls setValue()
+		private transient boolean isInitialised;
+
+		ConceptAttr ( long sid, int conceptId, AttributeName attributeName, Object value, boolean doIndex )
+		{
+			super ( sid, conceptId, attributeName, value, doIndex );
+			this.isInitialised = true;
+		}
+
+		@Override
+		public void setValue ( Object value )
+		{
+			super.setValue ( value );
+			if ( isInitialised ) MappedONDEXGraph.get ( getSID () ).conceptPartChanged ( getOwnerId (), this );
+		}
+
+		@Override
+		public void setDoIndex ( boolean doIndex )
+		{
+			super.setDoIndex ( doIndex );
+			if ( isInitialised ) MappedONDEXGraph.get ( getSID () ).conceptPartChanged ( getOwnerId (), this );
+		}
+	}
+
+
+	protected MappedONDEXConcept ( long sid, MappedONDEXGraph graph, int id, String pid,
+			String annotation, String description, DataSource elementOf, ConceptClass ofType )
+	{
+		super ( sid, id, pid, annotation, description, elementOf, ofType );
+		this.graph = graph;
+		setParentGraph ( graph );
+	}
+
+	@Override
+	public void setAnnotation ( String annotation ) throws NullValueException, UnsupportedOperationException
+	{
+		super.setAnnotation ( annotation );
+		graph.touch ( this );
+	}
+
+	@Override
+	public void setDescription ( String description ) throws NullValueException, UnsupportedOperationException
+	{
+		super.setDescription ( description );
+		graph.touch ( this );
+	}
+
+	@Override
+	public void setPID ( String pid ) throws NullValueException, UnsupportedOperationException
+	{
+		super.setPID ( pid );
+		graph.touch ( this );
+	}
+
+	/**
+	 * Replaces a name, accession or attribute that was changed in place with the changed object, since the latter
+	 * might be a leftover copy from a previous load of this concept.
+	 */
+	void replacePart ( Object part )
+	{
+		if ( part instanceof ConceptName )
+		{
+			if ( names.remove ( part ) ) names.add ( (ConceptName) part );
+		}
+		else if ( part instanceof ConceptAccession )
+		{
+			if ( accessions.remove ( part ) ) accessions.add ( (ConceptAccession) part );
+		}
+		else if ( part instanceof Attribute )
+		{
+			Attribute attr = (Attribute) part;
+			if ( attributes.containsKey ( attr.getOfType () ) ) attributes.put ( attr.getOfType (), attr );
+		}
+	}
+
+	@Override
+	protected boolean dropEvidenceType ( EvidenceType evidenceType )
+	{
+		if ( !evidence.remove ( evidenceType ) ) return false;
+		graph.unindexEvidence ( this, evidenceType );
+		graph.touch ( this );
+		return true;
+	}
+
+	@Override
+	protected boolean dropTag ( ONDEXConcept concept )
+	{
+		if ( !tagIds.remove ( concept.getId () ) ) return false;
+		graph.unindexTag ( this, concept );
+		graph.touch ( this );
+		return true;
+	}
+
+	@Override
+	protected boolean removeConceptAccession ( String accession, DataSource elementOf )
+	{
+		for ( Iterator<ConceptAccession> i = accessions.iterator (); i.hasNext (); )
+		{
+			ConceptAccession ca = i.next ();
+			if ( ca.getAccession ().equals ( accession ) && ca.getElementOf ().equals ( elementOf ) )
+			{
+				i.remove ();
+				graph.touch ( this );
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected boolean removeConceptAttribute ( AttributeName attrname )
+	{
+		if ( attributes.remove ( attrname ) == null ) return false;
+		graph.unindexAttribute ( this, attrname );
+		graph.touch ( this );
+		return true;
+	}
+
+	@Override
+	protected boolean removeConceptName ( String name )
+	{
+		for ( Iterator<ConceptName> i = names.iterator (); i.hasNext (); )
+		{
+			if ( i.next ().getName ().equals ( name ) )
+			{
+				i.remove ();
+				graph.touch ( this );
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	protected ConceptAccession retrieveConceptAccession ( String accession, DataSource elementOf )
+	{
+		for ( ConceptAccession ca : accessions )
+			if ( ca.getAccession ().equals ( accession ) && ca.getElementOf ().equals ( elementOf ) ) return ca;
+		return null;
+	}
+
+	@Override
+	protected Set<ConceptAccession> retrieveConceptAccessionAll ()
+	{
+		// will be wrapped as UnmodifiableSet in base
+		return accessions;
+	}
+
+	@Override
+	protected Attribute retrieveConceptAttribute ( AttributeName attrname )
+	{
+		return attributes.get ( attrname );
+	}
+
+	@Override
+	protected Set<Attribute> retrieveConceptAttributeAll ()
+	{
+		return new LinkedHashSet<> ( attributes.values () );
+	}
+
+	@Override
+	protected ConceptName retrieveConceptName ( String name )
+	{
+		for ( ConceptName cn : names )
+			if ( cn.getName ().equals ( name ) ) return cn;
+		return null;
+	}
+
+	@Override
+	protected Set<ConceptName> retrieveConceptNameAll ()
+	{
+		// will be wrapped as UnmodifiableSet in base
+		return names;
+	}
+
+	@Override
+	protected Set<EvidenceType> retrieveEvidenceTypeAll ()
+	{
+		// will be wrapped as UnmodifiableSet in base
+		return evidence;
+	}
+
+	@Override
+	protected ConceptName retrievePreferredConceptName ()
+	{
+		for ( ConceptName cn : names )
+			if ( cn.isPreferred () ) return cn;
+		return null;
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveTagAll ()
+	{
+		Set<ONDEXConcept> result = new HashSet<> ();
+		for ( int tagId: tagIds )
+		{
+			ONDEXConcept tag = graph.getConcept ( tagId );
+			if ( tag != null ) result.add ( tag );
+		}
+		return result;
+	}
+
+	@Override
+	protected void saveEvidenceType ( EvidenceType evidenceType )
+	{
+		if ( !evidence.add ( evidenceType ) ) return;
+		graph.indexEvidence ( this, evidenceType );
+		graph.touch ( this );
+	}
+
+	@Override
+	protected void saveTag ( ONDEXConcept tag )
+	{
+		if ( !tagIds.add ( tag.getId () ) ) return;
+		graph.indexTag ( this, tag );
+		graph.touch ( this );
+	}
+
+	@Override
+	protected ConceptAccession storeConceptAccession ( ConceptAccession ca )
+	{
+		ConceptAccession mca = new Accession ( sid, id, ca.getAccession (), ca.getElementOf (), ca.isAmbiguous () );
+		// As in the memory implementation, an existing accession isn't replaced
+		if ( !accessions.add ( mca ) ) return ca;
+		graph.touch ( this );
+		return mca;
+	}
+
+	@Override
+	protected Attribute storeConceptAttribute ( Attribute attribute )
+	{
+		AttributeName an = attribute.getOfType ();
+		Attribute mattr = new ConceptAttr ( sid, id, an, attribute.getValue (), attribute.isDoIndex () );
+
+		Attribute existing = attributes.put ( an, mattr );
+		if ( existing != null )
+			graph.fireEventOccurred ( DuplicatedEntryEvent.class, () -> new DuplicatedEntryEvent (
+				Config.properties.getProperty ( "memory.Concept.DuplicatedConceptAttribute" ) + an.getId (),
+				"[Concept - storeConceptAttribute]"
+			));
+
+		graph.indexAttribute ( this, an );
+		graph.touch ( this );
+		return mattr;
+	}
+
+	@Override
+	protected ConceptName storeConceptName ( ConceptName cn )
+	{
+		ConceptName mcn = new Name ( sid, id, cn.getName (), cn.isPreferred () );
+		// As in the memory implementation, an existing name isn't replaced
+		if ( !names.add ( mcn ) ) return cn;
+		graph.touch ( this );
+		return mcn;
+	}
+}
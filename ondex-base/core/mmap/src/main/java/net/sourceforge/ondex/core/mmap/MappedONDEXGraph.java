@@ -0,0 +1,715 @@
+package net.sourceforge.ondex.core.mmap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import net.sourceforge.ondex.config.Config;
+import net.sourceforge.ondex.config.ONDEXGraphRegistry;
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
+import net.sourceforge.ondex.core.base.RelationKeyImpl;
+import net.sourceforge.ondex.core.memory.IdArraySet;
+import net.sourceforge.ondex.core.memory.MemoryONDEXGraphMetaData;
+import net.sourceforge.ondex.core.util.BitSetFunctions;
+import net.sourceforge.ondex.core.util.EntityBitmapSet;
+import net.sourceforge.ondex.event.ONDEXEventHandler;
+import net.sourceforge.ondex.event.ONDEXListener;
+import net.sourceforge.ondex.event.type.DuplicatedEntryEvent;
+import net.sourceforge.ondex.event.type.EventType;
+
+/**
+ * <p>An ONDEX graph that keeps its concepts and relations in memory-mapped files, so that graphs bigger than the
+ * heap can be built without huge heaps and long GC pauses.</p>
+ *
+ * <p>The entities, including their names, accessions, attributes, evidence and tags, are serialised into two
+ * {@link MappedRecordStore mapped stores}, one for concepts and one for relations. The graph keeps a
+ * {@link EntityCache bounded cache} of the most recently used entity objects, which are written back to the
+ * store when they leave the cache, and re-loaded from there on demand. The cache size can be set via the
+ * constructor or the {@link #CACHE_SIZE_PROP} system property. The old copies of changed or deleted entities are
+ * reclaimed by compacting the stores, when they become the bulk of them. The relation key index is
+ * {@link MappedRelationKeyIndex mapped} too.</p>
+ *
+ * <p>What stays on the heap is a compact set of indexes based on ids: the store offsets, the metadata =&gt;
+ * entities indexes, as {@link EntityBitmapSet}s, which the graph getters return as read-only views, and the
+ * concept =&gt; relations adjacency, as int arrays. These take a few tens of bytes per entity, against the
+ * hundreds usually taken by the entities in {@code MemoryONDEXGraph}. Metadata are kept on the heap too, as in
+ * the memory graph.</p>
+ *
+ * <p>The files are a scratch area, they're not meant to persist a graph across different JVMs (use the OXL
+ * export for that) and they are deleted by {@link #close()}, or when the JVM ends.</p>
+ *
+ * <p>Like {@code MemoryONDEXGraph}, this class isn't thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class MappedONDEXGraph extends AbstractONDEXGraph implements Closeable
+{
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The system property to set the default for the max no. of concepts and the max no. of relations that are
+	 * kept in memory as objects.
+	 */
+	public static final String CACHE_SIZE_PROP = "ondex.mmap.cacheSize";
+
+	public static final int DEFAULT_CACHE_SIZE = 100_000;
+
+	private static final int SEGMENT_SIZE = 64 << 20;
+
+	private final transient Path storageDir;
+	private final boolean isTempStorageDir;
+	private final transient MappedRecordStore conceptStore;
+	private final transient MappedRecordStore relationStore;
+	private final transient MappedRelationKeyIndex keyIndex;
+	private final transient MappedRecordCodec codec = new MappedRecordCodec ( this );
+
+	private final transient EntityCache<MappedONDEXConcept> conceptCache;
+	private final transient EntityCache<MappedONDEXRelation> relationCache;
+
+	// cached, since the events are fired on hot paths
+	private transient ONDEXEventHandler eventHandler = null;
+
+	// Store positions, indexed by entity id, -1 for entities not written yet
+	private long[] conceptOffsets = new long [ 1024 ];
+	private long[] relationOffsets = new long [ 1024 ];
+
+	private final EntityBitmapSet<ONDEXConcept> conceptIds = newConceptIndexSet ();
+	private final EntityBitmapSet<ONDEXRelation> relationIds = newRelationIndexSet ();
+
+	// concept id => ids of its relations (ascending, since relation ids are), and the used length of each array
+	private int[][] conceptToRelations = new int [ 1024 ][];
+	private int[] conceptToRelationsSize = new int [ 1024 ];
+
+	private final Map<DataSource, EntityBitmapSet<ONDEXConcept>> dataSourceToConcepts = new HashMap<> ();
+	private final Map<ConceptClass, EntityBitmapSet<ONDEXConcept>> conceptClassToConcepts = new HashMap<> ();
+	private final Map<AttributeName, EntityBitmapSet<ONDEXConcept>> attributeNameToConcepts = new HashMap<> ();
+	private final Map<EvidenceType, EntityBitmapSet<ONDEXConcept>> evidenceTypeToConcepts = new HashMap<> ();
+	private final Map<Integer, EntityBitmapSet<ONDEXConcept>> tagToConcepts = new HashMap<> ();
+
+	private final Map<DataSource, EntityBitmapSet<ONDEXRelation>> dataSourceToRelations = new HashMap<> ();
+	private final Map<ConceptClass, EntityBitmapSet<ONDEXRelation>> conceptClassToRelations = new HashMap<> ();
+	private final Map<RelationType, EntityBitmapSet<ONDEXRelation>> relationTypeToRelations = new HashMap<> ();
+	private final Map<AttributeName, EntityBitmapSet<ONDEXRelation>> attributeNameToRelations = new HashMap<> ();
+	private final Map<EvidenceType, EntityBitmapSet<ONDEXRelation>> evidenceTypeToRelations = new HashMap<> ();
+	private final Map<Integer, EntityBitmapSet<ONDEXRelation>> tagToRelations = new HashMap<> ();
+
+	/**
+	 * Uses a new temporary directory for the storage and the default cache size.
+	 */
+	public MappedONDEXGraph ( String name )
+	{
+		this ( name, null );
+	}
+
+	/**
+	 * Uses the default cache size.
+	 *
+	 * @param storageDir where the mapped files are created. If it's null, a temporary directory is created and then
+	 * removed by {@link #close()}.
+	 */
+	public MappedONDEXGraph ( String name, File storageDir )
+	{
+		this ( name, storageDir, Integer.getInteger ( CACHE_SIZE_PROP, DEFAULT_CACHE_SIZE ), null );
+	}
+
+	/**
+	 * @param name the graph name
+	 * @param storageDir see {@link #MappedONDEXGraph(String, File)}
+	 * @param cacheSize the max no. of concepts and the max no. of relations that are kept in memory.
+	 * @param l an optional listener
+	 */
+	public MappedONDEXGraph ( String name, File storageDir, int cacheSize, ONDEXListener l )
+	{
+		super ( name, new MemoryONDEXGraphMetaData () );
+		if ( l != null )
+			ONDEXEventHandler.getEventHandlerForSID ( getSID () ).addONDEXONDEXListener ( l );
+
+		try
+		{
+			this.isTempStorageDir = storageDir == null;
+			if ( isTempStorageDir ) {
+				this.storageDir = Files.createTempDirectory ( "ondex-mmap-" );
+				this.storageDir.toFile ().deleteOnExit ();
+			}
+			else {
+				this.storageDir = storageDir.toPath ();
+				Files.createDirectories ( this.storageDir );
+			}
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while creating the storage for the ONDEX graph \"" + name + "\"", ex );
+		}
+
+		String prefix = "graph-" + getSID ();
+		this.conceptStore = new MappedRecordStore ( this.storageDir.resolve ( prefix + "-concepts.dat" ), SEGMENT_SIZE );
+		this.relationStore = new MappedRecordStore ( this.storageDir.resolve ( prefix + "-relations.dat" ), SEGMENT_SIZE );
+		this.keyIndex = new MappedRelationKeyIndex ( this.storageDir.resolve ( prefix + "-relation-keys.dat" ) );
+
+		this.conceptCache = new EntityCache<> ( cacheSize, this::writeConcept );
+		this.relationCache = new EntityCache<> ( cacheSize, this::writeRelation );
+
+		Arrays.fill ( conceptOffsets, -1 );
+		Arrays.fill ( relationOffsets, -1 );
+	}
+
+	/**
+	 * Used by the entity parts (names, attributes, etc) to reach their graph.
+	 */
+	static MappedONDEXGraph get ( long sid )
+	{
+		return (MappedONDEXGraph) ONDEXGraphRegistry.graphs.get ( sid );
+	}
+
+	/**
+	 * Writes all the pending changes to the mapped store.
+	 */
+	public void flush ()
+	{
+		conceptCache.forEachHot ( this::writeConcept );
+		relationCache.forEachHot ( this::writeRelation );
+	}
+
+	/**
+	 * Releases the mapped files and deletes them. The graph can't be used after this.
+	 */
+	@Override
+	public void close ()
+	{
+		conceptCache.clear ();
+		relationCache.clear ();
+		conceptStore.close ();
+		relationStore.close ();
+		keyIndex.close ();
+		ONDEXGraphRegistry.graphs.remove ( getSID () );
+		ONDEXEventHandler.releaseEventHandlerForSID ( getSID () );
+		if ( !isTempStorageDir ) return;
+		try {
+			Files.deleteIfExists ( storageDir );
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while removing the storage of the ONDEX graph \"" + getName () + "\"", ex );
+		}
+	}
+
+	/**
+	 * The no. of bytes used by the mapped files.
+	 */
+	public long getStorageSize ()
+	{
+		return conceptStore.size () + relationStore.size () + keyIndex.getStorageSize ();
+	}
+
+
+	@Override
+	protected ONDEXConcept storeConcept ( long sid, int id, String pid, String annotation, String description,
+			DataSource elementOf, ConceptClass ofType, Collection<EvidenceType> evidence )
+	{
+		if ( id < 0 ) throw new IllegalArgumentException (
+			"The mapped ONDEX graph \"" + getName () + "\" doesn't support negative concept IDs"
+		);
+
+		ONDEXConcept existingConcept = retrieveConcept ( id );
+		if ( existingConcept != null )
+		{
+			fireEventOccurred ( DuplicatedEntryEvent.class, () -> new DuplicatedEntryEvent (
+					Config.properties.getProperty ( "memory.ONDEXGraph.DuplicatedConcept" ) + id + " pid= " + pid,
+					"[MappedONDEXGraph - storeConcept]" ) );
+			return existingConcept;
+		}
+
+		MappedONDEXConcept c = new MappedONDEXConcept ( sid, this, id, pid, annotation, description, elementOf, ofType );
+
+		conceptOffsets = ensureSize ( conceptOffsets, id );
+		conceptIds.add ( c );
+		touch ( c );
+
+		for ( EvidenceType anEvidence : evidence )
+			c.addEvidenceType ( anEvidence );
+
+		index ( dataSourceToConcepts, elementOf, c );
+		index ( conceptClassToConcepts, ofType, c );
+
+		return c;
+	}
+
+	@Override
+	protected ONDEXRelation storeRelation ( long sid, int id, ONDEXConcept fromConcept, ONDEXConcept toConcept,
+			RelationType ofType, Collection<EvidenceType> evidence )
+	{
+		int existingId = keyIndex.get ( fromConcept.getId (), toConcept.getId (), ofType );
+		if ( existingId != -1 )
+		{
+			fireEventOccurred ( DuplicatedEntryEvent.class, () -> new DuplicatedEntryEvent (
+					Config.properties.getProperty ( "memory.ONDEXGraph.DuplicatedRelation" )
+							+ new RelationKeyImpl ( sid, fromConcept.getId (), toConcept.getId (), ofType.getId () )
+							+ " pid from " + fromConcept.getPID () + "pid to " + toConcept.getPID (),
+					"[MappedONDEXGraph - storeRelation]" ) );
+			return retrieveRelation ( existingId );
+		}
+
+		MappedONDEXRelation r = new MappedONDEXRelation ( sid, this, id, fromConcept, toConcept, ofType );
+
+		relationOffsets = ensureSize ( relationOffsets, id );
+		relationIds.add ( r );
+		keyIndex.put ( fromConcept.getId (), toConcept.getId (), ofType, id );
+		touch ( r );
+
+		for ( EvidenceType anEvidence : evidence )
+			r.addEvidenceType ( anEvidence );
+
+		index ( relationTypeToRelations, ofType, r );
+
+		for ( ONDEXConcept c: new ONDEXConcept[] { fromConcept, toConcept } )
+		{
+			addAdjacentRelation ( c.getId (), id );
+			index ( dataSourceToRelations, c.getElementOf (), r );
+			index ( conceptClassToRelations, c.getOfType (), r );
+		}
+
+		return r;
+	}
+
+	@Override
+	protected ONDEXConcept removeConcept ( int id )
+	{
+		MappedONDEXConcept c = (MappedONDEXConcept) retrieveConcept ( id );
+		if ( c == null ) return null;
+
+		unindex ( dataSourceToConcepts, c.getElementOf (), c );
+		unindex ( conceptClassToConcepts, c.getOfType (), c );
+		for ( AttributeName an: c.attributes.keySet () ) unindex ( attributeNameToConcepts, an, c );
+		for ( EvidenceType et: c.evidence ) unindex ( evidenceTypeToConcepts, et, c );
+		for ( int tagId: c.tagIds ) unindex ( tagToConcepts, tagId, c );
+		tagToConcepts.remove ( id );
+
+		if ( id < conceptToRelations.length ) {
+			conceptToRelations [ id ] = null;
+			conceptToRelationsSize [ id ] = 0;
+		}
+
+		conceptIds.remove ( c );
+		long offset = conceptOffsets [ id ];
+		conceptOffsets [ id ] = -1;
+		release ( conceptStore, conceptOffsets, offset );
+		conceptCache.remove ( id );
+
+		return c;
+	}
+
+	@Override
+	protected boolean removeRelation ( int id )
+	{
+		ONDEXRelation r = retrieveRelation ( id );
+		if ( r == null ) return false;
+		return removeRelation ( r.getFromConcept (), r.getToConcept (), r.getOfType () );
+	}
+
+	@Override
+	protected boolean removeRelation ( ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType )
+	{
+		int id = keyIndex.remove ( fromConcept.getId (), toConcept.getId (), ofType );
+		if ( id == -1 ) return false;
+
+		MappedONDEXRelation r = (MappedONDEXRelation) retrieveRelation ( id );
+
+		unindex ( relationTypeToRelations, ofType, r );
+		for ( ONDEXConcept c: new ONDEXConcept[] { fromConcept, toConcept } )
+		{
+			removeAdjacentRelation ( c.getId (), id );
+			unindex ( dataSourceToRelations, c.getElementOf (), r );
+			unindex ( conceptClassToRelations, c.getOfType (), r );
+		}
+		for ( AttributeName an: r.attributes.keySet () ) unindex ( attributeNameToRelations, an, r );
+		for ( EvidenceType et: r.evidence ) unindex ( evidenceTypeToRelations, et, r );
+		for ( int tagId: r.tagIds ) unindex ( tagToRelations, tagId, r );
+
+		relationIds.remove ( r );
+		long offset = relationOffsets [ id ];
+		relationOffsets [ id ] = -1;
+		release ( relationStore, relationOffsets, offset );
+		relationCache.remove ( id );
+
+		return true;
+	}
+
+	@Override
+	protected ONDEXConcept retrieveConcept ( int id )
+	{
+		if ( id < 0 || !conceptIds.containsId ( id ) ) return null;
+
+		MappedONDEXConcept c = conceptCache.get ( id );
+		if ( c != null ) return c;
+
+		c = codec.decodeConcept ( id, conceptStore.read ( conceptOffsets [ id ] ) );
+		conceptCache.put ( c );
+		return c;
+	}
+
+	@Override
+	protected ONDEXRelation retrieveRelation ( int id )
+	{
+		if ( id < 0 || !relationIds.containsId ( id ) ) return null;
+
+		MappedONDEXRelation r = relationCache.get ( id );
+		if ( r != null ) return r;
+
+		r = codec.decodeRelation ( id, relationStore.read ( relationOffsets [ id ] ) );
+		relationCache.put ( r );
+		return r;
+	}
+
+	@Override
+	protected ONDEXRelation retrieveRelation ( ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType )
+	{
+		int id = keyIndex.get ( fromConcept.getId (), toConcept.getId (), ofType );
+		return id == -1 ? null : retrieveRelation ( id );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAll ()
+	{
+		return viewOf ( conceptIds );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllAttributeName ( AttributeName attributeName )
+	{
+		return viewOf ( attributeNameToConcepts.get ( attributeName ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllConceptClass ( ConceptClass conceptClass )
+	{
+		return viewOf ( conceptClassToConcepts.get ( conceptClass ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllDataSource ( DataSource dataSource )
+	{
+		return viewOf ( dataSourceToConcepts.get ( dataSource ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllEvidenceType ( EvidenceType evidenceType )
+	{
+		return viewOf ( evidenceTypeToConcepts.get ( evidenceType ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllTag ( ONDEXConcept concept )
+	{
+		return viewOf ( tagToConcepts.get ( concept.getId () ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAll ()
+	{
+		return viewOf ( relationIds );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllAttributeName ( AttributeName attributeName )
+	{
+		return viewOf ( attributeNameToRelations.get ( attributeName ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllConcept ( ONDEXConcept concept )
+	{
+		int cid = concept.getId ();
+		if ( cid < 0 || cid >= conceptToRelations.length || conceptToRelations [ cid ] == null ) return null;
+		return new IdArraySet<> (
+			Arrays.copyOf ( conceptToRelations [ cid ], conceptToRelationsSize [ cid ] ), this::retrieveRelation
+		);
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllConceptClass ( ConceptClass conceptClass )
+	{
+		return viewOf ( conceptClassToRelations.get ( conceptClass ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllDataSource ( DataSource dataSource )
+	{
+		return viewOf ( dataSourceToRelations.get ( dataSource ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllEvidenceType ( EvidenceType evidenceType )
+	{
+		return viewOf ( evidenceTypeToRelations.get ( evidenceType ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllRelationType ( RelationType relationType )
+	{
+		return viewOf ( relationTypeToRelations.get ( relationType ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllTag ( ONDEXConcept concept )
+	{
+		return viewOf ( tagToRelations.get ( concept.getId () ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveTags ()
+	{
+		BitSet tagIds = new BitSet ();
+		tagToConcepts.forEach ( ( tagId, entities ) -> { if ( !entities.isEmpty () ) tagIds.set ( tagId ); } );
+		tagToRelations.forEach ( ( tagId, entities ) -> { if ( !entities.isEmpty () ) tagIds.set ( tagId ); } );
+		return BitSetFunctions.create ( this, ONDEXConcept.class, tagIds );
+	}
+
+
+	/**
+	 * Marks the entity as changed and makes it hot in the cache. Changes to deleted entities are ignored.
+	 */
+	void touch ( MappedONDEXConcept c )
+	{
+		if ( !conceptIds.containsId ( c.getId () ) ) return;
+		c.isDirty = true;
+		conceptCache.put ( c );
+	}
+
+	/**
+	 * @see #touch(MappedONDEXConcept)
+	 */
+	void touch ( MappedONDEXRelation r )
+	{
+		if ( !relationIds.containsId ( r.getId () ) ) return;
+		r.isDirty = true;
+		relationCache.put ( r );
+	}
+
+	/**
+	 * Called by a concept name, accession or attribute changed in place. Such object might belong to a copy
+	 * of the concept that was already evicted and reloaded, so here we make it part of the current copy.
+	 */
+	void conceptPartChanged ( int conceptId, Object part )
+	{
+		MappedONDEXConcept c = (MappedONDEXConcept) retrieveConcept ( conceptId );
+		if ( c == null ) return;
+		c.replacePart ( part );
+		touch ( c );
+	}
+
+	/**
+	 * @see #conceptPartChanged(int, Object)
+	 */
+	void relationPartChanged ( int relationId, Attribute attr )
+	{
+		MappedONDEXRelation r = (MappedONDEXRelation) retrieveRelation ( relationId );
+		if ( r == null ) return;
+		r.replacePart ( attr );
+		touch ( r );
+	}
+
+	void indexEvidence ( ONDEXEntity e, EvidenceType et )
+	{
+		if ( e instanceof ONDEXConcept )
+			index ( evidenceTypeToConcepts, et, (ONDEXConcept) e );
+		else
+			index ( evidenceTypeToRelations, et, (ONDEXRelation) e );
+	}
+
+	void unindexEvidence ( ONDEXEntity e, EvidenceType et )
+	{
+		if ( e instanceof ONDEXConcept )
+			unindex ( evidenceTypeToConcepts, et, (ONDEXConcept) e );
+		else
+			unindex ( evidenceTypeToRelations, et, (ONDEXRelation) e );
+	}
+
+	void indexAttribute ( ONDEXEntity e, AttributeName an )
+	{
+		if ( e instanceof ONDEXConcept )
+			index ( attributeNameToConcepts, an, (ONDEXConcept) e );
+		else
+			index ( attributeNameToRelations, an, (ONDEXRelation) e );
+	}
+
+	void unindexAttribute ( ONDEXEntity e, AttributeName an )
+	{
+		if ( e instanceof ONDEXConcept )
+			unindex ( attributeNameToConcepts, an, (ONDEXConcept) e );
+		else
+			unindex ( attributeNameToRelations, an, (ONDEXRelation) e );
+	}
+
+	void indexTag ( ONDEXEntity e, ONDEXConcept tag )
+	{
+		if ( e instanceof ONDEXConcept )
+			index ( tagToConcepts, tag.getId (), (ONDEXConcept) e );
+		else
+			index ( tagToRelations, tag.getId (), (ONDEXRelation) e );
+	}
+
+	void unindexTag ( ONDEXEntity e, ONDEXConcept tag )
+	{
+		if ( e instanceof ONDEXConcept )
+			unindex ( tagToConcepts, tag.getId (), (ONDEXConcept) e );
+		else
+			unindex ( tagToRelations, tag.getId (), (ONDEXRelation) e );
+	}
+
+	/**
+	 * Propagate events to registered listeners
+	 */
+	protected void fireEventOccurred ( EventType e )
+	{
+		getEventHandler ().fireEventOccurred ( e );
+	}
+
+	/**
+	 * Creates and propagates the event only if some listener wants it, see 
+	 * {@link ONDEXEventHandler#fireEventOccurred(Class, Supplier)}.
+	 */
+	protected <E extends EventType> void fireEventOccurred ( Class<E> type, Supplier<? extends E> eventSupplier )
+	{
+		getEventHandler ().fireEventOccurred ( type, eventSupplier );
+	}
+
+	private ONDEXEventHandler getEventHandler ()
+	{
+		if ( eventHandler == null ) eventHandler = ONDEXEventHandler.getEventHandlerForSID ( getSID () );
+		return eventHandler;
+	}
+
+
+	/**
+	 * The eviction handler for concepts.
+	 */
+	private void writeConcept ( MappedONDEXConcept c )
+	{
+		if ( !c.isDirty || !conceptIds.containsId ( c.getId () ) ) return;
+		long oldOffset = conceptOffsets [ c.getId () ];
+		conceptOffsets [ c.getId () ] = conceptStore.append ( codec.encodeConcept ( c ) );
+		release ( conceptStore, conceptOffsets, oldOffset );
+		c.isDirty = false;
+	}
+
+	/**
+	 * The eviction handler for relations.
+	 */
+	private void writeRelation ( MappedONDEXRelation r )
+	{
+		if ( !r.isDirty || !relationIds.containsId ( r.getId () ) ) return;
+		long oldOffset = relationOffsets [ r.getId () ];
+		relationOffsets [ r.getId () ] = relationStore.append ( codec.encodeRelation ( r ) );
+		release ( relationStore, relationOffsets, oldOffset );
+		r.isDirty = false;
+	}
+
+	private void addAdjacentRelation ( int conceptId, int relationId )
+	{
+		if ( conceptId >= conceptToRelations.length )
+		{
+			int newSize = Math.max ( conceptId + 1, conceptToRelations.length * 2 );
+			conceptToRelations = Arrays.copyOf ( conceptToRelations, newSize );
+			conceptToRelationsSize = Arrays.copyOf ( conceptToRelationsSize, newSize );
+		}
+
+		int[] rels = conceptToRelations [ conceptId ];
+		int size = conceptToRelationsSize [ conceptId ];
+		if ( rels == null ) rels = new int [ 4 ];
+		// Already there, eg, a self-loop
+		else if ( size > 0 && rels [ size - 1 ] == relationId ) return;
+		else if ( size == rels.length ) rels = Arrays.copyOf ( rels, size * 2 );
+
+		rels [ size ] = relationId;
+		conceptToRelations [ conceptId ] = rels;
+		conceptToRelationsSize [ conceptId ] = size + 1;
+	}
+
+	private void removeAdjacentRelation ( int conceptId, int relationId )
+	{
+		if ( conceptId >= conceptToRelations.length ) return;
+		int[] rels = conceptToRelations [ conceptId ];
+		if ( rels == null ) return;
+		int size = conceptToRelationsSize [ conceptId ];
+		int idx = Arrays.binarySearch ( rels, 0, size, relationId );
+		if ( idx < 0 ) return;
+		System.arraycopy ( rels, idx + 1, rels, idx, size - idx - 1 );
+		conceptToRelationsSize [ conceptId ] = size - 1;
+	}
+
+	/**
+	 * Marks an old copy of an entity as garbage, if there is one, and compacts the store if that's worth it. The
+	 * offsets must already point to the current copies, since they're updated by the compaction.
+	 */
+	private static void release ( MappedRecordStore store, long[] offsets, long oldOffset )
+	{
+		if ( oldOffset == -1 ) return;
+		store.release ( oldOffset );
+		if ( store.needsCompaction () ) store.compact ( offsets );
+	}
+
+	private EntityBitmapSet<ONDEXConcept> newConceptIndexSet ()
+	{
+		return new EntityBitmapSet<> ( ONDEXConcept.class, getSID (), this::retrieveConcept );
+	}
+
+	private EntityBitmapSet<ONDEXRelation> newRelationIndexSet ()
+	{
+		return new EntityBitmapSet<> ( ONDEXRelation.class, getSID (), this::retrieveRelation );
+	}
+
+	private <K> void index ( Map<K, EntityBitmapSet<ONDEXConcept>> index, K key, ONDEXConcept c )
+	{
+		index.computeIfAbsent ( key, _k -> newConceptIndexSet () ).add ( c );
+	}
+
+	private <K> void index ( Map<K, EntityBitmapSet<ONDEXRelation>> index, K key, ONDEXRelation r )
+	{
+		index.computeIfAbsent ( key, _k -> newRelationIndexSet () ).add ( r );
+	}
+
+	/**
+	 * A read-only view of an index entry. As in the memory graph, this reflects later changes and isn't a copy.
+	 */
+	private static <E extends ONDEXEntity> Set<E> viewOf ( EntityBitmapSet<E> entities )
+	{
+		return entities == null ? null : entities.unmodifiable ();
+	}
+
+	private static <K, E extends ONDEXEntity> void unindex ( Map<K, EntityBitmapSet<E>> index, K key, E e )
+	{
+		EntityBitmapSet<E> entities = index.get ( key );
+		if ( entities != null ) entities.remove ( e );
+	}
+
+	/**
+	 * Grows an offset array to include the index, if needed.
+	 */
+	private static long[] ensureSize ( long[] offsets, int idx )
+	{
+		if ( idx < offsets.length ) return offsets;
+		int oldSize = offsets.length;
+		long[] result = Arrays.copyOf ( offsets, Math.max ( idx + 1, oldSize * 2 ) );
+		Arrays.fill ( result, oldSize, result.length, -1 );
+		return result;
+	}
+}
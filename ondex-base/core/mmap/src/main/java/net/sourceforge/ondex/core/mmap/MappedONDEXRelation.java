@@ -0,0 +1,184 @@
+package net.sourceforge.ondex.core.mmap;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.ondex.config.Config;
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.base.AbstractRelation;
+import net.sourceforge.ondex.core.base.RelationAttribute;
+import net.sourceforge.ondex.event.type.DuplicatedEntryEvent;
+
+/**
+ * <p>The relation of a {@link MappedONDEXGraph}.</p>
+ *
+ * <p>As for {@link MappedONDEXConcept}, an object of this class holds the whole relation data while the relation
+ * is cached, and every change is notified to the graph, so that it's written back to the mapped store.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class MappedONDEXRelation extends AbstractRelation
+{
+	private static final long serialVersionUID = 1L;
+
+	final Map<AttributeName, Attribute> attributes = new LinkedHashMap<> ();
+	final Set<EvidenceType> evidence = new LinkedHashSet<> ();
+	final Set<Integer> tagIds = new LinkedHashSet<> ();
+
+	protected transient MappedONDEXGraph graph;
+
+	/**
+	 * Set when this relation differs from its copy in the mapped store.
+	 */
+	transient boolean isDirty = false;
+
+
+	/**
+	 * The attribute type used here, which tracks in-place changes.
+	 */
+	static class RelationAttr extends RelationAttribute
+	{
+		private static final long serialVersionUID = 1L;
+
+		// False while the super constructor calls setValue()
+		private transient boolean isInitialised;
+
+		RelationAttr ( long sid, int relationId, AttributeName attributeName, Object value, boolean doIndex )
+		{
+			super ( sid, relationId, attributeName, value, doIndex );
+			this.isInitialised = true;
+		}
+
+		@Override
+		public void setValue ( Object value )
+		{
+			super.setValue ( value );
+			if ( isInitialised ) MappedONDEXGraph.get ( getSID () ).relationPartChanged ( getOwnerId (), this );
+		}
+
+		@Override
+		public void setDoIndex ( boolean doIndex )
+		{
+			super.setDoIndex ( doIndex );
+			if ( isInitialised ) MappedONDEXGraph.get ( getSID () ).relationPartChanged ( getOwnerId (), this );
+		}
+	}
+
+
+	protected MappedONDEXRelation ( long sid, MappedONDEXGraph graph, int id,
+			ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType )
+	{
+		super ( sid, id, fromConcept, toConcept, ofType );
+		this.graph = graph;
+		setParentGraph ( graph );
+	}
+
+	/**
+	 * @see MappedONDEXConcept#replacePart(Object)
+	 */
+	void replacePart ( Attribute attr )
+	{
+		if ( attributes.containsKey ( attr.getOfType () ) ) attributes.put ( attr.getOfType (), attr );
+	}
+
+	@Override
+	protected boolean dropEvidenceType ( EvidenceType evidenceType )
+	{
+		if ( !evidence.remove ( evidenceType ) ) return false;
+		graph.unindexEvidence ( this, evidenceType );
+		graph.touch ( this );
+		return true;
+	}
+
+	@Override
+	protected boolean dropTag ( ONDEXConcept concept )
+	{
+		if ( !tagIds.remove ( concept.getId () ) ) return false;
+		graph.unindexTag ( this, concept );
+		graph.touch ( this );
+		return true;
+	}
+
+	@Override
+	protected boolean removeRelationAttribute ( AttributeName attributeName )
+	{
+		if ( attributes.remove ( attributeName ) == null ) return false;
+		graph.unindexAttribute ( this, attributeName );
+		graph.touch ( this );
+		return true;
+	}
+
+	@Override
+	protected Set<EvidenceType> retrieveEvidenceTypeAll ()
+	{
+		// will be wrapped as UnmodifiableSet in base
+		return evidence;
+	}
+
+	@Override
+	protected Attribute retrieveRelationAttribute ( AttributeName attributeName )
+	{
+		return attributes.get ( attributeName );
+	}
+
+	@Override
+	protected Set<Attribute> retrieveRelationAttributeAll ()
+	{
+		return new LinkedHashSet<> ( attributes.values () );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveTagAll ()
+	{
+		Set<ONDEXConcept> result = new HashSet<> ();
+		for ( int tagId: tagIds )
+		{
+			ONDEXConcept tag = graph.getConcept ( tagId );
+			if ( tag != null ) result.add ( tag );
+		}
+		return result;
+	}
+
+	@Override
+	protected void saveEvidenceType ( EvidenceType evidenceType )
+	{
+		if ( !evidence.add ( evidenceType ) ) return;
+		graph.indexEvidence ( this, evidenceType );
+		graph.touch ( this );
+	}
+
+	@Override
+	protected void saveTag ( ONDEXConcept tag )
+	{
+		if ( !tagIds.add ( tag.getId () ) ) return;
+		graph.indexTag ( this, tag );
+		graph.touch ( this );
+	}
+
+	@Override
+	protected Attribute storeRelationAttribute ( Attribute attribute )
+	{
+		AttributeName an = attribute.getOfType ();
+		Attribute mattr = new RelationAttr ( sid, id, an, attribute.getValue (), attribute.isDoIndex () );
+
+		Attribute existing = attributes.put ( an, mattr );
+		if ( existing != null )
+			graph.fireEventOccurred ( DuplicatedEntryEvent.class, () -> new DuplicatedEntryEvent (
+				Config.properties.getProperty ( "memory.Relation.DuplicatedRelationAttribute" ) + an.getId (),
+				"[Relation - storeRelationAttribute]"
+			));
+
+		graph.indexAttribute ( this, an );
+		graph.touch ( this );
+		return mattr;
+	}
+}
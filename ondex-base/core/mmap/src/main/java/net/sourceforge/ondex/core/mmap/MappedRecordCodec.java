@@ -0,0 +1,315 @@
+package net.sourceforge.ondex.core.mmap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptAccession;
+import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+
+/**
+ * <p>Converts {@link MappedONDEXConcept} and {@link MappedONDEXRelation} objects to/from the byte records kept by
+ * {@link MappedRecordStore}.</p>
+ *
+ * <p>Metadata are written as their IDs and resolved against the graph metadata when reading. Attribute values
+ * of the common types (strings, numbers, booleans) have a compact encoding, while anything else is written by
+ * means of Java serialisation.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+class MappedRecordCodec
+{
+	private static final byte VAL_STRING = 1;
+	private static final byte VAL_INTEGER = 2;
+	private static final byte VAL_LONG = 3;
+	private static final byte VAL_DOUBLE = 4;
+	private static final byte VAL_FLOAT = 5;
+	private static final byte VAL_BOOLEAN = 6;
+	private static final byte VAL_OBJECT = 7;
+
+	private final MappedONDEXGraph graph;
+
+	MappedRecordCodec ( MappedONDEXGraph graph )
+	{
+		this.graph = graph;
+	}
+
+	byte[] encodeConcept ( MappedONDEXConcept c )
+	{
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream ( 256 );
+		try ( DataOutputStream out = new DataOutputStream ( buffer ) )
+		{
+			writeString ( out, c.getPID () );
+			writeString ( out, c.getAnnotation () );
+			writeString ( out, c.getDescription () );
+			writeString ( out, c.getElementOf ().getId () );
+			writeString ( out, c.getOfType ().getId () );
+			writeEvidence ( out, c.evidence );
+			writeTags ( out, c.tagIds );
+
+			out.writeInt ( c.names.size () );
+			for ( ConceptName cn: c.names )
+			{
+				writeString ( out, cn.getName () );
+				out.writeBoolean ( cn.isPreferred () );
+			}
+
+			out.writeInt ( c.accessions.size () );
+			for ( ConceptAccession ca: c.accessions )
+			{
+				writeString ( out, ca.getAccession () );
+				writeString ( out, ca.getElementOf ().getId () );
+				out.writeBoolean ( ca.isAmbiguous () );
+			}
+
+			writeAttributes ( out, c.attributes.values () );
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while encoding the ONDEX concept " + c.getId (), ex );
+		}
+		return buffer.toByteArray ();
+	}
+
+	MappedONDEXConcept decodeConcept ( int id, byte[] record )
+	{
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		long sid = graph.getSID ();
+		try ( DataInputStream in = new DataInputStream ( new ByteArrayInputStream ( record ) ) )
+		{
+			String pid = readString ( in );
+			String annotation = readString ( in );
+			String description = readString ( in );
+			MappedONDEXConcept c = new MappedONDEXConcept (
+				sid, graph, id, pid, annotation, description,
+				meta.getDataSource ( readString ( in ) ), meta.getConceptClass ( readString ( in ) )
+			);
+			readEvidence ( in, c.evidence );
+			readTags ( in, c.tagIds );
+
+			for ( int i = in.readInt (); i > 0; i-- )
+				c.names.add ( new MappedONDEXConcept.Name ( sid, id, readString ( in ), in.readBoolean () ) );
+
+			for ( int i = in.readInt (); i > 0; i-- )
+				c.accessions.add ( new MappedONDEXConcept.Accession (
+					sid, id, readString ( in ), meta.getDataSource ( readString ( in ) ), in.readBoolean ()
+				));
+
+			for ( int i = in.readInt (); i > 0; i-- )
+			{
+				AttributeName an = meta.getAttributeName ( readString ( in ) );
+				boolean doIndex = in.readBoolean ();
+				c.attributes.put ( an, new MappedONDEXConcept.ConceptAttr ( sid, id, an, readValue ( in ), doIndex ) );
+			}
+			return c;
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while decoding the ONDEX concept " + id, ex );
+		}
+	}
+
+	byte[] encodeRelation ( MappedONDEXRelation r )
+	{
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream ( 128 );
+		try ( DataOutputStream out = new DataOutputStream ( buffer ) )
+		{
+			out.writeInt ( r.getFromConcept ().getId () );
+			out.writeInt ( r.getToConcept ().getId () );
+			writeString ( out, r.getOfType ().getId () );
+			writeEvidence ( out, r.evidence );
+			writeTags ( out, r.tagIds );
+			writeAttributes ( out, r.attributes.values () );
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while encoding the ONDEX relation " + r.getId (), ex );
+		}
+		return buffer.toByteArray ();
+	}
+
+	MappedONDEXRelation decodeRelation ( int id, byte[] record )
+	{
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		long sid = graph.getSID ();
+		try ( DataInputStream in = new DataInputStream ( new ByteArrayInputStream ( record ) ) )
+		{
+			ONDEXConcept from = graph.getConcept ( in.readInt () );
+			ONDEXConcept to = graph.getConcept ( in.readInt () );
+			MappedONDEXRelation r = new MappedONDEXRelation (
+				sid, graph, id, from, to, meta.getRelationType ( readString ( in ) )
+			);
+			readEvidence ( in, r.evidence );
+			readTags ( in, r.tagIds );
+
+			for ( int i = in.readInt (); i > 0; i-- )
+			{
+				AttributeName an = meta.getAttributeName ( readString ( in ) );
+				boolean doIndex = in.readBoolean ();
+				r.attributes.put ( an, new MappedONDEXRelation.RelationAttr ( sid, id, an, readValue ( in ), doIndex ) );
+			}
+			return r;
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while decoding the ONDEX relation " + id, ex );
+		}
+	}
+
+
+	private void writeEvidence ( DataOutputStream out, Collection<EvidenceType> evidence ) throws IOException
+	{
+		out.writeInt ( evidence.size () );
+		for ( EvidenceType et: evidence ) writeString ( out, et.getId () );
+	}
+
+	private void readEvidence ( DataInputStream in, Collection<EvidenceType> evidence ) throws IOException
+	{
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		for ( int i = in.readInt (); i > 0; i-- ) evidence.add ( meta.getEvidenceType ( readString ( in ) ) );
+	}
+
+	private static void writeTags ( DataOutputStream out, Collection<Integer> tagIds ) throws IOException
+	{
+		out.writeInt ( tagIds.size () );
+		for ( int tagId: tagIds ) out.writeInt ( tagId );
+	}
+
+	private static void readTags ( DataInputStream in, Collection<Integer> tagIds ) throws IOException
+	{
+		for ( int i = in.readInt (); i > 0; i-- ) tagIds.add ( in.readInt () );
+	}
+
+	private static void writeAttributes ( DataOutputStream out, Collection<Attribute> attributes ) throws IOException
+	{
+		out.writeInt ( attributes.size () );
+		for ( Attribute attr: attributes )
+		{
+			writeString ( out, attr.getOfType ().getId () );
+			out.writeBoolean ( attr.isDoIndex () );
+			writeValue ( out, attr.getValue () );
+		}
+	}
+
+	private static void writeValue ( DataOutputStream out, Object value ) throws IOException
+	{
+		if ( value instanceof String ) {
+			out.writeByte ( VAL_STRING );
+			writeString ( out, (String) value );
+		}
+		else if ( value instanceof Integer ) {
+			out.writeByte ( VAL_INTEGER );
+			out.writeInt ( (Integer) value );
+		}
+		else if ( value instanceof Long ) {
+			out.writeByte ( VAL_LONG );
+			out.writeLong ( (Long) value );
+		}
+		else if ( value instanceof Double ) {
+			out.writeByte ( VAL_DOUBLE );
+			out.writeDouble ( (Double) value );
+		}
+		else if ( value instanceof Float ) {
+			out.writeByte ( VAL_FLOAT );
+			out.writeFloat ( (Float) value );
+		}
+		else if ( value instanceof Boolean ) {
+			out.writeByte ( VAL_BOOLEAN );
+			out.writeBoolean ( (Boolean) value );
+		}
+		else
+		{
+			out.writeByte ( VAL_OBJECT );
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream ();
+			try ( ObjectOutputStream oout = new ObjectOutputStream ( buffer ) ) {
+				oout.writeObject ( value );
+			}
+			out.writeInt ( buffer.size () );
+			buffer.writeTo ( out );
+		}
+	}
+
+	private static Object readValue ( DataInputStream in ) throws IOException
+	{
+		byte type = in.readByte ();
+		switch ( type )
+		{
+			case VAL_STRING: return readString ( in );
+			case VAL_INTEGER: return in.readInt ();
+			case VAL_LONG: return in.readLong ();
+			case VAL_DOUBLE: return in.readDouble ();
+			case VAL_FLOAT: return in.readFloat ();
+			case VAL_BOOLEAN: return in.readBoolean ();
+			case VAL_OBJECT:
+				byte[] data = new byte [ in.readInt () ];
+				in.readFully ( data );
+				try ( ObjectInputStream oin = new ContextObjectInputStream ( new ByteArrayInputStream ( data ) ) ) {
+					return oin.readObject ();
+				}
+				catch ( ClassNotFoundException ex ) {
+					throw new IOException ( "Can't find the class of an ONDEX attribute value: " + ex.getMessage (), ex );
+				}
+			default:
+				throw new IOException ( "Invalid type tag " + type + " for an ONDEX attribute value" );
+		}
+	}
+
+	/**
+	 * Strings are written as UTF-8 bytes, since {@link DataOutputStream#writeUTF(String)} is limited to 64k, null
+	 * is written as length -1.
+	 */
+	private static void writeString ( DataOutputStream out, String s ) throws IOException
+	{
+		if ( s == null ) {
+			out.writeInt ( -1 );
+			return;
+		}
+		byte[] bytes = s.getBytes ( StandardCharsets.UTF_8 );
+		out.writeInt ( bytes.length );
+		out.write ( bytes );
+	}
+
+	private static String readString ( DataInputStream in ) throws IOException
+	{
+		int len = in.readInt ();
+		if ( len == -1 ) return null;
+		byte[] bytes = new byte [ len ];
+		in.readFully ( bytes );
+		return new String ( bytes, StandardCharsets.UTF_8 );
+	}
+
+	/**
+	 * Resolves classes through the context class loader, since attribute values might come from plug-ins.
+	 */
+	private static class ContextObjectInputStream extends ObjectInputStream
+	{
+		ContextObjectInputStream ( InputStream in ) throws IOException {
+			super ( in );
+		}
+
+		@Override
+		protected Class<?> resolveClass ( ObjectStreamClass desc ) throws IOException, ClassNotFoundException
+		{
+			ClassLoader loader = Thread.currentThread ().getContextClassLoader ();
+			if ( loader == null ) return super.resolveClass ( desc );
+			try {
+				return Class.forName ( desc.getName (), false, loader );
+			}
+			catch ( ClassNotFoundException ex ) {
+				return super.resolveClass ( desc );
+			}
+		}
+	}
+}
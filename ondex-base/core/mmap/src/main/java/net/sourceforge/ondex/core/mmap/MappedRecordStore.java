@@ -0,0 +1,261 @@
+package net.sourceforge.ondex.core.mmap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A store of byte records, based on a memory-mapped file.</p>
+ *
+ * <p>The file is mapped in fixed-size segments, which are added as the store grows, so that the OS pages data
+ * in and out as needed and the records don't take any heap. Each record is written as its length, followed by
+ * its bytes, and it's identified by its starting position in the file. Records can span multiple segments.</p>
+ *
+ * <p>Records are never overwritten, a changed record is appended again and the owner {@link #release(long) releases}
+ * the old copy, which becomes garbage, as it happens with deleted records. When the garbage is
+ * {@link #needsCompaction() too much}, the owner calls {@link #compact(long[])}, which moves the live records into
+ * a new file and drops the old one. The files are deleted by {@link #close()}, or when the JVM ends.</p>
+ *
+ * <p>This class isn't thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+class MappedRecordStore implements Closeable
+{
+	private final Path basePath;
+	private final int segmentSize;
+
+	/**
+	 * The current file, which alternates between the base path and a sibling of it, at each compaction.
+	 */
+	private Path path;
+	private FileChannel channel;
+	private List<MappedByteBuffer> segments = new ArrayList<> ();
+
+	/**
+	 * The position where the next record will be written.
+	 */
+	private long end = 0;
+
+	/**
+	 * The no. of bytes taken by released records.
+	 */
+	private long garbageSize = 0;
+
+	MappedRecordStore ( Path path, int segmentSize )
+	{
+		this ( path, path, segmentSize );
+		basePath.toFile ().deleteOnExit ();
+		getCompactionPath ().toFile ().deleteOnExit ();
+	}
+
+	/**
+	 * @return the position of the new record.
+	 */
+	long append ( byte[] record )
+	{
+		long pos = end;
+		writeInt ( pos, record.length );
+		write ( pos + Integer.BYTES, record );
+		end = pos + Integer.BYTES + record.length;
+		return pos;
+	}
+
+	byte[] read ( long pos )
+	{
+		checkPosition ( pos );
+		byte[] result = new byte [ readInt ( pos ) ];
+		read ( pos + Integer.BYTES, result );
+		return result;
+	}
+
+	/**
+	 * Marks a record as garbage, which happens when it's replaced by a new version, or when it's deleted. The
+	 * record can still be read until the next {@link #compact(long[])}.
+	 */
+	void release ( long pos )
+	{
+		checkPosition ( pos );
+		garbageSize += Integer.BYTES + readInt ( pos );
+	}
+
+	/**
+	 * True when at least half of the store and a whole segment are garbage, ie, when {@link #compact(long[])} is
+	 * worth the cost of copying the live records.
+	 */
+	boolean needsCompaction ()
+	{
+		return garbageSize >= segmentSize && garbageSize * 2 >= end;
+	}
+
+	/**
+	 * Copies the records at the given positions into a new file, which replaces the current one, so that the space
+	 * taken by the released records is reclaimed.
+	 *
+	 * @param positions the positions of all the live records, which are updated with the new positions. Negative
+	 * values are left untouched, so that an offset array with -1 for missing records can be passed straight.
+	 */
+	void compact ( long[] positions )
+	{
+		Path newPath = path.equals ( basePath ) ? getCompactionPath () : basePath;
+		MappedRecordStore newStore = new MappedRecordStore ( newPath, basePath, segmentSize );
+		long[] newPositions = positions.clone ();
+		for ( int i = 0; i < newPositions.length; i++ )
+			if ( newPositions [ i ] >= 0 ) newPositions [ i ] = newStore.append ( read ( newPositions [ i ] ) );
+
+		close ();
+		System.arraycopy ( newPositions, 0, positions, 0, positions.length );
+		this.path = newStore.path;
+		this.channel = newStore.channel;
+		this.segments = newStore.segments;
+		this.end = newStore.end;
+		this.garbageSize = 0;
+	}
+
+	/**
+	 * The no. of bytes used so far, including garbage.
+	 */
+	long size ()
+	{
+		return end;
+	}
+
+	/**
+	 * The no. of bytes taken by {@link #release(long) released} records.
+	 */
+	long getGarbageSize ()
+	{
+		return garbageSize;
+	}
+
+	Path getPath ()
+	{
+		return path;
+	}
+
+	/**
+	 * Releases the mapping and deletes the current file.
+	 */
+	@Override
+	public void close ()
+	{
+		segments.clear ();
+		try {
+			channel.close ();
+			Files.deleteIfExists ( path );
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while closing the ONDEX mapped store \"" + path + "\"", ex );
+		}
+	}
+
+
+	/**
+	 * Used by {@link #compact(long[])} too, which doesn't need to register the files for deletion again.
+	 */
+	private MappedRecordStore ( Path path, Path basePath, int segmentSize )
+	{
+		if ( segmentSize < 1024 ) throw new IllegalArgumentException (
+			"The segment size for the ONDEX mapped store must be at least 1k"
+		);
+		this.basePath = basePath;
+		this.segmentSize = segmentSize;
+		this.path = path;
+		this.channel = open ( path );
+	}
+
+	private static FileChannel open ( Path path )
+	{
+		try {
+			return FileChannel.open (
+				path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING
+			);
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while creating the ONDEX mapped store \"" + path + "\"", ex );
+		}
+	}
+
+	/**
+	 * The file alternative to the base path, where the live records are moved by a compaction.
+	 */
+	private Path getCompactionPath ()
+	{
+		return basePath.resolveSibling ( basePath.getFileName () + ".1" );
+	}
+
+	private void checkPosition ( long pos )
+	{
+		if ( pos < 0 || pos >= end ) throw new IllegalArgumentException (
+			"Invalid record position " + pos + " for the ONDEX mapped store \"" + path + "\""
+		);
+	}
+
+	private void writeInt ( long pos, int value )
+	{
+		write ( pos, new byte[] {
+			(byte) ( value >>> 24 ), (byte) ( value >>> 16 ), (byte) ( value >>> 8 ), (byte) value
+		});
+	}
+
+	private int readInt ( long pos )
+	{
+		byte[] b = new byte [ Integer.BYTES ];
+		read ( pos, b );
+		return ( b [ 0 ] & 0xFF ) << 24 | ( b [ 1 ] & 0xFF ) << 16 | ( b [ 2 ] & 0xFF ) << 8 | ( b [ 3 ] & 0xFF );
+	}
+
+	private void write ( long pos, byte[] data )
+	{
+		int done = 0;
+		while ( done < data.length )
+		{
+			MappedByteBuffer segment = getSegment ( pos + done );
+			int offset = (int) ( ( pos + done ) % segmentSize );
+			int len = Math.min ( data.length - done, segmentSize - offset );
+			segment.put ( offset, data, done, len );
+			done += len;
+		}
+	}
+
+	private void read ( long pos, byte[] dest )
+	{
+		int done = 0;
+		while ( done < dest.length )
+		{
+			MappedByteBuffer segment = segments.get ( (int) ( ( pos + done ) / segmentSize ) );
+			int offset = (int) ( ( pos + done ) % segmentSize );
+			int len = Math.min ( dest.length - done, segmentSize - offset );
+			segment.get ( offset, dest, done, len );
+			done += len;
+		}
+	}
+
+	/**
+	 * Gets the segment containing the position, mapping new segments as needed.
+	 */
+	private MappedByteBuffer getSegment ( long pos )
+	{
+		int idx = (int) ( pos / segmentSize );
+		try {
+			while ( segments.size () <= idx )
+				segments.add ( channel.map (
+					FileChannel.MapMode.READ_WRITE, (long) segments.size () * segmentSize, segmentSize
+				));
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while growing the ONDEX mapped store \"" + path + "\"", ex );
+		}
+		return segments.get ( idx );
+	}
+}
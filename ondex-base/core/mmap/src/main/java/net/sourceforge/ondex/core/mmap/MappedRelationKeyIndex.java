@@ -0,0 +1,267 @@
+package net.sourceforge.ondex.core.mmap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sourceforge.ondex.core.RelationType;
+
+/**
+ * <p>The relation key =&gt; relation id index of {@link MappedONDEXGraph}, which is kept in a memory-mapped file,
+ * like the entities, so that it doesn't take heap in proportion to the no. of relations.</p>
+ *
+ * <p>This is an open-addressing hash table with linear probing. Each slot is made of 4 ints: the from concept id,
+ * the to concept id, the relation type, as a small index kept on the heap, and the relation id + 1, which is 0 for
+ * the empty slots (so that a new file doesn't need any initialisation) and -1 for the deleted ones. When the used
+ * slots, deleted ones included, reach half of the table, this is rebuilt into a new file, twice as big if more
+ * than a quarter of the slots are live, or of the same size otherwise, which drops the deleted slots. The files
+ * are deleted by {@link #close()}, or when the JVM ends.</p>
+ *
+ * <p>This class isn't thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+class MappedRelationKeyIndex implements Closeable
+{
+	private static final int SLOT_BYTES = 4 * Integer.BYTES;
+	private static final int INITIAL_CAPACITY = 1 << 12;
+	private static final long MAX_CHUNK_BYTES = 1 << 26;
+
+	private static final int EMPTY = 0, DELETED = -1;
+
+	private final Path basePath;
+
+	/**
+	 * The current file, which alternates between the base path and a sibling of it, at each rebuild.
+	 */
+	private Path path;
+	private FileChannel channel;
+
+	/**
+	 * The table is mapped in chunks of 1 &lt;&lt; chunkShift bytes, a power of 2 that contains whole slots.
+	 */
+	private MappedByteBuffer[] chunks;
+	private int chunkShift;
+
+	/**
+	 * The no. of slots, a power of 2.
+	 */
+	private int capacity;
+	private int size = 0, usedSlots = 0;
+
+	private final Map<String, Integer> relationTypeIndexes = new HashMap<> ();
+
+	MappedRelationKeyIndex ( Path path )
+	{
+		this.basePath = path;
+		basePath.toFile ().deleteOnExit ();
+		getRebuildPath ().toFile ().deleteOnExit ();
+		open ( path, INITIAL_CAPACITY );
+	}
+
+	/**
+	 * @return the id of the relation with this key, or -1 if there isn't such a relation.
+	 */
+	int get ( int fromId, int toId, RelationType ofType )
+	{
+		Integer typeIdx = relationTypeIndexes.get ( ofType.getId () );
+		if ( typeIdx == null ) return -1;
+		long slot = find ( fromId, toId, typeIdx );
+		return slot < 0 ? -1 : getInt ( slot, 3 ) - 1;
+	}
+
+	/**
+	 * Adds a relation key, or updates its relation id, if it's already indexed.
+	 */
+	void put ( int fromId, int toId, RelationType ofType, int relationId )
+	{
+		if ( relationId < 0 || relationId == Integer.MAX_VALUE ) throw new IllegalArgumentException (
+			"Invalid relation ID " + relationId + " for the ONDEX mapped key index \"" + path + "\""
+		);
+
+		int typeIdx = relationTypeIndexes.computeIfAbsent ( ofType.getId (), _t -> relationTypeIndexes.size () );
+		long slot = find ( fromId, toId, typeIdx );
+		if ( slot >= 0 ) {
+			setInt ( slot, 3, relationId + 1 );
+			return;
+		}
+
+		if ( 2L * ( usedSlots + 1 ) > capacity ) rebuild ( 4L * ( size + 1 ) > capacity ? capacity * 2 : capacity );
+		insert ( fromId, toId, typeIdx, relationId + 1 );
+	}
+
+	/**
+	 * @return the id of the removed relation, or -1 if the key wasn't indexed.
+	 */
+	int remove ( int fromId, int toId, RelationType ofType )
+	{
+		Integer typeIdx = relationTypeIndexes.get ( ofType.getId () );
+		if ( typeIdx == null ) return -1;
+		long slot = find ( fromId, toId, typeIdx );
+		if ( slot < 0 ) return -1;
+
+		int result = getInt ( slot, 3 ) - 1;
+		setInt ( slot, 3, DELETED );
+		size--;
+		return result;
+	}
+
+	int size ()
+	{
+		return size;
+	}
+
+	/**
+	 * The no. of bytes taken by the mapped table.
+	 */
+	long getStorageSize ()
+	{
+		return (long) capacity * SLOT_BYTES;
+	}
+
+	/**
+	 * Releases the mapping and deletes the current file.
+	 */
+	@Override
+	public void close ()
+	{
+		chunks = new MappedByteBuffer [ 0 ];
+		close ( channel, path );
+	}
+
+
+	/**
+	 * @return the slot containing the key, or -1 if it's not there.
+	 */
+	private long find ( int fromId, int toId, int typeIdx )
+	{
+		long mask = capacity - 1;
+		for ( long slot = hash ( fromId, toId, typeIdx ) & mask; ; slot = ( slot + 1 ) & mask )
+		{
+			int value = getInt ( slot, 3 );
+			if ( value == EMPTY ) return -1;
+			if ( value != DELETED && getInt ( slot, 0 ) == fromId && getInt ( slot, 1 ) == toId
+					 && getInt ( slot, 2 ) == typeIdx )
+				return slot;
+		}
+	}
+
+	/**
+	 * Writes a key that isn't in the table into the first free slot, which must exist.
+	 */
+	private void insert ( int fromId, int toId, int typeIdx, int value )
+	{
+		long mask = capacity - 1;
+		long slot = hash ( fromId, toId, typeIdx ) & mask;
+		int oldValue;
+		while ( ( oldValue = getInt ( slot, 3 ) ) != EMPTY && oldValue != DELETED )
+			slot = ( slot + 1 ) & mask;
+
+		if ( oldValue == EMPTY ) usedSlots++;
+		setInt ( slot, 0, fromId );
+		setInt ( slot, 1, toId );
+		setInt ( slot, 2, typeIdx );
+		setInt ( slot, 3, value );
+		size++;
+	}
+
+	private void rebuild ( int newCapacity )
+	{
+		FileChannel oldChannel = channel;
+		Path oldPath = path;
+		MappedByteBuffer[] oldChunks = chunks;
+		int oldChunkShift = chunkShift, oldCapacity = capacity;
+
+		open ( path.equals ( basePath ) ? getRebuildPath () : basePath, newCapacity );
+		for ( long slot = 0; slot < oldCapacity; slot++ )
+		{
+			int value = getInt ( oldChunks, oldChunkShift, slot, 3 );
+			if ( value == EMPTY || value == DELETED ) continue;
+			insert (
+				getInt ( oldChunks, oldChunkShift, slot, 0 ), getInt ( oldChunks, oldChunkShift, slot, 1 ),
+				getInt ( oldChunks, oldChunkShift, slot, 2 ), value
+			);
+		}
+		close ( oldChannel, oldPath );
+	}
+
+	/**
+	 * Creates and maps a new empty table.
+	 */
+	private void open ( Path path, int capacity )
+	{
+		long tableBytes = (long) capacity * SLOT_BYTES;
+		long chunkBytes = Math.min ( tableBytes, MAX_CHUNK_BYTES );
+		try
+		{
+			FileChannel newChannel = FileChannel.open (
+				path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING
+			);
+			MappedByteBuffer[] newChunks = new MappedByteBuffer [ (int) ( tableBytes / chunkBytes ) ];
+			for ( int i = 0; i < newChunks.length; i++ )
+				newChunks [ i ] = newChannel.map ( FileChannel.MapMode.READ_WRITE, i * chunkBytes, chunkBytes );
+
+			this.path = path;
+			this.channel = newChannel;
+			this.chunks = newChunks;
+			this.chunkShift = Long.numberOfTrailingZeros ( chunkBytes );
+			this.capacity = capacity;
+			this.size = this.usedSlots = 0;
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while creating the ONDEX mapped key index \"" + path + "\"", ex );
+		}
+	}
+
+	private static void close ( FileChannel channel, Path path )
+	{
+		try {
+			channel.close ();
+			Files.deleteIfExists ( path );
+		}
+		catch ( IOException ex ) {
+			throw new UncheckedIOException ( "Error while closing the ONDEX mapped key index \"" + path + "\"", ex );
+		}
+	}
+
+	/**
+	 * The file alternative to the base path, where the table is moved by a rebuild.
+	 */
+	private Path getRebuildPath ()
+	{
+		return basePath.resolveSibling ( basePath.getFileName () + ".1" );
+	}
+
+	private int getInt ( long slot, int field )
+	{
+		return getInt ( chunks, chunkShift, slot, field );
+	}
+
+	private static int getInt ( MappedByteBuffer[] chunks, int chunkShift, long slot, int field )
+	{
+		long pos = slot * SLOT_BYTES + field * Integer.BYTES;
+		return chunks [ (int) ( pos >>> chunkShift ) ].getInt ( (int) ( pos & ( ( 1L << chunkShift ) - 1 ) ) );
+	}
+
+	private void setInt ( long slot, int field, int value )
+	{
+		long pos = slot * SLOT_BYTES + field * Integer.BYTES;
+		chunks [ (int) ( pos >>> chunkShift ) ].putInt ( (int) ( pos & ( ( 1L << chunkShift ) - 1 ) ), value );
+	}
+
+	private static long hash ( int fromId, int toId, int typeIdx )
+	{
+		long h = fromId * 0x9E3779B97F4A7C15L ^ toId * 0xC2B2AE3D27D4EB4FL ^ typeIdx * 0x165667B19E3779F9L;
+		return h ^ h >>> 32;
+	}
+}
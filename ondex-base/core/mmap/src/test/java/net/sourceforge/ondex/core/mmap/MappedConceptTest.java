@@ -0,0 +1,28 @@
+package net.sourceforge.ondex.core.mmap;
+
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.test.AbstractConceptTest;
+
+/**
+ * Runs the common concept tests against {@link MappedONDEXConcept}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class MappedConceptTest extends AbstractConceptTest
+{
+	private MappedONDEXGraph graph;
+
+	@Override
+	public ONDEXGraph initialize ( String name ) throws Exception
+	{
+		return graph = (MappedONDEXGraph) super.initialize ( name );
+	}
+
+	@Override
+	public void commit ()
+	{
+		graph.flush ();
+	}
+}
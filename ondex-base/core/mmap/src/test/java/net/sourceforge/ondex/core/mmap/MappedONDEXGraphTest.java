@@ -0,0 +1,283 @@
+package net.sourceforge.ondex.core.mmap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.sourceforge.ondex.config.ONDEXGraphRegistry;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.test.AbstractONDEXGraphTest;
+
+/**
+ * Runs the common graph tests against {@link MappedONDEXGraph}, plus tests about its storage.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class MappedONDEXGraphTest extends AbstractONDEXGraphTest
+{
+	/**
+	 * Many more entities than the cache size, all the data must survive the round trip to the mapped store.
+	 */
+	@Test
+	public void testEvictionRoundTrip ()
+	{
+		MappedONDEXGraph graph = new MappedONDEXGraph ( "roundTrip", null, 3, null );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		DataSource ds = meta.getFactory ().createDataSource ( "ds" );
+		ConceptClass cc = meta.getFactory ().createConceptClass ( "cc" );
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+		RelationType rt = meta.getFactory ().createRelationType ( "rt" );
+		AttributeName attStr = meta.getFactory ().createAttributeName ( "attStr", String.class );
+		AttributeName attDbl = meta.getFactory ().createAttributeName ( "attDbl", Double.class );
+		AttributeName attColor = meta.getFactory ().createAttributeName ( "attColor", Color.class );
+
+		int n = 200;
+		String longValue = "A long value ".repeat ( 500 );
+		for ( int i = 0; i < n; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept ( "c" + i, "annotation" + i, "descr" + i, ds, cc, ev );
+			c.createConceptName ( "name" + i, true );
+			c.createConceptName ( "synonym" + i, false );
+			c.createConceptAccession ( "acc" + i, ds, i % 2 == 0 );
+			c.createAttribute ( attStr, i % 10 == 0 ? longValue : "value" + i, true );
+			c.createAttribute ( attDbl, (double) i, false );
+			c.createAttribute ( attColor, new Color ( i ), false );
+			if ( i > 0 )
+			{
+				ONDEXConcept from = graph.getConcept ( c.getId () - 1 );
+				ONDEXRelation r = graph.getFactory ().createRelation ( from, c, rt, ev );
+				r.createAttribute ( attDbl, (double) i, false );
+				r.addTag ( c );
+			}
+		}
+
+		assertTrue ( "Nothing was written to the mapped store!", graph.getStorageSize () > 0 );
+		assertEquals ( "Wrong no. of concepts!", n, graph.getConcepts ().size () );
+		assertEquals ( "Wrong no. of relations!", n - 1, graph.getRelations ().size () );
+
+		for ( ONDEXConcept c: graph.getConcepts () )
+		{
+			int i = Integer.parseInt ( c.getPID ().substring ( 1 ) );
+			assertEquals ( "Wrong annotation!", "annotation" + i, c.getAnnotation () );
+			assertEquals ( "Wrong description!", "descr" + i, c.getDescription () );
+			assertEquals ( "Wrong preferred name!", "name" + i, c.getConceptName ().getName () );
+			assertNotNull ( "Synonym not found!", c.getConceptName ( "synonym" + i ) );
+			assertEquals ( "Wrong ambiguity!", i % 2 == 0, c.getConceptAccession ( "acc" + i, ds ).isAmbiguous () );
+			assertEquals (
+				"Wrong string attribute!", i % 10 == 0 ? longValue : "value" + i, c.getAttribute ( attStr ).getValue ()
+			);
+			assertTrue ( "Wrong doIndex!", c.getAttribute ( attStr ).isDoIndex () );
+			assertEquals ( "Wrong double attribute!", (double) i, c.getAttribute ( attDbl ).getValue () );
+			assertEquals ( "Wrong object attribute!", new Color ( i ), c.getAttribute ( attColor ).getValue () );
+			assertTrue ( "Wrong evidence!", c.getEvidence ().contains ( ev ) );
+			assertEquals ( "Wrong no. of relations for the concept!",
+				i == 0 || i == n - 1 ? 1 : 2, graph.getRelationsOfConcept ( c ).size ()
+			);
+		}
+
+		for ( ONDEXRelation r: graph.getRelations () )
+		{
+			int i = Integer.parseInt ( r.getToConcept ().getPID ().substring ( 1 ) );
+			assertEquals ( "Wrong from concept!", "c" + ( i - 1 ), r.getFromConcept ().getPID () );
+			assertEquals ( "Wrong relation attribute!", (double) i, r.getAttribute ( attDbl ).getValue () );
+			assertTrue ( "Wrong relation tag!", r.getTags ().contains ( r.getToConcept () ) );
+			assertTrue ( "Wrong relation tag index!", graph.getRelationsOfTag ( r.getToConcept () ).contains ( r ) );
+		}
+
+		graph.close ();
+	}
+
+	/**
+	 * Names, accessions and attributes can be changed after their concept has left the cache.
+	 */
+	@Test
+	public void testInPlaceChanges ()
+	{
+		MappedONDEXGraph graph = new MappedONDEXGraph ( "inPlace", null, 2, null );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		DataSource ds = meta.getFactory ().createDataSource ( "ds" );
+		ConceptClass cc = meta.getFactory ().createConceptClass ( "cc" );
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+		AttributeName att = meta.getFactory ().createAttributeName ( "att", Integer.class );
+
+		ONDEXConcept c0 = graph.getFactory ().createConcept ( "c0", ds, cc, ev );
+		ConceptName name = c0.createConceptName ( "name", false );
+		c0.createConceptAccession ( "acc", ds, false );
+		c0.createAttribute ( att, 1, false );
+		int id = c0.getId ();
+
+		for ( int i = 1; i < 50; i++ ) graph.getFactory ().createConcept ( "c" + i, ds, cc, ev );
+
+		name.setPreferred ( true );
+		graph.getConcept ( id ).getConceptAccession ( "acc", ds ).setAmbiguous ( true );
+		graph.getConcept ( id ).getAttribute ( att ).setValue ( 2 );
+		graph.getConcept ( id ).setAnnotation ( "new annotation" );
+
+		for ( int i = 50; i < 100; i++ ) graph.getFactory ().createConcept ( "c" + i, ds, cc, ev );
+
+		ONDEXConcept c = graph.getConcept ( id );
+		assertEquals ( "setPreferred() lost!", name, c.getConceptName () );
+		assertTrue ( "setAmbiguous() lost!", c.getConceptAccession ( "acc", ds ).isAmbiguous () );
+		assertEquals ( "setValue() lost!", 2, c.getAttribute ( att ).getValue () );
+		assertEquals ( "setAnnotation() lost!", "new annotation", c.getAnnotation () );
+
+		graph.close ();
+	}
+
+	@Test
+	public void testDeletionAfterEviction ()
+	{
+		MappedONDEXGraph graph = new MappedONDEXGraph ( "deletion", null, 2, null );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		DataSource ds = meta.getFactory ().createDataSource ( "ds" );
+		ConceptClass cc = meta.getFactory ().createConceptClass ( "cc" );
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+		RelationType rt = meta.getFactory ().createRelationType ( "rt" );
+
+		List<Integer> ids = new ArrayList<> ();
+		for ( int i = 0; i < 20; i++ )
+			ids.add ( graph.getFactory ().createConcept ( "c" + i, ds, cc, ev ).getId () );
+		for ( int i = 1; i < ids.size (); i++ )
+			graph.getFactory ().createRelation ( graph.getConcept ( ids.get ( 0 ) ), graph.getConcept ( ids.get ( i ) ), rt, ev );
+
+		ONDEXConcept hub = graph.getConcept ( ids.get ( 0 ) );
+		assertEquals ( "Wrong no. of hub relations!", 19, graph.getRelationsOfConcept ( hub ).size () );
+		graph.deleteConcept ( hub.getId () );
+
+		assertNull ( "Concept not deleted!", graph.getConcept ( ids.get ( 0 ) ) );
+		assertEquals ( "Relations not deleted!", 0, graph.getRelations ().size () );
+		assertEquals ( "Concept class index not updated!", 19, graph.getConceptsOfConceptClass ( cc ).size () );
+		assertEquals ( "Relation type index not updated!", 0, graph.getRelationsOfRelationType ( rt ).size () );
+		for ( int i = 1; i < ids.size (); i++ )
+			assertEquals (
+				"Adjacency not updated!", 0, graph.getRelationsOfConcept ( graph.getConcept ( ids.get ( i ) ) ).size ()
+			);
+
+		graph.close ();
+	}
+
+	/**
+	 * Enough relations to rebuild the mapped key index a few times, with deletions in between.
+	 */
+	@Test
+	public void testRelationKeyIndex ()
+	{
+		MappedONDEXGraph graph = new MappedONDEXGraph ( "keyIndex", null, 100, null );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		DataSource ds = meta.getFactory ().createDataSource ( "ds" );
+		ConceptClass cc = meta.getFactory ().createConceptClass ( "cc" );
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+		RelationType rt1 = meta.getFactory ().createRelationType ( "rt1" );
+		RelationType rt2 = meta.getFactory ().createRelationType ( "rt2" );
+
+		int n = 100;
+		List<ONDEXConcept> concepts = new ArrayList<> ();
+		for ( int i = 0; i < n; i++ )
+			concepts.add ( graph.getFactory ().createConcept ( "c" + i, ds, cc, ev ) );
+		for ( int i = 0; i < n; i++ )
+			for ( int j = 0; j < n; j++ )
+				graph.getFactory ().createRelation (
+					concepts.get ( i ), concepts.get ( j ), ( i + j ) % 2 == 0 ? rt1 : rt2, ev
+				);
+
+		// Drop the relations from the even concepts and re-create some of them
+		for ( int i = 0; i < n; i += 2 )
+			for ( int j = 0; j < n; j++ )
+				graph.deleteRelation ( concepts.get ( i ), concepts.get ( j ), ( i + j ) % 2 == 0 ? rt1 : rt2 );
+		for ( int j = 0; j < n; j++ )
+			graph.getFactory ().createRelation ( concepts.get ( 0 ), concepts.get ( j ), j % 2 == 0 ? rt1 : rt2, ev );
+
+		assertEquals ( "Wrong no. of relations!", n * n / 2 + n, graph.getRelations ().size () );
+		for ( int i = 0; i < n; i++ )
+			for ( int j = 0; j < n; j++ )
+			{
+				RelationType rt = ( i + j ) % 2 == 0 ? rt1 : rt2, wrongRt = rt == rt1 ? rt2 : rt1;
+				ONDEXRelation r = graph.getRelation ( concepts.get ( i ), concepts.get ( j ), rt );
+				if ( i % 2 == 1 || i == 0 )
+				{
+					assertNotNull ( "Relation " + i + "->" + j + " not found!", r );
+					assertEquals ( "Wrong relation source!", concepts.get ( i ), r.getFromConcept () );
+					assertEquals ( "Wrong relation target!", concepts.get ( j ), r.getToConcept () );
+					assertSame ( "Wrong relation type!", rt, r.getOfType () );
+				}
+				else
+					assertNull ( "Deleted relation " + i + "->" + j + " found!", r );
+				assertNull (
+					"Relation found with the wrong type!", graph.getRelation ( concepts.get ( i ), concepts.get ( j ), wrongRt )
+				);
+			}
+
+		graph.close ();
+	}
+
+	/**
+	 * The getters return read-only sets, which reflect later changes.
+	 */
+	@Test
+	public void testIndexViews ()
+	{
+		MappedONDEXGraph graph = new MappedONDEXGraph ( "views", null, 2, null );
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		DataSource ds = meta.getFactory ().createDataSource ( "ds" );
+		ConceptClass cc = meta.getFactory ().createConceptClass ( "cc" );
+		EvidenceType ev = meta.getFactory ().createEvidenceType ( "ev" );
+
+		ONDEXConcept c0 = graph.getFactory ().createConcept ( "c0", ds, cc, ev );
+		Set<ONDEXConcept> concepts = graph.getConcepts ();
+		Set<ONDEXConcept> ccConcepts = graph.getConceptsOfConceptClass ( cc );
+
+		ONDEXConcept c1 = graph.getFactory ().createConcept ( "c1", ds, cc, ev );
+		assertEquals ( "New concept not in the concepts view!", Set.of ( c0, c1 ), concepts );
+		assertTrue ( "New concept not in the concept class view!", ccConcepts.contains ( c1 ) );
+
+		graph.deleteConcept ( c0.getId () );
+		assertFalse ( "Deleted concept still in the concepts view!", concepts.contains ( c0 ) );
+		assertEquals ( "Deleted concept still in the concept class view!", Set.of ( c1 ), ccConcepts );
+
+		try {
+			concepts.remove ( c1 );
+			fail ( "The concepts view is modifiable!" );
+		}
+		catch ( UnsupportedOperationException ex ) {
+			// Expected
+		}
+
+		graph.close ();
+	}
+
+	@Test
+	public void testStorageDir () throws Exception
+	{
+		File dir = Files.createTempDirectory ( "mappedGraphTest" ).toFile ();
+		MappedONDEXGraph graph = new MappedONDEXGraph ( "storage", dir );
+		assertEquals ( "Mapped files not created!", 3, dir.listFiles ().length );
+		graph.close ();
+		assertEquals ( "Mapped files not deleted!", 0, dir.listFiles ().length );
+		assertTrue ( "User's storage dir removed!", dir.exists () );
+		assertNull ( "Closed graph still registered!", ONDEXGraphRegistry.graphs.get ( graph.getSID () ) );
+		dir.delete ();
+	}
+}
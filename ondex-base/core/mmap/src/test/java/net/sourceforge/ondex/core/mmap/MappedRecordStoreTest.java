@@ -0,0 +1,75 @@
+package net.sourceforge.ondex.core.mmap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link MappedRecordStore}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class MappedRecordStoreTest
+{
+	/**
+	 * Records spanning multiple segments, replaced many times, the compaction must keep the store size bounded and
+	 * the live records readable.
+	 */
+	@Test
+	public void testCompaction () throws Exception
+	{
+		Path dir = Files.createTempDirectory ( "mappedStoreTest" );
+		MappedRecordStore store = new MappedRecordStore ( dir.resolve ( "test.dat" ), 1024 );
+
+		int n = 10;
+		long[] positions = new long [ n + 1 ];
+		positions [ n ] = -1;
+
+		int compactions = 0;
+		for ( int round = 0; round < 50; round++ )
+			for ( int i = 0; i < n; i++ )
+			{
+				long oldPos = positions [ i ];
+				positions [ i ] = store.append ( record ( i, round ) );
+				if ( round == 0 ) continue;
+				store.release ( oldPos );
+				if ( !store.needsCompaction () ) continue;
+				store.compact ( positions );
+				compactions++;
+				assertEquals ( "Garbage not reset by the compaction!", 0, store.getGarbageSize () );
+			}
+
+		assertTrue ( "No compaction happened!", compactions > 0 );
+		assertTrue ( "The store size isn't bounded!", store.size () < 3 * n * ( Integer.BYTES + 1024 + 300 ) );
+		assertEquals ( "Missing record position changed!", -1, positions [ n ] );
+		for ( int i = 0; i < n; i++ )
+			assertArrayEquals ( "Wrong record after the compactions!", record ( i, 49 ), store.read ( positions [ i ] ) );
+
+		File[] files = dir.toFile ().listFiles ();
+		assertEquals ( "Old store files not removed!", 1, files.length );
+		assertEquals ( "Wrong current store file!", store.getPath ().toFile (), files [ 0 ] );
+
+		store.close ();
+		assertFalse ( "Store file not deleted!", store.getPath ().toFile ().exists () );
+		Files.delete ( dir );
+	}
+
+	/**
+	 * A record a bit bigger than a segment, marked by its index and version.
+	 */
+	private static byte[] record ( int i, int version )
+	{
+		byte[] result = new byte [ 1024 + 300 ];
+		for ( int j = 0; j < result.length; j++ ) result [ j ] = (byte) ( i * 31 + version + j );
+		return result;
+	}
+}
@@ -0,0 +1,24 @@
+package net.sourceforge.ondex.core.mmap;
+
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.test.TestGraphProvider;
+import net.sourceforge.ondex.logging.ONDEXLogger;
+
+/**
+ * Provides {@link MappedONDEXGraph} to the common graph tests. The cache is tiny, so that the tests exercise
+ * the eviction and the reloading of entities from the mapped store.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class MappedTestGraphProvider extends TestGraphProvider
+{
+	public static final int TEST_CACHE_SIZE = 4;
+
+	@Override
+	public ONDEXGraph createGraph ( String name )
+	{
+		return new MappedONDEXGraph ( name, null, TEST_CACHE_SIZE, new ONDEXLogger () );
+	}
+}
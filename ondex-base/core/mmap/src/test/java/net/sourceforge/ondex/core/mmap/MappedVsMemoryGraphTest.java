@@ -0,0 +1,279 @@
+package net.sourceforge.ondex.core.mmap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.MetaData;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+
+/**
+ * Builds and changes the same random graph in {@link MemoryONDEXGraph} and {@link MappedONDEXGraph}, then
+ * checks that all the graph API methods return the same results.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class MappedVsMemoryGraphTest
+{
+	private static final int N_CONCEPTS = 1000;
+	private static final int N_RELATIONS = 3000;
+
+	@Test
+	public void testSameResults ()
+	{
+		ONDEXGraph memGraph = new MemoryONDEXGraph ( "memory" );
+		MappedONDEXGraph mmapGraph = new MappedONDEXGraph ( "mmap", null, 50, null );
+
+		// Same seed => same operations
+		buildGraph ( memGraph, new Random ( 123 ) );
+		buildGraph ( mmapGraph, new Random ( 123 ) );
+		assertSameGraphs ( memGraph, mmapGraph );
+
+		changeGraph ( memGraph, new Random ( 456 ) );
+		changeGraph ( mmapGraph, new Random ( 456 ) );
+		assertSameGraphs ( memGraph, mmapGraph );
+
+		mmapGraph.close ();
+	}
+
+
+	private void buildGraph ( ONDEXGraph graph, Random rnd )
+	{
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		for ( int i = 0; i < 3; i++ )
+		{
+			meta.getFactory ().createDataSource ( "ds" + i );
+			meta.getFactory ().createConceptClass ( "cc" + i );
+			meta.getFactory ().createEvidenceType ( "ev" + i );
+			meta.getFactory ().createRelationType ( "rt" + i );
+		}
+		meta.getFactory ().createAttributeName ( "attStr", String.class );
+		meta.getFactory ().createAttributeName ( "attInt", Integer.class );
+
+		List<ONDEXConcept> concepts = new ArrayList<> ();
+		for ( int i = 0; i < N_CONCEPTS; i++ )
+		{
+			ONDEXConcept c = graph.getFactory ().createConcept (
+				"c" + i, "annotation" + i, "description" + i,
+				meta.getDataSource ( "ds" + rnd.nextInt ( 3 ) ), meta.getConceptClass ( "cc" + rnd.nextInt ( 3 ) ),
+				meta.getEvidenceType ( "ev" + rnd.nextInt ( 3 ) )
+			);
+			c.createConceptName ( "name" + i, true );
+			for ( int j = rnd.nextInt ( 3 ); j > 0; j-- ) c.createConceptName ( "syn" + i + "_" + j, false );
+			for ( int j = rnd.nextInt ( 3 ); j > 0; j-- )
+				c.createConceptAccession ( "acc" + i + "_" + j, meta.getDataSource ( "ds" + rnd.nextInt ( 3 ) ), rnd.nextBoolean () );
+			if ( rnd.nextBoolean () ) c.createAttribute ( meta.getAttributeName ( "attStr" ), "value" + i, rnd.nextBoolean () );
+			if ( rnd.nextBoolean () ) c.createAttribute ( meta.getAttributeName ( "attInt" ), i, false );
+			if ( i > 0 && rnd.nextInt ( 4 ) == 0 ) c.addTag ( concepts.get ( rnd.nextInt ( concepts.size () ) ) );
+			concepts.add ( c );
+		}
+
+		for ( int i = 0; i < N_RELATIONS; i++ )
+		{
+			ONDEXConcept from = concepts.get ( rnd.nextInt ( concepts.size () ) );
+			ONDEXConcept to = concepts.get ( rnd.nextInt ( concepts.size () ) );
+			ONDEXRelation r = graph.getFactory ().createRelation (
+				from, to, meta.getRelationType ( "rt" + rnd.nextInt ( 3 ) ), meta.getEvidenceType ( "ev" + rnd.nextInt ( 3 ) )
+			);
+			if ( rnd.nextBoolean () ) r.createAttribute ( meta.getAttributeName ( "attInt" ), i, false );
+			if ( rnd.nextInt ( 4 ) == 0 ) r.addTag ( concepts.get ( rnd.nextInt ( concepts.size () ) ) );
+		}
+	}
+
+	private void changeGraph ( ONDEXGraph graph, Random rnd )
+	{
+		ONDEXGraphMetaData meta = graph.getMetaData ();
+		AttributeName attStr = meta.getAttributeName ( "attStr" );
+
+		for ( int i = 0; i < N_CONCEPTS / 2; i++ )
+		{
+			ONDEXConcept c = graph.getConcept ( 1 + rnd.nextInt ( N_CONCEPTS ) );
+			if ( c == null ) continue;
+			switch ( rnd.nextInt ( 6 ) )
+			{
+				case 0: graph.deleteConcept ( c.getId () ); break;
+				case 1: c.setAnnotation ( "changed" + i ); break;
+				case 2: if ( c.getConceptName () != null ) c.getConceptName ().setPreferred ( false ); break;
+				case 3:
+					Attribute attr = c.getAttribute ( attStr );
+					if ( attr != null ) attr.setValue ( "changed" + i );
+					else c.createAttribute ( attStr, "new" + i, true );
+					break;
+				case 4: c.addEvidenceType ( meta.getEvidenceType ( "ev" + rnd.nextInt ( 3 ) ) ); break;
+				default: c.deleteConceptName ( "name" + ( c.getId () - 1 ) );
+			}
+		}
+
+		for ( int i = 0; i < N_RELATIONS / 3; i++ )
+		{
+			ONDEXRelation r = graph.getRelation ( 1 + rnd.nextInt ( N_RELATIONS ) );
+			if ( r == null ) continue;
+			if ( rnd.nextBoolean () ) graph.deleteRelation ( r.getId () );
+			else r.removeEvidenceType ( meta.getEvidenceType ( "ev" + rnd.nextInt ( 3 ) ) );
+		}
+	}
+
+
+	private void assertSameGraphs ( ONDEXGraph expected, ONDEXGraph actual )
+	{
+		assertEquals ( "Concept IDs differ!", ids ( expected.getConcepts () ), ids ( actual.getConcepts () ) );
+		assertEquals ( "Relation IDs differ!", ids ( expected.getRelations () ), ids ( actual.getRelations () ) );
+		assertEquals ( "Tags differ!", usedTagIds ( expected ), ids ( actual.getAllTags () ) );
+
+		for ( ONDEXConcept ce: expected.getConcepts () )
+		{
+			ONDEXConcept ca = actual.getConcept ( ce.getId () );
+			assertNotNull ( "Concept missing!", ca );
+			assertEquals ( "Concept differs!", describe ( ce ), describe ( ca ) );
+			assertEquals ( "Relations of concept differ!",
+				ids ( expected.getRelationsOfConcept ( ce ) ), ids ( actual.getRelationsOfConcept ( ca ) )
+			);
+			assertEquals ( "Concepts of tag differ!",
+				ids ( expected.getConceptsOfTag ( ce ) ), ids ( actual.getConceptsOfTag ( ca ) )
+			);
+			assertEquals ( "Relations of tag differ!",
+				ids ( expected.getRelationsOfTag ( ce ) ), ids ( actual.getRelationsOfTag ( ca ) )
+			);
+		}
+
+		for ( ONDEXRelation re: expected.getRelations () )
+		{
+			ONDEXRelation ra = actual.getRelation ( re.getId () );
+			assertNotNull ( "Relation missing!", ra );
+			assertEquals ( "Relation differs!", describe ( re ), describe ( ra ) );
+			assertEquals ( "Relation by key differs!", ra, actual.getRelation ( ra.getFromConcept (), ra.getToConcept (), ra.getOfType () ) );
+		}
+
+		ONDEXGraphMetaData me = expected.getMetaData (), ma = actual.getMetaData ();
+		for ( DataSource ds: me.getDataSources () )
+		{
+			DataSource dsa = ma.getDataSource ( ds.getId () );
+			assertEquals ( "Concepts of data source differ!",
+				ids ( expected.getConceptsOfDataSource ( ds ) ), ids ( actual.getConceptsOfDataSource ( dsa ) )
+			);
+			assertEquals ( "Relations of data source differ!",
+				ids ( expected.getRelationsOfDataSource ( ds ) ), ids ( actual.getRelationsOfDataSource ( dsa ) )
+			);
+		}
+		for ( ConceptClass cc: me.getConceptClasses () )
+		{
+			ConceptClass cca = ma.getConceptClass ( cc.getId () );
+			assertEquals ( "Concepts of concept class differ!",
+				ids ( expected.getConceptsOfConceptClass ( cc ) ), ids ( actual.getConceptsOfConceptClass ( cca ) )
+			);
+			assertEquals ( "Relations of concept class differ!",
+				ids ( expected.getRelationsOfConceptClass ( cc ) ), ids ( actual.getRelationsOfConceptClass ( cca ) )
+			);
+		}
+		for ( EvidenceType et: me.getEvidenceTypes () )
+		{
+			EvidenceType eta = ma.getEvidenceType ( et.getId () );
+			assertEquals ( "Concepts of evidence type differ!",
+				ids ( expected.getConceptsOfEvidenceType ( et ) ), ids ( actual.getConceptsOfEvidenceType ( eta ) )
+			);
+			assertEquals ( "Relations of evidence type differ!",
+				ids ( expected.getRelationsOfEvidenceType ( et ) ), ids ( actual.getRelationsOfEvidenceType ( eta ) )
+			);
+		}
+		for ( AttributeName an: me.getAttributeNames () )
+		{
+			AttributeName ana = ma.getAttributeName ( an.getId () );
+			assertEquals ( "Concepts of attribute name differ!",
+				ids ( expected.getConceptsOfAttributeName ( an ) ), ids ( actual.getConceptsOfAttributeName ( ana ) )
+			);
+			assertEquals ( "Relations of attribute name differ!",
+				ids ( expected.getRelationsOfAttributeName ( an ) ), ids ( actual.getRelationsOfAttributeName ( ana ) )
+			);
+		}
+		for ( RelationType rt: me.getRelationTypes () )
+			assertEquals ( "Relations of relation type differ!",
+				ids ( expected.getRelationsOfRelationType ( rt ) ),
+				ids ( actual.getRelationsOfRelationType ( ma.getRelationType ( rt.getId () ) ) )
+			);
+	}
+
+	private static Set<Integer> ids ( Set<? extends ONDEXEntity> entities )
+	{
+		return entities.stream ().map ( ONDEXEntity::getId ).collect ( Collectors.toCollection ( TreeSet::new ) );
+	}
+
+	/**
+	 * The memory graph keeps reporting tags after their last use has been removed, we don't.
+	 */
+	private static Set<Integer> usedTagIds ( ONDEXGraph graph )
+	{
+		return graph.getAllTags ()
+			.stream ()
+			.filter ( t -> graph.getConcept ( t.getId () ) != null )
+			.filter ( t -> !graph.getConceptsOfTag ( t ).isEmpty () || !graph.getRelationsOfTag ( t ).isEmpty () )
+			.map ( ONDEXConcept::getId )
+			.collect ( Collectors.toCollection ( TreeSet::new ) );
+	}
+
+	private static Set<String> metaIds ( Set<? extends MetaData> metaData )
+	{
+		return metaData.stream ().map ( MetaData::getId ).collect ( Collectors.toCollection ( TreeSet::new ) );
+	}
+
+	private static <T> Set<String> strings ( Set<T> values, Function<T, String> toString )
+	{
+		return values.stream ().map ( toString ).collect ( Collectors.toCollection ( TreeSet::new ) );
+	}
+
+	private static String describe ( ONDEXConcept c )
+	{
+		return String.join ( "|",
+			c.getPID (), c.getAnnotation (), c.getDescription (), c.getElementOf ().getId (), c.getOfType ().getId (),
+			String.valueOf ( metaIds ( c.getEvidence () ) ),
+			String.valueOf ( ids ( c.getTags () ) ),
+			String.valueOf ( strings ( c.getConceptNames (), n -> n.getName () + ":" + n.isPreferred () ) ),
+			String.valueOf ( strings (
+				c.getConceptAccessions (),
+				a -> a.getAccession () + ":" + a.getElementOf ().getId () + ":" + a.isAmbiguous ()
+			)),
+			describeAttributes ( c.getAttributes () )
+		);
+	}
+
+	private static String describe ( ONDEXRelation r )
+	{
+		return String.join ( "|",
+			String.valueOf ( r.getFromConcept ().getId () ), String.valueOf ( r.getToConcept ().getId () ),
+			r.getOfType ().getId (),
+			String.valueOf ( metaIds ( r.getEvidence () ) ),
+			String.valueOf ( ids ( r.getTags () ) ),
+			describeAttributes ( r.getAttributes () )
+		);
+	}
+
+	private static String describeAttributes ( Set<Attribute> attributes )
+	{
+		TreeMap<String, String> result = new TreeMap<> ();
+		for ( Attribute a: attributes )
+			result.put ( a.getOfType ().getId (), a.getValue () + ":" + a.isDoIndex () );
+		return result.toString ();
+	}
+}
@@ -1,10 +1,18 @@
 package net.sourceforge.ondex.tools.ondex;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.PrimitiveIterator;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import net.sourceforge.ondex.core.Attribute;
 import net.sourceforge.ondex.core.AttributeName;
@@ -19,6 +27,7 @@ import net.sourceforge.ondex.core.ONDEXGraphMetaData;
 import net.sourceforge.ondex.core.ONDEXRelation;
 import net.sourceforge.ondex.core.RelationType;
 import net.sourceforge.ondex.core.Unit;
+import net.sourceforge.ondex.core.util.IdBitmap;
 import net.sourceforge.ondex.core.util.ONDEXGraphOperations;
 import net.sourceforge.ondex.core.util.ONDEXGraphUtils;
 
@@ -112,9 +121,14 @@ public class ONDEXGraphCloner {
 			return;
 		}
 
-		ONDEXGraphMetaData omd = origGraph.getMetaData();
-		ONDEXGraphMetaData nomd = newGraph.getMetaData();
+		copyMetaData(origGraph.getMetaData(), newGraph.getMetaData());
+		metaDataHasBeenCloned = true;
+	}
 
+	/**
+	 * Copies all the metadata that aren't in the target yet.
+	 */
+	private static void copyMetaData(ONDEXGraphMetaData omd, ONDEXGraphMetaData nomd) {
 		for (Unit u : omd.getUnits()) {
 			if (!nomd.checkUnit(u.getId()))
 				nomd.createUnit(u.getId(), u.getFullname(), u.getDescription());
@@ -141,8 +155,6 @@ public class ONDEXGraphCloner {
 
 		Set<RelationType> rts = omd.getRelationTypes();
 		copyRelationTypes(rts, omd, nomd);
-
-		metaDataHasBeenCloned = true;
 	}
 
 	/**
@@ -152,7 +164,7 @@ public class ONDEXGraphCloner {
 	 * @param nomd
 	 *            copy to MetaData
 	 */
-	private void copyAttributeNames(Iterable<AttributeName> attNames,
+	private static void copyAttributeNames(Iterable<AttributeName> attNames,
 			ONDEXGraphMetaData omd, ONDEXGraphMetaData nomd) {
 		// "specializations_of"s that occur before there specialisation
 		HashSet<AttributeName> atDependencyNotResolved = new HashSet<AttributeName>();
@@ -186,7 +198,7 @@ public class ONDEXGraphCloner {
 	 * @param nomd
 	 *            copy to MetaData
 	 */
-	private void copyConceptClasses(Iterable<ConceptClass> ccs,
+	private static void copyConceptClasses(Iterable<ConceptClass> ccs,
 			ONDEXGraphMetaData omd, ONDEXGraphMetaData nomd) {
 		// "specializations_of"s that occur before there specialization
 		HashSet<ConceptClass> ccDependencyNotResolved = new HashSet<ConceptClass>();
@@ -221,7 +233,7 @@ public class ONDEXGraphCloner {
 	 *            copy to MetaData
 	 * @return
 	 */
-	private void copyRelationTypes(Iterable<RelationType> rts,
+	private static void copyRelationTypes(Iterable<RelationType> rts,
 			ONDEXGraphMetaData omd, ONDEXGraphMetaData nomd) {
 		// "specializations_of"s that occur before there specialisation
 		HashSet<RelationType> rtDependencyNotResolved = new HashSet<RelationType>();
@@ -514,4 +526,213 @@ public class ONDEXGraphCloner {
 		var cloner = new ONDEXGraphCloner ( withGraph, graph );
 		cloner.cloneAll ();
 	}
+
+	/**
+	 * <p>Clones a subgraph in one go, which is much faster than {@link #cloneConcept(ONDEXConcept)} and
+	 * {@link #cloneRelation(ONDEXRelation)} on large sets of entities. As in those methods, the concepts linked by
+	 * the relations and the tags of the cloned entities are cloned too.</p>
+	 *
+	 * <p>The metadata are copied in a single pass and then translated via lookup maps, the old =&gt; new ids are
+	 * kept in primitive arrays, rather than the static maps used by the instances of this class, so this method
+	 * is thread-safe, as long as different threads don't write the same target graph. The concept names,
+	 * accessions, attributes and tags are copied in parallel when the target supports concurrent writes, ie,
+	 * {@link ONDEXGraph#isConcurrentWriteSafe()} is true. In that case, the source graph is read by multiple threads, which is
+	 * fine as long as nothing is changing it.</p>
+	 *
+	 * @return the old =&gt; new id mappings.
+	 */
+	public static BulkCloneResult cloneBulk (
+		ONDEXGraph origGraph, ONDEXGraph newGraph, Collection<ONDEXConcept> concepts, Collection<ONDEXRelation> relations
+	)
+	{
+		// Relations sorted by id, without duplicates
+		IdBitmap relationIds = new IdBitmap ();
+		for ( ONDEXRelation r: relations ) relationIds.add ( r.getId () );
+		ONDEXRelation[] oldRelations = new ONDEXRelation [ relationIds.cardinality () ];
+		int nrels = 0;
+		for ( PrimitiveIterator.OfInt itr = relationIds.iterator (); itr.hasNext (); )
+			oldRelations [ nrels++ ] = origGraph.getRelation ( itr.nextInt () );
+
+		// The concepts, plus the ones needed by the relations and the tags
+		IdBitmap conceptIds = new IdBitmap ();
+		Deque<ONDEXConcept> pending = new ArrayDeque<> ();
+		Consumer<ONDEXConcept> include = c -> {
+			if ( conceptIds.add ( c.getId () ) ) pending.add ( c );
+		};
+		concepts.forEach ( include );
+		for ( ONDEXRelation r: oldRelations )
+		{
+			include.accept ( r.getFromConcept () );
+			include.accept ( r.getToConcept () );
+			r.getTags ().forEach ( include );
+		}
+		while ( !pending.isEmpty () )
+			pending.poll ().getTags ().forEach ( include );
+
+		ONDEXConcept[] oldConcepts = new ONDEXConcept [ conceptIds.cardinality () ];
+		int ncons = 0;
+		for ( PrimitiveIterator.OfInt itr = conceptIds.iterator (); itr.hasNext (); )
+			oldConcepts [ ncons++ ] = origGraph.getConcept ( itr.nextInt () );
+
+		copyMetaData ( origGraph.getMetaData (), newGraph.getMetaData () );
+		MetaDataTranslator meta = new MetaDataTranslator ( origGraph.getMetaData (), newGraph.getMetaData () );
+
+		// The entities are created sequentially, to get their new ids
+		BulkCloneResult result = new BulkCloneResult ( oldConcepts.length, oldRelations.length );
+		ONDEXConcept[] newConcepts = new ONDEXConcept [ oldConcepts.length ];
+		for ( int i = 0; i < oldConcepts.length; i++ )
+		{
+			ONDEXConcept c = oldConcepts [ i ];
+			newConcepts [ i ] = newGraph.createConcept (
+				c.getPID (), c.getAnnotation (), c.getDescription (),
+				meta.get ( c.getElementOf () ), meta.get ( c.getOfType () ), meta.get ( c.getEvidence () )
+			);
+			result.oldConceptIds [ i ] = c.getId ();
+			result.newConceptIds [ i ] = newConcepts [ i ].getId ();
+		}
+
+		ONDEXRelation[] newRelations = new ONDEXRelation [ oldRelations.length ];
+		for ( int i = 0; i < oldRelations.length; i++ )
+		{
+			ONDEXRelation r = oldRelations [ i ];
+			newRelations [ i ] = newGraph.createRelation (
+				newConcepts [ result.indexOfConcept ( r.getFromConcept ().getId () ) ],
+				newConcepts [ result.indexOfConcept ( r.getToConcept ().getId () ) ],
+				meta.get ( r.getOfType () ), meta.get ( r.getEvidence () )
+			);
+			result.oldRelationIds [ i ] = r.getId ();
+			result.newRelationIds [ i ] = newRelations [ i ].getId ();
+		}
+
+		// While the details can go in parallel, if the target allows for it
+		boolean isParallel = newGraph.isConcurrentWriteSafe ();
+
+		IntStream conceptIdxs = IntStream.range ( 0, oldConcepts.length );
+		if ( isParallel ) conceptIdxs = conceptIdxs.parallel ();
+		conceptIdxs.forEach ( i ->
+		{
+			ONDEXConcept from = oldConcepts [ i ], to = newConcepts [ i ];
+			for ( ConceptName name: from.getConceptNames () )
+				to.createConceptName ( name.getName (), name.isPreferred () );
+			for ( ConceptAccession acc: from.getConceptAccessions () )
+				to.createConceptAccession ( acc.getAccession (), meta.get ( acc.getElementOf () ), acc.isAmbiguous () );
+			for ( Attribute attribute: from.getAttributes () )
+				to.createAttribute ( meta.get ( attribute.getOfType () ), attribute.getValue (), attribute.isDoIndex () );
+			for ( ONDEXConcept tag: from.getTags () )
+				to.addTag ( newConcepts [ result.indexOfConcept ( tag.getId () ) ] );
+		});
+
+		IntStream relationIdxs = IntStream.range ( 0, oldRelations.length );
+		if ( isParallel ) relationIdxs = relationIdxs.parallel ();
+		relationIdxs.forEach ( i ->
+		{
+			ONDEXRelation from = oldRelations [ i ], to = newRelations [ i ];
+			for ( Attribute attribute: from.getAttributes () )
+				to.createAttribute ( meta.get ( attribute.getOfType () ), attribute.getValue (), attribute.isDoIndex () );
+			for ( ONDEXConcept tag: from.getTags () )
+				to.addTag ( newConcepts [ result.indexOfConcept ( tag.getId () ) ] );
+		});
+
+		return result;
+	}
+
+	/**
+	 * The old =&gt; new ids returned by {@link ONDEXGraphCloner#cloneBulk(ONDEXGraph, ONDEXGraph, Collection, Collection)}.
+	 * These are sorted arrays, so a lookup is a binary search.
+	 */
+	public static class BulkCloneResult
+	{
+		private final int[] oldConceptIds, newConceptIds;
+		private final int[] oldRelationIds, newRelationIds;
+
+		private BulkCloneResult ( int nconcepts, int nrelations )
+		{
+			oldConceptIds = new int [ nconcepts ];
+			newConceptIds = new int [ nconcepts ];
+			oldRelationIds = new int [ nrelations ];
+			newRelationIds = new int [ nrelations ];
+		}
+
+		/**
+		 * @return the id of the clone of the concept, or -1 if the concept wasn't cloned.
+		 */
+		public int getNewConceptId ( int oldId )
+		{
+			int i = indexOfConcept ( oldId );
+			return i < 0 ? -1 : newConceptIds [ i ];
+		}
+
+		/**
+		 * @return the id of the clone of the relation, or -1 if the relation wasn't cloned.
+		 */
+		public int getNewRelationId ( int oldId )
+		{
+			int i = Arrays.binarySearch ( oldRelationIds, oldId );
+			return i < 0 ? -1 : newRelationIds [ i ];
+		}
+
+		/**
+		 * The no. of cloned concepts, including the ones added for the relations and the tags.
+		 */
+		public int getConceptCount ()
+		{
+			return oldConceptIds.length;
+		}
+
+		public int getRelationCount ()
+		{
+			return oldRelationIds.length;
+		}
+
+		private int indexOfConcept ( int oldId )
+		{
+			return Arrays.binarySearch ( oldConceptIds, oldId );
+		}
+	}
+
+	/**
+	 * Source =&gt; target metadata, built once by
+	 * {@link ONDEXGraphCloner#cloneBulk(ONDEXGraph, ONDEXGraph, Collection, Collection)}. This is read-only after
+	 * the construction, so it can be used by multiple threads.
+	 */
+	private static class MetaDataTranslator
+	{
+		private final Map<DataSource, DataSource> dataSources = new HashMap<> ();
+		private final Map<ConceptClass, ConceptClass> conceptClasses = new HashMap<> ();
+		private final Map<EvidenceType, EvidenceType> evidenceTypes = new HashMap<> ();
+		private final Map<RelationType, RelationType> relationTypes = new HashMap<> ();
+		private final Map<AttributeName, AttributeName> attributeNames = new HashMap<> ();
+
+		MetaDataTranslator ( ONDEXGraphMetaData omd, ONDEXGraphMetaData nomd )
+		{
+			for ( DataSource ds: omd.getDataSources () ) dataSources.put ( ds, nomd.getDataSource ( ds.getId () ) );
+			for ( ConceptClass cc: omd.getConceptClasses () ) conceptClasses.put ( cc, nomd.getConceptClass ( cc.getId () ) );
+			for ( EvidenceType et: omd.getEvidenceTypes () ) evidenceTypes.put ( et, nomd.getEvidenceType ( et.getId () ) );
+			for ( RelationType rt: omd.getRelationTypes () ) relationTypes.put ( rt, nomd.getRelationType ( rt.getId () ) );
+			for ( AttributeName an: omd.getAttributeNames () ) attributeNames.put ( an, nomd.getAttributeName ( an.getId () ) );
+		}
+
+		DataSource get ( DataSource ds ) {
+			return dataSources.get ( ds );
+		}
+
+		ConceptClass get ( ConceptClass cc ) {
+			return conceptClasses.get ( cc );
+		}
+
+		RelationType get ( RelationType rt ) {
+			return relationTypes.get ( rt );
+		}
+
+		AttributeName get ( AttributeName an ) {
+			return attributeNames.get ( an );
+		}
+
+		List<EvidenceType> get ( Set<EvidenceType> evidence )
+		{
+			List<EvidenceType> result = new ArrayList<> ( evidence.size () );
+			for ( EvidenceType et: evidence ) result.add ( evidenceTypes.get ( et ) );
+			return result;
+		}
+	}
 }
@@ -0,0 +1,206 @@
+package net.sourceforge.ondex.tools.ondex;
+
+import java.util.Set;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptAccession;
+import net.sourceforge.ondex.core.ConceptName;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.base.AbstractConcept;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
+
+/**
+ * <p>A base concept as it is seen from an {@link OverlayONDEXGraph}, which is returned in place of the base concept
+ * when the latter is tagged with concepts deleted in the overlay. Its tags are filtered against the overlay, while
+ * everything else is read from and written to the base concept.</p>
+ *
+ * <p>This extends {@link AbstractConcept}, so that it's equal to the base concept.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+class OverlayConcept extends AbstractConcept
+{
+	private static final long serialVersionUID = 1L;
+
+	private final OverlayONDEXGraph overlay;
+	private final ONDEXConcept base;
+
+	OverlayConcept ( OverlayONDEXGraph overlay, ONDEXConcept base )
+	{
+		super (
+			base.getSID (), base.getId (), base.getPID (), base.getAnnotation (), base.getDescription (),
+			base.getElementOf (), base.getOfType ()
+		);
+		this.overlay = overlay;
+		this.base = base;
+	}
+
+	@Override
+	public String getPID ()
+	{
+		return base.getPID ();
+	}
+
+	@Override
+	public void setPID ( String pid )
+	{
+		base.setPID ( pid );
+	}
+
+	@Override
+	public String getAnnotation ()
+	{
+		return base.getAnnotation ();
+	}
+
+	@Override
+	public void setAnnotation ( String annotation )
+	{
+		base.setAnnotation ( annotation );
+	}
+
+	@Override
+	public String getDescription ()
+	{
+		return base.getDescription ();
+	}
+
+	@Override
+	public void setDescription ( String description )
+	{
+		base.setDescription ( description );
+	}
+
+	@Override
+	public String toString ()
+	{
+		return base.toString ();
+	}
+
+	/**
+	 * Does nothing, the base concept reports its own changes.
+	 */
+	@Override
+	protected void logChange ( Aspect aspect )
+	{
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveTagAll ()
+	{
+		return overlay.visibleTags ( base.getTags () );
+	}
+
+	@Override
+	protected void saveTag ( ONDEXConcept concept )
+	{
+		base.addTag ( concept );
+	}
+
+	@Override
+	protected boolean dropTag ( ONDEXConcept concept )
+	{
+		return base.removeTag ( concept );
+	}
+
+	@Override
+	protected Set<EvidenceType> retrieveEvidenceTypeAll ()
+	{
+		return base.getEvidence ();
+	}
+
+	@Override
+	protected void saveEvidenceType ( EvidenceType evidenceType )
+	{
+		base.addEvidenceType ( evidenceType );
+	}
+
+	@Override
+	protected boolean dropEvidenceType ( EvidenceType evidenceType )
+	{
+		return base.removeEvidenceType ( evidenceType );
+	}
+
+	@Override
+	protected ConceptAccession retrieveConceptAccession ( String accession, DataSource elementOf )
+	{
+		return base.getConceptAccession ( accession, elementOf );
+	}
+
+	@Override
+	protected Set<ConceptAccession> retrieveConceptAccessionAll ()
+	{
+		return base.getConceptAccessions ();
+	}
+
+	@Override
+	protected ConceptAccession storeConceptAccession ( ConceptAccession acc )
+	{
+		return base.createConceptAccession ( acc.getAccession (), acc.getElementOf (), acc.isAmbiguous () );
+	}
+
+	@Override
+	protected boolean removeConceptAccession ( String accession, DataSource elementOf )
+	{
+		return base.deleteConceptAccession ( accession, elementOf );
+	}
+
+	@Override
+	protected Attribute retrieveConceptAttribute ( AttributeName attributeName )
+	{
+		return base.getAttribute ( attributeName );
+	}
+
+	@Override
+	protected Set<Attribute> retrieveConceptAttributeAll ()
+	{
+		return base.getAttributes ();
+	}
+
+	@Override
+	protected Attribute storeConceptAttribute ( Attribute attribute )
+	{
+		return base.createAttribute ( attribute.getOfType (), attribute.getValue (), attribute.isDoIndex () );
+	}
+
+	@Override
+	protected boolean removeConceptAttribute ( AttributeName attributeName )
+	{
+		return base.deleteAttribute ( attributeName );
+	}
+
+	@Override
+	protected ConceptName retrieveConceptName ( String name )
+	{
+		return base.getConceptName ( name );
+	}
+
+	@Override
+	protected Set<ConceptName> retrieveConceptNameAll ()
+	{
+		return base.getConceptNames ();
+	}
+
+	@Override
+	protected ConceptName retrievePreferredConceptName ()
+	{
+		return base.getConceptName ();
+	}
+
+	@Override
+	protected ConceptName storeConceptName ( ConceptName conceptName )
+	{
+		return base.createConceptName ( conceptName.getName (), conceptName.isPreferred () );
+	}
+
+	@Override
+	protected boolean removeConceptName ( String name )
+	{
+		return base.deleteConceptName ( name );
+	}
+}
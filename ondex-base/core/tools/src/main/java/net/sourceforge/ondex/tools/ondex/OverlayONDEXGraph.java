@@ -0,0 +1,548 @@
+package net.sourceforge.ondex.tools.ondex;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXEntity;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+import net.sourceforge.ondex.core.memory.MemoryONDEXGraphMetaData;
+import net.sourceforge.ondex.core.util.GraphChangeLog;
+import net.sourceforge.ondex.core.util.IdBitmap;
+
+/**
+ * <p>A copy-on-write fork of another graph. The overlay starts as a view of its base graph and records the
+ * structural changes made to it, without touching the base: deleted base concepts and relations are only hidden,
+ * via a couple of id bitmaps, while new concepts and relations are stored in the overlay itself (which is a
+ * {@link MemoryONDEXGraph}), with ids above the ones of the base. This makes a fork cost a few bytes per deleted
+ * entity, rather than a full copy, which is what filter chains and what-if analyses need on large graphs.</p>
+ *
+ * <p>When the result has to be a standalone graph, {@link #materialise()} copies the visible entities into a new
+ * graph.</p>
+ *
+ * <p>Limitations:</p>
+ * <ul>
+ *   <li>The base entities are returned as they are, not copied, so changing their names, attributes, tags etc
+ *   changes the base graph too. Only deletions and additions are copy-on-write. If the base entities need to be
+ *   changed, materialise the overlay first.</li>
+ *   <li>The metadata are the ones of the base graph, so new metadata end up there.</li>
+ *   <li>The base graph must not change while the overlay is in use.</li>
+ *   <li>Base entities tagged with deleted concepts keep such tags in the base. The overlay returns views of them
+ *   ({@link OverlayConcept}, {@link OverlayRelation}), which show only the tags that are visible in the overlay.
+ *   These views are equal to their base entities, but not the same object.</li>
+ *   <li>The {@link #isLoadingMode() loading mode} isn't supported, since the ids of the new entities must not
+ *   clash with the base ones.</li>
+ * </ul>
+ *
+ * <p>As its parent, this isn't thread-safe.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class OverlayONDEXGraph extends MemoryONDEXGraph
+{
+	private static final long serialVersionUID = 1L;
+
+	private final ONDEXGraph base;
+
+	private final IdBitmap hiddenConcepts = new IdBitmap ();
+	private final IdBitmap hiddenRelations = new IdBitmap ();
+
+	/**
+	 * The hidden concepts that some base entity is tagged with, the entities with such tags are returned as views.
+	 */
+	private final IdBitmap hiddenTags = new IdBitmap ();
+
+	/**
+	 * The highest ids in the base, lazily computed when the first new entity is created.
+	 */
+	private int lastBaseConceptId = -1, lastBaseRelationId = -1;
+
+	public OverlayONDEXGraph ( ONDEXGraph base )
+	{
+		this ( base.getName (), base );
+	}
+
+	public OverlayONDEXGraph ( String name, ONDEXGraph base )
+	{
+		// The own metadata aren't used, see getMetaData()
+		super ( name, null, new MemoryONDEXGraphMetaData () );
+		this.base = base;
+	}
+
+	public ONDEXGraph getBase ()
+	{
+		return base;
+	}
+
+	@Override
+	public ONDEXGraphMetaData getMetaData ()
+	{
+		return base.getMetaData ();
+	}
+
+	/**
+	 * True if the overlay has deletions or additions, ie, it differs from the base.
+	 */
+	public boolean isChanged ()
+	{
+		return !( hiddenConcepts.isEmpty () && hiddenRelations.isEmpty ()
+			&& super.retrieveConceptAll ().isEmpty () && super.retrieveRelationAll ().isEmpty () );
+	}
+
+	/**
+	 * <p>Deletes everything except the given entities, which is how the result of a filter is applied. This is
+	 * much cheaper than making a copy of the visible entities, or deleting the invisible ones from a copy of the
+	 * base.</p>
+	 *
+	 * <p>Relations that link a concept not in the retained ones are deleted too.</p>
+	 */
+	public void retainOnly ( Set<ONDEXConcept> concepts, Set<ONDEXRelation> relations )
+	{
+		checkNotFrozen ();
+
+		// Collect the ids first, since deletions change the sets being iterated
+		IdBitmap deletedRelations = new IdBitmap ();
+		for ( ONDEXRelation r: retrieveRelationAll () )
+			if ( !relations.contains ( r ) ) deletedRelations.add ( r.getId () );
+		for ( PrimitiveIterator.OfInt itr = deletedRelations.iterator (); itr.hasNext (); )
+			deleteRelation ( itr.nextInt () );
+
+		IdBitmap deletedConcepts = new IdBitmap ();
+		for ( ONDEXConcept c: retrieveConceptAll () )
+			if ( !concepts.contains ( c ) ) deletedConcepts.add ( c.getId () );
+		for ( PrimitiveIterator.OfInt itr = deletedConcepts.iterator (); itr.hasNext (); )
+			deleteConcept ( itr.nextInt () );
+	}
+
+	/**
+	 * Copies the visible entities into a new {@link MemoryONDEXGraph}, which has the same name as this.
+	 */
+	public ONDEXGraph materialise ()
+	{
+		return materialise ( new MemoryONDEXGraph ( getName () ) );
+	}
+
+	/**
+	 * <p>Copies the visible entities into the target graph, using {@link ONDEXGraphCloner}, so the copies get new
+	 * ids.</p>
+	 *
+	 * @return the target
+	 */
+	public ONDEXGraph materialise ( ONDEXGraph target )
+	{
+		new ONDEXGraphCloner ( this, target ).cloneAll ();
+		return target;
+	}
+
+	@Override
+	public boolean isLoadingModeSupported ()
+	{
+		return false;
+	}
+
+	@Override
+	public void setLoadingMode ( boolean isLoadingMode )
+	{
+		if ( isLoadingMode ) throw new UnsupportedOperationException ( LOADING_MODE_NOT_SUPPORTED_MSG );
+	}
+
+	/**
+	 * Not supported, since the attributes of the base entities are in the base graph.
+	 */
+	@Override
+	protected boolean isColumnarStorageSupported ()
+	{
+		return false;
+	}
+
+	@Override
+	protected int nextConceptId ()
+	{
+		if ( lastBaseConceptId < 0 ) lastBaseConceptId = maxId ( base.getConcepts () );
+		return lastBaseConceptId + super.nextConceptId ();
+	}
+
+	@Override
+	protected int nextRelationId ()
+	{
+		if ( lastBaseRelationId < 0 ) lastBaseRelationId = maxId ( base.getRelations () );
+		return lastBaseRelationId + super.nextRelationId ();
+	}
+
+	/**
+	 * Hides a base concept, or deletes a new one. Unlike the default, this doesn't remove the deleted concept from
+	 * the tags of the base entities, they're filtered when the entities are fetched, see the class comments.
+	 */
+	@Override
+	public boolean deleteConcept ( int id )
+	{
+		if ( isOwnConcept ( id ) ) return super.deleteConcept ( id );
+
+		ONDEXConcept c = retrieveConcept ( id );
+		if ( c == null ) return false;
+		checkNotFrozen ();
+
+		for ( ONDEXConcept tagged: nonNull ( super.retrieveConceptAllTag ( c ) ).toArray ( new ONDEXConcept [ 0 ] ) )
+			tagged.removeTag ( c );
+		for ( ONDEXRelation tagged: nonNull ( super.retrieveRelationAllTag ( c ) ).toArray ( new ONDEXRelation [ 0 ] ) )
+			tagged.removeTag ( c );
+
+		for ( ONDEXRelation r: retrieveRelationAllConcept ( c ).toArray ( new ONDEXRelation [ 0 ] ) )
+			deleteRelation ( r.getId () );
+
+		hiddenConcepts.add ( id );
+		if ( !( nonNull ( base.getConceptsOfTag ( c ) ).isEmpty () && nonNull ( base.getRelationsOfTag ( c ) ).isEmpty () ) )
+			hiddenTags.add ( id );
+		GraphChangeLog log = getChangeLog ();
+		if ( log != null ) log.conceptDeleted ( id );
+		return true;
+	}
+
+	@Override
+	protected boolean removeRelation ( int id )
+	{
+		if ( super.retrieveRelation ( id ) != null ) return super.removeRelation ( id );
+		if ( retrieveRelation ( id ) == null ) return false;
+
+		checkNotFrozen ();
+		hiddenRelations.add ( id );
+		return true;
+	}
+
+	@Override
+	protected boolean removeRelation ( ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType )
+	{
+		if ( super.retrieveRelation ( fromConcept, toConcept, ofType ) != null )
+			return super.removeRelation ( fromConcept, toConcept, ofType );
+
+		ONDEXRelation r = retrieveRelation ( fromConcept, toConcept, ofType );
+		if ( r == null ) return false;
+
+		checkNotFrozen ();
+		hiddenRelations.add ( r.getId () );
+		return true;
+	}
+
+	/**
+	 * A relation with the same key as a visible base relation isn't created, the base one is returned instead, as
+	 * the parent does with its own relations.
+	 *
+	 * @throws IllegalArgumentException if one of the concepts isn't visible in the overlay.
+	 */
+	@Override
+	protected ONDEXRelation storeRelation ( long sid, int id, ONDEXConcept fromConcept, ONDEXConcept toConcept,
+		RelationType ofType, Collection<EvidenceType> evidence )
+	{
+		for ( ONDEXConcept c: new ONDEXConcept[] { fromConcept, toConcept } )
+			if ( retrieveConcept ( c.getId () ) == null ) throw new IllegalArgumentException (
+				"Can't create a relation for the concept #" + c.getId () + ", which isn't in the graph overlay \""
+				+ getName () + "\""
+			);
+
+		ONDEXRelation existing = retrieveBaseRelation ( fromConcept.getId (), toConcept.getId (), ofType );
+		if ( existing != null ) return existing;
+
+		return super.storeRelation ( sid, id, fromConcept, toConcept, ofType, evidence );
+	}
+
+	@Override
+	protected ONDEXConcept retrieveConcept ( int id )
+	{
+		ONDEXConcept result = super.retrieveConcept ( id );
+		if ( result != null ) return result;
+		return hiddenConcepts.contains ( id ) ? null : asSeen ( base.getConcept ( id ) );
+	}
+
+	@Override
+	protected ONDEXRelation retrieveRelation ( int id )
+	{
+		ONDEXRelation result = super.retrieveRelation ( id );
+		if ( result != null ) return result;
+		return hiddenRelations.contains ( id ) ? null : asSeen ( base.getRelation ( id ) );
+	}
+
+	@Override
+	protected ONDEXRelation retrieveRelation ( ONDEXConcept fromConcept, ONDEXConcept toConcept, RelationType ofType )
+	{
+		ONDEXRelation result = super.retrieveRelation ( fromConcept, toConcept, ofType );
+		if ( result != null ) return result;
+		return retrieveBaseRelation ( fromConcept.getId (), toConcept.getId (), ofType );
+	}
+
+	@Override
+	public ONDEXRelation getRelation ( int fromId, int toId, RelationType ofType )
+	{
+		ONDEXRelation result = super.getRelation ( fromId, toId, ofType );
+		if ( result != null ) return result;
+		return retrieveBaseRelation ( fromId, toId, ofType );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAll ()
+	{
+		return new OverlaySet<> ( base.getConcepts (), hiddenConcepts, super.retrieveConceptAll (), true, this::asSeen );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllAttributeName ( AttributeName attributeName )
+	{
+		return conceptView ( base.getConceptsOfAttributeName ( attributeName ), super.retrieveConceptAllAttributeName ( attributeName ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllConceptClass ( ConceptClass conceptClass )
+	{
+		return conceptView ( base.getConceptsOfConceptClass ( conceptClass ), super.retrieveConceptAllConceptClass ( conceptClass ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllDataSource ( DataSource dataSource )
+	{
+		return conceptView ( base.getConceptsOfDataSource ( dataSource ), super.retrieveConceptAllDataSource ( dataSource ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllEvidenceType ( EvidenceType evidenceType )
+	{
+		return conceptView ( base.getConceptsOfEvidenceType ( evidenceType ), super.retrieveConceptAllEvidenceType ( evidenceType ) );
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveConceptAllTag ( ONDEXConcept concept )
+	{
+		Set<ONDEXConcept> own = super.retrieveConceptAllTag ( concept );
+		if ( !isVisibleBaseConcept ( concept ) ) return own;
+		return conceptView ( base.getConceptsOfTag ( concept ), own );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAll ()
+	{
+		return new OverlaySet<> ( base.getRelations (), hiddenRelations, super.retrieveRelationAll (), true, this::asSeen );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllAttributeName ( AttributeName attributeName )
+	{
+		return relationView ( base.getRelationsOfAttributeName ( attributeName ), super.retrieveRelationAllAttributeName ( attributeName ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllConcept ( ONDEXConcept concept )
+	{
+		Set<ONDEXRelation> own = super.retrieveRelationAllConcept ( concept );
+		if ( !isVisibleBaseConcept ( concept ) ) return own;
+		return relationView ( base.getRelationsOfConcept ( concept ), own );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllConceptClass ( ConceptClass conceptClass )
+	{
+		return relationView ( base.getRelationsOfConceptClass ( conceptClass ), super.retrieveRelationAllConceptClass ( conceptClass ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllDataSource ( DataSource dataSource )
+	{
+		return relationView ( base.getRelationsOfDataSource ( dataSource ), super.retrieveRelationAllDataSource ( dataSource ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllEvidenceType ( EvidenceType evidenceType )
+	{
+		return relationView ( base.getRelationsOfEvidenceType ( evidenceType ), super.retrieveRelationAllEvidenceType ( evidenceType ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllRelationType ( RelationType relationType )
+	{
+		return relationView ( base.getRelationsOfRelationType ( relationType ), super.retrieveRelationAllRelationType ( relationType ) );
+	}
+
+	@Override
+	protected Set<ONDEXRelation> retrieveRelationAllTag ( ONDEXConcept concept )
+	{
+		Set<ONDEXRelation> own = super.retrieveRelationAllTag ( concept );
+		if ( !isVisibleBaseConcept ( concept ) ) return own;
+		return relationView ( base.getRelationsOfTag ( concept ), own );
+	}
+
+	/**
+	 * The visible base tags that are still used by some visible entity, plus the tags of the new entities.
+	 */
+	@Override
+	protected Set<ONDEXConcept> retrieveTags ()
+	{
+		// As in the parent, tags are few, so a copy is fine
+		Set<ONDEXConcept> result = new HashSet<> ( nonNull ( super.retrieveTags () ) );
+		for ( ONDEXConcept tag: base.getAllTags () )
+		{
+			if ( hiddenConcepts.contains ( tag.getId () ) ) continue;
+			if ( retrieveConceptAllTag ( tag ).isEmpty () && retrieveRelationAllTag ( tag ).isEmpty () ) continue;
+			result.add ( asSeen ( tag ) );
+		}
+		return result;
+	}
+
+	/**
+	 * The tags of a base entity that are visible in the overlay, used by the entity views.
+	 */
+	Set<ONDEXConcept> visibleTags ( Set<ONDEXConcept> tags )
+	{
+		return new OverlaySet<> ( tags, hiddenConcepts, null, false, this::asSeen );
+	}
+
+	/**
+	 * The base concept, or a view of it if it's tagged with hidden concepts.
+	 */
+	private ONDEXConcept asSeen ( ONDEXConcept c )
+	{
+		if ( c == null || c instanceof OverlayConcept || !hasHiddenTags ( c.getTags () ) ) return c;
+		return new OverlayConcept ( this, c );
+	}
+
+	/**
+	 * The base relation, or a view of it if it's tagged with hidden concepts, or if its concepts are views.
+	 */
+	private ONDEXRelation asSeen ( ONDEXRelation r )
+	{
+		if ( r == null || r instanceof OverlayRelation || hiddenTags.isEmpty () ) return r;
+		if ( !( hasHiddenTags ( r.getTags () )
+			|| hasHiddenTags ( r.getFromConcept ().getTags () ) || hasHiddenTags ( r.getToConcept ().getTags () ) )
+		) return r;
+		return new OverlayRelation ( this, r );
+	}
+
+	private boolean hasHiddenTags ( Set<ONDEXConcept> tags )
+	{
+		if ( hiddenTags.isEmpty () ) return false;
+		for ( ONDEXConcept tag: tags )
+			if ( hiddenTags.contains ( tag.getId () ) ) return true;
+		return false;
+	}
+
+	private boolean isOwnConcept ( int id )
+	{
+		return super.retrieveConcept ( id ) != null;
+	}
+
+	private boolean isVisibleBaseConcept ( ONDEXConcept concept )
+	{
+		return isVisibleBaseConcept ( concept.getId () );
+	}
+
+	private boolean isVisibleBaseConcept ( int id )
+	{
+		return !isOwnConcept ( id ) && !hiddenConcepts.contains ( id );
+	}
+
+	private ONDEXRelation retrieveBaseRelation ( int fromId, int toId, RelationType ofType )
+	{
+		if ( !( isVisibleBaseConcept ( fromId ) && isVisibleBaseConcept ( toId ) ) ) return null;
+		ONDEXRelation result = base.getRelation ( fromId, toId, ofType );
+		return result == null || hiddenRelations.contains ( result.getId () ) ? null : asSeen ( result );
+	}
+
+	private Set<ONDEXConcept> conceptView ( Set<ONDEXConcept> baseSet, Set<ONDEXConcept> ownSet )
+	{
+		return new OverlaySet<> ( baseSet, hiddenConcepts, ownSet, false, this::asSeen );
+	}
+
+	private Set<ONDEXRelation> relationView ( Set<ONDEXRelation> baseSet, Set<ONDEXRelation> ownSet )
+	{
+		return new OverlaySet<> ( baseSet, hiddenRelations, ownSet, false, this::asSeen );
+	}
+
+	private static int maxId ( Set<? extends ONDEXEntity> entities )
+	{
+		int result = 0;
+		for ( ONDEXEntity e: entities )
+			if ( e.getId () > result ) result = e.getId ();
+		return result;
+	}
+
+	private static <E> Set<E> nonNull ( Set<E> set )
+	{
+		return set == null ? Collections.emptySet () : set;
+	}
+
+
+	/**
+	 * The visible base entities of a set, followed by the new ones. This is a view, so it reflects later changes,
+	 * like the sets returned by the parent. The base entities go through the viewer, which returns them as the
+	 * overlay sees them.
+	 */
+	private static class OverlaySet<E extends ONDEXEntity> extends AbstractSet<E>
+	{
+		private final Set<E> baseSet;
+		private final IdBitmap hidden;
+		private final Set<E> ownSet;
+
+		/**
+		 * True when baseSet has all the base entities, so that all the hidden ids are in it and the size can be
+		 * computed without a scan.
+		 */
+		private final boolean isAll;
+
+		private final UnaryOperator<E> viewer;
+
+		OverlaySet ( Set<E> baseSet, IdBitmap hidden, Set<E> ownSet, boolean isAll, UnaryOperator<E> viewer )
+		{
+			this.baseSet = nonNull ( baseSet );
+			this.hidden = hidden;
+			this.ownSet = nonNull ( ownSet );
+			this.isAll = isAll;
+			this.viewer = viewer;
+		}
+
+		@Override
+		public Iterator<E> iterator ()
+		{
+			return Stream.concat (
+				baseSet.stream ().filter ( e -> !hidden.contains ( e.getId () ) ).map ( viewer ),
+				ownSet.stream ()
+			).iterator ();
+		}
+
+		@Override
+		public int size ()
+		{
+			int nbase;
+			if ( hidden.isEmpty () ) nbase = baseSet.size ();
+			else if ( isAll ) nbase = baseSet.size () - hidden.cardinality ();
+			else nbase = (int) baseSet.stream ().filter ( e -> !hidden.contains ( e.getId () ) ).count ();
+			return nbase + ownSet.size ();
+		}
+
+		@Override
+		public boolean isEmpty ()
+		{
+			return !iterator ().hasNext ();
+		}
+
+		@Override
+		public boolean contains ( Object o )
+		{
+			if ( ownSet.contains ( o ) ) return true;
+			if ( !( o instanceof ONDEXEntity ) ) return false;
+			return !hidden.contains ( ( (ONDEXEntity) o ).getId () ) && baseSet.contains ( o );
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package net.sourceforge.ondex.tools.ondex;
+
+import java.util.Set;
+
+import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.base.AbstractRelation;
+import net.sourceforge.ondex.core.util.GraphChangeLog.Aspect;
+
+/**
+ * <p>A base relation as it is seen from an {@link OverlayONDEXGraph}, the equivalent of {@link OverlayConcept}.
+ * Both its tags and its concepts are as the overlay sees them.</p>
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+class OverlayRelation extends AbstractRelation
+{
+	private static final long serialVersionUID = 1L;
+
+	private final OverlayONDEXGraph overlay;
+	private final ONDEXRelation base;
+
+	OverlayRelation ( OverlayONDEXGraph overlay, ONDEXRelation base )
+	{
+		super (
+			base.getSID (), base.getId (),
+			overlay.getConcept ( base.getFromConcept ().getId () ), overlay.getConcept ( base.getToConcept ().getId () ),
+			base.getOfType ()
+		);
+		// So that it's equal to the base relation
+		this.key = base.getKey ();
+		this.overlay = overlay;
+		this.base = base;
+	}
+
+	@Override
+	public String toString ()
+	{
+		return base.toString ();
+	}
+
+	/**
+	 * Does nothing, the base relation reports its own changes.
+	 */
+	@Override
+	protected void logChange ( Aspect aspect )
+	{
+	}
+
+	@Override
+	protected Set<ONDEXConcept> retrieveTagAll ()
+	{
+		return overlay.visibleTags ( base.getTags () );
+	}
+
+	@Override
+	protected void saveTag ( ONDEXConcept concept )
+	{
+		base.addTag ( concept );
+	}
+
+	@Override
+	protected boolean dropTag ( ONDEXConcept concept )
+	{
+		return base.removeTag ( concept );
+	}
+
+	@Override
+	protected Set<EvidenceType> retrieveEvidenceTypeAll ()
+	{
+		return base.getEvidence ();
+	}
+
+	@Override
+	protected void saveEvidenceType ( EvidenceType evidenceType )
+	{
+		base.addEvidenceType ( evidenceType );
+	}
+
+	@Override
+	protected boolean dropEvidenceType ( EvidenceType evidenceType )
+	{
+		return base.removeEvidenceType ( evidenceType );
+	}
+
+	@Override
+	protected Attribute retrieveRelationAttribute ( AttributeName attributeName )
+	{
+		return base.getAttribute ( attributeName );
+	}
+
+	@Override
+	protected Set<Attribute> retrieveRelationAttributeAll ()
+	{
+		return base.getAttributes ();
+	}
+
+	@Override
+	protected Attribute storeRelationAttribute ( Attribute attribute )
+	{
+		return base.createAttribute ( attribute.getOfType (), attribute.getValue (), attribute.isDoIndex () );
+	}
+
+	@Override
+	protected boolean removeRelationAttribute ( AttributeName attributeName )
+	{
+		return base.deleteAttribute ( attributeName );
+	}
+}
@@ -5,6 +5,7 @@ package net.sourceforge.ondex.tools.ondex;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
@@ -20,6 +21,7 @@ import net.sourceforge.ondex.core.ONDEXConcept;
 import net.sourceforge.ondex.core.ONDEXGraph;
 import net.sourceforge.ondex.core.ONDEXRelation;
 import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.memory.ConcurrentMemoryONDEXGraph;
 import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
 
 /**
@@ -289,4 +291,80 @@ public class ONDEXGraphClonerTest extends TestCase {
 		assertEquals(2, cloner.getOld2newRelationIds().size());
 	}
 
+	/**
+	 * Test method for
+	 * {@link net.sourceforge.ondex.tools.ondex.ONDEXGraphCloner#cloneBulk(ONDEXGraph, ONDEXGraph, Collection, Collection)}
+	 * .
+	 */
+	@Test
+	public void testCloneBulk() {
+		ONDEXRelation r1 = source.getRelation(1);
+		ONDEXConcept tag = source.createConcept("tag", "", "",
+				r1.getFromConcept().getElementOf(), r1.getFromConcept()
+						.getOfType(), r1.getEvidence());
+		r1.addTag(tag);
+
+		// Relation endpoints and tags come with the relation
+		ONDEXGraphCloner.BulkCloneResult result = ONDEXGraphCloner.cloneBulk(
+				source, target, new ArrayList<ONDEXConcept>(),
+				List.of(r1));
+		assertEquals(3, result.getConceptCount());
+		assertEquals(1, result.getRelationCount());
+		assertEquals(3, target.getConcepts().size());
+		assertEquals(1, target.getRelations().size());
+		assertEquals(-1, result.getNewRelationId(2));
+
+		ONDEXRelation newR1 = target.getRelation(result.getNewRelationId(1));
+		assertNotNull(newR1);
+		assertEquals(result.getNewConceptId(r1.getFromConcept().getId()),
+				newR1.getFromConcept().getId());
+		assertEquals(1, newR1.getAttributes().size());
+		assertEquals(1, newR1.getTags().size());
+		assertEquals(result.getNewConceptId(tag.getId()), newR1.getTags()
+				.iterator().next().getId());
+		assertEquals("value", target.getConcept(
+				result.getNewConceptId(r1.getFromConcept().getId()))
+				.getAttributes().iterator().next().getValue());
+		assertSame(target.getMetaData().getRelationType("id"),
+				newR1.getOfType());
+
+		// Nothing goes into the static indexes used by the instances
+		assertTrue(new ONDEXGraphCloner(source, target).getOld2newConceptIds()
+				.isEmpty());
+	}
+
+	/**
+	 * Test method for
+	 * {@link net.sourceforge.ondex.tools.ondex.ONDEXGraphCloner#cloneBulk(ONDEXGraph, ONDEXGraph, Collection, Collection)}
+	 * , with a target that allows for parallel copying.
+	 */
+	@Test
+	public void testCloneBulkConcurrent() {
+		ONDEXConcept c1 = source.getConcept(1);
+		for (int i = 0; i < 1000; i++) {
+			ONDEXConcept c = source.createConcept("c" + i, "", "",
+					c1.getElementOf(), c1.getOfType(), c1.getEvidence());
+			c.createConceptName("name" + i, true);
+			c.createConceptAccession("acc" + i, c1.getElementOf(), false);
+		}
+		target = new ConcurrentMemoryONDEXGraph("target");
+		assertTrue(target.isConcurrentWriteSafe());
+		assertFalse(source.isConcurrentWriteSafe());
+
+		ONDEXGraphCloner.BulkCloneResult result = ONDEXGraphCloner.cloneBulk(
+				source, target, source.getConcepts(), source.getRelations());
+		assertEquals(source.getConcepts().size(), target.getConcepts().size());
+		assertEquals(source.getRelations().size(), target.getRelations().size());
+		for (ONDEXConcept c : source.getConcepts()) {
+			ONDEXConcept newC = target.getConcept(result.getNewConceptId(c
+					.getId()));
+			assertEquals(c.getPID(), newC.getPID());
+			assertEquals(c.getConceptNames().size(), newC.getConceptNames()
+					.size());
+			assertEquals(c.getConceptAccessions().size(), newC
+					.getConceptAccessions().size());
+			assertEquals(c.getAttributes().size(), newC.getAttributes().size());
+		}
+	}
+
 }
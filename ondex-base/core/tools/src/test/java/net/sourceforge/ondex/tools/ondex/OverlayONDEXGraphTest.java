@@ -0,0 +1,148 @@
+package net.sourceforge.ondex.tools.ondex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.ONDEXGraphMetaData;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+
+/**
+ * Tests {@link OverlayONDEXGraph}.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class OverlayONDEXGraphTest
+{
+	private MemoryONDEXGraph base;
+	private DataSource ds;
+	private ConceptClass cc;
+	private EvidenceType ev;
+	private RelationType rt;
+	private ONDEXConcept c1, c2, c3;
+	private ONDEXRelation r12, r23;
+
+	@Before
+	public void initGraph ()
+	{
+		base = new MemoryONDEXGraph ( "base" );
+		ONDEXGraphMetaData meta = base.getMetaData ();
+		ds = meta.getFactory ().createDataSource ( "ds" );
+		cc = meta.getFactory ().createConceptClass ( "cc" );
+		ev = meta.getFactory ().createEvidenceType ( "ev" );
+		rt = meta.getFactory ().createRelationType ( "rt" );
+
+		c1 = base.getFactory ().createConcept ( "c1", ds, cc, ev );
+		c2 = base.getFactory ().createConcept ( "c2", ds, cc, ev );
+		c3 = base.getFactory ().createConcept ( "c3", ds, cc, ev );
+		r12 = base.getFactory ().createRelation ( c1, c2, rt, ev );
+		r23 = base.getFactory ().createRelation ( c2, c3, rt, ev );
+	}
+
+
+	@Test
+	public void testDeletions ()
+	{
+		OverlayONDEXGraph overlay = new OverlayONDEXGraph ( base );
+		assertFalse ( "New overlay is changed!", overlay.isChanged () );
+		assertEquals ( "Wrong concepts count!", 3, overlay.getConcepts ().size () );
+
+		assertTrue ( "Concept not deleted!", overlay.deleteConcept ( c3.getId () ) );
+
+		assertNull ( "Deleted concept is visible!", overlay.getConcept ( c3.getId () ) );
+		assertNull ( "Relation of deleted concept is visible!", overlay.getRelation ( r23.getId () ) );
+		assertEquals ( "Wrong concepts count!", 2, overlay.getConcepts ().size () );
+		assertEquals ( "Wrong relations count!", 1, overlay.getRelations ().size () );
+		assertFalse ( "Deleted concept in the concept class index!", overlay.getConceptsOfConceptClass ( cc ).contains ( c3 ) );
+		assertEquals ( "Wrong concept class index size!", 2, overlay.getConceptsOfConceptClass ( cc ).size () );
+		assertEquals ( "Wrong relations of concept!", Set.of ( r12 ), overlay.getRelationsOfConcept ( c2 ) );
+		assertFalse ( "Concept deleted twice!", overlay.deleteConcept ( c3.getId () ) );
+
+		assertTrue ( "Relation not deleted!", overlay.deleteRelation ( c1, c2, rt ) );
+		assertTrue ( "Deleted relation is visible!", overlay.getRelations ().isEmpty () );
+		assertTrue ( "Overlay not changed!", overlay.isChanged () );
+
+		assertEquals ( "Base concepts changed!", 3, base.getConcepts ().size () );
+		assertEquals ( "Base relations changed!", 2, base.getRelations ().size () );
+		assertNotNull ( "Base relation deleted!", base.getRelation ( r23.getId () ) );
+	}
+
+	@Test
+	public void testAdditions ()
+	{
+		OverlayONDEXGraph overlay = new OverlayONDEXGraph ( base );
+		ONDEXConcept c4 = overlay.getFactory ().createConcept ( "c4", ds, cc, ev );
+		ONDEXRelation r14 = overlay.getFactory ().createRelation ( c1, c4, rt, ev );
+
+		assertTrue ( "New concept id clashes with the base!", c4.getId () > c3.getId () );
+		assertTrue ( "New relation id clashes with the base!", r14.getId () > r23.getId () );
+		assertSame ( "New concept not found!", c4, overlay.getConcept ( c4.getId () ) );
+		assertEquals ( "Wrong concepts count!", 4, overlay.getConcepts ().size () );
+		assertTrue ( "New concept not in the concept class index!", overlay.getConceptsOfConceptClass ( cc ).contains ( c4 ) );
+		assertEquals ( "Wrong relations of base concept!", Set.of ( r12, r14 ), overlay.getRelationsOfConcept ( c1 ) );
+		assertSame ( "Wrong relation by key!", r14, overlay.getRelation ( c1, c4, rt ) );
+
+		assertSame (
+			"Base relation duplicated!", r12, overlay.getFactory ().createRelation ( c1, c2, rt, ev )
+		);
+		assertEquals ( "Wrong relations count!", 3, overlay.getRelations ().size () );
+
+		assertNull ( "New concept in the base!", base.getConcept ( c4.getId () ) );
+		assertEquals ( "Base relations changed!", 2, base.getRelations ().size () );
+		assertTrue ( "Base concept has the new relation!", base.getRelationsOfConcept ( c1 ).size () == 1 );
+
+		assertTrue ( "New concept not deleted!", overlay.deleteConcept ( c4.getId () ) );
+		assertNull ( "Relation of deleted new concept is visible!", overlay.getRelation ( r14.getId () ) );
+		assertEquals ( "Wrong relations count after delete!", 2, overlay.getRelations ().size () );
+	}
+
+	@Test ( expected = IllegalArgumentException.class )
+	public void testRelationToDeletedConcept ()
+	{
+		OverlayONDEXGraph overlay = new OverlayONDEXGraph ( base );
+		overlay.deleteConcept ( c3.getId () );
+		overlay.getFactory ().createRelation ( c1, c3, rt, ev );
+	}
+
+	@Test
+	public void testRetainAndMaterialise ()
+	{
+		c1.addTag ( c3 );
+
+		OverlayONDEXGraph overlay = new OverlayONDEXGraph ( "filtered", base );
+		Set<ONDEXConcept> visibleConcepts = new HashSet<> ( Set.of ( c1, c2 ) );
+		Set<ONDEXRelation> visibleRelations = new HashSet<> ( Set.of ( r12 ) );
+		overlay.retainOnly ( visibleConcepts, visibleRelations );
+
+		assertEquals ( "Wrong retained concepts!", visibleConcepts, overlay.getConcepts () );
+		assertEquals ( "Wrong retained relations!", visibleRelations, overlay.getRelations () );
+		assertFalse ( "Deleted concept among the tags!", overlay.getAllTags ().contains ( c3 ) );
+
+		ONDEXGraph result = overlay.materialise ();
+		assertEquals ( "Wrong materialised name!", "filtered", result.getName () );
+		assertEquals ( "Wrong materialised concepts count!", 2, result.getConcepts ().size () );
+		assertEquals ( "Wrong materialised relations count!", 1, result.getRelations ().size () );
+		for ( ONDEXConcept c: result.getConcepts () )
+			assertTrue ( "Deleted tag materialised!", c.getTags ().isEmpty () );
+
+		assertEquals ( "Base changed!", 3, base.getConcepts ().size () );
+	}
+}
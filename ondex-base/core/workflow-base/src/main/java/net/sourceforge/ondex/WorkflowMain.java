@@ -22,6 +22,9 @@ import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 
 import net.sourceforge.ondex.config.Config;
+import net.sourceforge.ondex.config.LuceneRegistry;
+import net.sourceforge.ondex.core.searchable.LuceneEnv;
+import net.sourceforge.ondex.core.searchable.LuceneEnv.DirectoryType;
 import net.sourceforge.ondex.init.PluginRegistry;
 import net.sourceforge.ondex.workflow.engine.BasicJobImpl;
 import net.sourceforge.ondex.workflow.engine.ResourcePool;
@@ -42,7 +45,7 @@ public class WorkflowMain {
     /**
      * The main entry point for running ONDEX workflows.
      *
-     * @param args options -d -w -help -u -p (see help for details)
+     * @param args options -d -w -help -u -p -i (see help for details)
      */
     public static void main(String[] args) {
 
@@ -53,6 +56,9 @@ public class WorkflowMain {
         options.addOption("p", "password", true, "Password for the database Session");
         options.addOption("h", "help", false, "Usage help for this program");
         options.addOption("l", "libraries", true, "comma-separated list of identifiers for libraries which to load");
+        options.addOption("i", "index-directory", true, "The kind of Lucene directory used for the graph indexes: "
+                + "fs (default), mmap or heap. Can also be specified as a System property under \"" 
+                + LuceneEnv.DIRECTORY_TYPE_PROP + "\"");
         options.addOption(OptionBuilder
                 .withArgName("property=value")
                 .hasArgs(2)
@@ -106,6 +112,16 @@ public class WorkflowMain {
             password = cmd.getOptionValue('p');
         }
 
+        if (cmd.hasOption('i')) {
+            try {
+                LuceneRegistry.directoryType = DirectoryType.parse(cmd.getOptionValue('i'));
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                printHelp(options);
+                System.exit(1);
+            }
+        }
+
         if (cmd.hasOption('l')) {
             System.out.print("Loading native libraries...");
 
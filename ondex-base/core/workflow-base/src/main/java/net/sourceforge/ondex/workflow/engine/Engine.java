@@ -25,6 +25,7 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
 import org.codehaus.stax2.XMLInputFactory2;
 import org.codehaus.stax2.XMLStreamReader2;
 
@@ -34,6 +35,7 @@ import net.sourceforge.ondex.args.ArgumentDefinition;
 import net.sourceforge.ondex.args.FileArgumentDefinition;
 import net.sourceforge.ondex.config.Config;
 import net.sourceforge.ondex.config.LuceneRegistry;
+import net.sourceforge.ondex.config.ONDEXGraphRegistry;
 import net.sourceforge.ondex.config.ValidatorRegistry;
 import net.sourceforge.ondex.core.ConceptClass;
 import net.sourceforge.ondex.core.DataSource;
@@ -41,12 +43,18 @@ import net.sourceforge.ondex.core.ONDEXConcept;
 import net.sourceforge.ondex.core.ONDEXGraph;
 import net.sourceforge.ondex.core.ONDEXRelation;
 import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
 import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+import net.sourceforge.ondex.core.mmap.MappedONDEXGraph;
 import net.sourceforge.ondex.core.searchable.LuceneEnv;
+import net.sourceforge.ondex.core.searchable.LuceneEnv.DirectoryType;
 import net.sourceforge.ondex.core.util.BitSetFunctions;
+import net.sourceforge.ondex.core.util.GraphFootprint;
+import net.sourceforge.ondex.core.util.GraphFootprintMonitor;
 import net.sourceforge.ondex.event.ONDEXEvent;
 import net.sourceforge.ondex.event.ONDEXEventHandler;
 import net.sourceforge.ondex.event.ONDEXListener;
+import net.sourceforge.ondex.event.type.DuplicatedEntryEvent;
 import net.sourceforge.ondex.event.type.EnvironmentVariable;
 import net.sourceforge.ondex.event.type.EventType;
 import net.sourceforge.ondex.event.type.EventType.Level;
@@ -59,9 +67,11 @@ import net.sourceforge.ondex.logging.ONDEXLogger;
 import net.sourceforge.ondex.mapping.ONDEXMapping;
 import net.sourceforge.ondex.parser.ONDEXParser;
 import net.sourceforge.ondex.tools.DirUtils;
+import net.sourceforge.ondex.tools.ondex.OverlayONDEXGraph;
 import net.sourceforge.ondex.transformer.ONDEXTransformer;
 import net.sourceforge.ondex.validator.AbstractONDEXValidator;
 import net.sourceforge.ondex.workflow.events.InvalidArgumentEvent;
+import net.sourceforge.ondex.workflow.model.GraphInit;
 import net.sourceforge.ondex.workflow.model.PluginAndArgs;
 
 /**
@@ -123,11 +133,22 @@ public class Engine {
         fireEventOccurred(ev);
     }
 
+    /**
+     * Creates a new graph of the given type, see {@link GraphInit}.
+     *
+     * @param name the graph name, "temp_graph" if it's null
+     * @param type the backend type, eg, {@link GraphInit#MMAP}, anything unknown gives a memory graph
+     * @param storageDir used by the backends that need disk space, defaults to a directory named after the graph
+     * in the system temp directory
+     */
     public static ONDEXGraph getNewGraph(String name, String type, String storageDir) throws Exception {
         return getEngine().getNewGraph_internal(name, type, storageDir);
     }
 
-    private ONDEXGraph getNewGraph_internal(String type, String name, String storageDir) throws Exception {
+    // Until the graph type was used, this had the type and name parameters swapped (ie, graphs were named after
+    // their type and the type was ignored). The order is now the same as getNewGraph() and existing callers
+    // get the graph name they ask for.
+    private ONDEXGraph getNewGraph_internal(String name, String type, String storageDir) throws Exception {
         boolean no_metadata = false;
         System.out.println("ondex.dir = " + Config.ondexDir);
         if (Config.ondexDir != null) {
@@ -152,8 +173,16 @@ public class Engine {
         }
         ONDEXGraph result = null;
 
-        result = new MemoryONDEXGraph(name);
-        ONDEXEventHandler.getEventHandlerForSID(result.getSID()).addONDEXONDEXListener(logger);
+        // Anything else, including the old backends, falls back to memory
+        if (GraphInit.MMAP.equalsIgnoreCase(type))
+            result = new MappedONDEXGraph(name, new File(storageDir));
+        else if (GraphInit.OVERLAY.equalsIgnoreCase(type))
+            // an empty placeholder, runFilter() rebinds it to the filter input
+            result = new OverlayONDEXGraph(name, new MemoryONDEXGraph(name));
+        else
+            result = new MemoryONDEXGraph(name);
+        ONDEXEventHandler.getEventHandlerForSID(result.getSID()).addONDEXONDEXListener(newGraphLogger());
+        GraphFootprintMonitor.register((AbstractONDEXGraph) result);
         
         /* TODO remove
         if (type.equalsIgnoreCase(GraphInit.BERKELEY)) {
@@ -183,6 +212,28 @@ public class Engine {
 
     }
 
+    /**
+     * An overlay of the base graph, which replaces the output placeholder passed to
+     * {@link #runFilter(ONDEXFilter, ONDEXPluginArguments, ONDEXGraph, ONDEXGraph)}. This is set up as the graphs
+     * from {@link #getNewGraph(String, String, String)}, except that the metadata are the ones of the base.
+     */
+    private OverlayONDEXGraph newOverlay(String name, ONDEXGraph base) {
+        OverlayONDEXGraph result = new OverlayONDEXGraph(name, base);
+        ONDEXEventHandler.getEventHandlerForSID(result.getSID()).addONDEXONDEXListener(newGraphLogger());
+        GraphFootprintMonitor.register(result);
+        return result;
+    }
+
+    /**
+     * The listener for the events of a graph created here. The graphs report every duplicated entry with a
+     * {@link DuplicatedEntryEvent}, which is logged at the debug level, so, when that level is disabled, the
+     * listener ignores these events and the graphs don't create them at all.
+     */
+    private ONDEXLogger newGraphLogger() {
+        if (Logger.getLogger(ONDEXEventHandler.class).isDebugEnabled()) return logger;
+        return new ONDEXLogger(Set.of(DuplicatedEntryEvent.class));
+    }
+
     /**
      * Runs an export plug-in on the specified graph
      *
@@ -221,7 +272,12 @@ public class Engine {
      * @param filter  the filter to run
      * @param args  the arguments to run with
      * @param graphInput  the graph to apply the filter on
-     * @param graphOutput the graph to write results to (cloned from input graph)
+     * @param graphOutput the graph to write results to (cloned from input graph). If this is an
+     *                    {@link OverlayONDEXGraph} of the input graph, the results are applied by hiding
+     *                    the non matching entities in the overlay, which avoids any copy. An empty overlay
+     *                    over another graph, like the ones of type {@link GraphInit#OVERLAY}, is replaced
+     *                    by an overlay of the input graph, which is returned.
+     * @return the graph with the results, which is graphOutput, or the overlay that replaces it.
      * @throws Exception  if the filter fails
      */
     public ONDEXGraph runFilter(ONDEXFilter filter, ONDEXPluginArguments args,
@@ -256,7 +312,25 @@ public class Engine {
 	            throw new RuntimeException("filter.getVisibleConcepts() returns null after start");
 	
 	
-	        if (graphOutput != null && !graphInput.equals(graphOutput)) {
+	        if (graphOutput instanceof OverlayONDEXGraph && graphOutput != graphInput
+	        		&& ((OverlayONDEXGraph) graphOutput).getBase() != graphInput
+	        		&& graphOutput.getConcepts().isEmpty() && graphOutput.getRelations().isEmpty()) {
+	            OverlayONDEXGraph placeholder = (OverlayONDEXGraph) graphOutput;
+	            graphOutput = newOverlay(graphOutput.getName(), graphInput);
+	            releaseGraph(placeholder);
+	            // the base of a GraphInit.OVERLAY placeholder is registered too and nothing else uses it
+	            ONDEXGraph placeholderBase = placeholder.getBase();
+	            if (placeholderBase.getConcepts().isEmpty() && placeholderBase.getRelations().isEmpty())
+	                releaseGraph(placeholderBase);
+	        }
+	
+	        ONDEXGraph graphTarget = graphOutput == null ? graphInput : graphOutput;
+	        if (graphTarget instanceof OverlayONDEXGraph
+	        		&& (graphTarget == graphInput || ((OverlayONDEXGraph) graphTarget).getBase() == graphInput)) {
+	            // a copy-on-write fork just hides what isn't visible, no copying or deletion in the base
+	            fireEventOccurred(new GeneralOutputEvent(filter.getName() + " filter complete hiding non matching concepts in the overlay graph " + graphTarget.getName(), getCurrentMethodName()));
+	            ((OverlayONDEXGraph) graphTarget).retainOnly(conceptsVisible, relationsVisible);
+	        } else if (graphOutput != null && !graphInput.equals(graphOutput)) {
 	            fireEventOccurred(new GeneralOutputEvent(filter.getName() + " filter complete cloning returned concept from " + graphInput.getName() + " to " + graphOutput.getName(), getCurrentMethodName()));
 	            filter.copyResultsToNewGraph(graphOutput);
 	        } else { // delete all not found concepts in the graph
@@ -316,6 +390,7 @@ public class Engine {
 	                getCurrentMethodName()));
 	
 	        removeIndex(graphInput, lenv);
+	        debugGraphFootprint(graphOutput == null ? graphInput : graphOutput);
 	        return graphOutput;
     	}
       finally {
@@ -353,6 +428,7 @@ public class Engine {
 	
 	        fireEventOccurred(new GeneralOutputEvent(name + " took " + ((System.currentTimeMillis() - start) / 1000) + " seconds", getCurrentMethodName()));
 	        removeIndex(graphInput, lenv);
+	        debugGraphFootprint(graphInput);
 	        return graphInput;
         }
         finally {
@@ -403,6 +479,7 @@ public class Engine {
 	        fireEventOccurred(new GeneralOutputEvent("New Relations: " + relationsPost, getCurrentMethodName()));
 	        rit = null;
 	        removeIndex(graphInput, lenv);
+	        debugGraphFootprint(graphInput);
 	        
 	        return graphInput;
         }
@@ -444,6 +521,7 @@ public class Engine {
 	
 	        fireEventOccurred(new GeneralOutputEvent(parser.getName() + " took " + +((System.currentTimeMillis() - start) / 1000) + " seconds", getCurrentMethodName()));
 	        removeIndex(graphInput, lenv);
+	        debugGraphFootprint(graphInput);
 	        return graphInput;
         }
         finally {
@@ -458,6 +536,11 @@ public class Engine {
         long start = System.currentTimeMillis();
         fireEventOccurred(new GeneralOutputEvent("Index required by " + name + " starting index", getCurrentMethodName()));
         String dir = indexedGraphs.get(graph);
+        if (dir != null) {
+            // An in-heap index only lives in its LuceneEnv, its directory is empty
+            LuceneEnv lenv = LuceneRegistry.sid2luceneEnv.get(graph.getSID());
+            if (lenv != null && lenv.getDirectoryType() == DirectoryType.HEAP) return lenv;
+        }
         if (dir != null && new File(dir).exists()) {
             LuceneEnv lenv = new LuceneEnv(dir, false);
             lenv.addONDEXListener(logger);
@@ -520,6 +603,8 @@ public class Engine {
     public static void saveIndex(ONDEXGraph graph, String newDir) {
         if (newDir != null) {
             LuceneEnv lenv = new LuceneEnv(newDir, true);
+            // it's meant to be reused later, so it has to be on disk
+            if (lenv.getDirectoryType() == DirectoryType.HEAP) lenv.setDirectoryType(DirectoryType.FS);
             lenv.wrapIdxOperation ( () ->
             {
 	            lenv.addONDEXListener(engine.logger);
@@ -685,6 +770,51 @@ public class Engine {
                 .getRelationTypes();
         fireEventOccurred(new GeneralOutputEvent("\nRelationTypes: " + rtit.size(), getCurrentMethodName()));
         rtit = null;
+
+        if (graph instanceof AbstractONDEXGraph)
+            fireEventOccurred(new GeneralOutputEvent("\n" + ((AbstractONDEXGraph) graph).getFootprint(), getCurrentMethodName()));
+    }
+
+    /**
+     * Releases what {@link #getNewGraph(String, String, String)} and
+     * {@link #runFilter(ONDEXFilter, ONDEXPluginArguments, ONDEXGraph, ONDEXGraph)} set up for a graph, ie, its
+     * {@link GraphFootprintMonitor JMX footprint monitor}, its entry in the {@link ONDEXGraphRegistry} and its
+     * {@link ONDEXEventHandler#releaseEventHandlerForSID(long) event handler}. Call this when a graph isn't used
+     * anymore. The runFilter() method calls it for the output graph it replaces and for the
+     * base of the latter, if it's empty.
+     *
+     * @param graph the graph to release
+     */
+    public void releaseGraph(ONDEXGraph graph) {
+        ONDEXGraphRegistry.graphs.remove(graph.getSID());
+        ONDEXEventHandler.releaseEventHandlerForSID(graph.getSID());
+        if (graph instanceof AbstractONDEXGraph)
+            GraphFootprintMonitor.unregister((AbstractONDEXGraph) graph);
+    }
+
+    /**
+     * Reports the {@link #outputGraphFootprint(ONDEXGraph) graph footprint} after a workflow step, at the debug
+     * level. It's computed only if this class has that level enabled, since computing it requires to scan the graph.
+     */
+    private void debugGraphFootprint(ONDEXGraph graph) {
+        if (!(graph instanceof AbstractONDEXGraph) || !Logger.getLogger(Engine.class).isDebugEnabled()) return;
+        GraphFootprint footprint = ((AbstractONDEXGraph) graph).getFootprint();
+        GeneralOutputEvent event = new GeneralOutputEvent(footprint.getSummary(), getCurrentMethodName());
+        event.setLog4jLevel(Level.DEBUG);
+        fireEventOccurred(event);
+    }
+
+    /**
+     * Reports the estimated heap taken by the graph, on demand. This is a one-line summary, use
+     * {@link #outputCurrentGraphStatistics(ONDEXGraph)} for the details. The footprint is based on sampling and
+     * it's cheap enough to be computed for large graphs too, see {@link AbstractONDEXGraph#getFootprint(int)}.
+     *
+     * @param graph the graph to report about, it's ignored if it's not an {@link AbstractONDEXGraph}
+     */
+    public void outputGraphFootprint(ONDEXGraph graph) {
+        if (!(graph instanceof AbstractONDEXGraph)) return;
+        GraphFootprint footprint = ((AbstractONDEXGraph) graph).getFootprint();
+        fireEventOccurred(new GeneralOutputEvent(footprint.getSummary(), getCurrentMethodName()));
     }
 
     /**
@@ -13,6 +13,15 @@ public class GraphInit {
 
     public static final String BERKELEY = "berkeley";
     public static final String MEMORY = "memory";
+    /**
+     * {@link net.sourceforge.ondex.core.mmap.MappedONDEXGraph}, for graphs bigger than the heap.
+     */
+    public static final String MMAP = "mmap";
+    /**
+     * {@link net.sourceforge.ondex.tools.ondex.OverlayONDEXGraph}, for the output of filters. Such a graph starts
+     * empty and when a filter writes to it, it becomes a copy-on-write overlay of the filter's input graph.
+     */
+    public static final String OVERLAY = "overlay";
     public static final String SQL = "sql";
     public static final String SQL2 = "sql2";
     public static final String SQL3 = "sql3";
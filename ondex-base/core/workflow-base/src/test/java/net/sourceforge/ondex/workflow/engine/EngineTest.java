@@ -0,0 +1,180 @@
+package net.sourceforge.ondex.workflow.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import net.sourceforge.ondex.DummyFilter;
+import net.sourceforge.ondex.config.ONDEXGraphRegistry;
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.ONDEXRelation;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
+import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+import net.sourceforge.ondex.core.util.GraphFootprintMonitor;
+import net.sourceforge.ondex.tools.ondex.OverlayONDEXGraph;
+import net.sourceforge.ondex.workflow.model.GraphInit;
+
+/**
+ * Tests for {@link Engine}.
+ */
+public class EngineTest
+{
+    /**
+     * A filter that keeps the given entities.
+     */
+    private static class RetainFilter extends DummyFilter
+    {
+        private final Set<ONDEXConcept> concepts;
+        private final Set<ONDEXRelation> relations;
+
+        RetainFilter(Set<ONDEXConcept> concepts, Set<ONDEXRelation> relations)
+        {
+            this.concepts = concepts;
+            this.relations = relations;
+        }
+
+        @Override
+        public Set<ONDEXConcept> getVisibleConcepts()
+        {
+            return concepts;
+        }
+
+        @Override
+        public Set<ONDEXRelation> getVisibleRelations()
+        {
+            return relations;
+        }
+    }
+
+    @Test
+    public void testRunFilterOnOverlay() throws Exception
+    {
+        ONDEXGraph graph = new MemoryONDEXGraph("test");
+        DataSource ds = graph.getMetaData().getFactory().createDataSource("ds");
+        ConceptClass cc = graph.getMetaData().getFactory().createConceptClass("cc");
+        EvidenceType et = graph.getMetaData().getFactory().createEvidenceType("et");
+        RelationType rt = graph.getMetaData().getFactory().createRelationType("rt");
+
+        ONDEXConcept c1 = graph.getFactory().createConcept("c1", ds, cc, et);
+        ONDEXConcept c2 = graph.getFactory().createConcept("c2", ds, cc, et);
+        ONDEXConcept c3 = graph.getFactory().createConcept("c3", ds, cc, et);
+        ONDEXRelation r12 = graph.getFactory().createRelation(c1, c2, rt, et);
+        graph.getFactory().createRelation(c2, c3, rt, et);
+
+        ONDEXGraph placeholder = Engine.getNewGraph("filtered", GraphInit.OVERLAY, null);
+        assertTrue("getNewGraph() didn't return an overlay!", placeholder instanceof OverlayONDEXGraph);
+        MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+        ObjectName placeholderBean = GraphFootprintMonitor.getObjectName((AbstractONDEXGraph) placeholder);
+        assertTrue("The new graph isn't monitored!", mbeans.isRegistered(placeholderBean));
+
+        Engine engine = Engine.getEngine();
+        ONDEXGraph result = engine.runFilter(
+                new RetainFilter(Set.of(c1, c2), Set.of(r12)), null, graph, placeholder);
+
+        assertTrue("runFilter() didn't return an overlay!", result instanceof OverlayONDEXGraph);
+        assertSame("The overlay isn't based on the filter input!", graph, ((OverlayONDEXGraph) result).getBase());
+        assertEquals("Wrong overlay name!", "filtered", result.getName());
+        assertFalse("The replaced graph is still monitored!", mbeans.isRegistered(placeholderBean));
+        assertFalse("The replaced graph is still registered!", ONDEXGraphRegistry.graphs.containsKey(placeholder.getSID()));
+        assertFalse("The base of the replaced graph is still registered!",
+                ONDEXGraphRegistry.graphs.containsKey(((OverlayONDEXGraph) placeholder).getBase().getSID()));
+        assertTrue("The overlay isn't monitored!",
+                mbeans.isRegistered(GraphFootprintMonitor.getObjectName((AbstractONDEXGraph) result)));
+
+        assertEquals("Wrong no. of filtered concepts!", 2, result.getConcepts().size());
+        assertNotNull("c1 not in the filter result!", result.getConcept(c1.getId()));
+        assertNull("c3 in the filter result!", result.getConcept(c3.getId()));
+        assertEquals("Wrong no. of filtered relations!", 1, result.getRelations().size());
+        assertSame("Wrong filtered relation!", r12, result.getRelations().iterator().next());
+
+        assertEquals("The filter input was changed!", 3, graph.getConcepts().size());
+        assertEquals("The filter input was changed!", 2, graph.getRelations().size());
+
+        // Filtering the overlay in place hides more, without any rebinding
+        ONDEXGraph result1 = engine.runFilter(
+                new RetainFilter(Set.of(c1), Set.<ONDEXRelation>of()), null, result, result);
+
+        assertSame("The overlay was replaced!", result, result1);
+        assertEquals("Wrong no. of concepts after the 2nd filter!", 1, result1.getConcepts().size());
+        assertEquals("Wrong no. of relations after the 2nd filter!", 0, result1.getRelations().size());
+        assertEquals("The filter input was changed!", 3, graph.getConcepts().size());
+    }
+
+    /**
+     * c1 tagged with c3 and r12 tagged with c3, plus c2 tagged with c1.
+     */
+    private static ONDEXGraph createTaggedGraph()
+    {
+        ONDEXGraph graph = new MemoryONDEXGraph("test");
+        DataSource ds = graph.getMetaData().getFactory().createDataSource("ds");
+        ConceptClass cc = graph.getMetaData().getFactory().createConceptClass("cc");
+        EvidenceType et = graph.getMetaData().getFactory().createEvidenceType("et");
+        RelationType rt = graph.getMetaData().getFactory().createRelationType("rt");
+
+        ONDEXConcept c1 = graph.getFactory().createConcept("c1", ds, cc, et);
+        ONDEXConcept c2 = graph.getFactory().createConcept("c2", ds, cc, et);
+        ONDEXConcept c3 = graph.getFactory().createConcept("c3", ds, cc, et);
+        ONDEXRelation r12 = graph.getFactory().createRelation(c1, c2, rt, et);
+        c1.addTag(c3);
+        c2.addTag(c1);
+        r12.addTag(c3);
+        return graph;
+    }
+
+    /**
+     * The filter removes a concept used as tag, the overlay must show the same tags as filtering in place.
+     */
+    @Test
+    public void testRunFilterRemovesTags() throws Exception
+    {
+        ONDEXGraph graph = createTaggedGraph();
+        ONDEXConcept c1 = graph.getConcept(1), c2 = graph.getConcept(2), c3 = graph.getConcept(3);
+        ONDEXRelation r12 = graph.getRelationsOfConcept(c1).iterator().next();
+        assertEquals("Test graph not as expected!", Set.of(c3), c1.getTags());
+
+        Engine engine = Engine.getEngine();
+        ONDEXGraph overlay = engine.runFilter(
+                new RetainFilter(Set.of(c1, c2), Set.of(r12)), null, graph,
+                Engine.getNewGraph("filtered", GraphInit.OVERLAY, null));
+
+        assertTrue("Removed tag still on a concept!", overlay.getConcept(c1.getId()).getTags().isEmpty());
+        assertTrue("Removed tag still on a relation!", overlay.getRelation(r12.getId()).getTags().isEmpty());
+        assertTrue("Removed tag still on the relation's concept!",
+                overlay.getRelation(r12.getId()).getFromConcept().getTags().isEmpty());
+        for (ONDEXConcept c : overlay.getConcepts())
+            assertFalse("Removed tag still in the concepts!", c.getTags().contains(c3));
+        assertEquals("Wrong tags in the overlay!", Set.of(c1), overlay.getAllTags());
+        assertTrue("Tag lookup returns entities for a removed tag!", overlay.getConceptsOfTag(c3).isEmpty());
+        assertEquals("Wrong concepts by tag!", Set.of(c2), overlay.getConceptsOfTag(c1));
+        assertEquals("Tagged concept isn't equal to the base one!", c1, overlay.getConcept(c1.getId()));
+        assertEquals("The filter input was changed!", Set.of(c3), c1.getTags());
+
+        // Filtering a copy of the input in place must give the same tags
+        ONDEXGraph graph1 = createTaggedGraph();
+        engine.runFilter(new RetainFilter(
+                Set.of(graph1.getConcept(c1.getId()), graph1.getConcept(c2.getId())),
+                Set.of(graph1.getRelation(r12.getId()))), null, graph1, graph1);
+
+        assertEquals("In-place filter gives different tags!", graph1.getAllTags(), overlay.getAllTags());
+        assertEquals("In-place filter gives different concept tags!",
+                graph1.getConcept(c1.getId()).getTags(), overlay.getConcept(c1.getId()).getTags());
+        assertEquals("In-place filter gives different relation tags!",
+                graph1.getRelation(r12.getId()).getTags(), overlay.getRelation(r12.getId()).getTags());
+    }
+}
@@ -0,0 +1,135 @@
+package net.sourceforge.ondex.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.ondex.core.ConceptClass;
+import net.sourceforge.ondex.core.DataSource;
+import net.sourceforge.ondex.core.EvidenceType;
+import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXGraph;
+import net.sourceforge.ondex.core.RelationType;
+import net.sourceforge.ondex.core.memory.ConcurrentMemoryONDEXGraph;
+import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+
+/**
+ * Tests {@link CachedGraphWrapper}, including its use by multiple threads.
+ *
+ * @author brandizi
+ * <dl><dt>Date:</dt><dd>17 Oct 2026</dd></dl>
+ *
+ */
+public class CachedGraphWrapperTest
+{
+	private Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	@Test
+	public void testBasics ()
+	{
+		ONDEXGraph graph = new MemoryONDEXGraph ( "test" );
+		CachedGraphWrapper gw = CachedGraphWrapper.getInstance ( graph );
+		assertSame ( "Wrapper not cached!", gw, CachedGraphWrapper.getInstance ( graph ) );
+		assertNotSame (
+			"Wrapper shared by different graphs!", gw, CachedGraphWrapper.getInstance ( new MemoryONDEXGraph ( "test" ) )
+		);
+
+		ConceptClass cc = gw.getConceptClass ( "cc", "CC", "", null );
+		DataSource ds = gw.getDataSource ( "ds", "DS", "" );
+		EvidenceType ev = gw.getEvidenceType ( "ev", "EV", "" );
+		RelationType rt = gw.getRelationType ( "rt", false, false, false, false );
+
+		ONDEXConcept a = gw.getConcept ( "A", "", "", ds, cc, ev );
+		ONDEXConcept b = gw.getConcept ( "B", "", "", ds, cc, ev );
+		assertSame ( "Concept class not cached!", cc, gw.getConceptClass ( "cc", "Other CC", "", null ) );
+		assertSame ( "Concept not cached!", a, gw.getConcept ( "A", "Foo", "", ds, cc, ev ) );
+		assertSame ( "Concept not found by id!", a, gw.getConcept ( "A" ) );
+		assertNull ( "Unknown concept found!", gw.getConcept ( "Z" ) );
+		assertSame ( "Relation not cached!", gw.getRelation ( a, b, rt, ev ), gw.getRelation ( a, b, rt, ev ) );
+		assertEquals ( "Wrong no. of concepts!", 2, graph.getConcepts ().size () );
+
+		graph.deleteConcept ( a.getId () );
+		assertNull ( "Deleted concept returned!", gw.getConcept ( "A" ) );
+		ONDEXConcept newA = gw.getConcept ( "A", "", "", ds, cc, ev );
+		assertNotSame ( "Deleted concept not re-created!", a, newA );
+		assertSame ( "Re-created concept not cached!", newA, gw.getConcept ( "A" ) );
+	}
+
+	@Test
+	public void testConcurrentLoading () throws Exception
+	{
+		ONDEXGraph graph = new ConcurrentMemoryONDEXGraph ( "test" );
+		int nthreads = 8, nconcepts = 2000;
+		load ( graph, nthreads, nconcepts, 2 );
+
+		assertEquals ( "Wrong no. of concept classes!", 10, graph.getMetaData ().getConceptClasses ().size () );
+		assertEquals ( "Wrong no. of concepts!", nconcepts, graph.getConcepts ().size () );
+		assertEquals ( "Wrong no. of relations!", nconcepts - 1, graph.getRelations ().size () );
+	}
+
+	/**
+	 * Reports how the loading throughput changes with the no. of threads, which share the work.
+	 */
+	@Test
+	@Ignore ( "Not a real unit test, time consuming" )
+	public void testConcurrentLoadingBenchmark () throws Exception
+	{
+		int nconcepts = 500_000;
+		for ( int nthreads: new int[] { 1, 2, 4, 8 } )
+		{
+			ONDEXGraph graph = new ConcurrentMemoryONDEXGraph ( "test" );
+			long start = System.nanoTime ();
+			load ( graph, nthreads, nconcepts, 1 );
+			long time = System.nanoTime () - start;
+			log.info ( "Threads: {}, concepts + relations/s: {}", nthreads, 2L * nconcepts * 1_000_000_000L / time );
+		}
+	}
+
+	/**
+	 * Creates a chain of concepts, each thread creating a slice of it. With overlap &gt; 1, the slices overlap, so that
+	 * the threads compete for the same keys.
+	 */
+	private void load ( ONDEXGraph graph, int nthreads, int nconcepts, int overlap ) throws Exception
+	{
+		CachedGraphWrapper gw = CachedGraphWrapper.getInstance ( graph );
+		ExecutorService executor = Executors.newFixedThreadPool ( nthreads );
+		List<Future<?>> results = new ArrayList<> ();
+		for ( int t = 0; t < nthreads; t++ )
+		{
+			int offset = t * nconcepts / nthreads;
+			int sliceSize = Math.min ( nconcepts, ( ( t + 1 ) * nconcepts / nthreads - offset ) * overlap );
+			results.add ( executor.submit ( () ->
+			{
+				DataSource ds = gw.getDataSource ( "ds", "DS", "" );
+				EvidenceType ev = gw.getEvidenceType ( "ev", "EV", "" );
+				RelationType rt = gw.getRelationType ( "rt", false, false, false, false );
+				for ( int j = 0; j < sliceSize; j++ )
+				{
+					int i = ( j + offset ) % nconcepts;
+					ConceptClass cc = gw.getConceptClass ( "cc" + i % 10, "CC", "", null );
+					ONDEXConcept c = gw.getConcept ( "c" + i, "", "", ds, cc, ev );
+					if ( i == 0 ) continue;
+					ConceptClass prevCC = gw.getConceptClass ( "cc" + ( i - 1 ) % 10, "CC", "", null );
+					ONDEXConcept prev = gw.getConcept ( "c" + ( i - 1 ), "", "", ds, prevCC, ev );
+					gw.getRelation ( prev, c, rt, ev );
+				}
+			}));
+		}
+		executor.shutdown ();
+		executor.awaitTermination ( 10, TimeUnit.MINUTES );
+		for ( Future<?> f: results ) f.get ();
+	}
+}
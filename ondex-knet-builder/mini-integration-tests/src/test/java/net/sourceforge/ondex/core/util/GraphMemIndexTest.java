@@ -2,7 +2,11 @@ package net.sourceforge.ondex.core.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.junit.Before;
@@ -19,6 +23,7 @@ import net.sourceforge.ondex.core.ONDEXGraph;
 import net.sourceforge.ondex.core.ONDEXRelation;
 import net.sourceforge.ondex.core.RelationType;
 import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+import net.sourceforge.ondex.core.util.GraphMemIndex.IndexField;
 
 /**
  *
@@ -87,4 +92,54 @@ public class GraphMemIndexTest
 		assertEquals ( "Fetched concept has an unexpected IRI!", probedIri, fetchedRel.getAttribute ( iriAttr ).getValue () );		
 	}
 
+	@Test
+	public void testIncrementalUpdates ()
+	{
+		ConceptClass cc = conceptA.getOfType ();
+		DataSource ds = conceptA.getElementOf ();
+		EvidenceType ev = conceptA.getEvidence ().iterator ().next ();
+
+		ONDEXConcept conceptC = graph.getFactory ().createConcept ( "C", ds, cc, ev );
+		conceptC.createAttribute ( iriAttr, NS + "C", true );
+		assertEquals ( "New concept not indexed!", conceptC, memIdx.get ( "iri", NS + "C" ) );
+
+		conceptA.getAttribute ( iriAttr ).setValue ( NS + "A1" );
+		assertNull ( "Old IRI still indexed!", memIdx.get ( "iri", NS + "A" ) );
+		assertEquals ( "Changed IRI not indexed!", conceptA, memIdx.get ( "iri", NS + "A1" ) );
+
+		graph.deleteConcept ( conceptB.getId () );
+		assertNull ( "Deleted concept still indexed!", memIdx.get ( "iri", NS + "B" ) );
+		assertNull (
+			"Relation of deleted concept still indexed!",
+			memIdx.get ( "iri", NS + conceptA.getPID () + "_" + conceptB.getPID () )
+		);
+	}
+
+	@Test
+	public void testAccessionsAndNames ()
+	{
+		ConceptClass cc = conceptA.getOfType ();
+		DataSource ds = conceptA.getElementOf ();
+		EvidenceType ev = conceptA.getEvidence ().iterator ().next ();
+
+		conceptA.createConceptAccession ( "ACC1", ds, false );
+		conceptA.createConceptName ( "Gene A", true );
+		conceptB.createConceptAccession ( "ACC1", ds, true );
+
+		GraphMemIndex idx = new GraphMemIndex (
+			graph, List.of ( IndexField.IRI, IndexField.ACCESSIONS, IndexField.NAMES )
+		);
+		assertEquals ( "Concept not found by IRI!", conceptA, idx.get ( "iri", NS + "A" ) );
+		assertEquals ( "Concept not found by name!", conceptA, idx.get ( "name", "Gene A" ) );
+		assertEquals ( "Wrong concepts for a shared accession!", Set.of ( conceptA, conceptB ), 
+			new HashSet<> ( idx.getAll ( "accession", "ACC1" ) ) 
+		);
+
+		ONDEXConcept conceptC = graph.getFactory ().createConcept ( "C", ds, cc, ev );
+		conceptC.createConceptName ( "Gene A", false );
+		conceptA.deleteConceptName ( "Gene A" );
+		assertEquals ( "Name changes not followed!", List.of ( conceptC ), idx.getAll ( "name", "Gene A" ) );
+		assertNull ( "Unknown field returns something!", idx.get ( "foo", "Gene A" ) );
+	}
+
 }
@@ -90,18 +90,26 @@ public class Export extends ONDEXExport {
 			relations = graph.getRelations ();
 		}
 
-		// The ondex graph, only its topology
-		JSONObject allGraphDataJson = getJsonMetadata ();
+		// Both the views below use the same concept labels, so we cache them
+		boolean isLabelsCacheOwner = graph != null && GraphLabelsUtils.enableLabelsCacheIfAbsent ( graph );
 		JSONObject allDataJson = new JSONObject ();
-		allDataJson.put ( JSONAttributeNames.ONDEXMETADATA, allGraphDataJson );
-
-		/**
-		 * The graph as needed by CytoscapeJS (see class description above)
-		 * This includes topology and rendering info
-		 */
 		JSONObject graphJson = new JSONObject ();
-		getNodesJsonData ( graphJson, conceptNodesJson, relations );
-		getEdgesJsonData ( graphJson, relationEdgesJson ); // relations exported as edges
+		try
+		{
+			// The ondex graph, only its topology
+			JSONObject allGraphDataJson = getJsonMetadata ();
+			allDataJson.put ( JSONAttributeNames.ONDEXMETADATA, allGraphDataJson );
+
+			/**
+			 * The graph as needed by CytoscapeJS (see class description above)
+			 * This includes topology and rendering info
+			 */
+			getNodesJsonData ( graphJson, conceptNodesJson, relations );
+			getEdgesJsonData ( graphJson, relationEdgesJson ); // relations exported as edges
+		}
+		finally {
+			if ( isLabelsCacheOwner ) GraphLabelsUtils.clearLabelsCache ( graph );
+		}
 
 		
 		// OK, let's start write everything
@@ -3,6 +3,7 @@ package net.sourceforge.ondex.filter.attributevalue;
 import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.DoublePredicate;
 
 import net.sourceforge.ondex.InvalidPluginArgumentException;
 import net.sourceforge.ondex.annotations.Authors;
@@ -11,9 +12,11 @@ import net.sourceforge.ondex.args.ArgumentDefinition;
 import net.sourceforge.ondex.args.BooleanArgumentDefinition;
 import net.sourceforge.ondex.args.StringArgumentDefinition;
 import net.sourceforge.ondex.core.Attribute;
+import net.sourceforge.ondex.core.AttributeColumn;
 import net.sourceforge.ondex.core.AttributeName;
 import net.sourceforge.ondex.core.ConceptClass;
 import net.sourceforge.ondex.core.ONDEXConcept;
+import net.sourceforge.ondex.core.ONDEXEntity;
 import net.sourceforge.ondex.core.ONDEXGraph;
 import net.sourceforge.ondex.core.ONDEXRelation;
 import net.sourceforge.ondex.core.RelationType;
@@ -312,28 +315,46 @@ public class Filter extends ONDEXFilter implements ArgumentNames {
         // get desired behaviour
         boolean including = (Boolean) args.getUniqueValue(INCLUDING_ARG);
 
-        // remove none matching concepts or relations
-        for (ONDEXConcept c: itc) {
-            Attribute attribute = c.getAttribute(an);
-            if (including == !isValidValue(valSet, attribute.getValue(), operator, modulus)) {
-                // including and not a valid value remove or not including and a
-                // valid value remove
-                removeConcepts.set(c.getId());
-                for (ONDEXRelation relation : graph.getRelationsOfConcept(c)) {
+        // numeric attributes stored in columns are checked with one scan of
+        // the values, without going through the attribute objects
+        AttributeColumn conceptColumn = graph.getConceptAttributeColumn(an);
+        if (conceptColumn != null) {
+            BitSet toRemove = columnMismatches(conceptColumn, itc, valSet, operator, including);
+            for (int id = toRemove.nextSetBit(0); id >= 0; id = toRemove.nextSetBit(id + 1)) {
+                removeConcepts.set(id);
+                for (ONDEXRelation relation : graph.getRelationsOfConcept(graph.getConcept(id))) {
                     removeRelations.set(relation.getId());
                 }
             }
+        } else {
+            // remove none matching concepts or relations
+            for (ONDEXConcept c: itc) {
+                Attribute attribute = c.getAttribute(an);
+                if (including == !isValidValue(valSet, attribute.getValue(), operator, modulus)) {
+                    // including and not a valid value remove or not including and a
+                    // valid value remove
+                    removeConcepts.set(c.getId());
+                    for (ONDEXRelation relation : graph.getRelationsOfConcept(c)) {
+                        removeRelations.set(relation.getId());
+                    }
+                }
+            }
         }
 
         // check relations for Attribute
         Set<ONDEXRelation> itr = graph.getRelationsOfAttributeName(an);
         itr = BitSetFunctions.and(relations, itr);
-        for (ONDEXRelation r : itr) {
-            Attribute attribute = r.getAttribute(an);
-            if (including == !isValidValue(valSet, attribute.getValue(), operator, modulus)) {
-                // including and not a valid value remove or not including and a
-                // valid value remove
-                removeRelations.set(r.getId());
+        AttributeColumn relationColumn = graph.getRelationAttributeColumn(an);
+        if (relationColumn != null) {
+            removeRelations.or(columnMismatches(relationColumn, itr, valSet, operator, including));
+        } else {
+            for (ONDEXRelation r : itr) {
+                Attribute attribute = r.getAttribute(an);
+                if (including == !isValidValue(valSet, attribute.getValue(), operator, modulus)) {
+                    // including and not a valid value remove or not including and a
+                    // valid value remove
+                    removeRelations.set(r.getId());
+                }
             }
         }
 
@@ -392,6 +413,71 @@ public class Filter extends ONDEXFilter implements ArgumentNames {
         throw new RuntimeException("Unhandled operator :" + operator);
     }
 
+    /**
+     * Like the loops over the entities in {@link #start()}, but based on a
+     * {@link AttributeColumn#scan(DoublePredicate) scan} of the attribute
+     * column.
+     *
+     * @param column     the attribute values
+     * @param candidates the entities to check, all having the attribute
+     * @return the ids of the entities to remove
+     */
+    private BitSet columnMismatches(AttributeColumn column, Set<? extends ONDEXEntity> candidates,
+                                    HashSet<Object> valSet, Operator operator, boolean including) {
+        BitSet result = new BitSet();
+        for (ONDEXEntity e : candidates) {
+            result.set(e.getId());
+        }
+
+        BitSet valid = column.scan(toPredicate(valSet, operator));
+        if (including) {
+            result.andNot(valid);
+        } else {
+            result.and(valid);
+        }
+        return result;
+    }
+
+    /**
+     * The same as {@link #isValidValue(HashSet, Object, Operator, boolean)}
+     * for the numeric values, ie, values compared in absolute value, equality
+     * as in {@link Double#equals(Object)}, greater/less than at least one
+     * number in valSet.
+     */
+    private DoublePredicate toPredicate(HashSet<Object> valSet, Operator operator) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Object val : valSet) {
+            if (val instanceof Number) {
+                double num = ((Number) val).doubleValue();
+                // NaN is never greater or less than anything
+                if (Double.isNaN(num))
+                    continue;
+                min = Math.min(min, num);
+                max = Math.max(max, num);
+            }
+        }
+        final double minVal = min, maxVal = max;
+
+        DoublePredicate equ = v -> valSet.contains(Math.abs(v));
+        DoublePredicate greater = v -> Math.abs(v) > minVal;
+        DoublePredicate less = v -> Math.abs(v) < maxVal;
+
+        switch (operator) {
+            case EQU:
+                return equ;
+            case GREATER_EQU:
+                return equ.or(greater);
+            case LESS_EQU:
+                return equ.or(less);
+            case GREATER:
+                return greater;
+            case LESS:
+                return less;
+        }
+        throw new RuntimeException("Unhandled operator :" + operator);
+    }
+
     /**
      * returns true if value is greater than a value in valSet (and both are
      * Number Objects)
@@ -34,6 +34,7 @@ import net.sourceforge.ondex.args.ArgumentDefinition;
 import net.sourceforge.ondex.args.FileArgumentDefinition;
 import net.sourceforge.ondex.args.StringArgumentDefinition;
 import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.BulkLoadSession;
 import net.sourceforge.ondex.core.ONDEXGraph;
 import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
 import net.sourceforge.ondex.event.type.AttributeNameMissingEvent;
@@ -374,9 +375,17 @@ public class Parser extends ONDEXParser {
 			parser.registerParser("relation", rp);
 			rp.setIgnoreAttributes(ignoreGDSAttributeGDS);
 
-			parser.parse(xmlr);
+			// The secondary indexes are built in one go at the end, see ONDEXGraph.beginBulkLoad()
+			BulkLoadSession bulk = graph.beginBulkLoad ();
+			try
+			{
+				parser.parse(xmlr);
 
-			ConceptParser.syncContext(graph, table, context);
+				ConceptParser.syncContext(graph, table, context);
+			}
+			finally {
+				bulk.close ();
+			}
 
 			// catch exceptions and throw them upwards
 			if (cp.errorMessages.size() > 0) {
@@ -12,7 +12,9 @@ import net.sourceforge.ondex.ONDEXPluginArguments;
 import net.sourceforge.ondex.args.FileArgumentDefinition;
 import net.sourceforge.ondex.core.ONDEXGraph;
 import net.sourceforge.ondex.core.base.AbstractAttribute;
+import net.sourceforge.ondex.core.base.AbstractONDEXGraph;
 import net.sourceforge.ondex.core.memory.MemoryONDEXGraph;
+import net.sourceforge.ondex.core.util.StringPool;
 
 /**
  * MB (2020): was a weird test on the number of threads before and after the run of
@@ -57,10 +59,40 @@ public class MoreCasesOXLParserTest
 		out.println ( "Concepts: " + graph.getConcepts ().size () );
 	}
 	
+	/**
+	 * Reports the heap saved by {@link AbstractONDEXGraph#setStringPool(StringPool) string pooling} when loading an
+	 * OXL. Use {@code -DstringPoolTest.oxl=file:///...} to test a real-size file.
+	 */
+	@Test @Ignore ( "Not a real unit test, time consuming" )
+	public void testStringPoolSaving () throws Exception
+	{
+		String resource = System.getProperty ( "stringPoolTest.oxl", "Poplar_DEBUG_Feb2010.xml.gz" );
+
+		long base = usedHeap ();
+		ONDEXGraph graph = parseHelper ( resource );
+		long plainHeap = usedHeap () - base;
+		int nconcepts = graph.getConcepts ().size ();
+		graph = null;
+
+		base = usedHeap ();
+		MemoryONDEXGraph pooledGraph = new MemoryONDEXGraph ( "UnitTestGraph" );
+		pooledGraph.setStringPool ( new StringPool () );
+		parseHelper ( resource, pooledGraph );
+		long pooledHeap = usedHeap () - base;
+
+		log.info ( String.format (
+			"%d concepts, heap without string pool: %d MB, with: %d MB (%d distinct pooled strings)",
+			nconcepts, plainHeap >> 20, pooledHeap >> 20, pooledGraph.getStringPool ().size ()
+		));
+	}
+
 	private ONDEXGraph parseHelper ( String resource ) throws Exception
 	{
-		ONDEXGraph graph = new MemoryONDEXGraph ( "UnitTestGraph" );
-	
+		return parseHelper ( resource, new MemoryONDEXGraph ( "UnitTestGraph" ) );
+	}
+
+	private ONDEXGraph parseHelper ( String resource, ONDEXGraph graph ) throws Exception
+	{
 		String fileForResource = getResourcePath ( resource );
 	
 		Parser oxl = new Parser ();
@@ -74,6 +106,13 @@ public class MoreCasesOXLParserTest
 	}
 
 
+	private static long usedHeap ()
+	{
+		Runtime rt = Runtime.getRuntime ();
+		for ( int i = 0; i < 3; i++ ) rt.gc ();
+		return rt.totalMemory () - rt.freeMemory ();
+	}
+
 	private String getResourcePath ( String resPath )
 	{
 		if ( resPath.startsWith ( "file://" ) )
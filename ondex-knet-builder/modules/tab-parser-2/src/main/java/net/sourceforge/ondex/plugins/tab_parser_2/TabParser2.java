@@ -13,6 +13,7 @@ import net.sourceforge.ondex.annotations.StatusType;
 import net.sourceforge.ondex.args.ArgumentDefinition;
 import net.sourceforge.ondex.args.FileArgumentDefinition;
 import net.sourceforge.ondex.args.StringArgumentDefinition;
+import net.sourceforge.ondex.core.BulkLoadSession;
 import net.sourceforge.ondex.parser.ONDEXParser;
 import net.sourceforge.ondex.plugins.tab_parser_2.config.ConfigParser;
 import net.sourceforge.ondex.tools.subgraph.Subgraph;
@@ -89,7 +90,15 @@ public class TabParser2 extends ONDEXParser
     	// Consider them if non null and non default
     	tabParser.setProcessingOptions ( mergeFlags );
     
-    Subgraph newGraph = tabParser.parse ();
+    // The graph indexes are built at the end, see ONDEXGraph.beginBulkLoad()
+    Subgraph newGraph;
+    BulkLoadSession bulk = graph.beginBulkLoad ();
+    try {
+    	newGraph = tabParser.parse ();
+    }
+    finally {
+    	bulk.close ();
+    }
     int nconcepts = Optional.ofNullable ( newGraph.getConcepts () ).map ( Set::size ).orElse ( 0 );
     int nrelations = Optional.ofNullable ( newGraph.getRelations () ).map ( Set::size ).orElse ( 0 );
 	
@@ -15,6 +15,7 @@ import net.sourceforge.ondex.args.FloatRangeArgumentDefinition;
 import net.sourceforge.ondex.args.IntegerRangeArgumentDefinition;
 import net.sourceforge.ondex.args.StringArgumentDefinition;
 import net.sourceforge.ondex.core.AttributeName;
+import net.sourceforge.ondex.core.BulkLoadSession;
 import net.sourceforge.ondex.core.ConceptClass;
 import net.sourceforge.ondex.core.DataSource;
 import net.sourceforge.ondex.core.EvidenceType;
@@ -271,6 +272,8 @@ public class Parser extends ONDEXParser implements ArgumentNames,
 		// keep track of already created concepts
 		Map<String, ONDEXConcept> concepts = new Hashtable<String, ONDEXConcept>();
 
+		// the graph indexes are built at the end, see ONDEXGraph.beginBulkLoad()
+		BulkLoadSession bulk = graph.beginBulkLoad();
 		try {
 			// open file
 			BufferedReader reader = new BufferedReader(new FileReader(file));
@@ -375,6 +378,8 @@ public class Parser extends ONDEXParser implements ArgumentNames,
 		} catch (IOException ioe) {
 			fireEventOccurred(new DataFileErrorEvent(ioe.getMessage(),
 					"[Parser - start]"));
+		} finally {
+			bulk.close();
 		}
 
 	}